@@ -3,15 +3,18 @@ package com.pamu;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main entry point for the Employee Application.
  * This class is developed to bootstrap the Spring Boot application and enable caching for performance optimization.
  * The @EnableCaching annotation activates Spring's annotation-driven cache management capability.
+ * The @EnableScheduling annotation runs the scheduled batch jobs, such as the nightly gratuity computation.
  * The main method launches the application using Spring Boot's auto-configuration and component scanning.
  */
 @SpringBootApplication
 @EnableCaching
+@EnableScheduling
 public class EmployeeAppApplication {
 
     /**
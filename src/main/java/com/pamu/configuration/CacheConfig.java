@@ -1,6 +1,7 @@
 package com.pamu.configuration;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pamu.repository.EmployeeRepository;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
@@ -11,18 +12,37 @@ import java.util.concurrent.TimeUnit;
 @Configuration
 public class CacheConfig {
 
+    static final long EXPIRE_AFTER_WRITE_MINUTES = 10;
+    // Reads after this age still get the cached list while a reload runs in the background
+    static final long REFRESH_AFTER_WRITE_MINUTES = 8;
+
     @Bean
     public Caffeine<Object, Object> caffeineConfig() {
         return Caffeine.newBuilder()
-                .expireAfterWrite(10, TimeUnit.MINUTES)
+                .expireAfterWrite(EXPIRE_AFTER_WRITE_MINUTES, TimeUnit.MINUTES)
                 .maximumSize(1000);
     }
 
+    /**
+     * Builds the cache manager with asynchronous Caffeine caches.
+     * Combined with {@code @Cacheable(sync = true)}, concurrent misses on a key wait for the one load in flight instead
+     * of each querying the database. The list of all employees is also reloaded ahead of its expiry, so its readers
+     * never wait for it once it has been loaded.
+     * @param caffeine Settings of the caches
+     * @param employeeRepository Source of the list of all employees
+     * @return The cache manager
+     */
     @Bean
-    public CacheManager cacheManager(Caffeine<Object, Object> caffeine) {
+    public CacheManager cacheManager(Caffeine<Object, Object> caffeine, EmployeeRepository employeeRepository) {
         CaffeineCacheManager manager = new CaffeineCacheManager("allEmployees", "pagedEmployees");
         manager.setCaffeine(caffeine);
+        manager.setAsyncCacheMode(true);
+        // The only key is that of the method without arguments
+        manager.registerCustomCache("allEmployees", Caffeine.newBuilder()
+                .expireAfterWrite(EXPIRE_AFTER_WRITE_MINUTES, TimeUnit.MINUTES)
+                .refreshAfterWrite(REFRESH_AFTER_WRITE_MINUTES, TimeUnit.MINUTES)
+                .maximumSize(1)
+                .buildAsync(key -> employeeRepository.findAll()));
         return manager;
     }
 }
-
@@ -1,13 +1,18 @@
 package com.pamu.controller;
 
+import com.pamu.exception.TooManyRequestsException;
 import com.pamu.model.UserLoginRequest;
 import com.pamu.security.JwtTokenProvider;
 import com.pamu.model.User;
 import com.pamu.repository.UserRepository;
+import com.pamu.security.LoginRateLimiter;
+import com.pamu.service.CredentialVersionService;
+import com.pamu.service.PasswordVerificationService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Optional;
@@ -19,21 +24,36 @@ public class AuthController {
 
     @Autowired JwtTokenProvider jwtTokenProvider;
     @Autowired UserRepository userRepository;
-    @Autowired BCryptPasswordEncoder passwordEncoder;
+    @Autowired PasswordVerificationService passwordVerificationService;
+    @Autowired LoginRateLimiter loginRateLimiter;
+    @Autowired CredentialVersionService credentialVersionService;
 
     /**
      * Authenticates the user and generates a JWT token if credentials are valid.
      * This method is developed to provide secure login and token-based authentication for the application.
+     * Attempts are admitted through per-IP and per-username token buckets before the password hash is checked,
+     * and the hash itself runs on a bounded verification pool.
      * @param loginRequest The login request containing username and password
-     * @return ResponseEntity with JWT token in the header if successful, or 401 status if authentication fails
+     * @param request The HTTP request, used to identify the client address
+     * @return ResponseEntity with JWT token in the header if successful, 401 status if authentication fails,
+     *         or 429 status with Retry-After if the attempt is throttled
      */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody UserLoginRequest loginRequest) {
+    public ResponseEntity<?> login(@RequestBody UserLoginRequest loginRequest, HttpServletRequest request) {
+        long retryAfterSeconds = loginRateLimiter.tryAcquire(loginRequest.getUsername(), request.getRemoteAddr());
+        if (retryAfterSeconds > 0) {
+            return tooManyRequests(retryAfterSeconds);
+        }
         Optional<User> user = userRepository.findByUsername(loginRequest.getUsername());
-        if (user.isPresent() && passwordEncoder.matches(loginRequest.getPassword(), user.get().getPassword())) {
-            String token = jwtTokenProvider.generateToken(user.get());
-            return ResponseEntity.ok().header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
-                    .body(java.util.Collections.singletonMap("token", token));
+        try {
+            if (user.isPresent() && passwordVerificationService.matches(loginRequest.getPassword(), user.get().getPassword())) {
+                credentialVersionService.remember(user.get());
+                String token = jwtTokenProvider.generateToken(user.get());
+                return ResponseEntity.ok().header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .body(java.util.Collections.singletonMap("token", token));
+            }
+        } catch (TooManyRequestsException e) {
+            return tooManyRequests(e.getRetryAfterSeconds());
         }
         return ResponseEntity.status(401).body("Invalid username or password.");
     }
@@ -49,4 +69,10 @@ public class AuthController {
         jwtTokenProvider.invalidateToken(token);
         return ResponseEntity.ok("User logged out successfully.");
     }
+
+    private ResponseEntity<String> tooManyRequests(long retryAfterSeconds) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body("Too many login attempts. Please retry later.");
+    }
 }
@@ -1,22 +1,49 @@
 package com.pamu.controller;
 
+import com.pamu.dto.BulkUpdateResult;
 import com.pamu.dto.EmployeeDTO;
+import com.pamu.dto.EmployeeFilterResult;
+import com.pamu.dto.EmployeeRequest;
+import com.pamu.dto.EmployeeSearchHit;
+import com.pamu.dto.GratuityLiabilityTotal;
+import com.pamu.dto.GroupAggregate;
+import com.pamu.dto.ImportSummary;
+import com.pamu.dto.SalaryInversion;
+import com.pamu.dto.TopEarners;
+import com.pamu.exception.InvalidEmployeeDataException;
+import com.pamu.model.ExportArtifact;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import com.pamu.service.EmployeeAggregationService;
+import com.pamu.service.EmployeeBulkUpdateService;
+import com.pamu.service.EmployeeFilterService;
+import com.pamu.service.EmployeeRankingService;
+import com.pamu.service.EmployeeReportStore;
+import com.pamu.service.EmployeeSalaryAuditService;
 import com.pamu.service.EmployeeService;
+import com.pamu.service.GratuityLiabilityJob;
+import com.pamu.service.ImportErrorReports;
+import com.pamu.service.PartitionedExportService;
+import jakarta.servlet.http.HttpServletRequest;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Arrays;
 import java.util.List;
 
 @CrossOrigin(origins = "*")
@@ -27,24 +54,122 @@ public class EmployeeController {
     @Autowired
     private EmployeeService employeeService;
 
+    @Autowired
+    private EmployeeBulkUpdateService employeeBulkUpdateService;
+
+    @Autowired
+    private ImportErrorReports importErrorReports;
+
+    @Autowired
+    private PartitionedExportService partitionedExportService;
+
+    @Autowired
+    private EmployeeAggregationService employeeAggregationService;
+
+    @Autowired
+    private EmployeeFilterService employeeFilterService;
+
+    @Autowired
+    private EmployeeRankingService employeeRankingService;
+
+    @Autowired
+    private EmployeeSalaryAuditService employeeSalaryAuditService;
+
+    @Autowired
+    private GratuityLiabilityJob gratuityLiabilityJob;
+
+    @Autowired
+    private EmployeeReportStore employeeReportStore;
+
+    private static final MediaType XLSX = MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+    private static final MediaType ZIP = MediaType.parseMediaType("application/zip");
+    private static final String TOTAL_COUNT = "X-Total-Count";
+
     /**
      * Processes an uploaded file to extract employee data, generate additional records,
      * and store all data in the database. Returns a downloadable Excel file of the processed data.
      *
+     * In strict mode (the default) a file with any invalid row is rejected as a whole. In lenient mode the valid
+     * rows are imported in batches and the response carries the X-Import-Imported and X-Import-Rejected counts and,
+     * when rows were rejected, an X-Import-Error-Report link to a CSV listing them.
+     *
+     * A strict upload identical to the last imported one is not imported again while the data is unchanged; the
+     * current export is returned instead. Pass force=true to import it anyway.
+     *
      * @param file the uploaded file containing employee data
+     * @param mode "strict" or "lenient"
+     * @param force whether to import a strict upload even if it repeats the last one
      * @return ResponseEntity with the processed Excel file as a downloadable resource
      * @throws IOException if file processing or writing fails
      */
     @PostMapping(value = "/process", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<Resource> processEmployeeFile(@RequestParam("file") MultipartFile file) throws IOException {
+    public ResponseEntity<Resource> processEmployeeFile(@RequestParam("file") MultipartFile file,
+                                                        @RequestParam(defaultValue = "strict") String mode,
+                                                        @RequestParam(defaultValue = "false") boolean force) throws IOException {
+        if ("lenient".equalsIgnoreCase(mode)) {
+            ImportSummary summary;
+            try (InputStream inputStream = file.getInputStream()) {
+                summary = employeeService.importEmployeeDataLeniently(inputStream);
+            }
+            HttpHeaders importHeaders = new HttpHeaders();
+            importHeaders.add("X-Import-Imported", String.valueOf(summary.getImported()));
+            importHeaders.add("X-Import-Rejected", String.valueOf(summary.getRejected()));
+            if (summary.getErrorReportId() != null) {
+                importHeaders.add("X-Import-Error-Report", "/api/employees/import-errors/" + summary.getErrorReportId());
+            }
+            return download(employeeService.exportEmployees(), XLSX, null, importHeaders);
+        }
+        if (!"strict".equalsIgnoreCase(mode)) {
+            throw new InvalidEmployeeDataException("Unknown import mode '" + mode + "'; use strict or lenient");
+        }
         // Process file: extract employees, generate 50 more, and insert into database
-        File processedFile = employeeService.processAndDownloadEmployees(file);
-        Resource resource = new FileSystemResource(processedFile);
+        ExportArtifact artifact = employeeService.processAndDownloadEmployees(file, force);
+        return download(artifact, XLSX, null);
+    }
 
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"employees.xlsx\"")
-                .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                .body(resource);
+    /**
+     * Downloads the rows rejected by a lenient import as CSV (row, id, error).
+     * This method is developed so that uploaders can fix exactly the failing rows and upload them again.
+     *
+     * @param reportId the ID from the X-Import-Error-Report link
+     * @return ResponseEntity with the CSV report, or 404 if it is unknown or has been cleaned up
+     */
+    @GetMapping("/import-errors/{reportId}")
+    public ResponseEntity<Resource> downloadImportErrors(@PathVariable String reportId) {
+        return importErrorReports.find(reportId)
+                .map(report -> download(report, CSV, null))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Downloads the Excel export of all employees.
+     * This method is developed to let clients re-download the current data cheaply: the response carries a strong
+     * ETag and a matching If-None-Match is answered with 304 Not Modified.
+     *
+     * @param ifNoneMatch the ETags the client already holds, if any
+     * @return ResponseEntity with the Excel file, or 304 if the client's copy is current
+     */
+    @GetMapping("/export")
+    public ResponseEntity<Resource> exportEmployees(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return download(employeeService.exportEmployees(), XLSX, ifNoneMatch);
+    }
+
+    /**
+     * Downloads a ZIP with one Excel file per state, city or category, in the same layout as the full export.
+     * This method is developed for teams that only work with their own region or category; the workbooks are
+     * generated in parallel and, like the full export, kept until the data changes.
+     *
+     * @param by the column to partition by: state, city or category
+     * @param ifNoneMatch the ETags the client already holds, if any
+     * @return ResponseEntity with the ZIP file, or 304 if the client's copy is current
+     */
+    @GetMapping("/export/partitioned")
+    public ResponseEntity<Resource> exportPartitioned(
+            @RequestParam(defaultValue = "state") String by,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return download(partitionedExportService.exportPartitioned(by), ZIP, ifNoneMatch);
     }
 
     /**
@@ -65,26 +190,196 @@ public class EmployeeController {
         return employeeService.getAllEmployees(pageable);
     }
 
+    /**
+     * Creates a single employee.
+     * This method is developed to add one employee without re-uploading the whole workbook.
+     *
+     * @param request the employee to create, including its ID and optional manager ID
+     * @return ResponseEntity with the created EmployeeDTO and status 201
+     */
+    @PostMapping
+    public ResponseEntity<EmployeeDTO> createEmployee(@RequestBody EmployeeRequest request) {
+        EmployeeDTO created = employeeService.createEmployee(request);
+        return ResponseEntity.created(URI.create("/api/employees/" + created.getId())).body(created);
+    }
+
+    /**
+     * Updates a single employee, including moving it (with its reports) to another manager.
+     * This method is developed to edit one employee without re-uploading the whole workbook.
+     *
+     * @param id the ID of the employee to update
+     * @param request the new values of the employee
+     * @return ResponseEntity with the updated EmployeeDTO
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<EmployeeDTO> updateEmployee(@PathVariable Long id, @RequestBody EmployeeRequest request) {
+        return ResponseEntity.ok(employeeService.updateEmployee(id, request));
+    }
+
+    /**
+     * Deletes a single employee; its direct reports move up to its manager.
+     * This method is developed to remove one employee without re-uploading the whole workbook.
+     *
+     * @param id the ID of the employee to delete
+     * @return ResponseEntity with status 204
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteEmployee(@PathVariable Long id) {
+        employeeService.deleteEmployee(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Changes the salary and/or manager of many employees in one transaction.
+     * This method is developed for compensation cycles and reorganisations: the body is read as a stream of
+     * {"id", "salary", "managerId"} objects, invalid rows are rejected individually and the rest are applied together.
+     *
+     * @param request the HTTP request whose body holds newline-delimited JSON or a JSON array of changes
+     * @return ResponseEntity with the number of updated and rejected rows and the outcome of each row
+     * @throws IOException if the request body cannot be read
+     */
+    @PatchMapping(consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<BulkUpdateResult> bulkUpdateEmployees(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(employeeBulkUpdateService.applyPatches(request.getInputStream()));
+    }
+
+    /**
+     * Streams every employee as newline-delimited JSON (one object per line).
+     * This method is developed for downstream systems that need the full directory without paging through it;
+     * the response is written while the table is read, so server memory stays flat regardless of table size.
+     *
+     * @return ResponseEntity with an NDJSON streaming body
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamEmployees() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(employeeService::streamEmployeesAsNdjson);
+    }
+
     /**
      * Returns a list of employees eligible for gratuity.
      * This method is developed to support compliance and financial planning.
      *
-     * @return ResponseEntity with a list of EmployeeDTOs
+     * @param page the zero-based page number; all employees when absent
+     * @param size the page size, at most 1000
+     * @return ResponseEntity with a list of EmployeeDTOs in ID order, and the total in X-Total-Count when paged
      */
     @GetMapping("/gratuity-eligibility")
-    public ResponseEntity<List<EmployeeDTO>> getGratuityEligibleEmployees() {
-        return ResponseEntity.ok(employeeService.getGratuityEligibleEmployees());
+    public ResponseEntity<List<EmployeeDTO>> getGratuityEligibleEmployees(
+            @RequestParam(required = false) Integer page,
+            @RequestParam(defaultValue = "100") int size) {
+        if (page == null) {
+            return ResponseEntity.ok(employeeService.getGratuityEligibleEmployees());
+        }
+        return reportPage(EmployeeReportStore.Report.GRATUITY_ELIGIBLE, page, size);
+    }
+
+    /**
+     * Returns the payable gratuity totalled per direct manager or per category.
+     * This method is developed for finance: amounts are last salary x 15/26 x completed years, computed for every
+     * employee nightly and after each import.
+     *
+     * @param by "manager" or "category"
+     * @return one total per group with its employee count, eligible count, amount and computation date
+     */
+    @GetMapping("/gratuity-liability/totals")
+    public ResponseEntity<List<GratuityLiabilityTotal>> getGratuityLiabilityTotals(
+            @RequestParam(defaultValue = "category") String by) {
+        return ResponseEntity.ok(gratuityLiabilityJob.totals(by));
     }
 
     /**
      * Returns a list of employees whose salary is higher than their manager's salary.
      * This method is developed to support analytics and reporting on salary structure.
      *
-     * @return ResponseEntity with a list of EmployeeDTOs
+     * @param page the zero-based page number; all employees when absent
+     * @param size the page size, at most 1000
+     * @return ResponseEntity with a list of EmployeeDTOs in ID order, and the total in X-Total-Count when paged
      */
     @GetMapping("/higher-salary-than-manager")
-    public ResponseEntity<List<EmployeeDTO>> getEmployeesWithHigherSalaryThanManager() {
-        return ResponseEntity.ok(employeeService.getEmployeesWithHigherSalaryThanManager());
+    public ResponseEntity<List<EmployeeDTO>> getEmployeesWithHigherSalaryThanManager(
+            @RequestParam(required = false) Integer page,
+            @RequestParam(defaultValue = "100") int size) {
+        if (page == null) {
+            return ResponseEntity.ok(employeeService.getEmployeesWithHigherSalaryThanManager());
+        }
+        return reportPage(EmployeeReportStore.Report.HIGHER_SALARY_THAN_MANAGER, page, size);
+    }
+
+    private ResponseEntity<List<EmployeeDTO>> reportPage(EmployeeReportStore.Report report, int page, int size) {
+        EmployeeFilterResult result = employeeReportStore.page(report, page, size);
+        return ResponseEntity.ok()
+                .header(TOTAL_COUNT, String.valueOf(result.getTotal()))
+                .body(result.getEmployees());
+    }
+
+    /**
+     * Returns the employees who earn more than any manager above them, at any level.
+     * This method is developed for compensation audits that look past the direct manager.
+     *
+     * @param managerId audit only the employees below this manager; all employees when absent
+     * @return each employee with the lowest-paid manager above them and the difference, largest first
+     */
+    @GetMapping("/salary-inversions")
+    public ResponseEntity<List<SalaryInversion>> getSalaryInversions(@RequestParam(required = false) Long managerId) {
+        return ResponseEntity.ok(employeeSalaryAuditService.findSalaryInversions(managerId));
+    }
+
+    /**
+     * Searches employees by name, with optional exact city and state filters.
+     * This method is developed for typeahead: each word of {@code q} matches the start of a word in the name, and
+     * the best matches are returned first.
+     *
+     * @param q words of the name, e.g. "ra" or "shiv ku"
+     * @param city exact city to filter by
+     * @param state exact state to filter by
+     * @param limit maximum number of results (1 to 100)
+     * @return the best matching employees
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<EmployeeSearchHit>> searchEmployees(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String state,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(employeeService.searchEmployees(q, city, state, limit));
+    }
+
+    /**
+     * Aggregates employees per state, city and/or category.
+     * This method is developed for HR dashboards that need headcount, payroll and tenure breakdowns without
+     * downloading every employee.
+     *
+     * @param groupBy the fields to group by, e.g. {@code state,category}; none for a single total
+     * @param metrics the figures per group: headcount, payroll, avgSalary, minSalary, maxSalary, avgTenureYears
+     * @return one entry per group, ordered by the grouping values
+     */
+    @GetMapping("/aggregate")
+    public ResponseEntity<List<GroupAggregate>> aggregateEmployees(
+            @RequestParam(required = false) List<String> groupBy,
+            @RequestParam(required = false) List<String> metrics) {
+        return ResponseEntity.ok(employeeAggregationService.aggregate(groupBy, metrics));
+    }
+
+    /**
+     * Returns the employees matching a filter expression, one page at a time, or only how many match.
+     * This method is developed so that ad-hoc HR questions such as
+     * {@code salary > 50000 AND state = 'Telangana' AND tenureYears >= 3} need no dedicated endpoint.
+     *
+     * @param q the filter expression; fields id, managerId, salary, tenureYears, doj, state, city, category
+     * @param page the zero-based page number
+     * @param size the page size, at most 1000
+     * @param countOnly whether to return only the number of matches
+     * @return the number of matches and, unless countOnly, the requested page in ID order
+     */
+    @GetMapping("/filter")
+    public ResponseEntity<EmployeeFilterResult> filterEmployees(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean countOnly) {
+        return ResponseEntity.ok(employeeFilterService.filter(q, page, size, countOnly));
     }
 
     /**
@@ -99,21 +394,85 @@ public class EmployeeController {
         return employeeService.getNthHighestSalaryEmployee(n);
     }
 
+    /**
+     * Returns the top earners of each team or category.
+     * This method is developed for managers asking for the best-paid people on their team, and for HR comparing
+     * categories, without one Nth-highest call per rank.
+     *
+     * @param by "manager" for direct reports, "subtree" for everyone below a manager, or "category"
+     * @param k the number of employees per group, at most 100
+     * @param group a manager ID or category to return only that group
+     * @return the groups, each with its employees by salary, highest first
+     */
+    @GetMapping("/top-earners")
+    public ResponseEntity<List<TopEarners>> getTopEarners(
+            @RequestParam(defaultValue = "manager") String by,
+            @RequestParam(defaultValue = "5") int k,
+            @RequestParam(required = false) String group) {
+        return ResponseEntity.ok(employeeRankingService.topEarners(by, k, group));
+    }
+
     /**
      * Generates and returns the employee hierarchy for a given manager as a downloadable JSON file.
      * This method is developed to support org chart visualization and reporting.
      *
+     * The response carries a strong ETag and a matching If-None-Match is answered with 304 Not Modified.
+     *
      * @param managerId The ID of the manager whose hierarchy is requested
-     * @return ResponseEntity with the hierarchy JSON file as a downloadable resource
+     * @param ifNoneMatch the ETags the client already holds, if any
+     * @return ResponseEntity with the hierarchy JSON file as a downloadable resource, or 304 if the client's copy is current
      * @throws IOException if file writing fails
      */
     @GetMapping("/hierarchy/download/{managerId}")
-    public ResponseEntity<Resource> getEmployeeHierarchyByManager(@PathVariable Long managerId) throws IOException {
-        File jsonFile = employeeService.getEmployeeHierarchyByManager(managerId);
-        Resource resource = new FileSystemResource(jsonFile);
+    public ResponseEntity<Resource> getEmployeeHierarchyByManager(
+            @PathVariable Long managerId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws IOException {
+        ExportArtifact artifact = employeeService.getEmployeeHierarchyByManager(managerId);
+        return download(artifact, MediaType.APPLICATION_JSON, ifNoneMatch);
+    }
 
+    private ResponseEntity<Resource> download(ExportArtifact artifact, MediaType contentType, String ifNoneMatch) {
+        return download(artifact, contentType, ifNoneMatch, HttpHeaders.EMPTY);
+    }
+
+    private ResponseEntity<Resource> download(ExportArtifact artifact, MediaType contentType, String ifNoneMatch,
+                                              HttpHeaders extraHeaders) {
+        releaseWhenComplete(artifact);
+        if (matchesEtag(ifNoneMatch, artifact.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(artifact.getEtag())
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
         return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + jsonFile.getName())
-                .body(resource);
+                .headers(extraHeaders)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + artifact.getFileName() + "\"")
+                .contentType(contentType)
+                .eTag(artifact.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .body(artifact.getResource());
+    }
+
+    // The artifact's file stays pinned until the response is complete: streamed, answered without a body, or failed
+    private static void releaseWhenComplete(ExportArtifact artifact) {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request == null) {
+            artifact.release();
+            return;
+        }
+        request.registerDestructionCallback("exportArtifact@" + System.identityHashCode(artifact), artifact::release,
+                RequestAttributes.SCOPE_REQUEST);
+    }
+
+    // If-None-Match uses weak comparison (RFC 9110), so a W/ prefix on either side is ignored
+    private static boolean matchesEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        String current = etag.startsWith("W/") ? etag.substring(2) : etag;
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+                .anyMatch(tag -> tag.equals("*") || tag.equals(current));
     }
 }
@@ -0,0 +1,14 @@
+package com.pamu.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@ToString
+public class BulkUpdateResult {
+    private final int updated;
+    private final int rejected;
+    private final List<EmployeePatchOutcome> outcomes;
+}
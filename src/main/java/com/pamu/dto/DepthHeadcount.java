@@ -0,0 +1,9 @@
+package com.pamu.dto;
+
+/**
+ * Number of employees at one depth below a manager (depth 0 is the manager).
+ */
+public interface DepthHeadcount {
+    Integer getDepth();
+    Long getHeadcount();
+}
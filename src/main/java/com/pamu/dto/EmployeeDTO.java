@@ -12,7 +12,7 @@ import java.time.LocalDate;
 public class EmployeeDTO {
     private Long id;
     private String name;
-    private double salary;
+    private Double salary; // null when the employee has no salary
     private String category;
     private LocalDate doj;
     private Long managerId;
@@ -0,0 +1,17 @@
+package com.pamu.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@ToString
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EmployeeFilterResult {
+    private final long total; // all matching employees, not just this page
+    private final Integer page; // null for a count-only request
+    private final Integer size;
+    private final List<EmployeeDTO> employees; // in ID order; null for a count-only request
+}
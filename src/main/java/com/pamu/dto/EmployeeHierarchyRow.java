@@ -0,0 +1,11 @@
+package com.pamu.dto;
+
+/**
+ * The columns the hierarchy view needs from one employee row, read without hydrating an Employee entity.
+ */
+public interface EmployeeHierarchyRow {
+    Long getId();
+    Long getManagerId();
+    String getName();
+    String getCategory();
+}
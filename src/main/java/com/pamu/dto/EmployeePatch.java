@@ -0,0 +1,34 @@
+package com.pamu.dto;
+
+import lombok.*;
+
+/**
+ * One row of a bulk update: the employee ID plus the fields to change.
+ * An absent managerId leaves the manager unchanged, while an explicit null makes the employee top-level.
+ */
+@Getter
+@NoArgsConstructor
+@ToString
+public class EmployeePatch {
+    @Setter
+    private Long id;
+    @Setter
+    private Double salary;
+    private Long managerId;
+    private boolean managerIdPresent;
+
+    public EmployeePatch(Long id, Double salary) {
+        this.id = id;
+        this.salary = salary;
+    }
+
+    public EmployeePatch(Long id, Double salary, Long managerId) {
+        this(id, salary);
+        setManagerId(managerId);
+    }
+
+    public void setManagerId(Long managerId) {
+        this.managerId = managerId;
+        this.managerIdPresent = true;
+    }
+}
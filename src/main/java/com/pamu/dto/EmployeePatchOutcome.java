@@ -0,0 +1,16 @@
+package com.pamu.dto;
+
+import lombok.*;
+
+@Getter
+@AllArgsConstructor
+@ToString
+public class EmployeePatchOutcome {
+    public static final String UPDATED = "UPDATED";
+    public static final String REJECTED = "REJECTED";
+
+    private final int row; // 1-based position in the request
+    private final Long id;
+    private final String status;
+    private final String message;
+}
@@ -0,0 +1,21 @@
+package com.pamu.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class EmployeeRequest {
+    private Long id; // used on create; the path variable identifies the employee on update
+    private String name;
+    private String city;
+    private String state;
+    private String category;
+    private Double salary;
+    private LocalDate doj;
+    private Long managerId;
+}
@@ -0,0 +1,15 @@
+package com.pamu.dto;
+
+import lombok.*;
+
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class EmployeeSearchHit {
+    private final Long id;
+    private final String name;
+    private final String city;
+    private final String state;
+    private final String category;
+}
@@ -0,0 +1,20 @@
+package com.pamu.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.time.LocalDate;
+
+@Getter
+@AllArgsConstructor
+@ToString
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GratuityLiabilityTotal {
+    private final Long managerId; // set when totalled per manager; absent for top-level employees
+    private final String managerName;
+    private final String category; // set when totalled per category; absent for employees without one
+    private final long employees;
+    private final long eligibleEmployees;
+    private final double amount;
+    private final LocalDate computedOn;
+}
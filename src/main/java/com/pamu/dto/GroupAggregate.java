@@ -0,0 +1,13 @@
+package com.pamu.dto;
+
+import lombok.*;
+
+import java.util.Map;
+
+@Getter
+@AllArgsConstructor
+@ToString
+public class GroupAggregate {
+    private final Map<String, String> group; // grouping field -> value, null for employees without one
+    private final Map<String, Number> metrics; // metric name -> value, null when no employee has the input
+}
@@ -0,0 +1,12 @@
+package com.pamu.dto;
+
+import lombok.*;
+
+@Getter
+@AllArgsConstructor
+@ToString
+public class ImportRowError {
+    private final int row; // Row number as shown in the spreadsheet
+    private final Long id; // null when the ID itself could not be read
+    private final String message;
+}
@@ -0,0 +1,12 @@
+package com.pamu.dto;
+
+import lombok.*;
+
+@Getter
+@AllArgsConstructor
+@ToString
+public class ImportSummary {
+    private final int imported;
+    private final int rejected;
+    private final String errorReportId; // null when every row was imported
+}
@@ -0,0 +1,16 @@
+package com.pamu.dto;
+
+import lombok.*;
+
+@Getter
+@AllArgsConstructor
+@ToString
+public class SalaryInversion {
+    private final EmployeeDTO employee;
+    private final Long ancestorId; // the lowest-paid manager above the employee, at any level
+    private final String ancestorName;
+    private final double ancestorSalary;
+    private final int levelsAbove; // 1 for the direct manager
+    private final double difference; // employee salary minus ancestor salary
+    private final boolean outEarnsAllManagers; // every manager up to the top earns less
+}
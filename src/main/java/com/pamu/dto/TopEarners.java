@@ -0,0 +1,17 @@
+package com.pamu.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@ToString
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TopEarners {
+    private final Long managerId; // set when grouped by manager or subtree
+    private final String managerName;
+    private final String category; // set when grouped by category
+    private final List<EmployeeDTO> employees; // highest salary first
+}
@@ -0,0 +1,28 @@
+package com.pamu.exception;
+
+import java.util.List;
+
+/**
+ * Rejects an employee file as a whole, carrying every problem found in it so that the file can be fixed in one pass.
+ */
+public class ImportValidationException extends InvalidEmployeeDataException {
+    private final List<String> violations;
+    private final int totalViolations;
+
+    public ImportValidationException(List<String> violations, int totalViolations) {
+        super("Employee file has " + totalViolations + " problem(s); nothing was imported");
+        this.violations = List.copyOf(violations);
+        this.totalViolations = totalViolations;
+    }
+
+    /**
+     * @return The reported problems; at most a bounded number of them when the file has very many
+     */
+    public List<String> getViolations() {
+        return violations;
+    }
+
+    public int getTotalViolations() {
+        return totalViolations;
+    }
+}
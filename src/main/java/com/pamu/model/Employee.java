@@ -6,7 +6,12 @@ import lombok.*;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "employees")
+// Same indexes as db/migration, so the in-memory ddl-auto schema serves the hierarchy, salary and gratuity queries alike
+@Table(name = "employees", indexes = {
+        @Index(name = "idx_employees_manager_id", columnList = "manager_id"),
+        @Index(name = "idx_employees_salary", columnList = "salary DESC, id"),
+        @Index(name = "idx_employees_doj", columnList = "doj")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,41 @@
+package com.pamu.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * One (ancestor, descendant) pair of the reporting hierarchy, including every employee paired with itself at depth 0.
+ * Rows are maintained by EmployeeJdbcRepository so subtree and ancestor queries are index lookups instead of walks.
+ */
+@Entity
+@Table(name = "employee_closure", indexes = {
+        @Index(name = "idx_employee_closure_descendant", columnList = "descendant_id, depth")
+})
+@IdClass(EmployeeClosure.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeClosure {
+
+    @Id
+    @Column(name = "ancestor_id")
+    private Long ancestorId;
+
+    @Id
+    @Column(name = "descendant_id")
+    private Long descendantId;
+
+    @Column(nullable = false)
+    private Integer depth;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long ancestorId;
+        private Long descendantId;
+    }
+}
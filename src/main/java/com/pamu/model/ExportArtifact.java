@@ -0,0 +1,33 @@
+package com.pamu.model;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.core.io.Resource;
+
+import java.io.File;
+
+@Getter
+@AllArgsConstructor
+public class ExportArtifact {
+    private final File file;
+    private final String fileName;
+    private final String etag;
+    // Response body for the file; reading it keeps the file from being evicted until the stream is closed
+    private final Resource resource;
+    // Ends the hold the response has on the file since it was handed out
+    @Getter(AccessLevel.NONE)
+    private final Runnable release;
+
+    public ExportArtifact(File file, String fileName, String etag, Resource resource) {
+        this(file, fileName, etag, resource, () -> { });
+    }
+
+    /**
+     * Lets the file be evicted or discarded again once the response no longer needs it.
+     * Call it when the response completes, whether the body was streamed, skipped (304, HEAD) or failed.
+     */
+    public void release() {
+        release.run();
+    }
+}
@@ -0,0 +1,42 @@
+package com.pamu.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Gratuity payable to one employee as of the latest {@link GratuityLiabilityRun}: last salary x 15/26 x completed
+ * years of service, or 0 until the employee is eligible. Rows are maintained by the gratuity job through
+ * EmployeeJdbcRepository.
+ */
+@Entity
+@Table(name = "gratuity_liability", indexes = {
+        @Index(name = "idx_gratuity_liability_manager_id", columnList = "manager_id"),
+        @Index(name = "idx_gratuity_liability_category", columnList = "category")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class GratuityLiability {
+
+    @Id
+    @Column(name = "employee_id")
+    private Long employeeId;
+
+    @Column(name = "manager_id")
+    private Long managerId;
+
+    private String category;
+
+    @Column(name = "last_salary")
+    private Double lastSalary; // null when the salary is unknown
+
+    @Column(name = "completed_years")
+    private Integer completedYears; // null when the date of joining is unknown
+
+    @Column(nullable = false)
+    private Boolean eligible;
+
+    @Column(nullable = false)
+    private Double amount;
+}
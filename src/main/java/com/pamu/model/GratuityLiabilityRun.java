@@ -0,0 +1,37 @@
+package com.pamu.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * One run of the gratuity job: the date the liability was computed for and its company-wide totals.
+ */
+@Entity
+@Table(name = "gratuity_liability_run")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class GratuityLiabilityRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "computed_on", nullable = false)
+    private LocalDate computedOn;
+
+    @Column(nullable = false)
+    private Integer employees;
+
+    @Column(name = "eligible_employees", nullable = false)
+    private Integer eligibleEmployees;
+
+    @Column(nullable = false)
+    private Double amount;
+
+    @Column(name = "changed_rows", nullable = false)
+    private Integer changedRows; // rows of gratuity_liability inserted, rewritten or deleted by the run
+}
@@ -3,6 +3,7 @@ package com.pamu.model;
 import jakarta.persistence.*;
 import lombok.*;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
@@ -24,9 +25,13 @@ public class User implements UserDetails {
     private String password;
     private String role;
 
+    // Bumped on every password or role change so that previously issued tokens stop validating
+    @Column(name = "credential_version")
+    private Integer credentialVersion = 0;
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return List.of();
+        return role != null ? List.of(new SimpleGrantedAuthority(role)) : List.of();
     }
 
     @Override
@@ -49,4 +54,3 @@ public class User implements UserDetails {
         return UserDetails.super.isEnabled();
     }
 }
-
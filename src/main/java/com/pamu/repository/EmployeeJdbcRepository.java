@@ -0,0 +1,360 @@
+package com.pamu.repository;
+
+import com.pamu.dto.GratuityLiabilityTotal;
+import com.pamu.exception.InvalidEmployeeDataException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Plain JDBC access to the employees table for bulk paths where hydrating JPA entities would cost
+ * more than the work itself.
+ */
+@Repository
+public class EmployeeJdbcRepository {
+
+    static final String STREAM_COLUMNS = "id, name, city, state, category, manager_id, salary, doj";
+    private static final int IN_LIST_CHUNK = 1000;
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @Value("${employee.stream.fetch-size:1000}")
+    private int streamFetchSize;
+
+    /**
+     * Streams every employee row, ordered by ID, to the given handler through a forward-only, read-only cursor.
+     * This method is developed to export the whole table with flat memory: rows are fetched in batches of the
+     * configured fetch size and never materialised as entities. The read-only transaction turns off auto-commit,
+     * which drivers such as PostgreSQL need before they honour the fetch size.
+     * @param rowHandler Callback invoked once per row with the cursor positioned on that row
+     */
+    @Transactional(readOnly = true)
+    public void streamAll(RowCallbackHandler rowHandler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT " + STREAM_COLUMNS + " FROM employees ORDER BY id",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(streamFetchSize);
+            return statement;
+        }, rowHandler);
+    }
+
+    /**
+     * Brings the closure rows of the given employees, and of everyone below them, in line with the manager_id
+     * column after those employees were inserted or had their manager changed.
+     * This method is developed to keep employee_closure current after an import without rebuilding it: only the
+     * affected subtrees are deleted and re-derived, reusing the stored ancestor chains of unchanged managers.
+     * @param employeeIds IDs of the employees that were inserted or updated
+     * @throws IllegalStateException if the manager_id column contains a reporting cycle
+     */
+    @Transactional
+    public void refreshClosure(Collection<Long> employeeIds) {
+        if (employeeIds.isEmpty()) {
+            return;
+        }
+        NamedParameterJdbcTemplate named = new NamedParameterJdbcTemplate(jdbcTemplate);
+
+        // Everyone whose ancestor chain can change: the employees themselves and their current descendants
+        Set<Long> affected = new HashSet<>(employeeIds);
+        forEachChunk(employeeIds, chunk -> affected.addAll(named.queryForList(
+                "SELECT descendant_id FROM employee_closure WHERE ancestor_id IN (:ids)", Map.of("ids", chunk), Long.class)));
+
+        Map<Long, Long> managerOf = new HashMap<>();
+        Map<Long, List<long[]>> chains = new HashMap<>();
+        loadManagers(named, affected, managerOf);
+        // Chains of managers outside the affected set are reused; managers without closure rows are derived too
+        Set<Long> unresolved = new HashSet<>();
+        for (Long manager : managerOf.values()) {
+            if (manager != null && !managerOf.containsKey(manager)) {
+                unresolved.add(manager);
+            }
+        }
+        while (!unresolved.isEmpty()) {
+            Set<Long> batch = unresolved;
+            unresolved = new HashSet<>();
+            forEachChunk(batch, chunk -> named.query(
+                    "SELECT descendant_id, ancestor_id, depth FROM employee_closure WHERE descendant_id IN (:ids)",
+                    Map.of("ids", chunk), (RowCallbackHandler) rs -> chains
+                            .computeIfAbsent(rs.getLong(1), id -> new ArrayList<>())
+                            .add(new long[]{rs.getLong(2), rs.getInt(3)})));
+            batch.removeAll(chains.keySet());
+            affected.addAll(batch);
+            loadManagers(named, batch, managerOf);
+            for (Long id : batch) {
+                Long manager = managerOf.get(id);
+                if (manager != null && !managerOf.containsKey(manager) && !chains.containsKey(manager)) {
+                    unresolved.add(manager);
+                }
+            }
+        }
+
+        forEachChunk(affected, chunk -> named.update(
+                "DELETE FROM employee_closure WHERE descendant_id IN (:ids)", Map.of("ids", chunk)));
+        List<Object[]> rows = new ArrayList<>();
+        for (Long id : managerOf.keySet()) {
+            for (long[] ancestor : chainOf(id, managerOf, chains)) {
+                rows.add(new Object[]{ancestor[0], id, (int) ancestor[1]});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO employee_closure (ancestor_id, descendant_id, depth) VALUES (?, ?, ?)",
+                rows, BATCH_SIZE, (statement, row) -> {
+                    statement.setLong(1, (Long) row[0]);
+                    statement.setLong(2, (Long) row[1]);
+                    statement.setInt(3, (Integer) row[2]);
+                });
+    }
+
+    /**
+     * Re-parents an employee and its whole subtree in employee_closure; the caller updates employees.manager_id.
+     * This method is developed for single manager changes, which cost O(subtree x ancestors) rows instead of a refresh.
+     * @param employeeId Root of the subtree being moved
+     * @param newManagerId The new manager, or null to make the employee a top-level employee
+     * @throws InvalidEmployeeDataException if the new manager is the employee itself or one of its reports
+     */
+    @Transactional
+    public void moveSubtree(long employeeId, Long newManagerId) {
+        if (newManagerId != null) {
+            Integer below = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM employee_closure WHERE ancestor_id = ? AND descendant_id = ?",
+                    Integer.class, employeeId, newManagerId);
+            if (below != null && below > 0) {
+                throw new InvalidEmployeeDataException("Employee " + newManagerId + " reports to " + employeeId
+                        + "; making it the manager would create a reporting cycle");
+            }
+        }
+        // Detach: drop every link from outside the subtree into it
+        jdbcTemplate.update("DELETE FROM employee_closure " +
+                "WHERE descendant_id IN (SELECT descendant_id FROM employee_closure WHERE ancestor_id = ?) " +
+                "AND ancestor_id NOT IN (SELECT descendant_id FROM employee_closure WHERE ancestor_id = ?)",
+                employeeId, employeeId);
+        if (newManagerId != null) {
+            // Attach: pair every ancestor of the new manager (itself included) with every member of the subtree
+            jdbcTemplate.update("INSERT INTO employee_closure (ancestor_id, descendant_id, depth) " +
+                    "SELECT above.ancestor_id, below.descendant_id, above.depth + below.depth + 1 " +
+                    "FROM employee_closure above, employee_closure below " +
+                    "WHERE above.descendant_id = ? AND below.ancestor_id = ?",
+                    newManagerId, employeeId);
+        }
+    }
+
+    /**
+     * Passes the committed rows of the given employees to the handler, with the same columns as {@link #streamAll}.
+     * This method is developed for the in-memory read structures, which re-read the rows a change touched after it
+     * commits instead of trusting values captured before the commit. IDs without a row are skipped.
+     * @param employeeIds IDs of the employees to read
+     * @param rowHandler Callback invoked once per row found
+     */
+    public void streamByIds(Collection<Long> employeeIds, RowCallbackHandler rowHandler) {
+        NamedParameterJdbcTemplate named = new NamedParameterJdbcTemplate(jdbcTemplate);
+        forEachChunk(employeeIds, chunk -> named.query("SELECT " + STREAM_COLUMNS + " FROM employees WHERE id IN (:ids)",
+                Map.of("ids", chunk), rowHandler));
+    }
+
+    /**
+     * Loads the manager of every employee; employees without a manager map to null.
+     * This method is developed for validations that need the whole reporting graph, such as cycle checks.
+     * @return Map of employee ID to manager ID
+     */
+    public Map<Long, Long> loadManagerIds() {
+        Map<Long, Long> managerOf = new HashMap<>();
+        jdbcTemplate.query("SELECT id, manager_id FROM employees",
+                (RowCallbackHandler) rs -> managerOf.put(rs.getLong(1), rs.getObject(2, Long.class)));
+        return managerOf;
+    }
+
+    /**
+     * Sets the salary of many employees with batched statements.
+     * @param salaries Map of employee ID to new salary
+     */
+    public void batchUpdateSalaries(Map<Long, Double> salaries) {
+        jdbcTemplate.batchUpdate("UPDATE employees SET salary = ? WHERE id = ?", salaries.entrySet(), BATCH_SIZE,
+                (statement, change) -> {
+                    statement.setDouble(1, change.getValue());
+                    statement.setLong(2, change.getKey());
+                });
+    }
+
+    /**
+     * Sets the manager of many employees with batched statements; the caller refreshes the closure rows.
+     * @param managers Map of employee ID to new manager ID, where null makes the employee top-level
+     */
+    public void batchUpdateManagers(Map<Long, Long> managers) {
+        jdbcTemplate.batchUpdate("UPDATE employees SET manager_id = ? WHERE id = ?", managers.entrySet(), BATCH_SIZE,
+                (statement, change) -> {
+                    if (change.getValue() != null) {
+                        statement.setLong(1, change.getValue());
+                    } else {
+                        statement.setNull(1, Types.BIGINT);
+                    }
+                    statement.setLong(2, change.getKey());
+                });
+    }
+
+    /**
+     * Removes an employee's own closure rows before the employee is deleted; its reports must have been moved already.
+     * @param employeeId ID of the employee being deleted
+     */
+    public void deleteFromClosure(long employeeId) {
+        jdbcTemplate.update("DELETE FROM employee_closure WHERE descendant_id = ? OR ancestor_id = ?", employeeId, employeeId);
+    }
+
+    /**
+     * Streams every stored gratuity liability row, ordered by employee ID.
+     * @param rowHandler Callback invoked once per row of employee_id, manager_id, category, last_salary,
+     * completed_years, eligible, amount
+     */
+    @Transactional(readOnly = true)
+    public void streamGratuityLiabilities(RowCallbackHandler rowHandler) {
+        jdbcTemplate.query("SELECT employee_id, manager_id, category, last_salary, completed_years, eligible, amount "
+                + "FROM gratuity_liability ORDER BY employee_id", rowHandler);
+    }
+
+    /**
+     * Records a gratuity run in one transaction, so totals read meanwhile see the previous run.
+     * This method is developed for the gratuity job, which rewrites only the rows that changed since the last
+     * run: their old rows are deleted, the new ones inserted in batches of {@value #BATCH_SIZE} straight from the
+     * caller's arrays, and the run is logged with its date and totals.
+     * @param computedOn Date the liability was computed for
+     * @param replacedIds Employees whose stored row is deleted, because it changed or the employee is gone
+     * @param rows Sets the employee_id, manager_id, category, last_salary, completed_years, eligible and amount
+     * parameters of each new row; its batch size is the number of rows
+     * @param employees Employees covered by the run
+     * @param eligibleEmployees Employees with a payable gratuity
+     * @param amount Total payable gratuity
+     */
+    @Transactional
+    public void saveGratuityRun(LocalDate computedOn, Collection<Long> replacedIds, BatchPreparedStatementSetter rows,
+                                int employees, int eligibleEmployees, double amount) {
+        NamedParameterJdbcTemplate named = new NamedParameterJdbcTemplate(jdbcTemplate);
+        forEachChunk(replacedIds, chunk -> named.update(
+                "DELETE FROM gratuity_liability WHERE employee_id IN (:ids)", Map.of("ids", chunk)));
+        int total = rows.getBatchSize();
+        for (int from = 0; from < total; from += BATCH_SIZE) {
+            int offset = from;
+            int size = Math.min(BATCH_SIZE, total - from);
+            jdbcTemplate.batchUpdate("INSERT INTO gratuity_liability (employee_id, manager_id, category, last_salary, "
+                    + "completed_years, eligible, amount) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement statement, int i) throws SQLException {
+                            rows.setValues(statement, offset + i);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return size;
+                        }
+                    });
+        }
+        jdbcTemplate.update("INSERT INTO gratuity_liability_run (computed_on, employees, eligible_employees, amount, "
+                        + "changed_rows) VALUES (?, ?, ?, ?, ?)",
+                computedOn, employees, eligibleEmployees, amount, Math.max(replacedIds.size(), total));
+    }
+
+    /**
+     * Sums the stored gratuity liability per direct manager, with the manager's name.
+     * @return One total per manager ordered by manager ID, then one for the top-level employees
+     */
+    @Transactional(readOnly = true)
+    public List<GratuityLiabilityTotal> gratuityLiabilityByManager() {
+        LocalDate computedOn = lastGratuityComputation();
+        return jdbcTemplate.query("SELECT g.manager_id, m.name, COUNT(*), "
+                        + "SUM(CASE WHEN g.eligible THEN 1 ELSE 0 END), ROUND(SUM(g.amount), 2) "
+                        + "FROM gratuity_liability g LEFT JOIN employees m ON m.id = g.manager_id "
+                        + "GROUP BY g.manager_id, m.name ORDER BY g.manager_id NULLS LAST",
+                (rs, rowNum) -> new GratuityLiabilityTotal(rs.getObject(1, Long.class), rs.getString(2), null,
+                        rs.getLong(3), rs.getLong(4), rs.getDouble(5), computedOn));
+    }
+
+    /**
+     * Sums the stored gratuity liability per category.
+     * @return One total per category ordered by category, then one for employees without a category
+     */
+    @Transactional(readOnly = true)
+    public List<GratuityLiabilityTotal> gratuityLiabilityByCategory() {
+        LocalDate computedOn = lastGratuityComputation();
+        return jdbcTemplate.query("SELECT category, COUNT(*), SUM(CASE WHEN eligible THEN 1 ELSE 0 END), "
+                        + "ROUND(SUM(amount), 2) FROM gratuity_liability GROUP BY category ORDER BY category NULLS LAST",
+                (rs, rowNum) -> new GratuityLiabilityTotal(null, null, rs.getString(1),
+                        rs.getLong(2), rs.getLong(3), rs.getDouble(4), computedOn));
+    }
+
+    private LocalDate lastGratuityComputation() {
+        List<LocalDate> dates = jdbcTemplate.queryForList(
+                "SELECT computed_on FROM gratuity_liability_run ORDER BY id DESC LIMIT 1", LocalDate.class);
+        return dates.isEmpty() ? null : dates.get(0);
+    }
+
+    private static void loadManagers(NamedParameterJdbcTemplate named, Collection<Long> ids, Map<Long, Long> managerOf) {
+        forEachChunk(ids, chunk -> named.query("SELECT id, manager_id FROM employees WHERE id IN (:ids)",
+                Map.of("ids", chunk), (RowCallbackHandler) rs -> managerOf.put(rs.getLong(1), rs.getObject(2, Long.class))));
+    }
+
+    // Ancestors of an employee as (ancestor ID, depth) pairs, derived bottom-up along the manager chain and memoised
+    private static List<long[]> chainOf(Long employeeId, Map<Long, Long> managerOf, Map<Long, List<long[]>> chains) {
+        Deque<Long> path = new ArrayDeque<>();
+        Set<Long> onPath = new HashSet<>();
+        Long current = employeeId;
+        while (!chains.containsKey(current)) {
+            if (!managerOf.containsKey(current)) {
+                throw new IllegalStateException("Manager with ID " + current + " not found");
+            }
+            if (!onPath.add(current)) {
+                throw new IllegalStateException("Reporting cycle through employee " + current);
+            }
+            path.push(current);
+            current = managerOf.get(current);
+            if (current == null) {
+                break;
+            }
+        }
+        while (!path.isEmpty()) {
+            Long id = path.pop();
+            Long manager = managerOf.get(id);
+            List<long[]> above = manager != null ? chains.get(manager) : List.of();
+            List<long[]> chain = new ArrayList<>(above.size() + 1);
+            chain.add(new long[]{id, 0});
+            for (long[] ancestor : above) {
+                chain.add(new long[]{ancestor[0], ancestor[1] + 1});
+            }
+            chains.put(id, chain);
+        }
+        return chains.get(employeeId);
+    }
+
+    private static void forEachChunk(Collection<Long> ids, Consumer<List<Long>> action) {
+        List<Long> chunk = new ArrayList<>(Math.min(ids.size(), IN_LIST_CHUNK));
+        for (Long id : ids) {
+            chunk.add(id);
+            if (chunk.size() == IN_LIST_CHUNK) {
+                action.accept(chunk);
+                chunk = new ArrayList<>(IN_LIST_CHUNK);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            action.accept(chunk);
+        }
+    }
+}
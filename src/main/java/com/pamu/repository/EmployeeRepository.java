@@ -1,13 +1,47 @@
 package com.pamu.repository;
 
+import com.pamu.dto.DepthHeadcount;
+import com.pamu.dto.EmployeeHierarchyRow;
 import com.pamu.model.Employee;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
-public interface EmployeeRepository extends JpaRepository<Employee, Integer> {
+public interface EmployeeRepository extends JpaRepository<Employee, Long> {
 
-    @Query(value = "SELECT * FROM employees ORDER BY salary DESC LIMIT 1 OFFSET :n", nativeQuery = true)
+    // Same ranking as EmployeeDirectory: employees without a salary are left out and ties go to the lower ID
+    @Query(value = "SELECT * FROM employees WHERE salary IS NOT NULL ORDER BY salary DESC, id LIMIT 1 OFFSET :n",
+            nativeQuery = true)
     Employee findNthHighestSalary(int n);
+
+    // Filters on the manager_id column itself; the derived query joined the manager row and scanned the table
+    @Query("SELECT e FROM Employee e WHERE e.manager.id = :managerId")
+    List<Employee> findByManagerId(Long managerId);
+
+    // Walks the manager_id index level by level, so the cost is proportional to the subtree, not the table
+    @Query(value = "WITH RECURSIVE subtree (id, manager_id, name, category, depth) AS (" +
+            "SELECT id, manager_id, name, category, 0 FROM employees WHERE id = :managerId " +
+            "UNION ALL " +
+            "SELECT e.id, e.manager_id, e.name, e.category, s.depth + 1 FROM employees e " +
+            "JOIN subtree s ON e.manager_id = s.id WHERE s.depth < :maxDepth) " +
+            "SELECT id AS id, manager_id AS managerId, name AS name, category AS category FROM subtree ORDER BY id",
+            nativeQuery = true)
+    List<EmployeeHierarchyRow> findSubtreeRows(Long managerId, int maxDepth);
+
+    // The closure queries below are primary-key / index range scans on employee_closure
+
+    @Query(value = "SELECT e.* FROM employee_closure c JOIN employees e ON e.id = c.descendant_id " +
+            "WHERE c.ancestor_id = :managerId AND c.depth <= :maxDepth ORDER BY c.depth, e.id", nativeQuery = true)
+    List<Employee> findSubtree(Long managerId, int maxDepth);
+
+    @Query(value = "SELECT e.* FROM employee_closure c JOIN employees e ON e.id = c.ancestor_id " +
+            "WHERE c.descendant_id = :employeeId AND c.depth > 0 ORDER BY c.depth", nativeQuery = true)
+    List<Employee> findAncestors(Long employeeId);
+
+    @Query(value = "SELECT c.depth AS depth, COUNT(*) AS headcount FROM employee_closure c " +
+            "WHERE c.ancestor_id = :managerId GROUP BY c.depth ORDER BY c.depth", nativeQuery = true)
+    List<DepthHeadcount> countSubtreeByDepth(Long managerId);
 }
@@ -0,0 +1,58 @@
+package com.pamu.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+public class ApiRateLimitFilter extends OncePerRequestFilter {
+
+    static final String THROTTLED_BODY = "{\"error\":\"Too many requests. Please retry later.\"}";
+
+    @Autowired ApiRateLimiter apiRateLimiter;
+
+    /**
+     * Admits authenticated API requests through the per-user token buckets of {@link ApiRateLimiter}.
+     * This method is developed so that one client hammering imports, downloads or full-table reports cannot
+     * degrade the service for everyone else. It runs after {@link JwtAuthenticationFilter}, so the user is known;
+     * unauthenticated requests pass on and are rejected by the security chain.
+     *
+     * @param request  the HTTP request
+     * @param response the HTTP response, 429 with Retry-After in seconds when the request is throttled
+     * @param chain    the filter chain
+     * @throws ServletException if a servlet error occurs
+     * @throws IOException      if an I/O error occurs
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()) {
+            long retryAfterSeconds = apiRateLimiter.tryAcquire(authentication.getName(), request.getRequestURI());
+            if (retryAfterSeconds > 0) {
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.getWriter().write(THROTTLED_BODY);
+                return;
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) throws ServletException {
+        String path = request.getRequestURI();
+        // Logins have their own limits in LoginRateLimiter
+        return !path.startsWith("/api/") || path.startsWith("/api/auth/");
+    }
+}
@@ -0,0 +1,122 @@
+package com.pamu.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-user token buckets for the API. Every request takes tokens from the bucket of the authenticated user:
+ * one for an ordinary request, more for the endpoints configured in {@code api.rate-limit.costs}, so a script
+ * repeating an import or a full-table report runs dry long before one paging through employees does.
+ */
+@Component
+public class ApiRateLimiter {
+
+    static final String OTHER_ENDPOINTS = "other";
+
+    @Autowired MeterRegistry meterRegistry;
+
+    @Value("${api.rate-limit.enabled:true}")
+    private boolean enabled = true;
+    @Value("${api.rate-limit.capacity:100}")
+    private long capacity = 100;
+    @Value("${api.rate-limit.refill-per-second:10}")
+    private double refillPerSecond = 10;
+    @Value("${api.rate-limit.max-keys:100000}")
+    private long maxKeys = 100_000;
+    // Entries of the form path-pattern=cost; the first pattern matching a path gives its cost
+    @Value("${api.rate-limit.costs:}")
+    private String[] costs = {};
+
+    LongSupplier clock = System::nanoTime;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<EndpointCost> endpointCosts = new ArrayList<>();
+    private EndpointCost otherEndpoints;
+    private TokenBucketRateLimiter limiter;
+
+    @PostConstruct
+    void init() {
+        for (String entry : costs) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.lastIndexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Rate limit cost '" + entry.trim() + "' is not of the form path-pattern=cost");
+            }
+            double cost = Double.parseDouble(entry.substring(separator + 1).trim());
+            if (cost <= 0) {
+                throw new IllegalArgumentException("Rate limit cost of '" + entry.trim() + "' must be > 0");
+            }
+            endpointCosts.add(new EndpointCost(entry.substring(0, separator).trim(), cost));
+        }
+        otherEndpoints = new EndpointCost(OTHER_ENDPOINTS, 1);
+        limiter = new TokenBucketRateLimiter(capacity, refillPerSecond, maxKeys, clock);
+    }
+
+    /**
+     * Admits a request of a user against the user's token bucket.
+     * This method is developed so that one client repeating expensive requests is slowed down without affecting
+     * anyone else; the cost of the endpoint is taken from the bucket only when the request is admitted.
+     * @param username The authenticated user
+     * @param path The request path
+     * @return 0 if the request is admitted, otherwise the number of seconds the client should wait
+     */
+    public long tryAcquire(String username, String path) {
+        if (!enabled) {
+            return 0;
+        }
+        EndpointCost endpoint = costOf(path);
+        long waitNanos = limiter.tryAcquire(username, endpoint.cost);
+        if (waitNanos == 0) {
+            endpoint.admitted.increment();
+            return 0;
+        }
+        endpoint.throttled.increment();
+        return Math.max(1, (long) Math.ceil(waitNanos / 1_000_000_000d));
+    }
+
+    private EndpointCost costOf(String path) {
+        for (EndpointCost endpoint : endpointCosts) {
+            if (pathMatcher.match(endpoint.pattern, path)) {
+                return endpoint;
+            }
+        }
+        return otherEndpoints;
+    }
+
+    /**
+     * The tokens taken by the requests matching one pattern, and the counters of their outcomes.
+     * Counters are tagged with the pattern rather than the path, so path variables never add meters.
+     */
+    private final class EndpointCost {
+        final String pattern;
+        final double cost;
+        final Counter admitted;
+        final Counter throttled;
+
+        EndpointCost(String pattern, double cost) {
+            this.pattern = pattern;
+            this.cost = cost;
+            admitted = counter("admitted");
+            throttled = counter("throttled");
+        }
+
+        private Counter counter(String outcome) {
+            return Counter.builder("api.rate-limit.requests")
+                    .description("Authenticated API requests by rate limit outcome")
+                    .tag("endpoint", pattern)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -8,7 +8,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
@@ -16,12 +15,12 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     @Autowired JwtTokenProvider jwtTokenProvider;
-    @Autowired UserDetailsService userDetailsService;
 
     /**
      * Filters incoming HTTP requests to authenticate users based on JWT tokens.
      * This method is developed to provide stateless, token-based authentication for all secured endpoints.
      * It extracts the JWT from the Authorization header, validates it, and sets the authentication in the security context.
+     * The principal is built from the token claims, so no user lookup happens per request.
      * If the token is invalid or missing, the request proceeds without authentication.
      *
      * @param request  the HTTP request
@@ -1,6 +1,7 @@
 package com.pamu.security;
 
 import com.pamu.model.User;
+import com.pamu.service.CredentialVersionService;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
@@ -8,28 +9,29 @@ import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.util.Date;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class JwtTokenProvider {
 
-    @Autowired UserDetailsService userDetailsService;
+    @Autowired CredentialVersionService credentialVersionService;
 
     private static final Key SECRET_KEY = Keys.secretKeyFor(SignatureAlgorithm.HS512); // Generates secure 512-bit key
     private static final long EXPIRATION_TIME = 86400000L; // 1 day
+    private static final String ROLE_CLAIM = "role";
+    private static final String VERSION_CLAIM = "ver";
 
-    private final Set<String> invalidTokens = new HashSet<>();
+    private final Set<String> invalidTokens = ConcurrentHashMap.newKeySet();
 
     /**
      * Generates a JWT token for the given user.
      * This method is developed to provide secure, stateless authentication for the application using JWT.
+     * The username, role and credential version are embedded so that requests can be authenticated from the claims alone.
      * @param user The user for whom the token is generated
      * @return The generated JWT token as a String
      */
@@ -37,6 +39,8 @@ public class JwtTokenProvider {
     public String generateToken(User user) {
         return Jwts.builder()
                 .setSubject(user.getUsername())
+                .claim(ROLE_CLAIM, user.getRole())
+                .claim(VERSION_CLAIM, user.getCredentialVersion() != null ? user.getCredentialVersion() : 0)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
                 .signWith(SignatureAlgorithm.HS512, SECRET_KEY)
@@ -55,17 +59,19 @@ public class JwtTokenProvider {
     }
 
     /**
-     * Validates the given JWT token for authenticity and expiration.
-     * This method is developed to ensure that only valid and non-expired tokens are accepted for authentication.
+     * Validates the given JWT token for authenticity, expiration and credential version.
+     * This method is developed to ensure that only valid and non-expired tokens are accepted for authentication,
+     * and that tokens issued before a password or role change are rejected.
      * @param token The JWT token to validate
-     * @return true if the token is valid and not expired, false otherwise
+     * @return true if the token is valid, not expired and current, false otherwise
      */
     // Validate Token
     public boolean validateToken(String token) {
         if (invalidTokens.contains(token)) return false;
         try {
-            Jwts.parser().setSigningKey(SECRET_KEY).build().parseClaimsJws(token);
-            return true;
+            Claims claims = getClaims(token);
+            Integer version = claims.get(VERSION_CLAIM, Integer.class);
+            return version != null && credentialVersionService.isCurrent(claims.getSubject(), version);
         } catch (Exception e) {
             return false;
         }
@@ -79,11 +85,19 @@ public class JwtTokenProvider {
                 .getBody();
     }
 
-    // **Fix: Implementing getAuthentication method**
+    /**
+     * Builds the authentication for the given JWT token from its claims.
+     * This method is developed to authenticate requests without a users table lookup; the token must be validated first.
+     * @param token The validated JWT token
+     * @return Authentication whose principal carries the username, role and credential version from the token
+     */
     public Authentication getAuthentication(String token) {
-        String username = extractUsername(token);
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-        return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+        Claims claims = getClaims(token);
+        User principal = new User();
+        principal.setUsername(claims.getSubject());
+        principal.setRole(claims.get(ROLE_CLAIM, String.class));
+        principal.setCredentialVersion(claims.get(VERSION_CLAIM, Integer.class));
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
     }
 
     public void invalidateToken(String token) {
@@ -0,0 +1,44 @@
+package com.pamu.security;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class LoginRateLimiter {
+
+    @Value("${auth.login.rate-limit.username.capacity:5}")
+    private long usernameCapacity;
+    @Value("${auth.login.rate-limit.username.refill-per-second:0.1}")
+    private double usernameRefillPerSecond;
+    @Value("${auth.login.rate-limit.ip.capacity:20}")
+    private long ipCapacity;
+    @Value("${auth.login.rate-limit.ip.refill-per-second:1}")
+    private double ipRefillPerSecond;
+    @Value("${auth.login.rate-limit.max-keys:100000}")
+    private long maxKeys;
+
+    private TokenBucketRateLimiter usernameLimiter;
+    private TokenBucketRateLimiter ipLimiter;
+
+    @PostConstruct
+    void init() {
+        usernameLimiter = new TokenBucketRateLimiter(usernameCapacity, usernameRefillPerSecond, maxKeys);
+        ipLimiter = new TokenBucketRateLimiter(ipCapacity, ipRefillPerSecond, maxKeys);
+    }
+
+    /**
+     * Admits a login attempt against the per-IP and per-username token buckets.
+     * This method is developed to turn away credential-stuffing bursts before the expensive password hash runs.
+     * @param username The username being logged in
+     * @param clientIp The remote address of the client
+     * @return 0 if the attempt is admitted, otherwise the number of seconds the client should wait
+     */
+    public long tryAcquire(String username, String clientIp) {
+        long waitNanos = ipLimiter.tryAcquire(String.valueOf(clientIp), 1);
+        if (waitNanos == 0) {
+            waitNanos = usernameLimiter.tryAcquire(String.valueOf(username), 1);
+        }
+        return waitNanos == 0 ? 0 : Math.max(1, (long) Math.ceil(waitNanos / 1_000_000_000d));
+    }
+}
@@ -0,0 +1,64 @@
+package com.pamu.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Keyed token-bucket rate limiter.
+ * Each key owns a bucket of at most {@code capacity} tokens that refills continuously at {@code refillPerSecond}.
+ * Buckets are updated with a compare-and-set loop, so acquiring never blocks or takes a lock.
+ */
+public class TokenBucketRateLimiter {
+
+    private final double capacity;
+    private final double refillPerNano;
+    private final LongSupplier clock;
+    private final Cache<String, AtomicReference<Bucket>> buckets;
+
+    public TokenBucketRateLimiter(long capacity, double refillPerSecond, long maxKeys) {
+        this(capacity, refillPerSecond, maxKeys, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(long capacity, double refillPerSecond, long maxKeys, LongSupplier clock) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Capacity must be >= 1 and refill rate must be > 0");
+        }
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1_000_000_000d;
+        this.clock = clock;
+        // An idle bucket is full again after capacity / refill seconds, so it can be dropped after that
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofNanos((long) Math.ceil(capacity / refillPerNano)))
+                .build();
+    }
+
+    /**
+     * Tries to take {@code cost} tokens from the bucket of the given key.
+     * @param key The bucket key (e.g. username or client IP)
+     * @param cost Number of tokens to take; values above the capacity are capped to the capacity
+     * @return 0 if the tokens were taken, otherwise the number of nanoseconds until enough tokens are available
+     */
+    public long tryAcquire(String key, double cost) {
+        double required = Math.min(cost, capacity);
+        AtomicReference<Bucket> ref = buckets.get(key, k -> new AtomicReference<>(new Bucket(capacity, clock.getAsLong())));
+        while (true) {
+            Bucket current = ref.get();
+            long now = clock.getAsLong();
+            double tokens = Math.min(capacity, current.tokens() + Math.max(0, now - current.timestamp()) * refillPerNano);
+            if (tokens < required) {
+                return Math.max(1, (long) Math.ceil((required - tokens) / refillPerNano));
+            }
+            if (ref.compareAndSet(current, new Bucket(tokens - required, now))) {
+                return 0;
+            }
+        }
+    }
+
+    private record Bucket(double tokens, long timestamp) {
+    }
+}
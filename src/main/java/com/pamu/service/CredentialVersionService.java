@@ -0,0 +1,65 @@
+package com.pamu.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pamu.model.User;
+import com.pamu.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class CredentialVersionService {
+
+    @Autowired UserRepository userRepository;
+
+    private final Cache<String, Integer> versions = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .build();
+
+    /**
+     * Records the current credential version of a user that has just logged in.
+     * This method is developed to let token validation run without a users table query on every request.
+     * @param user The authenticated user
+     */
+    public void remember(User user) {
+        versions.put(user.getUsername(), versionOf(user));
+    }
+
+    /**
+     * Checks whether a token's credential version still matches the user's current version.
+     * This method is developed to reject tokens issued before a password or role change.
+     * The users table is only read when the version is not cached (e.g. after eviction).
+     * @param username The username from the token subject
+     * @param tokenVersion The credential version embedded in the token
+     * @return true if the token version is current, false otherwise
+     */
+    public boolean isCurrent(String username, int tokenVersion) {
+        Integer current = versions.get(username, this::loadVersion);
+        return current != null && current == tokenVersion;
+    }
+
+    /**
+     * Increments the credential version of a user after a password or role change.
+     * This method is developed to revoke every token issued for the user before the change.
+     * @param user The user whose credentials changed
+     * @return The saved user with the new credential version
+     */
+    @Transactional
+    public User bumpVersion(User user) {
+        user.setCredentialVersion(versionOf(user) + 1);
+        User saved = userRepository.save(user);
+        versions.put(saved.getUsername(), versionOf(saved));
+        return saved;
+    }
+
+    private Integer loadVersion(String username) {
+        return userRepository.findByUsername(username)
+                .map(CredentialVersionService::versionOf)
+                .orElse(null);
+    }
+
+    private static int versionOf(User user) {
+        return user.getCredentialVersion() != null ? user.getCredentialVersion() : 0;
+    }
+}
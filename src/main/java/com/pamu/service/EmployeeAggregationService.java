@@ -0,0 +1,300 @@
+package com.pamu.service;
+
+import com.pamu.dto.GroupAggregate;
+import com.pamu.exception.InvalidEmployeeDataException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Group-by aggregation over the {@link EmployeeColumns} snapshot for HR dashboards: headcount, payroll, salary
+ * range and average tenure per state, city and category, or any combination of them.
+ * The dictionary codes of the grouping fields are combined into one group number per row, and every metric is
+ * accumulated into primitive arrays indexed by group number, so no value is boxed per row. Large datasets are
+ * split into one range per core, aggregated in parallel and the partial arrays added up.
+ */
+@Service
+public class EmployeeAggregationService {
+
+    // Up to this many combinations of grouping values, the combined code is the group number itself
+    static final int DENSE_GROUPS = 1 << 16;
+
+    private static final double DAYS_PER_YEAR = 365.25;
+
+    @Autowired EmployeeColumnStore employeeColumnStore;
+
+    @Value("${employee.aggregation.parallel-threshold:100000}")
+    private int parallelThreshold = 100_000;
+
+    /**
+     * The figures that can be computed per group, by the name clients use for them.
+     */
+    public enum Metric {
+        HEADCOUNT("headcount"),
+        PAYROLL("payroll"),
+        AVG_SALARY("avgSalary"),
+        MIN_SALARY("minSalary"),
+        MAX_SALARY("maxSalary"),
+        AVG_TENURE_YEARS("avgTenureYears");
+
+        private final String label;
+
+        Metric(String label) {
+            this.label = label;
+        }
+
+        static Metric parse(String name) {
+            for (Metric metric : values()) {
+                if (metric.label.equalsIgnoreCase(name.trim())) {
+                    return metric;
+                }
+            }
+            throw new InvalidEmployeeDataException("Unknown metric '" + name + "'; use "
+                    + String.join(", ", Arrays.stream(values()).map(metric -> metric.label).toList()));
+        }
+    }
+
+    /**
+     * Aggregates all employees per combination of the grouping fields.
+     * This method is developed so that dashboards get their breakdowns from the server instead of computing them
+     * from a full export; employees without a value for a grouping field form their own group with a null value.
+     * @param groupBy Grouping fields (state, city, category) in the order of the result keys; empty for one total
+     * @param metrics Metric names; empty for headcount, payroll and average tenure
+     * @return One entry per non-empty group, ordered by the grouping values
+     */
+    public List<GroupAggregate> aggregate(List<String> groupBy, List<String> metrics) {
+        List<EmployeeColumns.Attribute> keys = groupBy == null ? List.of()
+                : groupBy.stream().filter(key -> !key.isBlank()).map(EmployeeColumns.Attribute::parse).toList();
+        if (keys.stream().distinct().count() != keys.size()) {
+            throw new InvalidEmployeeDataException("Each grouping field may be given once");
+        }
+        List<Metric> selected = metrics == null || metrics.stream().allMatch(String::isBlank)
+                ? List.of(Metric.HEADCOUNT, Metric.PAYROLL, Metric.AVG_TENURE_YEARS)
+                : metrics.stream().filter(metric -> !metric.isBlank()).map(Metric::parse).distinct().toList();
+        return aggregate(employeeColumnStore.current(), keys, selected, LocalDate.now());
+    }
+
+    List<GroupAggregate> aggregate(EmployeeColumns columns, List<EmployeeColumns.Attribute> keys,
+                                   List<Metric> metrics, LocalDate today) {
+        Grouping grouping = new Grouping(columns, keys);
+        int todayDay = (int) today.toEpochDay();
+        int partitions = columns.size >= parallelThreshold ? ForkJoinPool.getCommonPoolParallelism() : 1;
+        Accumulators totals = IntStream.range(0, partitions).parallel()
+                .mapToObj(p -> accumulate(columns, grouping, todayDay,
+                        (int) ((long) columns.size * p / partitions), (int) ((long) columns.size * (p + 1) / partitions)))
+                .reduce(Accumulators::merge)
+                .orElseGet(() -> new Accumulators(grouping.groups));
+
+        List<GroupAggregate> results = new ArrayList<>();
+        for (int group = 0; group < grouping.groups; group++) {
+            if (totals.count[group] > 0) {
+                results.add(new GroupAggregate(grouping.labels(group), values(totals, group, metrics)));
+            }
+        }
+        Comparator<GroupAggregate> byGroup = (a, b) -> 0;
+        for (EmployeeColumns.Attribute key : keys) {
+            byGroup = byGroup.thenComparing(aggregate -> aggregate.getGroup().get(key.label()),
+                    Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+        }
+        results.sort(byGroup);
+        return results;
+    }
+
+    private static Accumulators accumulate(EmployeeColumns columns, Grouping grouping, int todayDay, int from, int to) {
+        Accumulators accumulators = new Accumulators(grouping.groups);
+        for (int row = from; row < to; row++) {
+            accumulators.add(grouping.groupOf(row), columns.salaries[row], columns.dojDays[row], todayDay);
+        }
+        return accumulators;
+    }
+
+    private static Map<String, Number> values(Accumulators totals, int group, List<Metric> metrics) {
+        Map<String, Number> values = new LinkedHashMap<>();
+        boolean anySalary = totals.salaryCount[group] > 0;
+        for (Metric metric : metrics) {
+            values.put(metric.label, switch (metric) {
+                case HEADCOUNT -> totals.count[group];
+                case PAYROLL -> anySalary ? round(totals.salarySum[group]) : null;
+                case AVG_SALARY -> anySalary ? round(totals.salarySum[group] / totals.salaryCount[group]) : null;
+                case MIN_SALARY -> anySalary ? totals.salaryMin[group] : null;
+                case MAX_SALARY -> anySalary ? totals.salaryMax[group] : null;
+                case AVG_TENURE_YEARS -> totals.tenureCount[group] > 0
+                        ? round(totals.tenureDays[group] / (double) totals.tenureCount[group] / DAYS_PER_YEAR) : null;
+            });
+        }
+        return values;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    /**
+     * Maps each row to a group number. The codes of the grouping fields are combined into one number in mixed
+     * radix; when the combinations fit in {@link #DENSE_GROUPS} that number is the group, otherwise the
+     * combinations that occur are numbered once up front, so the accumulators stay as small as the groups present.
+     */
+    private static final class Grouping {
+
+        private final int[][] codes;
+        private final long[] strides;
+        private final EmployeeColumns.Dictionary[] dictionaries;
+        private final List<EmployeeColumns.Attribute> keys;
+        private final int[] groupOfRow; // null when the combined code is the group
+        private final long[] combinedOfGroup;
+        final int groups;
+
+        Grouping(EmployeeColumns columns, List<EmployeeColumns.Attribute> keys) {
+            this.keys = keys;
+            codes = new int[keys.size()][];
+            strides = new long[keys.size()];
+            dictionaries = new EmployeeColumns.Dictionary[keys.size()];
+            long combinations = 1;
+            for (int k = keys.size() - 1; k >= 0; k--) {
+                dictionaries[k] = keys.get(k).of(columns);
+                codes[k] = dictionaries[k].codes;
+                strides[k] = combinations;
+                combinations *= dictionaries[k].cardinality();
+            }
+            if (combinations <= DENSE_GROUPS) {
+                groupOfRow = null;
+                combinedOfGroup = null;
+                groups = (int) combinations;
+            } else {
+                groupOfRow = new int[columns.size];
+                LongIntTable numbering = new LongIntTable(columns.size);
+                for (int row = 0; row < columns.size; row++) {
+                    groupOfRow[row] = numbering.numberOf(combined(row));
+                }
+                combinedOfGroup = numbering.keys();
+                groups = combinedOfGroup.length;
+            }
+        }
+
+        int groupOf(int row) {
+            return groupOfRow != null ? groupOfRow[row] : (int) combined(row);
+        }
+
+        private long combined(int row) {
+            long combined = 0;
+            for (int k = 0; k < codes.length; k++) {
+                combined += codes[k][row] * strides[k];
+            }
+            return combined;
+        }
+
+        Map<String, String> labels(int group) {
+            long combined = combinedOfGroup != null ? combinedOfGroup[group] : group;
+            Map<String, String> labels = new LinkedHashMap<>();
+            for (int k = 0; k < codes.length; k++) {
+                labels.put(keys.get(k).label(), dictionaries[k].value((int) (combined / strides[k])));
+                combined %= strides[k];
+            }
+            return labels;
+        }
+    }
+
+    /**
+     * Per-group running totals in primitive arrays. Each partition fills its own, then they are merged.
+     */
+    private static final class Accumulators {
+        final long[] count;
+        final long[] salaryCount;
+        final double[] salarySum;
+        final double[] salaryMin;
+        final double[] salaryMax;
+        final long[] tenureCount;
+        final long[] tenureDays;
+
+        Accumulators(int groups) {
+            count = new long[groups];
+            salaryCount = new long[groups];
+            salarySum = new double[groups];
+            salaryMin = new double[groups];
+            salaryMax = new double[groups];
+            tenureCount = new long[groups];
+            tenureDays = new long[groups];
+            Arrays.fill(salaryMin, Double.POSITIVE_INFINITY);
+            Arrays.fill(salaryMax, Double.NEGATIVE_INFINITY);
+        }
+
+        void add(int group, double salary, int dojDay, int todayDay) {
+            count[group]++;
+            if (!Double.isNaN(salary)) {
+                salaryCount[group]++;
+                salarySum[group] += salary;
+                salaryMin[group] = Math.min(salaryMin[group], salary);
+                salaryMax[group] = Math.max(salaryMax[group], salary);
+            }
+            if (dojDay != EmployeeColumns.NO_DATE && dojDay <= todayDay) {
+                tenureCount[group]++;
+                tenureDays[group] += todayDay - dojDay;
+            }
+        }
+
+        Accumulators merge(Accumulators other) {
+            for (int group = 0; group < count.length; group++) {
+                count[group] += other.count[group];
+                salaryCount[group] += other.salaryCount[group];
+                salarySum[group] += other.salarySum[group];
+                salaryMin[group] = Math.min(salaryMin[group], other.salaryMin[group]);
+                salaryMax[group] = Math.max(salaryMax[group], other.salaryMax[group]);
+                tenureCount[group] += other.tenureCount[group];
+                tenureDays[group] += other.tenureDays[group];
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Numbers distinct non-negative long keys 0, 1, 2, ... in order of first appearance, with open addressing
+     * over primitive arrays.
+     */
+    private static final class LongIntTable {
+        private long[] keys;
+        private int[] numbers;
+        private int size;
+
+        LongIntTable(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+            keys = new long[capacity];
+            numbers = new int[capacity];
+            Arrays.fill(keys, -1);
+        }
+
+        int numberOf(long key) {
+            int mask = keys.length - 1;
+            int slot = Long.hashCode(key * 0x9E3779B97F4A7C15L) & mask;
+            while (keys[slot] != -1) {
+                if (keys[slot] == key) {
+                    return numbers[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            numbers[slot] = size;
+            return size++;
+        }
+
+        // Keys by their number
+        long[] keys() {
+            long[] byNumber = new long[size];
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != -1) {
+                    byNumber[numbers[slot]] = keys[slot];
+                }
+            }
+            return byNumber;
+        }
+    }
+}
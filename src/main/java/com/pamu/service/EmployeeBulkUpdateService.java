@@ -0,0 +1,204 @@
+package com.pamu.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pamu.dto.BulkUpdateResult;
+import com.pamu.dto.EmployeePatch;
+import com.pamu.dto.EmployeePatchOutcome;
+import com.pamu.exception.InvalidEmployeeDataException;
+import com.pamu.repository.EmployeeJdbcRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Applies salary and manager changes for many employees in one transaction.
+ * Every row is validated on its own against the stored data and the rest of the request; invalid rows are
+ * rejected with a reason and the valid ones are written with JDBC batches.
+ */
+@Service
+public class EmployeeBulkUpdateService {
+
+    @Autowired EmployeeJdbcRepository employeeJdbcRepository;
+    @Autowired EmployeeDirectory employeeDirectory;
+    @Autowired EmployeeColumnStore employeeColumnStore;
+    @Autowired ObjectMapper objectMapper;
+
+    /**
+     * Reads a stream of changes and applies the valid ones.
+     * This method is developed for compensation cycles and reorganisations that touch tens of thousands of employees:
+     * the reporting graph is loaded once, each row is checked in O(1), manager moves are checked for cycles in one
+     * linear pass, and the writes go out as batched UPDATEs followed by one incremental closure refresh.
+     * @param body Newline-delimited JSON objects, or a JSON array, of {"id", "salary"?, "managerId"?}
+     * @return Counts and the outcome of every row, in request order
+     * @throws InvalidEmployeeDataException if the body is not well-formed JSON
+     */
+    @Transactional
+    public BulkUpdateResult applyPatches(InputStream body) {
+        List<EmployeePatch> patches = readPatches(body);
+        Map<Long, Long> managerOf = employeeJdbcRepository.loadManagerIds();
+
+        String[] errors = new String[patches.size()];
+        Set<Long> seen = new HashSet<>();
+        Map<Long, Integer> moves = new LinkedHashMap<>(); // employee ID -> row of an accepted manager change
+        for (int row = 0; row < patches.size(); row++) {
+            EmployeePatch patch = patches.get(row);
+            errors[row] = validate(patch, managerOf, seen);
+            if (errors[row] == null && patch.isManagerIdPresent()
+                    && !Objects.equals(managerOf.get(patch.getId()), patch.getManagerId())) {
+                moves.put(patch.getId(), row);
+            }
+        }
+        rejectCycles(patches, managerOf, moves, errors);
+
+        Map<Long, Double> salaries = new HashMap<>();
+        Map<Long, Long> managers = new HashMap<>();
+        List<EmployeePatchOutcome> outcomes = new ArrayList<>(patches.size());
+        List<EmployeePatch> applied = new ArrayList<>();
+        for (int row = 0; row < patches.size(); row++) {
+            EmployeePatch patch = patches.get(row);
+            if (errors[row] != null) {
+                outcomes.add(new EmployeePatchOutcome(row + 1, patch.getId(), EmployeePatchOutcome.REJECTED, errors[row]));
+                continue;
+            }
+            if (patch.getSalary() != null) {
+                salaries.put(patch.getId(), patch.getSalary());
+            }
+            if (moves.containsKey(patch.getId())) {
+                managers.put(patch.getId(), patch.getManagerId());
+            }
+            applied.add(patch);
+            outcomes.add(new EmployeePatchOutcome(row + 1, patch.getId(), EmployeePatchOutcome.UPDATED, null));
+        }
+
+        if (!applied.isEmpty()) {
+            employeeJdbcRepository.batchUpdateSalaries(salaries);
+            employeeJdbcRepository.batchUpdateManagers(managers);
+            employeeJdbcRepository.refreshClosure(managers.keySet());
+            List<Long> changed = applied.stream().map(EmployeePatch::getId).toList();
+            EmployeeDataVersion.runAfterCommit(() -> employeeColumnStore.publishChanged(changed));
+            EmployeeDataVersion.runAfterCommit(() -> employeeDirectory.refresh(changed));
+        }
+        return new BulkUpdateResult(applied.size(), patches.size() - applied.size(), outcomes);
+    }
+
+    private List<EmployeePatch> readPatches(InputStream body) {
+        List<EmployeePatch> patches = new ArrayList<>();
+        try (MappingIterator<EmployeePatch> rows = objectMapper.readerFor(EmployeePatch.class).readValues(body)) {
+            while (rows.hasNextValue()) {
+                patches.add(rows.nextValue());
+            }
+        } catch (IOException | RuntimeException e) {
+            throw new InvalidEmployeeDataException("Malformed change at row " + (patches.size() + 1) + ": " + e.getMessage(), e);
+        }
+        return patches;
+    }
+
+    private static String validate(EmployeePatch patch, Map<Long, Long> managerOf, Set<Long> seen) {
+        Long id = patch.getId();
+        if (id == null) {
+            return "Employee ID is required";
+        }
+        if (!managerOf.containsKey(id)) {
+            return "Employee with ID " + id + " not found";
+        }
+        if (!seen.add(id)) {
+            return "Employee " + id + " appears more than once in this request";
+        }
+        if (patch.getSalary() == null && !patch.isManagerIdPresent()) {
+            return "Nothing to change: give a salary and/or a managerId";
+        }
+        if (patch.getSalary() != null && patch.getSalary() < 0) {
+            return "Salary must not be negative";
+        }
+        Long managerId = patch.getManagerId();
+        if (managerId != null && managerId.equals(id)) {
+            return "An employee cannot be their own manager";
+        }
+        if (managerId != null && !managerOf.containsKey(managerId)) {
+            return "Manager with ID " + managerId + " not found";
+        }
+        return null;
+    }
+
+    /**
+     * Walks up from every moved employee over the reporting graph as it would be after the moves, colouring nodes
+     * as on-path or finished so that each node is walked once. A path that reaches an on-path node has found a
+     * cycle: the moves on it are rejected, its nodes are uncoloured and the walk goes on from where the cycle
+     * started, now over the original managers of the rejected moves, so a cycle that only appears once a move is
+     * rejected is caught in the same pass. Only the nodes of rejected cycles are walked again.
+     * A cycle that none of the moves touches is already in the data (concurrent single moves can leave one behind);
+     * it is coloured as such, and a move whose path runs into it is rejected and walked again from its old manager,
+     * so the pass ends even then.
+     */
+    private static void rejectCycles(List<EmployeePatch> patches, Map<Long, Long> managerOf,
+                                     Map<Long, Integer> moves, String[] errors) {
+        final byte onPath = 1;
+        final byte finished = 2;
+        final byte existingCycle = 3; // on or leading into a cycle that is already in the data
+        Map<Long, Byte> colour = new HashMap<>();
+        for (Long start : List.copyOf(moves.keySet())) {
+            List<Long> path = new ArrayList<>();
+            Long current = start;
+            byte outcome = finished;
+            while (current != null) {
+                Byte seen = colour.get(current);
+                if (seen == null) {
+                    colour.put(current, onPath);
+                    path.add(current);
+                    Integer moveRow = moves.get(current);
+                    current = moveRow != null ? patches.get(moveRow).getManagerId() : managerOf.get(current);
+                    continue;
+                }
+                if (seen == finished) {
+                    break;
+                }
+                if (seen == onPath) {
+                    // The cycle is the tail of the path starting at the node we came back to
+                    List<Long> tail = path.subList(path.indexOf(current), path.size());
+                    List<Long> cycle = List.copyOf(tail);
+                    tail.clear();
+                    if (cycle.stream().anyMatch(moves::containsKey)) {
+                        for (Long member : cycle) {
+                            Integer moveRow = moves.remove(member);
+                            if (moveRow != null) {
+                                errors[moveRow] = "Moving employee " + member + " would create a reporting cycle through " + cycle;
+                            }
+                            colour.remove(member);
+                        }
+                        continue;
+                    }
+                    cycle.forEach(member -> colour.put(member, existingCycle));
+                }
+                // The path runs into an existing cycle
+                if (path.stream().noneMatch(moves::containsKey)) {
+                    outcome = existingCycle;
+                    break;
+                }
+                for (Long node : path) {
+                    Integer moveRow = moves.remove(node);
+                    if (moveRow != null) {
+                        errors[moveRow] = "Moving employee " + node + " would place them under an existing reporting cycle";
+                    }
+                    colour.remove(node);
+                }
+                path.clear();
+                current = start;
+            }
+            for (Long node : path) {
+                colour.put(node, outcome);
+            }
+        }
+    }
+}
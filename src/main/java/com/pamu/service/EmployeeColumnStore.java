@@ -0,0 +1,133 @@
+package com.pamu.service;
+
+import com.pamu.model.Employee;
+import com.pamu.repository.EmployeeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds the {@link EmployeeColumns} snapshot of the current data generation.
+ * The snapshot is built on first use after a change, once, however many requests ask for it at the same time;
+ * until then every analytic query reuses it. After an import or an edit the next snapshot is built before the
+ * generation advances, so readers go straight from the old snapshot to the new one.
+ */
+@Component
+public class EmployeeColumnStore {
+
+    @Autowired EmployeeService employeeService;
+    @Autowired EmployeeDataVersion employeeDataVersion;
+    @Autowired EmployeeRepository employeeRepository;
+    @Autowired(required = false) CacheManager cacheManager;
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeColumnStore.class);
+
+    private final AtomicReference<EmployeeColumns> current = new AtomicReference<>();
+    private final ReentrantLock buildLock = new ReentrantLock();
+
+    /**
+     * @return The columns of the current data generation
+     */
+    EmployeeColumns current() {
+        // Read before loading, so data committed during the load makes the next call rebuild
+        long generation = employeeDataVersion.current();
+        EmployeeColumns columns = current.get();
+        // A newer snapshot than the generation read here is fine to serve
+        if (columns != null && columns.generation >= generation) {
+            return columns;
+        }
+        buildLock.lock();
+        try {
+            columns = current.get();
+            if (columns == null || columns.generation < generation) {
+                columns = install(EmployeeColumns.of(inIdOrder(employeeService.getAllEmployeesFromCache()), generation));
+            }
+            return columns;
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    /**
+     * Reads back the committed employees, builds their snapshot and advances the data generation with it in place.
+     * This method is developed for imports: while it runs, readers keep getting the previous snapshot and cached
+     * employee list, and once the generation advances the new ones are already there, so read latency does not
+     * jump after a large import. Runs after the import has committed.
+     * @return The new data generation
+     */
+    long publishCommitted() {
+        long readAt = employeeDataVersion.current();
+        return publish(Collections.unmodifiableList(inIdOrder(employeeRepository.findAll())), readAt);
+    }
+
+    /**
+     * Derives the next snapshot and employee list from the current ones and the committed rows of the given
+     * employees, and advances the data generation with them in place.
+     * This method is developed for single-row and bulk edits: only the changed rows are read, never the whole table.
+     * Without a snapshot of the current generation to derive from, or if the rows cannot be read, the generation
+     * just advances and the next reader builds the snapshot. Runs after the edit has committed.
+     * @param employeeIds IDs of the employees the edit wrote or deleted
+     * @return The new data generation
+     */
+    long publishChanged(Collection<Long> employeeIds) {
+        long readAt = employeeDataVersion.current();
+        EmployeeColumns previous = current.get();
+        if (previous == null || previous.generation != readAt) {
+            return employeeDataVersion.advance();
+        }
+        Set<Long> changed = new HashSet<>(employeeIds);
+        List<Employee> employees = new ArrayList<>(previous.size + changed.size());
+        for (Employee employee : previous.employees) {
+            if (!changed.contains(employee.getId())) {
+                employees.add(employee);
+            }
+        }
+        try {
+            employees.addAll(employeeRepository.findAllById(changed));
+        } catch (RuntimeException e) {
+            log.error("Failed to read the changed employees {}; the snapshot will be rebuilt", changed, e);
+            return employeeDataVersion.advance();
+        }
+        return publish(Collections.unmodifiableList(inIdOrder(employees)), readAt);
+    }
+
+    // Builds the snapshot of the given rows for the generation after readAt and installs it with the advance
+    private long publish(List<Employee> employees, long readAt) {
+        EmployeeColumns columns = EmployeeColumns.of(employees, readAt + 1);
+        return employeeDataVersion.advance(readAt, () -> {
+            install(columns);
+            Cache cache = cacheManager != null ? cacheManager.getCache("allEmployees") : null;
+            if (cache != null) {
+                // The key of the cached method without arguments
+                cache.put(SimpleKey.EMPTY, employees);
+            }
+        });
+    }
+
+    // Never replaces a snapshot with an older one, whichever build finishes last
+    private EmployeeColumns install(EmployeeColumns columns) {
+        return current.accumulateAndGet(columns,
+                (existing, built) -> existing != null && existing.generation >= built.generation ? existing : built);
+    }
+
+    // In ID order, so scans that page through matches return them in a stable order
+    private static List<Employee> inIdOrder(List<Employee> employees) {
+        List<Employee> sorted = new ArrayList<>(employees);
+        sorted.sort(Comparator.comparing(Employee::getId));
+        return sorted;
+    }
+}
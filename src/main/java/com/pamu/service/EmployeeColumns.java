@@ -0,0 +1,181 @@
+package com.pamu.service;
+
+import com.pamu.dto.EmployeeDTO;
+import com.pamu.exception.InvalidEmployeeDataException;
+import com.pamu.model.Employee;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Column-oriented copy of all employees for analytics: one primitive array per numeric field, and state, city and
+ * category dictionary-encoded as int codes. Scans over it touch only the columns they need and never box a value.
+ * A snapshot is immutable and belongs to one data generation; {@link EmployeeColumnStore} hands out the current one.
+ */
+final class EmployeeColumns {
+
+    // Code of a missing value in every dictionary
+    static final int NONE = 0;
+    // Epoch day of an unknown date of joining
+    static final int NO_DATE = Integer.MIN_VALUE;
+
+    final long generation;
+    final int size;
+    final List<Employee> employees; // the rows the snapshot was built from, in the same order
+    final long[] ids;
+    final String[] names;
+    final long[] managerIds; // 0 for top-level employees
+    final double[] salaries; // NaN when unknown
+    final int[] dojDays;
+    final Dictionary states;
+    final Dictionary cities;
+    final Dictionary categories;
+
+    private EmployeeColumns(long generation, List<Employee> employees) {
+        this.generation = generation;
+        this.employees = employees;
+        size = employees.size();
+        ids = new long[size];
+        names = new String[size];
+        managerIds = new long[size];
+        salaries = new double[size];
+        dojDays = new int[size];
+        states = new Dictionary(size);
+        cities = new Dictionary(size);
+        categories = new Dictionary(size);
+    }
+
+    /**
+     * @param employees All employees
+     * @param generation Data generation the employees were read in
+     * @return The employees as columns, in the given order
+     */
+    static EmployeeColumns of(List<Employee> employees, long generation) {
+        EmployeeColumns columns = new EmployeeColumns(generation, employees);
+        for (int row = 0; row < columns.size; row++) {
+            Employee employee = employees.get(row);
+            columns.ids[row] = employee.getId();
+            columns.names[row] = employee.getName();
+            columns.managerIds[row] = employee.getManager() != null ? employee.getManager().getId() : 0;
+            columns.salaries[row] = employee.getSalary() != null ? employee.getSalary() : Double.NaN;
+            columns.dojDays[row] = employee.getDoj() != null ? (int) employee.getDoj().toEpochDay() : NO_DATE;
+            columns.states.encode(row, employee.getState());
+            columns.cities.encode(row, employee.getCity());
+            columns.categories.encode(row, employee.getCategory());
+        }
+        columns.states.seal();
+        columns.cities.seal();
+        columns.categories.seal();
+        return columns;
+    }
+
+    /**
+     * @param id Employee ID
+     * @return Row of the employee, or -1 if absent; requires rows in ID order, as {@link EmployeeColumnStore} builds them
+     */
+    int rowOf(long id) {
+        int row = Arrays.binarySearch(ids, id);
+        return row >= 0 ? row : -1;
+    }
+
+    /**
+     * @param row Row number
+     * @return The employee of the row as returned by the API
+     */
+    EmployeeDTO toDto(int row) {
+        return new EmployeeDTO(ids[row], names[row], Double.isNaN(salaries[row]) ? null : salaries[row],
+                categories.value(categories.codes[row]),
+                dojDays[row] != NO_DATE ? LocalDate.ofEpochDay(dojDays[row]) : null,
+                managerIds[row] != 0 ? managerIds[row] : null);
+    }
+
+    /**
+     * The dictionary-encoded text fields, by the name clients use for them.
+     */
+    enum Attribute {
+        STATE, CITY, CATEGORY;
+
+        static Attribute parse(String name) {
+            for (Attribute attribute : values()) {
+                if (attribute.name().equalsIgnoreCase(name.trim())) {
+                    return attribute;
+                }
+            }
+            throw new InvalidEmployeeDataException("Unknown field '" + name + "'; use state, city or category");
+        }
+
+        Dictionary of(EmployeeColumns columns) {
+            return switch (this) {
+                case STATE -> columns.states;
+                case CITY -> columns.cities;
+                case CATEGORY -> columns.categories;
+            };
+        }
+
+        String label() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * Distinct values of one text field and the code of every row. Values are compared ignoring case and
+     * surrounding blanks; the first spelling seen is the one reported. Code {@link #NONE} stands for a missing value.
+     */
+    static final class Dictionary {
+
+        final int[] codes;
+        private final Map<String, Integer> lookup = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        private List<String> building = new ArrayList<>();
+        private String[] values;
+
+        private Dictionary(int size) {
+            codes = new int[size];
+            building.add(null);
+        }
+
+        private void encode(int row, String value) {
+            if (value == null || value.isBlank()) {
+                codes[row] = NONE;
+                return;
+            }
+            String trimmed = value.trim();
+            Integer code = lookup.get(trimmed);
+            if (code == null) {
+                code = building.size();
+                building.add(trimmed);
+                lookup.put(trimmed, code);
+            }
+            codes[row] = code;
+        }
+
+        private void seal() {
+            values = building.toArray(String[]::new);
+            building = null;
+        }
+
+        /**
+         * @return Number of codes, including {@link #NONE}
+         */
+        int cardinality() {
+            return values.length;
+        }
+
+        String value(int code) {
+            return values[code];
+        }
+
+        /**
+         * @param value Value to look up, ignoring case and surrounding blanks
+         * @return Its code, or -1 if no employee has it
+         */
+        int code(String value) {
+            Integer code = lookup.get(value.trim());
+            return code != null ? code : -1;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.pamu.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Monotonic generation number of the employee data.
+ * Every committed change to the employees table advances it, so anything derived from the data
+ * (export files, reports) can be cached per generation and is never served stale.
+ * Spring caches that hold employee rows directly are cleared on every advance.
+ */
+@Component
+public class EmployeeDataVersion {
+
+    static final List<String> EMPLOYEE_CACHES = List.of("allEmployees", "pagedEmployees");
+
+    @Autowired(required = false) CacheManager cacheManager;
+
+    private final AtomicLong generation = new AtomicLong();
+    private final ReentrantLock advanceLock = new ReentrantLock();
+
+    public long current() {
+        return generation.get();
+    }
+
+    public long advance() {
+        advanceLock.lock();
+        try {
+            // Cleared before the generation moves, so nothing cached from the old data is read under the new generation
+            clearEmployeeCaches();
+            return generation.incrementAndGet();
+        } finally {
+            advanceLock.unlock();
+        }
+    }
+
+    /**
+     * Advances the generation and installs data prepared for the new one in the same step.
+     * This method is developed for imports, which read back everything they committed and build what readers use
+     * from it before switching them over, so no reader waits for a rebuild after the switch.
+     * @param readAt Generation that was current when the prepared data was read
+     * @param publish Installs the prepared data; skipped if another change advanced the generation since readAt,
+     *                as the data may then miss that change and is left to be rebuilt on demand
+     * @return The new generation
+     */
+    public long advance(long readAt, Runnable publish) {
+        advanceLock.lock();
+        try {
+            clearEmployeeCaches();
+            if (generation.get() == readAt) {
+                publish.run();
+            }
+            return generation.incrementAndGet();
+        } finally {
+            advanceLock.unlock();
+        }
+    }
+
+    private void clearEmployeeCaches() {
+        if (cacheManager != null) {
+            for (String name : EMPLOYEE_CACHES) {
+                Cache cache = cacheManager.getCache(name);
+                if (cache != null) {
+                    cache.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Advances the generation once the surrounding transaction commits, or immediately when there is none.
+     * This method is developed so that readers never cache data of the new generation before it is visible.
+     */
+    public void advanceAfterCommit() {
+        runAfterCommit(this::advance);
+    }
+
+    /**
+     * Runs an action once the surrounding transaction commits, or immediately when there is none.
+     * In-memory structures derived from the employees table are patched this way, so a rolled-back change never reaches them.
+     * @param action The action to run
+     */
+    public static void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
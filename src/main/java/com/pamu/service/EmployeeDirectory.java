@@ -0,0 +1,492 @@
+package com.pamu.service;
+
+import com.pamu.dto.EmployeeDTO;
+import com.pamu.model.EmployeeNode;
+import com.pamu.repository.EmployeeJdbcRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory directory of all employees with the structures the read paths need: lookup by ID, direct reports per
+ * manager and the salary ranking. It is loaded once from the database and then patched per change from the rows
+ * that change committed, so a single create, update or delete costs a few lookups and O(log n) ranking updates
+ * instead of reloading the table, and the employee at any salary rank is found in O(log n).
+ * When disabled, or before it is loaded, callers fall back to database queries.
+ */
+@Component
+public class EmployeeDirectory {
+
+    // Highest salary first; ties broken by ID so that every employee has a distinct position. Employees without a
+    // salary are left out of the ranking, as in EmployeeRepository.findNthHighestSalary and the column snapshot.
+    private static final Comparator<EmployeeDTO> SALARY_ORDER = Comparator
+            .comparingDouble(EmployeeDTO::getSalary).reversed()
+            .thenComparing(EmployeeDTO::getId);
+
+    @Autowired EmployeeJdbcRepository employeeJdbcRepository;
+
+    @Value("${employee.directory.enabled:true}")
+    private boolean enabled = true;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<Long, EmployeeDTO> byId; // null while not loaded
+    private Map<Long, NavigableSet<Long>> reports;
+    private SalaryRanking bySalary;
+    // Guarded by lock: ticket of the refresh that last installed each employee's row, kept while refreshes are in flight
+    private final Map<Long, Long> refreshedAt = new HashMap<>();
+    private long refreshTickets;
+    private int refreshesInFlight;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    public boolean isLoaded() {
+        lock.readLock().lock();
+        try {
+            return byId != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the directory with the current contents of the employees table.
+     * This method is developed for bulk changes such as imports, where patching row by row would cost more.
+     */
+    public void reload() {
+        if (!enabled) {
+            return;
+        }
+        List<EmployeeDTO> employees = new ArrayList<>();
+        employeeJdbcRepository.streamAll(rs -> employees.add(dtoOf(rs)));
+        load(employees);
+    }
+
+    // Builds fresh structures outside the lock and swaps them in, so readers are blocked only for the swap
+    void load(Collection<EmployeeDTO> employees) {
+        Map<Long, EmployeeDTO> loaded = new HashMap<>();
+        Map<Long, NavigableSet<Long>> loadedReports = new HashMap<>();
+        List<EmployeeDTO> salaried = new ArrayList<>(employees.size());
+        for (EmployeeDTO employee : employees) {
+            EmployeeDTO copy = copyOf(employee);
+            loaded.put(copy.getId(), copy);
+            if (copy.getManagerId() != null) {
+                loadedReports.computeIfAbsent(copy.getManagerId(), id -> new TreeSet<>()).add(copy.getId());
+            }
+            if (copy.getSalary() != null) {
+                salaried.add(copy);
+            }
+        }
+        SalaryRanking loadedBySalary = SalaryRanking.of(salaried);
+        lock.writeLock().lock();
+        try {
+            byId = loaded;
+            reports = loadedReports;
+            bySalary = loadedBySalary;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Inserts or replaces one employee, moving it in the salary ranking and between managers' report sets.
+     * The directory keeps its own copy, so later changes to the argument do not leak in. Changes reach the directory
+     * through {@link #refresh(Collection)}; this is a hook for tests.
+     * @param employee The employee as committed to the database
+     */
+    void put(EmployeeDTO employee) {
+        EmployeeDTO copy = copyOf(employee);
+        lock.writeLock().lock();
+        try {
+            if (byId != null) {
+                replace(copy);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Brings the given employees in line with their committed rows; employees without a row are removed.
+     * This method is developed for single-row and bulk changes: it runs after the change commits and reads the rows
+     * before taking the write lock, so readers never wait on the database. Each refresh takes a ticket before it
+     * reads, and a row is not installed over one installed by a refresh with a later ticket. A refresh that takes
+     * its ticket after a commit reads that commit's rows, so however the hooks of concurrent commits are ordered,
+     * the directory ends with what the last commit wrote.
+     * @param employeeIds IDs of the employees the change wrote or deleted, including reports moved by a delete
+     */
+    public void refresh(Collection<Long> employeeIds) {
+        if (!enabled || !isLoaded()) {
+            return;
+        }
+        long ticket = beginRefresh();
+        try {
+            Map<Long, EmployeeDTO> committed = new HashMap<>();
+            employeeJdbcRepository.streamByIds(employeeIds, rs -> committed.put(rs.getLong("id"), dtoOf(rs)));
+            lock.writeLock().lock();
+            try {
+                if (byId == null) {
+                    return;
+                }
+                for (Long employeeId : employeeIds) {
+                    Long installed = refreshedAt.get(employeeId);
+                    if (installed != null && installed > ticket) {
+                        continue;
+                    }
+                    refreshedAt.put(employeeId, ticket);
+                    EmployeeDTO employee = committed.get(employeeId);
+                    if (employee != null) {
+                        replace(employee);
+                    } else {
+                        removeLocked(employeeId);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            endRefresh();
+        }
+    }
+
+    private long beginRefresh() {
+        lock.writeLock().lock();
+        try {
+            refreshesInFlight++;
+            return ++refreshTickets;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void endRefresh() {
+        lock.writeLock().lock();
+        try {
+            if (--refreshesInFlight == 0) {
+                refreshedAt.clear();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock
+    private void replace(EmployeeDTO copy) {
+        EmployeeDTO previous = byId.put(copy.getId(), copy);
+        if (previous != null) {
+            unrank(previous);
+            detach(previous.getId(), previous.getManagerId());
+        }
+        rank(copy);
+        if (copy.getManagerId() != null) {
+            reports.computeIfAbsent(copy.getManagerId(), id -> new TreeSet<>()).add(copy.getId());
+        }
+    }
+
+    /**
+     * Removes one employee; its direct reports move up to its manager, mirroring the database delete.
+     * A hook for tests, like {@link #put(EmployeeDTO)}.
+     * @param employeeId ID of the deleted employee
+     */
+    void remove(Long employeeId) {
+        lock.writeLock().lock();
+        try {
+            if (byId != null) {
+                removeLocked(employeeId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock
+    private void removeLocked(Long employeeId) {
+        EmployeeDTO removed = byId.remove(employeeId);
+        if (removed == null) {
+            return;
+        }
+        unrank(removed);
+        detach(employeeId, removed.getManagerId());
+        NavigableSet<Long> orphans = reports.remove(employeeId);
+        if (orphans != null) {
+            for (Long reportId : orphans) {
+                EmployeeDTO moved = copyOf(byId.get(reportId));
+                moved.setManagerId(removed.getManagerId());
+                byId.put(reportId, moved);
+                // Salary and ID are unchanged, so the ranking entry is replaced in place
+                unrank(moved);
+                rank(moved);
+                if (moved.getManagerId() != null) {
+                    reports.computeIfAbsent(moved.getManagerId(), id -> new TreeSet<>()).add(reportId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the reporting tree below a manager, visiting only the employees in that subtree.
+     * Callers check {@link #isLoaded()} first.
+     * @param managerId ID of the root employee
+     * @return The root node with reportees ordered by ID, or null if there is no such employee
+     */
+    public EmployeeNode subtree(Long managerId) {
+        lock.readLock().lock();
+        try {
+            EmployeeDTO rootEmployee = byId.get(managerId);
+            if (rootEmployee == null) {
+                return null;
+            }
+            EmployeeNode root = nodeOf(rootEmployee);
+            Deque<EmployeeNode> pending = new ArrayDeque<>();
+            pending.add(root);
+            while (!pending.isEmpty()) {
+                EmployeeNode node = pending.poll();
+                for (Long reportId : reports.getOrDefault(node.getId(), Collections.emptyNavigableSet())) {
+                    EmployeeNode report = nodeOf(byId.get(reportId));
+                    node.addReportee(report);
+                    pending.add(report);
+                }
+            }
+            return root;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the employee at the given position of the salary ranking in O(log n). Callers check {@link #isLoaded()} first.
+     * @param rank 1 for the highest salary
+     * @return A copy of the employee, or null if there are fewer employees than the rank
+     */
+    public EmployeeDTO nthHighestSalary(int rank) {
+        lock.readLock().lock();
+        try {
+            EmployeeDTO employee = bySalary.get(rank);
+            return employee != null ? copyOf(employee) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId != null ? byId.size() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock
+    private void rank(EmployeeDTO employee) {
+        if (employee.getSalary() != null) {
+            bySalary.add(employee);
+        }
+    }
+
+    // Caller holds the write lock
+    private void unrank(EmployeeDTO employee) {
+        if (employee.getSalary() != null) {
+            bySalary.remove(employee);
+        }
+    }
+
+    // Caller holds the write lock
+    private void detach(Long employeeId, Long managerId) {
+        if (managerId == null) {
+            return;
+        }
+        NavigableSet<Long> siblings = reports.get(managerId);
+        if (siblings != null) {
+            siblings.remove(employeeId);
+            if (siblings.isEmpty()) {
+                reports.remove(managerId);
+            }
+        }
+    }
+
+    private static EmployeeNode nodeOf(EmployeeDTO employee) {
+        return new EmployeeNode(employee.getId(), employee.getManagerId(), employee.getName(), employee.getCategory());
+    }
+
+    private static EmployeeDTO dtoOf(ResultSet rs) throws SQLException {
+        Date doj = rs.getDate("doj");
+        return new EmployeeDTO(rs.getLong("id"), rs.getString("name"), rs.getObject("salary", Double.class), rs.getString("category"),
+                doj != null ? doj.toLocalDate() : null, rs.getObject("manager_id", Long.class));
+    }
+
+    private static EmployeeDTO copyOf(EmployeeDTO employee) {
+        return new EmployeeDTO(employee.getId(), employee.getName(), employee.getSalary(), employee.getCategory(),
+                employee.getDoj(), employee.getManagerId());
+    }
+
+    /**
+     * Employees with a salary in {@link #SALARY_ORDER}, as a treap whose nodes count their subtree, so both a change
+     * and finding the employee at a rank take O(log n) expected. Not thread-safe; the enclosing component guards it
+     * with its lock.
+     */
+    private static final class SalaryRanking {
+        private final SplittableRandom random = new SplittableRandom();
+        private Node root;
+
+        private static final class Node {
+            final EmployeeDTO employee;
+            final int priority;
+            Node left;
+            Node right;
+            int size = 1;
+
+            Node(EmployeeDTO employee, int priority) {
+                this.employee = employee;
+                this.priority = priority;
+            }
+        }
+
+        // Sorts once and builds the tree over the sorted entries in linear time, keeping its right spine on a stack
+        static SalaryRanking of(Collection<EmployeeDTO> employees) {
+            EmployeeDTO[] sorted = employees.toArray(new EmployeeDTO[0]);
+            Arrays.sort(sorted, SALARY_ORDER);
+            SalaryRanking ranking = new SalaryRanking();
+            Deque<Node> spine = new ArrayDeque<>();
+            for (EmployeeDTO employee : sorted) {
+                Node node = new Node(employee, ranking.random.nextInt());
+                Node below = null;
+                while (!spine.isEmpty() && spine.peek().priority < node.priority) {
+                    below = spine.pop();
+                }
+                node.left = below;
+                if (!spine.isEmpty()) {
+                    spine.peek().right = node;
+                }
+                spine.push(node);
+            }
+            ranking.root = spine.peekLast();
+            countSizes(ranking.root);
+            return ranking;
+        }
+
+        // 1 for the highest salary; null past the end
+        EmployeeDTO get(int rank) {
+            Node node = root;
+            int remaining = rank;
+            while (node != null) {
+                int leftSize = size(node.left);
+                if (remaining <= leftSize) {
+                    node = node.left;
+                } else if (remaining == leftSize + 1) {
+                    return node.employee;
+                } else {
+                    remaining -= leftSize + 1;
+                    node = node.right;
+                }
+            }
+            return null;
+        }
+
+        void add(EmployeeDTO employee) {
+            root = insert(root, new Node(employee, random.nextInt()));
+        }
+
+        // Salary and ID identify the entry
+        void remove(EmployeeDTO employee) {
+            root = delete(root, employee);
+        }
+
+        private static Node insert(Node node, Node added) {
+            if (node == null) {
+                return added;
+            }
+            if (SALARY_ORDER.compare(added.employee, node.employee) < 0) {
+                node.left = insert(node.left, added);
+                if (node.left.priority > node.priority) {
+                    Node top = node.left;
+                    node.left = top.right;
+                    top.right = update(node);
+                    node = top;
+                }
+            } else {
+                node.right = insert(node.right, added);
+                if (node.right.priority > node.priority) {
+                    Node top = node.right;
+                    node.right = top.left;
+                    top.left = update(node);
+                    node = top;
+                }
+            }
+            return update(node);
+        }
+
+        private static Node delete(Node node, EmployeeDTO employee) {
+            if (node == null) {
+                return null;
+            }
+            int order = SALARY_ORDER.compare(employee, node.employee);
+            if (order == 0) {
+                return merge(node.left, node.right);
+            }
+            if (order < 0) {
+                node.left = delete(node.left, employee);
+            } else {
+                node.right = delete(node.right, employee);
+            }
+            return update(node);
+        }
+
+        // Every entry of left ranks before every entry of right
+        private static Node merge(Node left, Node right) {
+            if (left == null) {
+                return right;
+            }
+            if (right == null) {
+                return left;
+            }
+            if (left.priority > right.priority) {
+                left.right = merge(left.right, right);
+                return update(left);
+            }
+            right.left = merge(left, right.left);
+            return update(right);
+        }
+
+        private static int countSizes(Node node) {
+            if (node == null) {
+                return 0;
+            }
+            node.size = 1 + countSizes(node.left) + countSizes(node.right);
+            return node.size;
+        }
+
+        private static Node update(Node node) {
+            node.size = 1 + size(node.left) + size(node.right);
+            return node;
+        }
+
+        private static int size(Node node) {
+            return node != null ? node.size : 0;
+        }
+    }
+}
@@ -0,0 +1,411 @@
+package com.pamu.service;
+
+import com.pamu.exception.InvalidEmployeeDataException;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.IntPredicate;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * A parsed filter expression over employee fields, such as
+ * {@code salary > 50000 AND state = 'Telangana' AND tenureYears >= 3}.
+ * <p>
+ * Grammar, case-insensitive keywords:
+ * <pre>
+ *   expression := term (OR term)*
+ *   term       := factor (AND factor)*
+ *   factor     := NOT factor | '(' expression ')' | field op value | field [NOT] IN '(' value (',' value)* ')'
+ *   op         := = | != | &lt;&gt; | &lt; | &lt;= | &gt; | &gt;=
+ * </pre>
+ * Numeric fields are id, managerId (0 for top-level employees), salary and tenureYears (completed years since the
+ * date of joining); doj compares with 'yyyy-mm-dd' dates; state, city and category compare for equality only,
+ * ignoring case. A comparison never matches an employee without a value for its field.
+ * <p>
+ * Parsing happens once per expression. {@link #bind} then turns the tree into an {@link IntPredicate} over the rows
+ * of an {@link EmployeeColumns} snapshot: text values become dictionary codes and tenure bounds become date bounds,
+ * so testing a row only compares primitives.
+ */
+final class EmployeeFilter {
+
+    private final Node root;
+
+    private EmployeeFilter(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * @param expression Filter expression
+     * @return The parsed filter
+     * @throws InvalidEmployeeDataException naming the position of the first problem
+     */
+    static EmployeeFilter parse(String expression) {
+        if (expression == null || expression.isBlank()) {
+            throw new InvalidEmployeeDataException("Filter expression is empty");
+        }
+        Parser parser = new Parser(expression);
+        Node root = parser.expression();
+        parser.expectEnd();
+        return new EmployeeFilter(root);
+    }
+
+    /**
+     * @param columns Snapshot to evaluate against
+     * @param today Date that tenure is measured to
+     * @return Predicate on the row numbers of the snapshot
+     */
+    IntPredicate bind(EmployeeColumns columns, LocalDate today) {
+        return root.bind(columns, today);
+    }
+
+    private interface Node {
+        IntPredicate bind(EmployeeColumns columns, LocalDate today);
+    }
+
+    private enum Field {
+        ID, MANAGER_ID, SALARY, TENURE_YEARS, DOJ, STATE, CITY, CATEGORY;
+
+        static Field of(String name) {
+            for (Field field : values()) {
+                if (field.name().replace("_", "").equalsIgnoreCase(name)) {
+                    return field;
+                }
+            }
+            return null;
+        }
+
+        boolean isText() {
+            return this == STATE || this == CITY || this == CATEGORY;
+        }
+    }
+
+    private enum Op {
+        EQ, NE, LT, LE, GT, GE
+    }
+
+    private record And(List<Node> operands) implements Node {
+        public IntPredicate bind(EmployeeColumns columns, LocalDate today) {
+            IntPredicate predicate = operands.get(0).bind(columns, today);
+            for (int i = 1; i < operands.size(); i++) {
+                predicate = predicate.and(operands.get(i).bind(columns, today));
+            }
+            return predicate;
+        }
+    }
+
+    private record Or(List<Node> operands) implements Node {
+        public IntPredicate bind(EmployeeColumns columns, LocalDate today) {
+            IntPredicate predicate = operands.get(0).bind(columns, today);
+            for (int i = 1; i < operands.size(); i++) {
+                predicate = predicate.or(operands.get(i).bind(columns, today));
+            }
+            return predicate;
+        }
+    }
+
+    private record Not(Node operand) implements Node {
+        public IntPredicate bind(EmployeeColumns columns, LocalDate today) {
+            return operand.bind(columns, today).negate();
+        }
+    }
+
+    private record Comparison(Field field, Op op, Object operand) implements Node {
+        public IntPredicate bind(EmployeeColumns columns, LocalDate today) {
+            return switch (field) {
+                case ID -> numeric(row -> columns.ids[row], row -> true);
+                case MANAGER_ID -> numeric(row -> columns.managerIds[row], row -> true);
+                case SALARY -> {
+                    double[] salaries = columns.salaries;
+                    yield numeric(row -> salaries[row], row -> !Double.isNaN(salaries[row]));
+                }
+                case DOJ -> {
+                    int[] days = columns.dojDays;
+                    yield numeric(row -> days[row], row -> days[row] != EmployeeColumns.NO_DATE);
+                }
+                case TENURE_YEARS -> tenure(columns.dojDays, today, (double) operand);
+                case STATE, CITY, CATEGORY -> text(dictionary(field, columns));
+            };
+        }
+
+        private IntPredicate numeric(IntToDoubleFunction value, IntPredicate present) {
+            double bound = (double) operand;
+            return switch (op) {
+                case EQ -> row -> present.test(row) && value.applyAsDouble(row) == bound;
+                case NE -> row -> present.test(row) && value.applyAsDouble(row) != bound;
+                case LT -> row -> present.test(row) && value.applyAsDouble(row) < bound;
+                case LE -> row -> present.test(row) && value.applyAsDouble(row) <= bound;
+                case GT -> row -> present.test(row) && value.applyAsDouble(row) > bound;
+                case GE -> row -> present.test(row) && value.applyAsDouble(row) >= bound;
+            };
+        }
+
+        /**
+         * Completed years are whole numbers, so every tenure bound is a bound on the date of joining:
+         * tenure &gt;= k exactly when doj &lt;= today minus k years.
+         */
+        private IntPredicate tenure(int[] days, LocalDate today, double years) {
+            long floor = (long) Math.floor(years);
+            long ceil = (long) Math.ceil(years);
+            return switch (op) {
+                case GE -> joinedBy(days, today, ceil);
+                case GT -> joinedBy(days, today, floor + 1);
+                case LT -> joinedBy(days, today, ceil).negate().and(row -> days[row] != EmployeeColumns.NO_DATE);
+                case LE -> joinedBy(days, today, floor + 1).negate().and(row -> days[row] != EmployeeColumns.NO_DATE);
+                case EQ -> floor != ceil ? row -> false
+                        : joinedBy(days, today, floor).and(joinedBy(days, today, floor + 1).negate());
+                case NE -> floor != ceil ? row -> days[row] != EmployeeColumns.NO_DATE
+                        : joinedBy(days, today, floor).and(joinedBy(days, today, floor + 1).negate()).negate()
+                        .and(row -> days[row] != EmployeeColumns.NO_DATE);
+            };
+        }
+
+        // At least the given number of completed years; never true for an unknown date
+        private static IntPredicate joinedBy(int[] days, LocalDate today, long years) {
+            long clamped = Math.max(-10_000, Math.min(10_000, years));
+            int cutoff = (int) today.minusYears(clamped).toEpochDay();
+            return row -> days[row] != EmployeeColumns.NO_DATE && days[row] <= cutoff;
+        }
+
+        private IntPredicate text(EmployeeColumns.Dictionary dictionary) {
+            int[] codes = dictionary.codes;
+            int code = dictionary.code((String) operand);
+            return op == Op.EQ
+                    ? row -> codes[row] == code
+                    : row -> codes[row] != code && codes[row] != EmployeeColumns.NONE;
+        }
+    }
+
+    private record In(Field field, List<Object> values) implements Node {
+        public IntPredicate bind(EmployeeColumns columns, LocalDate today) {
+            if (field.isText()) {
+                EmployeeColumns.Dictionary dictionary = dictionary(field, columns);
+                boolean[] wanted = new boolean[dictionary.cardinality()];
+                for (Object value : values) {
+                    int code = dictionary.code((String) value);
+                    if (code >= 0) {
+                        wanted[code] = true;
+                    }
+                }
+                int[] codes = dictionary.codes;
+                return row -> wanted[codes[row]];
+            }
+            IntPredicate predicate = row -> false;
+            for (Object value : values) {
+                predicate = predicate.or(new Comparison(field, Op.EQ, value).bind(columns, today));
+            }
+            return predicate;
+        }
+    }
+
+    private static EmployeeColumns.Dictionary dictionary(Field field, EmployeeColumns columns) {
+        return EmployeeColumns.Attribute.valueOf(field.name()).of(columns);
+    }
+
+    /**
+     * Recursive-descent parser over a hand-written tokenizer; every error names the character position.
+     */
+    private static final class Parser {
+
+        private final String text;
+        private int position;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        Node expression() {
+            List<Node> operands = new ArrayList<>();
+            operands.add(term());
+            while (acceptKeyword("OR")) {
+                operands.add(term());
+            }
+            return operands.size() == 1 ? operands.get(0) : new Or(operands);
+        }
+
+        private Node term() {
+            List<Node> operands = new ArrayList<>();
+            operands.add(factor());
+            while (acceptKeyword("AND")) {
+                operands.add(factor());
+            }
+            return operands.size() == 1 ? operands.get(0) : new And(operands);
+        }
+
+        private Node factor() {
+            if (acceptKeyword("NOT")) {
+                return new Not(factor());
+            }
+            if (accept("(")) {
+                Node inner = expression();
+                expect(")");
+                return inner;
+            }
+            int start = skipBlanks();
+            String name = identifier();
+            Field field = Field.of(name);
+            if (field == null) {
+                throw error(start, "unknown field '" + name + "'; use id, managerId, salary, tenureYears, doj, state, city or category");
+            }
+            boolean negated = acceptKeyword("NOT");
+            if (negated || acceptKeyword("IN")) {
+                if (negated && !acceptKeyword("IN")) {
+                    throw error(skipBlanks(), "expected IN after NOT");
+                }
+                expect("(");
+                List<Object> values = new ArrayList<>();
+                do {
+                    values.add(value(field));
+                } while (accept(","));
+                expect(")");
+                Node in = new In(field, values);
+                return negated ? new And(List.of(new Not(in), present(field))) : in;
+            }
+            int opStart = skipBlanks();
+            Op op = operator();
+            if (field.isText() && op != Op.EQ && op != Op.NE) {
+                throw error(opStart, field.name().toLowerCase(Locale.ROOT) + " can only be compared with = or !=");
+            }
+            return new Comparison(field, op, value(field));
+        }
+
+        // Matches every employee with a value for the field, so NOT IN leaves out employees without one
+        private static Node present(Field field) {
+            return (columns, today) -> {
+                if (field.isText()) {
+                    int[] codes = dictionary(field, columns).codes;
+                    return row -> codes[row] != EmployeeColumns.NONE;
+                }
+                return switch (field) {
+                    case SALARY -> row -> !Double.isNaN(columns.salaries[row]);
+                    case DOJ, TENURE_YEARS -> row -> columns.dojDays[row] != EmployeeColumns.NO_DATE;
+                    default -> row -> true;
+                };
+            };
+        }
+
+        private Op operator() {
+            for (String symbol : new String[]{"!=", "<>", "<=", ">=", "=", "<", ">"}) {
+                if (text.startsWith(symbol, position)) {
+                    position += symbol.length();
+                    return switch (symbol) {
+                        case "!=", "<>" -> Op.NE;
+                        case "<=" -> Op.LE;
+                        case ">=" -> Op.GE;
+                        case "=" -> Op.EQ;
+                        case "<" -> Op.LT;
+                        default -> Op.GT;
+                    };
+                }
+            }
+            throw error(position, "expected a comparison operator");
+        }
+
+        private Object value(Field field) {
+            int start = skipBlanks();
+            if (field.isText() || field == Field.DOJ) {
+                String value = string();
+                if (field == Field.DOJ) {
+                    try {
+                        return (double) LocalDate.parse(value).toEpochDay();
+                    } catch (DateTimeParseException e) {
+                        throw error(start, "'" + value + "' is not a yyyy-mm-dd date");
+                    }
+                }
+                return value;
+            }
+            int end = position;
+            while (end < text.length() && (Character.isDigit(text.charAt(end)) || text.charAt(end) == '.'
+                    || end == position && text.charAt(end) == '-')) {
+                end++;
+            }
+            try {
+                double number = Double.parseDouble(text.substring(position, end));
+                position = end;
+                return number;
+            } catch (NumberFormatException e) {
+                throw error(start, "expected a number");
+            }
+        }
+
+        private String string() {
+            int start = skipBlanks();
+            if (position >= text.length() || text.charAt(position) != '\'') {
+                throw error(start, "expected a quoted value such as 'Telangana'");
+            }
+            StringBuilder value = new StringBuilder();
+            for (position++; position < text.length(); position++) {
+                char c = text.charAt(position);
+                if (c == '\'') {
+                    // '' is a quote inside the value
+                    if (position + 1 < text.length() && text.charAt(position + 1) == '\'') {
+                        value.append('\'');
+                        position++;
+                    } else {
+                        position++;
+                        return value.toString();
+                    }
+                } else {
+                    value.append(c);
+                }
+            }
+            throw error(start, "unterminated quoted value");
+        }
+
+        private String identifier() {
+            int start = position;
+            while (position < text.length() && (Character.isLetterOrDigit(text.charAt(position)) || text.charAt(position) == '_')) {
+                position++;
+            }
+            if (start == position) {
+                throw error(start, "expected a field name");
+            }
+            return text.substring(start, position);
+        }
+
+        private boolean acceptKeyword(String keyword) {
+            skipBlanks();
+            int end = position + keyword.length();
+            if (text.regionMatches(true, position, keyword, 0, keyword.length())
+                    && (end == text.length() || !Character.isLetterOrDigit(text.charAt(end)))) {
+                position = end;
+                return true;
+            }
+            return false;
+        }
+
+        private boolean accept(String symbol) {
+            skipBlanks();
+            if (text.startsWith(symbol, position)) {
+                position += symbol.length();
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(String symbol) {
+            if (!accept(symbol)) {
+                throw error(position, "expected '" + symbol + "'");
+            }
+        }
+
+        void expectEnd() {
+            if (skipBlanks() < text.length()) {
+                throw error(position, "unexpected '" + text.substring(position) + "'");
+            }
+        }
+
+        private int skipBlanks() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+            return position;
+        }
+
+        private static InvalidEmployeeDataException error(int position, String message) {
+            return new InvalidEmployeeDataException("Invalid filter at position " + (position + 1) + ": " + message);
+        }
+    }
+}
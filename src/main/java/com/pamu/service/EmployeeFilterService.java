@@ -0,0 +1,97 @@
+package com.pamu.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pamu.dto.EmployeeDTO;
+import com.pamu.dto.EmployeeFilterResult;
+import com.pamu.exception.InvalidEmployeeDataException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * Evaluates filter expressions ({@link EmployeeFilter}) over the {@link EmployeeColumns} snapshot.
+ * The rows are cut into fixed chunks whose matches are counted, on the fork-join pool when there are many; the
+ * total is the sum, and a page is read by skipping whole chunks up to its offset and scanning only the chunks it
+ * falls in. A count-only request never materializes a row.
+ */
+@Service
+public class EmployeeFilterService {
+
+    static final int MAX_PAGE_SIZE = 1000;
+    static final int CHUNK_ROWS = 8192;
+
+    @Autowired EmployeeColumnStore employeeColumnStore;
+
+    @Value("${employee.filter.parallel-threshold:100000}")
+    private int parallelThreshold = 100_000;
+
+    // Dashboards repeat the same few expressions, so each is parsed once
+    private final Cache<String, EmployeeFilter> parsedFilters = Caffeine.newBuilder().maximumSize(256).build();
+
+    /**
+     * Returns the employees matching a filter expression, or only their number.
+     * This method is developed so that new HR questions (for example
+     * {@code salary > 50000 AND state = 'Telangana' AND tenureYears >= 3}) need an expression, not a new endpoint.
+     * @param expression Filter expression; see {@link EmployeeFilter} for the grammar
+     * @param page Zero-based page number
+     * @param size Page size, at most {@value #MAX_PAGE_SIZE}
+     * @param countOnly Whether to return only the total
+     * @return The total and, unless countOnly, the requested page in ID order
+     */
+    public EmployeeFilterResult filter(String expression, int page, int size, boolean countOnly) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new InvalidEmployeeDataException("Page must be 0 or more and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        EmployeeFilter filter = parsedFilters.get(expression == null ? "" : expression.trim(), EmployeeFilter::parse);
+        EmployeeColumns columns = employeeColumnStore.current();
+        IntPredicate predicate = filter.bind(columns, LocalDate.now());
+
+        int chunks = (columns.size + CHUNK_ROWS - 1) / CHUNK_ROWS;
+        IntStream chunkNumbers = IntStream.range(0, chunks);
+        if (columns.size >= parallelThreshold) {
+            chunkNumbers = chunkNumbers.parallel();
+        }
+        // An ordered stream, so counts[i] belongs to chunk i even when counted in parallel
+        int[] counts = chunkNumbers.map(chunk -> count(predicate, chunk, columns.size)).toArray();
+        long total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        if (countOnly) {
+            return new EmployeeFilterResult(total, null, null, null);
+        }
+        return new EmployeeFilterResult(total, page, size, page(columns, predicate, counts, (long) page * size, size));
+    }
+
+    private static int count(IntPredicate predicate, int chunk, int rows) {
+        int count = 0;
+        for (int row = chunk * CHUNK_ROWS, end = Math.min(rows, row + CHUNK_ROWS); row < end; row++) {
+            if (predicate.test(row)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static List<EmployeeDTO> page(EmployeeColumns columns, IntPredicate predicate, int[] counts, long offset, int size) {
+        List<EmployeeDTO> employees = new ArrayList<>(Math.min(size, 64));
+        long skip = offset;
+        int chunk = 0;
+        while (chunk < counts.length && skip >= counts[chunk]) {
+            skip -= counts[chunk++];
+        }
+        for (int row = chunk * CHUNK_ROWS; row < columns.size && employees.size() < size; row++) {
+            if (predicate.test(row) && skip-- <= 0) {
+                employees.add(columns.toDto(row));
+            }
+        }
+        return employees;
+    }
+}
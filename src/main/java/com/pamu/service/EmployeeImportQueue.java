@@ -0,0 +1,87 @@
+package com.pamu.service;
+
+import com.pamu.exception.TooManyRequestsException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs employee imports one at a time, in the order they arrive, on a single writer thread.
+ * Two uploads can therefore never interleave their writes, and each import sees the data exactly as the one before it
+ * left it. Callers wait for their own import; when more imports are waiting than the queue holds, new ones are turned
+ * away instead of piling up request threads.
+ */
+@Component
+public class EmployeeImportQueue {
+
+    @Value("${employee.import.queue-capacity:8}")
+    private int queueCapacity = 8;
+    @Value("${employee.import.retry-after-seconds:5}")
+    private long retryAfterSeconds = 5;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void init() {
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "employee-import");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs an import on the writer thread after the imports queued before it, and waits for its result.
+     * @param work The import, including its transaction and what it publishes after committing
+     * @return The result of the import
+     * @throws TooManyRequestsException if the queue is full
+     */
+    public <T> T submit(Supplier<T> work) {
+        Future<T> result;
+        try {
+            result = executor.submit(work::get);
+        } catch (RejectedExecutionException e) {
+            throw new TooManyRequestsException("Too many imports are waiting. Please retry later.", retryAfterSeconds);
+        }
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // Only an import that has not started yet is withdrawn; one that is writing runs to its commit or rollback
+            result.cancel(false);
+            throw new IllegalStateException("Interrupted while waiting for the import", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Import failed", e.getCause());
+        }
+    }
+
+    /**
+     * @return Number of imports waiting behind the one being written
+     */
+    public int waiting() {
+        return executor.getQueue().size();
+    }
+}
@@ -0,0 +1,198 @@
+package com.pamu.service;
+
+import com.pamu.dto.ImportRowError;
+import com.pamu.exception.ImportValidationException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Checks the reporting graph of an employee file before anything is written: every manager must be in the file,
+ * there must be no reporting cycles and exactly one top-level employee.
+ * All checks together run in O(n) and every problem is collected. A strict import rejects a bad file with one
+ * response listing all offending rows; a lenient import drops the offending rows, and the rows below them, and
+ * keeps the rest.
+ */
+final class EmployeeImportValidator {
+
+    // Enough to fix a file by; the total is still counted for files with millions of bad rows
+    static final int MAX_REPORTED_VIOLATIONS = 1000;
+
+    // Long cycles and root lists are shortened to this many entries in their message
+    private static final int LISTED_MEMBERS = 20;
+
+    private static final byte ON_PATH = 1;
+    private static final byte FINISHED = 2;
+
+    private final List<ImportRowError> rowErrors = new ArrayList<>();
+    private final List<String> violations = new ArrayList<>();
+    private int totalViolations;
+
+    /**
+     * Records a problem found while reading the file, such as a duplicate ID or an unreadable row.
+     * @param row Row number as shown in the spreadsheet
+     * @param id Employee ID of the row, or null if it could not be read
+     * @param message Description of the problem
+     */
+    void reject(int row, Long id, String message) {
+        rowErrors.add(new ImportRowError(row, id, message));
+    }
+
+    /**
+     * Validates the reporting graph of the parsed employees and throws if this or the parsing found any problem.
+     * @param employees Parsed employees keyed by ID
+     * @throws ImportValidationException listing every problem found
+     */
+    void validate(Map<Long, EmployeeService.EmployeeWrapper> employees) {
+        rowErrors.forEach(error -> report("Row " + error.getRow() + ": " + error.getMessage()));
+        List<EmployeeService.EmployeeWrapper> roots = new ArrayList<>();
+        for (EmployeeService.EmployeeWrapper wrapper : employees.values()) {
+            if (wrapper.managerId == null) {
+                roots.add(wrapper);
+            } else if (!employees.containsKey(wrapper.managerId)) {
+                report("Row " + wrapper.row + ": " + danglingMessage(wrapper));
+            }
+        }
+        findCycles(employees).forEach(cycle -> report("Reporting cycle of " + describe(cycle)));
+        if (roots.size() > 1) {
+            report("Expected one top-level employee but found " + roots.size() + ": "
+                    + roots.stream().limit(LISTED_MEMBERS).map(w -> w.employee.getId() + " (row " + w.row + ")")
+                    .collect(Collectors.joining(", ")) + (roots.size() > LISTED_MEMBERS ? ", ..." : ""));
+        }
+        if (totalViolations > 0) {
+            throw new ImportValidationException(violations, totalViolations);
+        }
+    }
+
+    private void report(String violation) {
+        if (totalViolations++ < MAX_REPORTED_VIOLATIONS) {
+            violations.add(violation);
+        }
+    }
+
+    /**
+     * Keeps the employees that can be imported and records a row error for every other one: missing managers,
+     * cycle members, extra top-level employees (the Director, or else the first one, is kept), and everyone
+     * reporting to a rejected employee.
+     * @param employees Parsed employees keyed by ID
+     * @return The importable employees, ordered so that every manager comes before its reports
+     */
+    Map<Long, EmployeeService.EmployeeWrapper> keepValid(Map<Long, EmployeeService.EmployeeWrapper> employees) {
+        Set<Long> rejected = new HashSet<>();
+        EmployeeService.EmployeeWrapper root = null;
+        for (EmployeeService.EmployeeWrapper wrapper : employees.values()) {
+            if (wrapper.managerId == null) {
+                if (root == null || isPreferredRoot(wrapper, root)) {
+                    root = wrapper;
+                }
+            } else if (!employees.containsKey(wrapper.managerId)) {
+                rejectGraph(rejected, wrapper, danglingMessage(wrapper));
+            }
+        }
+        for (List<EmployeeService.EmployeeWrapper> cycle : findCycles(employees)) {
+            String message = "Part of a reporting cycle of " + describe(cycle);
+            cycle.forEach(member -> rejectGraph(rejected, member, message));
+        }
+        for (EmployeeService.EmployeeWrapper wrapper : employees.values()) {
+            if (wrapper.managerId == null && wrapper != root) {
+                rejectGraph(rejected, wrapper, "Only one top-level employee is allowed; kept employee "
+                        + root.employee.getId() + " (row " + root.row + ")");
+            }
+        }
+
+        // Breadth-first from the kept root, so managers come first and rows under rejected employees are not reached
+        Map<Long, List<EmployeeService.EmployeeWrapper>> reports = new HashMap<>();
+        for (EmployeeService.EmployeeWrapper wrapper : employees.values()) {
+            if (wrapper.managerId != null && !rejected.contains(wrapper.employee.getId())) {
+                reports.computeIfAbsent(wrapper.managerId, id -> new ArrayList<>()).add(wrapper);
+            }
+        }
+        Map<Long, EmployeeService.EmployeeWrapper> valid = new LinkedHashMap<>();
+        Deque<EmployeeService.EmployeeWrapper> pending = new ArrayDeque<>();
+        if (root != null) {
+            pending.add(root);
+        }
+        while (!pending.isEmpty()) {
+            EmployeeService.EmployeeWrapper wrapper = pending.poll();
+            valid.put(wrapper.employee.getId(), wrapper);
+            pending.addAll(reports.getOrDefault(wrapper.employee.getId(), List.of()));
+        }
+        for (EmployeeService.EmployeeWrapper wrapper : employees.values()) {
+            if (!valid.containsKey(wrapper.employee.getId()) && !rejected.contains(wrapper.employee.getId())) {
+                reject(wrapper.row, wrapper.employee.getId(), "Manager " + wrapper.managerId + " was rejected");
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * @return Every row error recorded so far, in row order
+     */
+    List<ImportRowError> getRowErrors() {
+        rowErrors.sort(Comparator.comparingInt(ImportRowError::getRow));
+        return rowErrors;
+    }
+
+    private void rejectGraph(Set<Long> rejected, EmployeeService.EmployeeWrapper wrapper, String message) {
+        if (rejected.add(wrapper.employee.getId())) {
+            reject(wrapper.row, wrapper.employee.getId(), message);
+        }
+    }
+
+    private static boolean isPreferredRoot(EmployeeService.EmployeeWrapper candidate, EmployeeService.EmployeeWrapper current) {
+        boolean candidateIsDirector = "Director".equalsIgnoreCase(candidate.employee.getCategory());
+        boolean currentIsDirector = "Director".equalsIgnoreCase(current.employee.getCategory());
+        if (candidateIsDirector != currentIsDirector) {
+            return candidateIsDirector;
+        }
+        return candidate.row < current.row;
+    }
+
+    private static String danglingMessage(EmployeeService.EmployeeWrapper wrapper) {
+        return "manager " + wrapper.managerId + " of employee " + wrapper.employee.getId() + " is not in the file";
+    }
+
+    private static String describe(List<EmployeeService.EmployeeWrapper> cycle) {
+        String members = cycle.stream().limit(LISTED_MEMBERS)
+                .map(w -> w.employee.getId() + " (row " + w.row + ")")
+                .collect(Collectors.joining(" -> "));
+        return cycle.size() + " employee(s): " + members + " -> "
+                + (cycle.size() <= LISTED_MEMBERS ? cycle.get(0).employee.getId() : "...");
+    }
+
+    /**
+     * Each employee has at most one manager, so following manager IDs from any employee either ends at a top-level
+     * employee, a missing manager, an already finished employee, or comes back to an employee on the current path.
+     * Colouring employees as on-path or finished visits each one once, and each cycle is found once.
+     */
+    private static List<List<EmployeeService.EmployeeWrapper>> findCycles(Map<Long, EmployeeService.EmployeeWrapper> employees) {
+        List<List<EmployeeService.EmployeeWrapper>> cycles = new ArrayList<>();
+        Map<Long, Byte> colour = new HashMap<>(employees.size() * 2);
+        List<EmployeeService.EmployeeWrapper> path = new ArrayList<>();
+        for (EmployeeService.EmployeeWrapper start : employees.values()) {
+            EmployeeService.EmployeeWrapper current = start;
+            while (current != null && !colour.containsKey(current.employee.getId())) {
+                colour.put(current.employee.getId(), ON_PATH);
+                path.add(current);
+                current = current.managerId != null ? employees.get(current.managerId) : null;
+            }
+            if (current != null && colour.get(current.employee.getId()) == ON_PATH) {
+                cycles.add(new ArrayList<>(path.subList(path.indexOf(current), path.size())));
+            }
+            for (EmployeeService.EmployeeWrapper visited : path) {
+                colour.put(visited.employee.getId(), FINISHED);
+            }
+            path.clear();
+        }
+        return cycles;
+    }
+}
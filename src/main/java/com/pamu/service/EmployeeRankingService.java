@@ -0,0 +1,253 @@
+package com.pamu.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pamu.dto.EmployeeDTO;
+import com.pamu.dto.TopEarners;
+import com.pamu.exception.InvalidEmployeeDataException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Top earners per direct manager, per management subtree or per category, over the {@link EmployeeColumns} snapshot.
+ * Every group keeps a heap bounded to K rows, so one pass over the salaries ranks all groups at once without
+ * sorting any of them. Subtrees are ranked bottom-up: a manager's top K is taken from the direct reports and the
+ * top K of each report's own subtree, so no employee is offered to every ancestor.
+ * Rankings are cached per data generation, grouping and K.
+ */
+@Service
+public class EmployeeRankingService {
+
+    static final int MAX_K = 100;
+
+    @Autowired EmployeeColumnStore employeeColumnStore;
+
+    // Keys carry the generation, so rankings of older data are never served and age out of the cache
+    private final Cache<RankingKey, List<TopEarners>> rankings = Caffeine.newBuilder().maximumSize(32).build();
+
+    private record RankingKey(long generation, Grouping grouping, int k) {
+    }
+
+    /**
+     * How employees are grouped for ranking, by the name clients use for it.
+     */
+    public enum Grouping {
+        MANAGER, SUBTREE, CATEGORY;
+
+        static Grouping parse(String name) {
+            for (Grouping grouping : values()) {
+                if (grouping.name().equalsIgnoreCase(name.trim())) {
+                    return grouping;
+                }
+            }
+            throw new InvalidEmployeeDataException("Unknown grouping '" + name + "'; use manager, subtree or category");
+        }
+    }
+
+    /**
+     * Returns the highest-paid employees of each group.
+     * This method is developed for managers asking for the top earners of their team and for HR asking for the
+     * top earners of each category, which otherwise took one Nth-highest call per rank.
+     * @param by manager (direct reports), subtree (everyone below a manager) or category
+     * @param k Employees per group, at most {@value #MAX_K}
+     * @param group Manager ID or category to return only that group, or null for all groups
+     * @return Groups ordered by manager ID or category, each with its employees by salary, highest first;
+     * employees without a salary are not ranked
+     */
+    public List<TopEarners> topEarners(String by, int k, String group) {
+        if (k < 1 || k > MAX_K) {
+            throw new InvalidEmployeeDataException("K must be between 1 and " + MAX_K);
+        }
+        Grouping grouping = Grouping.parse(by == null ? "" : by);
+        EmployeeColumns columns = employeeColumnStore.current();
+        List<TopEarners> ranked = rankings.get(new RankingKey(columns.generation, grouping, k),
+                key -> rank(columns, key.grouping(), key.k()));
+        if (group == null || group.isBlank()) {
+            return ranked;
+        }
+        String wanted = group.trim();
+        return ranked.stream()
+                .filter(earners -> grouping == Grouping.CATEGORY
+                        ? wanted.equalsIgnoreCase(earners.getCategory())
+                        : wanted.equals(String.valueOf(earners.getManagerId())))
+                .toList();
+    }
+
+    List<TopEarners> rank(EmployeeColumns columns, Grouping grouping, int k) {
+        return switch (grouping) {
+            case MANAGER -> byManager(columns, k);
+            case SUBTREE -> bySubtree(columns, k);
+            case CATEGORY -> byCategory(columns, k);
+        };
+    }
+
+    private static List<TopEarners> byManager(EmployeeColumns columns, int k) {
+        TopHeap[] heaps = new TopHeap[columns.size];
+        for (int row = 0; row < columns.size; row++) {
+            int manager = columns.managerIds[row] != 0 ? columns.rowOf(columns.managerIds[row]) : -1;
+            if (manager >= 0 && !Double.isNaN(columns.salaries[row])) {
+                if (heaps[manager] == null) {
+                    heaps[manager] = new TopHeap(columns, k);
+                }
+                heaps[manager].offer(row);
+            }
+        }
+        return managerGroups(columns, heaps);
+    }
+
+    private static List<TopEarners> bySubtree(EmployeeColumns columns, int k) {
+        ReportingTree tree = ReportingTree.of(columns);
+        // Walking the top-down order backwards visits reports before their managers
+        int[] order = tree.topDown();
+        TopHeap[] heaps = new TopHeap[columns.size];
+        int[][] tops = new int[columns.size][];
+        for (int next = order.length - 1; next >= 0; next--) {
+            int row = order[next];
+            if (!tree.hasReports(row)) {
+                continue;
+            }
+            TopHeap heap = new TopHeap(columns, k);
+            for (int i = tree.first[row]; i < tree.first[row + 1]; i++) {
+                int report = tree.reports[i];
+                if (!Double.isNaN(columns.salaries[report])) {
+                    heap.offer(report);
+                }
+                if (tops[report] != null) {
+                    for (int below : tops[report]) {
+                        heap.offer(below);
+                    }
+                    tops[report] = null; // every report has one manager, so its top rows are needed once
+                }
+            }
+            heaps[row] = heap;
+            tops[row] = heap.rows();
+        }
+        return managerGroups(columns, heaps);
+    }
+
+    private static List<TopEarners> byCategory(EmployeeColumns columns, int k) {
+        EmployeeColumns.Dictionary categories = columns.categories;
+        TopHeap[] heaps = new TopHeap[categories.cardinality()];
+        for (int row = 0; row < columns.size; row++) {
+            if (!Double.isNaN(columns.salaries[row])) {
+                int code = categories.codes[row];
+                if (heaps[code] == null) {
+                    heaps[code] = new TopHeap(columns, k);
+                }
+                heaps[code].offer(row);
+            }
+        }
+        List<TopEarners> groups = new ArrayList<>();
+        for (int code = 0; code < heaps.length; code++) {
+            if (heaps[code] != null) {
+                groups.add(new TopEarners(null, null, categories.value(code), heaps[code].employees()));
+            }
+        }
+        groups.sort(Comparator.comparing(TopEarners::getCategory, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)));
+        return List.copyOf(groups);
+    }
+
+    // Rows are in ID order, so the groups come out ordered by manager ID
+    private static List<TopEarners> managerGroups(EmployeeColumns columns, TopHeap[] heaps) {
+        List<TopEarners> groups = new ArrayList<>();
+        for (int row = 0; row < heaps.length; row++) {
+            if (heaps[row] != null && heaps[row].size > 0) {
+                groups.add(new TopEarners(columns.ids[row], columns.names[row], null, heaps[row].employees()));
+            }
+        }
+        return List.copyOf(groups);
+    }
+
+    /**
+     * The K best-paid rows offered so far, as a binary heap of row numbers with the lowest-ranked row on top.
+     * A higher salary ranks higher, and the lower ID between equal salaries.
+     */
+    private static final class TopHeap {
+        private final EmployeeColumns columns;
+        private final double[] salaries;
+        private final long[] ids;
+        private final int[] heap;
+        private int size;
+
+        TopHeap(EmployeeColumns columns, int k) {
+            this.columns = columns;
+            salaries = columns.salaries;
+            ids = columns.ids;
+            heap = new int[k];
+        }
+
+        void offer(int row) {
+            if (size < heap.length) {
+                heap[size] = row;
+                siftUp(size++);
+            } else if (ranksAbove(row, heap[0])) {
+                heap[0] = row;
+                siftDown(0, size);
+            }
+        }
+
+        // The rows, highest-ranked first; empties a copy of the heap from the end
+        int[] rows() {
+            int[] rows = Arrays.copyOf(heap, size);
+            for (int end = size - 1; end > 0; end--) {
+                int lowest = rows[0];
+                rows[0] = rows[end];
+                rows[end] = lowest;
+                siftDown(rows, 0, end);
+            }
+            return rows;
+        }
+
+        List<EmployeeDTO> employees() {
+            List<EmployeeDTO> employees = new ArrayList<>(size);
+            for (int row : rows()) {
+                employees.add(columns.toDto(row));
+            }
+            return employees;
+        }
+
+        private boolean ranksAbove(int row, int other) {
+            return salaries[row] > salaries[other] || salaries[row] == salaries[other] && ids[row] < ids[other];
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (!ranksAbove(heap[parent], heap[index])) {
+                    return;
+                }
+                swap(heap, parent, index);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index, int end) {
+            siftDown(heap, index, end);
+        }
+
+        private void siftDown(int[] rows, int index, int end) {
+            while (2 * index + 1 < end) {
+                int child = 2 * index + 1;
+                if (child + 1 < end && ranksAbove(rows[child], rows[child + 1])) {
+                    child++;
+                }
+                if (!ranksAbove(rows[index], rows[child])) {
+                    return;
+                }
+                swap(rows, index, child);
+                index = child;
+            }
+        }
+
+        private static void swap(int[] rows, int a, int b) {
+            int row = rows[a];
+            rows[a] = rows[b];
+            rows[b] = row;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.pamu.service;
+
+import com.pamu.dto.EmployeeDTO;
+import com.pamu.dto.EmployeeFilterResult;
+import com.pamu.exception.InvalidEmployeeDataException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * Materialized answers of the fixed employee reports, such as gratuity eligibility.
+ * Each report is computed once per data generation and day from the {@link EmployeeColumns} snapshot and kept as
+ * the matching rows of that snapshot, one int per listed employee; DTOs are built only for the rows a client reads.
+ * Reports are computed in the background after every import, or on the first request after any other change;
+ * concurrent first requests wait for one computation instead of each running their own.
+ */
+@Component
+public class EmployeeReportStore {
+
+    static final int MAX_PAGE_SIZE = 1000;
+    // Below this many employees a report is computed on the calling thread
+    static final int PARALLEL_THRESHOLD = 100_000;
+
+    @Autowired EmployeeColumnStore employeeColumnStore;
+
+    /**
+     * The reports kept materialized.
+     */
+    public enum Report {
+        // More than five years of service
+        GRATUITY_ELIGIBLE,
+        // Paid more than their direct manager
+        HIGHER_SALARY_THAN_MANAGER
+    }
+
+    private final Map<Report, Slot> slots = new EnumMap<>(Report.class);
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "report-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean pending = new AtomicBoolean();
+
+    public EmployeeReportStore() {
+        for (Report report : Report.values()) {
+            slots.put(report, new Slot());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queues the computation of every report for the current data on the store's own thread and returns at once.
+     * This method is developed for imports, so the first report request after one finds its answer ready.
+     */
+    public void refresh() {
+        if (pending.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                // Cleared first, so data committed during this refresh queues the next one
+                pending.set(false);
+                LocalDate today = LocalDate.now();
+                for (Report report : Report.values()) {
+                    materialized(report, today);
+                }
+            });
+        }
+    }
+
+    /**
+     * @param report Report to read
+     * @return All employees of the report, in ID order
+     */
+    public List<EmployeeDTO> list(Report report) {
+        Materialized materialized = materialized(report, LocalDate.now());
+        return materialized.employees(0, materialized.rows.length);
+    }
+
+    /**
+     * Returns one page of a report.
+     * This method is developed so that large reports can be read in pages without the server rebuilding the whole
+     * list for each of them.
+     * @param report Report to read
+     * @param page Zero-based page number
+     * @param size Page size, at most {@value #MAX_PAGE_SIZE}
+     * @return The number of employees in the report and the requested page, in ID order
+     */
+    public EmployeeFilterResult page(Report report, int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new InvalidEmployeeDataException("Page must be 0 or more and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        Materialized materialized = materialized(report, LocalDate.now());
+        int total = materialized.rows.length;
+        int from = (int) Math.min((long) page * size, total);
+        return new EmployeeFilterResult(total, page, size, materialized.employees(from, Math.min(from + size, total)));
+    }
+
+    Materialized materialized(Report report, LocalDate today) {
+        EmployeeColumns columns = employeeColumnStore.current();
+        Slot slot = slots.get(report);
+        Materialized materialized = slot.current;
+        if (materialized != null && materialized.isFor(columns, today)) {
+            return materialized;
+        }
+        slot.lock.lock();
+        try {
+            materialized = slot.current;
+            if (materialized == null || !materialized.isFor(columns, today)) {
+                materialized = compute(report, columns, today);
+                slot.current = materialized;
+            }
+            return materialized;
+        } finally {
+            slot.lock.unlock();
+        }
+    }
+
+    static Materialized compute(Report report, EmployeeColumns columns, LocalDate today) {
+        IntPredicate matches = switch (report) {
+            case GRATUITY_ELIGIBLE -> {
+                // Joined on or before this day means more than the required months of service by today
+                int cutoff = (int) today.minusMonths(GratuityLiabilityJob.ELIGIBLE_AFTER_MONTHS + 1).toEpochDay();
+                yield row -> columns.dojDays[row] != EmployeeColumns.NO_DATE && columns.dojDays[row] <= cutoff;
+            }
+            case HIGHER_SALARY_THAN_MANAGER -> row -> {
+                int managerRow = columns.managerIds[row] != 0 ? columns.rowOf(columns.managerIds[row]) : -1;
+                // Unknown salaries compare false either way
+                return managerRow >= 0 && columns.salaries[row] > columns.salaries[managerRow];
+            };
+        };
+        IntStream rows = IntStream.range(0, columns.size);
+        if (columns.size >= PARALLEL_THRESHOLD) {
+            rows = rows.parallel();
+        }
+        return new Materialized(columns, today, rows.filter(matches).toArray());
+    }
+
+    /**
+     * One report computed over one snapshot on one day. Immutable.
+     */
+    static final class Materialized {
+        final EmployeeColumns columns;
+        final LocalDate day;
+        final int[] rows; // rows of the snapshot, in ID order
+
+        private Materialized(EmployeeColumns columns, LocalDate day, int[] rows) {
+            this.columns = columns;
+            this.day = day;
+            this.rows = rows;
+        }
+
+        // A newer snapshot than the one asked for is fine to serve
+        boolean isFor(EmployeeColumns current, LocalDate today) {
+            return columns.generation >= current.generation && day.equals(today);
+        }
+
+        List<EmployeeDTO> employees(int from, int to) {
+            List<EmployeeDTO> employees = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                employees.add(columns.toDto(rows[i]));
+            }
+            return employees;
+        }
+    }
+
+    private static final class Slot {
+        final ReentrantLock lock = new ReentrantLock();
+        volatile Materialized current;
+    }
+}
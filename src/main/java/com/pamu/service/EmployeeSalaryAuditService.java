@@ -0,0 +1,131 @@
+package com.pamu.service;
+
+import com.pamu.dto.SalaryInversion;
+import com.pamu.exception.EmployeeNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Finds employees who earn more than some manager above them, not only their direct manager.
+ * One iterative depth-first walk over the manager tree carries, for each employee, the lowest- and highest-paid
+ * manager on the way down, so every employee is checked against all of its managers in constant time and the
+ * whole audit is linear in the number of employees.
+ */
+@Service
+public class EmployeeSalaryAuditService {
+
+    @Autowired EmployeeColumnStore employeeColumnStore;
+
+    /**
+     * Lists the employees who out-earn at least one manager anywhere above them.
+     * This method is developed for compensation audits, where someone paid more than their manager's manager is
+     * as much of a finding as someone paid more than their own manager.
+     * @param managerId Audit only the employees below this manager, still compared with every manager above them;
+     * null for everyone
+     * @return For each such employee the lowest-paid manager above them and the difference, largest difference first
+     * @throws EmployeeNotFoundException if the manager does not exist
+     */
+    public List<SalaryInversion> findSalaryInversions(Long managerId) {
+        EmployeeColumns columns = employeeColumnStore.current();
+        ReportingTree tree = ReportingTree.of(columns);
+        // Per row: the lowest- and highest-paid manager above it (-1 while none has a salary) and its depth
+        int[] lowestAbove = new int[columns.size];
+        int[] highestAbove = new int[columns.size];
+        int[] depth = new int[columns.size];
+        boolean[] visited = new boolean[columns.size];
+        int[] stack = new int[columns.size];
+        int top = 0;
+
+        if (managerId != null) {
+            int root = columns.rowOf(managerId);
+            if (root < 0) {
+                throw new EmployeeNotFoundException("Employee with ID " + managerId + " not found.");
+            }
+            seedFromManagersAbove(columns, tree, root, lowestAbove, highestAbove, depth);
+            stack[top++] = root;
+            visited[root] = true;
+        } else {
+            for (int row = 0; row < columns.size; row++) {
+                if (tree.managerRow[row] < 0) {
+                    lowestAbove[row] = highestAbove[row] = -1;
+                    stack[top++] = row;
+                    visited[row] = true;
+                }
+            }
+        }
+
+        List<SalaryInversion> inversions = new ArrayList<>();
+        double[] salaries = columns.salaries;
+        while (top > 0) {
+            int row = stack[--top];
+            int lowest = lower(salaries, lowestAbove[row], row);
+            int highest = higher(salaries, highestAbove[row], row);
+            for (int i = tree.first[row]; i < tree.first[row + 1]; i++) {
+                int report = tree.reports[i];
+                if (visited[report]) {
+                    continue; // only possible inside a reporting cycle
+                }
+                visited[report] = true;
+                lowestAbove[report] = lowest;
+                highestAbove[report] = highest;
+                depth[report] = depth[row] + 1;
+                if (lowest >= 0 && salaries[report] > salaries[lowest]) {
+                    inversions.add(new SalaryInversion(columns.toDto(report), columns.ids[lowest], columns.names[lowest],
+                            salaries[lowest], depth[report] - depth[lowest],
+                            Math.round((salaries[report] - salaries[lowest]) * 100) / 100.0,
+                            salaries[report] > salaries[highest]));
+                }
+                stack[top++] = report;
+            }
+        }
+        inversions.sort(Comparator.comparingDouble(SalaryInversion::getDifference).reversed()
+                .thenComparing(inversion -> inversion.getEmployee().getId()));
+        return inversions;
+    }
+
+    /**
+     * Sets the lowest- and highest-paid managers above the root of a scoped audit by walking up from it, so its
+     * subtree is compared with the managers outside the scope too. Depths are counted from the root.
+     */
+    private static void seedFromManagersAbove(EmployeeColumns columns, ReportingTree tree, int root,
+                                              int[] lowestAbove, int[] highestAbove, int[] depth) {
+        double[] salaries = columns.salaries;
+        int lowest = -1;
+        int highest = -1;
+        int level = 0;
+        // Bounded by the number of employees in case the chain loops
+        for (int row = tree.managerRow[root]; row >= 0 && level < columns.size; row = tree.managerRow[row]) {
+            level++;
+            // Between equal salaries the nearer manager is kept, as on the way down
+            if (!Double.isNaN(salaries[row]) && (lowest < 0 || salaries[row] < salaries[lowest])) {
+                lowest = row;
+                depth[row] = -level;
+            }
+            highest = higher(salaries, highest, row);
+        }
+        lowestAbove[root] = lowest;
+        highestAbove[root] = highest;
+        depth[root] = 0;
+    }
+
+    // The lower-paid of a manager row (or -1) and a row below it, ignoring rows without a salary; between equal
+    // salaries the row below is the nearer manager for everyone further down, so it wins
+    private static int lower(double[] salaries, int current, int row) {
+        if (Double.isNaN(salaries[row])) {
+            return current;
+        }
+        return current < 0 || salaries[row] <= salaries[current] ? row : current;
+    }
+
+    private static int higher(double[] salaries, int current, int row) {
+        if (Double.isNaN(salaries[row])) {
+            return current;
+        }
+        return current < 0 || salaries[row] > salaries[current] ? row : current;
+    }
+}
@@ -0,0 +1,646 @@
+package com.pamu.service;
+
+import com.pamu.dto.EmployeeSearchHit;
+import com.pamu.repository.EmployeeJdbcRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntPredicate;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory search index over employee name, city and state.
+ * Every word of a name is indexed under each of its prefixes (up to {@value #MAX_PREFIX} characters) for
+ * typeahead and under its {@value #GRAM}-character n-grams for matches inside a word; city and state are indexed as
+ * exact values for filtering. Posting lists are kept in result order, so a query walks the shortest list among its
+ * words and filters from the front, checks each candidate directly and stops as soon as it has the requested number
+ * of results; a short prefix that matches half the company costs no more than a rare one.
+ * The index is loaded at startup and kept current per change; after an import only the rows that differ are
+ * re-indexed.
+ */
+@Component
+public class EmployeeSearchIndex {
+
+    // Longer query words share the postings of their first MAX_PREFIX characters and are checked per candidate
+    static final int MAX_PREFIX = 8;
+    static final int GRAM = 3;
+    static final int MAX_LIMIT = 100;
+
+    // When an import changes more than this share of the rows, building a new index is cheaper than patching
+    private static final int REBUILD_DIVISOR = 4;
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    @Autowired EmployeeJdbcRepository employeeJdbcRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index; // null while not loaded
+    // Guarded by lock: employees changed while a reload or refresh reads rows outside the lock, with the change
+    // number, so rows read earlier do not overwrite them; cleared when no read is in flight
+    private final Map<Long, Long> changedAt = new HashMap<>();
+    private long changeCount;
+    private int readsInFlight;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        reload();
+    }
+
+    public boolean isLoaded() {
+        lock.readLock().lock();
+        try {
+            return index != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Brings the index in line with the employees table.
+     * This method is developed for imports: rows whose name, city, state and category are unchanged are left alone,
+     * so re-importing a mostly unchanged file only touches the postings of the rows that changed. Employees changed
+     * by a commit while the table is being read keep the entry that commit gave them.
+     */
+    public void reload() {
+        long since = beginRead();
+        try {
+            List<EmployeeSearchHit> employees = new ArrayList<>();
+            employeeJdbcRepository.streamAll(rs -> employees.add(hitOf(rs)));
+            load(employees, since);
+        } finally {
+            endRead();
+        }
+    }
+
+    /**
+     * Replaces the indexed employees with the given ones.
+     * @param employees All employees
+     * @return Number of employees that were added, changed or removed
+     */
+    int load(Collection<EmployeeSearchHit> employees) {
+        long since = beginRead();
+        try {
+            return load(employees, since);
+        } finally {
+            endRead();
+        }
+    }
+
+    /**
+     * Employees put, removed or refreshed after the given change number keep their entry: the rows being loaded
+     * were read before that change and would otherwise overwrite it with a stale row.
+     */
+    private int load(Collection<EmployeeSearchHit> employees, long since) {
+        List<EmployeeSearchHit> changed = new ArrayList<>();
+        List<Long> removed = new ArrayList<>();
+        boolean incremental;
+        lock.readLock().lock();
+        try {
+            incremental = index != null;
+            if (incremental) {
+                Set<Long> present = new HashSet<>(employees.size() * 2);
+                for (EmployeeSearchHit employee : employees) {
+                    present.add(employee.getId());
+                    if (!employee.equals(index.get(employee.getId()))) {
+                        changed.add(employee);
+                    }
+                }
+                for (Long id : index.docById.keySet()) {
+                    if (!present.contains(id)) {
+                        removed.add(id);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        int changes = changed.size() + removed.size();
+        if (incremental && changes <= employees.size() / REBUILD_DIVISOR) {
+            lock.writeLock().lock();
+            try {
+                for (EmployeeSearchHit employee : changed) {
+                    if (!changedSince(employee.getId(), since)) {
+                        index.put(employee);
+                    }
+                }
+                for (Long id : removed) {
+                    if (!changedSince(id, since)) {
+                        index.remove(id);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return changes;
+        }
+        // Built outside the lock and swapped in, so readers are blocked only for the swap
+        Index built = Index.build(employees);
+        lock.writeLock().lock();
+        try {
+            if (index != null) {
+                changedAt.forEach((id, change) -> {
+                    if (change > since) {
+                        EmployeeSearchHit current = index.get(id);
+                        if (current != null) {
+                            built.put(current);
+                        } else {
+                            built.remove(id);
+                        }
+                    }
+                });
+            }
+            index = built;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return employees.size();
+    }
+
+    /**
+     * Re-indexes the given employees from their committed rows; employees without a row are removed.
+     * Runs after a single-row change commits. The rows are read before taking the write lock, under a change number
+     * taken before the read, and a row is not installed over a change with a later number; a read that starts
+     * after a commit sees it, so concurrent commits whose hooks run out of order still leave the index with what
+     * the database holds.
+     * @param employeeIds IDs of the employees the change wrote or deleted
+     */
+    public void refresh(Collection<Long> employeeIds) {
+        if (!isLoaded()) {
+            return;
+        }
+        long readAt = beginRead();
+        try {
+            Map<Long, EmployeeSearchHit> committed = new HashMap<>();
+            employeeJdbcRepository.streamByIds(employeeIds, rs -> committed.put(rs.getLong("id"), hitOf(rs)));
+            lock.writeLock().lock();
+            try {
+                if (index == null) {
+                    return;
+                }
+                for (Long employeeId : employeeIds) {
+                    if (changedSince(employeeId, readAt)) {
+                        continue;
+                    }
+                    changedAt.put(employeeId, readAt);
+                    EmployeeSearchHit employee = committed.get(employeeId);
+                    if (employee != null) {
+                        index.put(employee);
+                    } else {
+                        index.remove(employeeId);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            endRead();
+        }
+    }
+
+    /**
+     * Inserts or re-indexes one employee. Changes reach the index through {@link #refresh(Collection)}; this is a
+     * hook for tests.
+     * @param employee The employee as committed to the database
+     */
+    void put(EmployeeSearchHit employee) {
+        lock.writeLock().lock();
+        try {
+            if (index != null) {
+                markChanged(employee.getId());
+                index.put(employee);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes one employee. A hook for tests, like {@link #put(EmployeeSearchHit)}.
+     * @param employeeId ID of the deleted employee
+     */
+    void remove(Long employeeId) {
+        lock.writeLock().lock();
+        try {
+            if (index != null) {
+                markChanged(employeeId);
+                index.remove(employeeId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the best matches for a typeahead query, optionally restricted to a city and state.
+     * Every word of the query must start a word of the name; when that gives fewer than the limit, names containing
+     * the words (of at least {@value #GRAM} characters) anywhere are added after them. Names starting with the whole
+     * query rank first, then shorter names, then by name and ID. Callers check {@link #isLoaded()} first.
+     * @param query Words of the name, or null to match on city and state only
+     * @param city Exact city, ignoring case and accents, or null
+     * @param state Exact state, ignoring case and accents, or null
+     * @param limit Maximum number of results
+     * @return The best matches, best first
+     */
+    public List<EmployeeSearchHit> search(String query, String city, String state, int limit) {
+        String[] words = words(query);
+        String cityKey = city != null && !city.isBlank() ? key(city) : null;
+        String stateKey = state != null && !state.isBlank() ? key(state) : null;
+        lock.readLock().lock();
+        try {
+            return index.search(words, cityKey, stateKey, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index != null ? index.docById.size() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Numbers a read of rows outside the lock; changes numbered after it are newer than what it reads
+    private long beginRead() {
+        lock.writeLock().lock();
+        try {
+            readsInFlight++;
+            return ++changeCount;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void endRead() {
+        lock.writeLock().lock();
+        try {
+            if (--readsInFlight == 0) {
+                changedAt.clear();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Called under the write lock
+    private void markChanged(Long employeeId) {
+        if (readsInFlight > 0) {
+            changedAt.put(employeeId, ++changeCount);
+        }
+    }
+
+    private boolean changedSince(Long employeeId, long since) {
+        Long change = changedAt.get(employeeId);
+        return change != null && change > since;
+    }
+
+    private static EmployeeSearchHit hitOf(ResultSet rs) throws SQLException {
+        return new EmployeeSearchHit(rs.getLong("id"), rs.getString("name"), rs.getString("city"), rs.getString("state"),
+                rs.getString("category"));
+    }
+
+    // Lower case without accents, so that "Chennai", "CHENNAI" and "Chennaí" are the same
+    static String key(String value) {
+        String decomposed = Normalizer.normalize(value.trim(), Normalizer.Form.NFD);
+        return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    static String[] words(String value) {
+        if (value == null) {
+            return new String[0];
+        }
+        return Arrays.stream(NON_WORD.split(key(value))).filter(word -> !word.isEmpty()).toArray(String[]::new);
+    }
+
+    /**
+     * The postings and the indexed fields of every document, in arrays indexed by document number. Numbers of
+     * removed employees are reused. Every posting list is kept in rank order (shorter name, then name, then ID), so
+     * a query walks a list from the front and stops once it has enough matches. Not thread-safe; the enclosing
+     * component guards it with its lock.
+     */
+    private static final class Index {
+
+        private final Map<Long, Integer> docById;
+        private final Map<String, Postings> leadingPrefixes = new HashMap<>(); // prefixes of the first word only
+        private final Map<String, Postings> prefixes = new HashMap<>();
+        private final Map<String, Postings> grams = new HashMap<>();
+        private final Map<String, Postings> cities = new HashMap<>();
+        private final Map<String, Postings> states = new HashMap<>();
+        private final IntBinaryOperator rank = this::compareRank;
+        private EmployeeSearchHit[] hits;
+        private String[] names; // words of the name joined by single spaces
+        private String[] cityKeys;
+        private String[] stateKeys;
+        private final Postings free = new Postings();
+        private int docCount;
+        private boolean appending; // set while build() adds documents in rank order
+
+        Index(int expected) {
+            int capacity = Math.max(16, expected);
+            docById = new HashMap<>(capacity * 2);
+            hits = new EmployeeSearchHit[capacity];
+            names = new String[capacity];
+            cityKeys = new String[capacity];
+            stateKeys = new String[capacity];
+        }
+
+        // Adding in rank order appends to the end of every posting list instead of shifting it
+        static Index build(Collection<EmployeeSearchHit> employees) {
+            record Ranked(EmployeeSearchHit hit, String name) {
+            }
+            Index index = new Index(employees.size());
+            index.appending = true;
+            employees.stream()
+                    .map(hit -> new Ranked(hit, String.join(" ", words(hit.getName()))))
+                    .sorted(Comparator.comparingInt((Ranked ranked) -> ranked.name().length())
+                            .thenComparing(Ranked::name)
+                            .thenComparing(ranked -> ranked.hit().getId()))
+                    .forEach(ranked -> index.put(ranked.hit()));
+            index.appending = false;
+            return index;
+        }
+
+        EmployeeSearchHit get(Long id) {
+            Integer doc = docById.get(id);
+            return doc != null ? hits[doc] : null;
+        }
+
+        void put(EmployeeSearchHit employee) {
+            Integer existing = docById.get(employee.getId());
+            int doc;
+            if (existing != null) {
+                doc = existing;
+                unindex(doc);
+            } else {
+                doc = free.size > 0 ? free.removeLast() : docCount++;
+                if (doc == hits.length) {
+                    int capacity = hits.length * 2;
+                    hits = Arrays.copyOf(hits, capacity);
+                    names = Arrays.copyOf(names, capacity);
+                    cityKeys = Arrays.copyOf(cityKeys, capacity);
+                    stateKeys = Arrays.copyOf(stateKeys, capacity);
+                }
+                docById.put(employee.getId(), doc);
+            }
+            String[] words = words(employee.getName());
+            hits[doc] = employee;
+            names[doc] = String.join(" ", words);
+            cityKeys[doc] = employee.getCity() != null ? key(employee.getCity()) : null;
+            stateKeys[doc] = employee.getState() != null ? key(employee.getState()) : null;
+            forEachTerm(words, (terms, term) -> addPosting(terms, term, doc));
+            if (cityKeys[doc] != null) {
+                addPosting(cities, cityKeys[doc], doc);
+            }
+            if (stateKeys[doc] != null) {
+                addPosting(states, stateKeys[doc], doc);
+            }
+        }
+
+        private void addPosting(Map<String, Postings> terms, String term, int doc) {
+            Postings postings = terms.computeIfAbsent(term, t -> new Postings());
+            if (appending) {
+                postings.add(doc);
+            } else {
+                postings.insert(doc, rank);
+            }
+        }
+
+        void remove(Long id) {
+            Integer doc = docById.remove(id);
+            if (doc != null) {
+                unindex(doc);
+                hits[doc] = null;
+                names[doc] = null;
+                cityKeys[doc] = null;
+                stateKeys[doc] = null;
+                free.add(doc);
+            }
+        }
+
+        // Runs before the fields change, so every list is searched by the rank the document was inserted with
+        private void unindex(int doc) {
+            forEachTerm(words(hits[doc].getName()), (terms, term) -> removePosting(terms, term, doc));
+            if (cityKeys[doc] != null) {
+                removePosting(cities, cityKeys[doc], doc);
+            }
+            if (stateKeys[doc] != null) {
+                removePosting(states, stateKeys[doc], doc);
+            }
+        }
+
+        private void removePosting(Map<String, Postings> terms, String term, int doc) {
+            Postings postings = terms.get(term);
+            if (postings != null && postings.remove(doc, rank) && postings.size == 0) {
+                terms.remove(term);
+            }
+        }
+
+        // Each distinct term of the name once, so every posting list holds a document at most once
+        private void forEachTerm(String[] words, TermConsumer consumer) {
+            Set<String> seenPrefixes = new HashSet<>();
+            Set<String> seenGrams = new HashSet<>();
+            for (int w = 0; w < words.length; w++) {
+                String word = words[w];
+                for (int length = 1; length <= Math.min(word.length(), MAX_PREFIX); length++) {
+                    String prefix = word.substring(0, length);
+                    if (w == 0) {
+                        consumer.accept(leadingPrefixes, prefix);
+                    }
+                    if (seenPrefixes.add(prefix)) {
+                        consumer.accept(prefixes, prefix);
+                    }
+                }
+                for (int start = 0; start + GRAM <= word.length(); start++) {
+                    String gram = word.substring(start, start + GRAM);
+                    if (seenGrams.add(gram)) {
+                        consumer.accept(grams, gram);
+                    }
+                }
+            }
+        }
+
+        private int compareRank(int a, int b) {
+            int byLength = Integer.compare(names[a].length(), names[b].length());
+            if (byLength != 0) {
+                return byLength;
+            }
+            int byName = names[a].compareTo(names[b]);
+            return byName != 0 ? byName : Long.compare(hits[a].getId(), hits[b].getId());
+        }
+
+        List<EmployeeSearchHit> search(String[] words, String cityKey, String stateKey, int limit) {
+            List<EmployeeSearchHit> results = new ArrayList<>(limit);
+            if (words.length == 0) {
+                collect(new ArrayList<>(), cityKey, stateKey, limit, results, doc -> true);
+                return results;
+            }
+            String phrase = String.join(" ", words);
+            List<Postings> leadingLists = new ArrayList<>();
+            leadingLists.add(leadingPrefixes.get(prefixKey(words[0])));
+            collect(leadingLists, cityKey, stateKey, limit, results, doc -> names[doc].startsWith(phrase));
+
+            List<Postings> wordLists = new ArrayList<>();
+            for (String word : words) {
+                wordLists.add(prefixes.get(prefixKey(word)));
+            }
+            collect(wordLists, cityKey, stateKey, limit, results,
+                    doc -> !names[doc].startsWith(phrase) && startWords(doc, words));
+
+            if (Arrays.stream(words).anyMatch(word -> word.length() >= GRAM)) {
+                List<Postings> gramLists = new ArrayList<>();
+                for (String word : words) {
+                    if (word.length() < GRAM) {
+                        gramLists.add(prefixes.get(word));
+                    }
+                    for (int start = 0; start + GRAM <= word.length(); start++) {
+                        gramLists.add(grams.get(word.substring(start, start + GRAM)));
+                    }
+                }
+                collect(gramLists, cityKey, stateKey, limit, results,
+                        doc -> !startWords(doc, words) && containsWords(doc, words));
+            }
+            return results;
+        }
+
+        /**
+         * Walks the shortest of the posting lists and filters in rank order and adds the documents that pass the
+         * filters and the matcher until there are {@code limit} results. A missing list means nothing can match.
+         */
+        private void collect(List<Postings> lists, String cityKey, String stateKey, int limit,
+                             List<EmployeeSearchHit> results, IntPredicate matcher) {
+            if (cityKey != null) {
+                lists.add(cities.get(cityKey));
+            }
+            if (stateKey != null) {
+                lists.add(states.get(stateKey));
+            }
+            if (lists.isEmpty() || lists.contains(null)) {
+                return;
+            }
+            Postings shortest = lists.stream().min(Comparator.comparingInt(postings -> postings.size)).orElseThrow();
+            for (int i = 0; i < shortest.size && results.size() < limit; i++) {
+                int doc = shortest.docs[i];
+                if ((cityKey == null || cityKey.equals(cityKeys[doc])) && (stateKey == null || stateKey.equals(stateKeys[doc]))
+                        && matcher.test(doc)) {
+                    results.add(hits[doc]);
+                }
+            }
+        }
+
+        private boolean startWords(int doc, String[] words) {
+            for (String word : words) {
+                if (!startsWord(names[doc], word)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Words shorter than an n-gram cannot be looked up inside a word, so they still have to start one
+        private boolean containsWords(int doc, String[] words) {
+            for (String word : words) {
+                if (word.length() < GRAM ? !startsWord(names[doc], word) : !names[doc].contains(word)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean startsWord(String name, String word) {
+            if (name.startsWith(word)) {
+                return true;
+            }
+            for (int space = name.indexOf(' '); space >= 0; space = name.indexOf(' ', space + 1)) {
+                if (name.startsWith(word, space + 1)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static String prefixKey(String word) {
+            return word.length() > MAX_PREFIX ? word.substring(0, MAX_PREFIX) : word;
+        }
+    }
+
+    /**
+     * Documents of one term, sorted by the given order; {@link #add} appends, for callers adding in that order.
+     * The free list of document numbers uses it as a plain stack.
+     */
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private int size;
+
+        void insert(int doc, IntBinaryOperator order) {
+            int at = position(doc, order);
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            System.arraycopy(docs, at, docs, at + 1, size - at);
+            docs[at] = doc;
+            size++;
+        }
+
+        boolean remove(int doc, IntBinaryOperator order) {
+            int at = position(doc, order);
+            if (at == size || docs[at] != doc) {
+                return false;
+            }
+            System.arraycopy(docs, at + 1, docs, at, size - at - 1);
+            size--;
+            return true;
+        }
+
+        // First position whose document does not rank before the given one
+        private int position(int doc, IntBinaryOperator order) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (order.applyAsInt(docs[mid], doc) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        void add(int doc) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+
+        int removeLast() {
+            return docs[--size];
+        }
+    }
+
+    @FunctionalInterface
+    private interface TermConsumer {
+        void accept(Map<String, Postings> terms, String term);
+    }
+}
@@ -1,55 +1,159 @@
 package com.pamu.service;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pamu.dto.EmployeeDTO;
+import com.pamu.dto.EmployeeHierarchyRow;
+import com.pamu.dto.EmployeeRequest;
+import com.pamu.dto.EmployeeSearchHit;
+import com.pamu.dto.ImportRowError;
+import com.pamu.dto.ImportSummary;
 import com.pamu.exception.EmployeeNotFoundException;
 import com.pamu.exception.FileProcessingException;
+import com.pamu.exception.ImportValidationException;
 import com.pamu.exception.InvalidEmployeeDataException;
 import com.pamu.model.Employee;
 import com.pamu.model.EmployeeNode;
+import com.pamu.model.ExportArtifact;
+import com.pamu.repository.EmployeeJdbcRepository;
 import com.pamu.repository.EmployeeRepository;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class EmployeeService {
 
     @Autowired EmployeeRepository employeeRepository;
+    @Autowired EmployeeJdbcRepository employeeJdbcRepository;
+    @Autowired EmployeeDataVersion employeeDataVersion;
+    @Autowired ExportArtifactCache exportArtifactCache;
+    @Autowired SpoolManager spoolManager;
+    @Autowired EmployeeDirectory employeeDirectory;
+    @Autowired EmployeeSearchIndex employeeSearchIndex;
+    @Autowired ImportErrorReports importErrorReports;
+    @Autowired EmployeeImportQueue employeeImportQueue;
+    // Lazy: these read employees through EmployeeColumnStore, which depends on this service
+    @Autowired @Lazy EmployeeColumnStore employeeColumnStore;
+    @Autowired @Lazy GratuityLiabilityJob gratuityLiabilityJob;
+    @Autowired @Lazy EmployeeReportStore employeeReportStore;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    // Rows committed per transaction by a lenient import
+    static final int IMPORT_BATCH_SIZE = 1000;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final Logger log = LoggerFactory.getLogger(EmployeeService.class);
+
+    private final AtomicReference<UploadFingerprint> lastUpload = new AtomicReference<>();
+    // Identical requests arriving together share one database round trip
+    private final SingleFlight<Integer, EmployeeDTO> nthHighestQueries = new SingleFlight<>();
+    private final SingleFlight<Long, EmployeeNode> hierarchyQueries = new SingleFlight<>();
+    private final SingleFlight<String, Boolean> searchIndexLoads = new SingleFlight<>();
 
     /**
      * Processes the uploaded employee Excel file, imports the data, and returns a downloadable Excel file.
      * This method is developed to provide a single entry point for file upload, processing, and export.
      * @param file Multipart Excel file containing employee data
-     * @return File containing processed employee data
+     * @return ExportArtifact containing processed employee data
      */
-    public File processAndDownloadEmployees(MultipartFile file) {
+    public ExportArtifact processAndDownloadEmployees(MultipartFile file) {
+        return processAndDownloadEmployees(file, false);
+    }
+
+    /**
+     * Processes the uploaded employee Excel file unless the same file was the last one imported and the data has not
+     * changed since; in that case the export of the current data is returned without parsing or writing anything.
+     * This method is developed for schedulers that re-post the same workbook: the repeat costs one streaming
+     * SHA-256 pass over the upload and a cache lookup instead of a full parse, persist and export cycle.
+     * The import waits its turn on the {@link EmployeeImportQueue} and commits in one transaction, so readers keep
+     * being served the previous data until the new snapshot is in place.
+     * @param file Multipart Excel file containing employee data
+     * @param force Whether to import even a byte-identical repeat
+     * @return ExportArtifact containing processed employee data
+     */
+    public ExportArtifact processAndDownloadEmployees(MultipartFile file, boolean force) {
+        String digest;
         try {
-            importEmployeeData(file.getInputStream());
-            return writeEmployeesToExcel(getAllEmployeesFromCache());
+            digest = sha256(file);
         } catch (IOException e) {
             throw new FileProcessingException("Failed to process employee file", e);
         }
+        // Checked on the writer thread, so a repeat queued behind the import of the same file is skipped too
+        employeeImportQueue.submit(() -> {
+            UploadFingerprint last = lastUpload.get();
+            if (!force && last != null && last.sha256().equals(digest) && last.generation() == employeeDataVersion.current()) {
+                return null;
+            }
+            try (InputStream inputStream = file.getInputStream()) {
+                // Through a template, since a call on this object would bypass the @Transactional proxy
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> importEmployeeData(inputStream));
+            } catch (IOException e) {
+                throw new FileProcessingException("Failed to process employee file", e);
+            }
+            lastUpload.set(new UploadFingerprint(digest, employeeDataVersion.current()));
+            return null;
+        });
+        return exportEmployees();
+    }
+
+    // Streams the upload through the digest without keeping it; the multipart file is already buffered by the container
+    private static String sha256(MultipartFile file) throws IOException {
+        try (DigestInputStream in = new DigestInputStream(file.getInputStream(), MessageDigest.getInstance("SHA-256"))) {
+            in.transferTo(OutputStream.nullOutputStream());
+            return HexFormat.of().formatHex(in.getMessageDigest().digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // The last imported upload and the data generation its import produced
+    private record UploadFingerprint(String sha256, long generation) {
+    }
+
+    /**
+     * Returns the Excel export of all employees for the current data generation.
+     * This method is developed to serve repeated downloads from the artifact cache until the data changes.
+     * A rebuild takes the rows of the column snapshot, which imports and edits keep current, instead of reading the
+     * table again.
+     * @return ExportArtifact containing all employees as an Excel workbook
+     */
+    public ExportArtifact exportEmployees() {
+        return exportArtifactCache.getOrCreate("employees-xlsx", "", "employees.xlsx",
+                () -> writeEmployeesToExcel(employeeColumnStore.current().employees));
     }
 
     /**
      * Imports employee data from an InputStream (Excel file), parses, validates, and persists it.
      * This method is developed to support bulk employee import and manager relationship setup.
+     * The hierarchy closure table is refreshed for the imported employees and everyone reporting to them.
      * @param inputStream InputStream of the Excel file
      */
     @Transactional
@@ -74,52 +178,159 @@ public class EmployeeService {
                 }
             }
             employeeRepository.saveAll(employees);
+            employeeRepository.flush();
+            employeeJdbcRepository.refreshClosure(wrapperMap.keySet());
+            EmployeeDataVersion.runAfterCommit(this::afterImportCommitted);
+        } catch (InvalidEmployeeDataException e) {
+            throw e;
         } catch (RuntimeException e) {
             throw new InvalidEmployeeDataException("Invalid employee data in Excel", e);
         }
     }
 
+    /**
+     * Imports the valid rows of an employee file and records every other row in a downloadable error report.
+     * This method is developed so that a few bad cells in a large file no longer throw away the whole import:
+     * rows that cannot be read, duplicates, cycles, missing managers and the rows below them are reported, and the
+     * rest are committed in batches of {@value #IMPORT_BATCH_SIZE}, managers before their reports, so every
+     * committed batch is a consistent hierarchy. If a batch fails, the batches before it stay committed.
+     * Like every import it runs on the {@link EmployeeImportQueue}, never at the same time as another one.
+     * @param inputStream InputStream of the Excel file
+     * @return Numbers of imported and rejected rows, and the ID of the error report if any row was rejected
+     */
+    public ImportSummary importEmployeeDataLeniently(InputStream inputStream) {
+        return employeeImportQueue.submit(() -> importLeniently(inputStream));
+    }
+
+    private ImportSummary importLeniently(InputStream inputStream) {
+        EmployeeImportValidator validator = new EmployeeImportValidator();
+        Map<Long, EmployeeWrapper> wrapperMap = parseExcel(inputStream, validator, true);
+        List<EmployeeWrapper> ordered = new ArrayList<>(wrapperMap.values());
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int committed = 0;
+        try {
+            for (int from = 0; from < ordered.size(); from += IMPORT_BATCH_SIZE) {
+                List<EmployeeWrapper> batch = ordered.subList(from, Math.min(from + IMPORT_BATCH_SIZE, ordered.size()));
+                transaction.executeWithoutResult(status -> saveImportBatch(batch, wrapperMap));
+                committed += batch.size();
+            }
+        } catch (RuntimeException e) {
+            throw new InvalidEmployeeDataException("Import stopped after committing " + committed + " of "
+                    + ordered.size() + " employees", e);
+        } finally {
+            if (committed > 0) {
+                afterImportCommitted();
+            }
+        }
+        List<ImportRowError> errors = validator.getRowErrors();
+        String reportId = errors.isEmpty() ? null : importErrorReports.save(errors);
+        return new ImportSummary(committed, errors.size(), reportId);
+    }
+
+    /**
+     * Brings everything derived from the employees table up to date once an import has committed.
+     * The data generation advances first, so caches keyed by it stop serving the old data even if a later step
+     * fails; each step's failure is logged and does not stop the others, nor replace the import's own outcome.
+     */
+    private void afterImportCommitted() {
+        try {
+            employeeColumnStore.publishCommitted();
+        } catch (RuntimeException e) {
+            log.error("Failed to publish the imported employees; advancing the data generation without them", e);
+            employeeDataVersion.advance();
+        }
+        // After the generation advance, so the run and the reports see the imported data
+        runImportStep("request a gratuity liability run", gratuityLiabilityJob::requestRun);
+        runImportStep("refresh the reports", employeeReportStore::refresh);
+        runImportStep("reload the employee directory", employeeDirectory::reload);
+        runImportStep("reload the search index", employeeSearchIndex::reload);
+    }
+
+    private static void runImportStep(String step, Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            log.error("Failed to {} after an import", step, e);
+        }
+    }
+
+    // Managers are in this or an earlier batch, so each employee is stored with its manager in one statement
+    private void saveImportBatch(List<EmployeeWrapper> batch, Map<Long, EmployeeWrapper> wrapperMap) {
+        List<Employee> employees = new ArrayList<>(batch.size());
+        List<Long> ids = new ArrayList<>(batch.size());
+        for (EmployeeWrapper wrapper : batch) {
+            EmployeeWrapper manager = wrapper.managerId != null ? wrapperMap.get(wrapper.managerId) : null;
+            wrapper.employee.setManager(manager != null ? manager.employee : null);
+            employees.add(wrapper.employee);
+            ids.add(wrapper.employee.getId());
+        }
+        employeeRepository.saveAll(employees);
+        employeeRepository.flush();
+        employeeJdbcRepository.refreshClosure(ids);
+    }
+
     static class EmployeeWrapper {
         Employee employee;
         Long managerId;
+        int row; // Row number as shown in the spreadsheet; 0 for generated employees
 
         EmployeeWrapper(Employee employee, Long managerId) {
             this.employee = employee;
             this.managerId = managerId;
         }
+
+        EmployeeWrapper(Employee employee, Long managerId, int row) {
+            this(employee, managerId);
+            this.row = row;
+        }
     }
 
     /**
      * Parses the Excel file and builds a map of EmployeeWrapper objects for further processing.
      * This method is developed to modularize Excel parsing and synthetic hierarchy generation.
+     * The rows from the file are validated as a graph before the synthetic employees are added.
      * @param inputStream InputStream of the Excel file
      * @return Map of employee ID to EmployeeWrapper
+     * @throws ImportValidationException listing duplicate IDs, unreadable rows, missing managers, cycles and extra top-level employees
      */
     private Map<Long, EmployeeWrapper> parseExcel(InputStream inputStream) {
+        return parseExcel(inputStream, new EmployeeImportValidator(), false);
+    }
+
+    /**
+     * Parses the Excel file with its columns located by header name, validates the rows and adds the synthetic hierarchy.
+     * @param inputStream InputStream of the Excel file
+     * @param validator Collects the problems found in the file
+     * @param lenient Whether invalid rows are dropped (and recorded in the validator) instead of rejecting the file
+     * @return Map of employee ID to EmployeeWrapper; for a lenient import every manager comes before its reports
+     */
+    private Map<Long, EmployeeWrapper> parseExcel(InputStream inputStream, EmployeeImportValidator validator, boolean lenient) {
         try (Workbook workbook = new XSSFWorkbook(inputStream)) {
             Sheet sheet = workbook.getSheetAt(0);
+            EmployeeSheetReader reader = EmployeeSheetReader.forHeader(sheet.getRow(sheet.getFirstRowNum()));
             Map<Long, EmployeeWrapper> map = new HashMap<>();
             Random random = new Random();
-            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
+            for (int i = sheet.getFirstRowNum() + 1; i <= sheet.getLastRowNum(); i++) {
                 Row row = sheet.getRow(i);
                 if (row == null) continue;
-                Employee emp = new Employee();
-                emp.setId((long) row.getCell(0).getNumericCellValue());
-                emp.setName(row.getCell(1).getStringCellValue());
-                emp.setCity(row.getCell(2).getStringCellValue());
-                emp.setState(row.getCell(3).getStringCellValue());
-                emp.setCategory(row.getCell(4).getStringCellValue());
-                emp.setSalary(row.getCell(6).getNumericCellValue());
-                Cell dojCell = row.getCell(7);
-                if (DateUtil.isCellDateFormatted(dojCell)) {
-                    emp.setDoj(dojCell.getLocalDateTimeCellValue().toLocalDate());
+                EmployeeWrapper wrapper;
+                try {
+                    wrapper = reader.read(row);
+                } catch (IllegalArgumentException e) {
+                    validator.reject(i + 1, null, e.getMessage());
+                    continue;
                 }
-                Long managerId = null;
-                Cell managerCell = row.getCell(5);
-                if (managerCell != null && managerCell.getCellType() == CellType.NUMERIC) {
-                    managerId = (long) managerCell.getNumericCellValue();
+                if (wrapper == null) continue;
+                EmployeeWrapper first = map.putIfAbsent(wrapper.employee.getId(), wrapper);
+                if (first != null) {
+                    validator.reject(i + 1, wrapper.employee.getId(),
+                            "duplicate employee ID " + wrapper.employee.getId() + " (first used in row " + first.row + ")");
                 }
-                map.put(emp.getId(), new EmployeeWrapper(emp, managerId));
+            }
+            if (lenient) {
+                map = validator.keepValid(map);
+            } else {
+                validator.validate(map);
             }
 
             // Step 2: Determine or create the Director
@@ -213,6 +424,8 @@ public class EmployeeService {
             return map;
         } catch (IOException e) {
             throw new FileProcessingException("Failed to parse Excel file", e);
+        } catch (ImportValidationException e) {
+            throw e;
         } catch (RuntimeException e) {
             throw new InvalidEmployeeDataException("Invalid data in Excel file", e);
         }
@@ -222,93 +435,38 @@ public class EmployeeService {
      * Writes a list of employees to an Excel file and returns the file.
      * This method is developed to support exporting employee data for download or reporting.
      * @param employees List of employees to export
-     * @return File containing the exported employee data
+     * @return File in the spool directory containing the exported employee data
      */
     private File writeEmployeesToExcel(List<Employee> employees) {
+        // Create a fresh spool file to avoid overwrite/corruption issues
+        File outputFile = spoolManager.createFile("employee-export", ".xlsx");
         try {
-            // Create a temporary file to avoid overwrite/corruption issues
-            File outputFile = File.createTempFile("employee-export", ".xlsx");
-
-            try (Workbook workbook = new XSSFWorkbook(); FileOutputStream fileOut = new FileOutputStream(outputFile)) {
-                Sheet sheet = workbook.createSheet("Employees");
-
-                // Create header row
-                String[] headers = {"ID", "Name", "City", "State", "Category", "Manager ID", "Salary", "DOJ"};
-                Row headerRow = sheet.createRow(0);
-                for (int i = 0; i < headers.length; i++) {
-                    headerRow.createCell(i).setCellValue(headers[i]);
-                }
-
-                // Fill data rows
-                int rowNum = 1;
-                for (Employee emp : employees) {
-                    Row row = sheet.createRow(rowNum++);
-                    row.createCell(0).setCellValue(emp.getId());
-                    row.createCell(1).setCellValue(safe(emp.getName()));
-                    row.createCell(2).setCellValue(safe(emp.getCity()));
-                    row.createCell(3).setCellValue(safe(emp.getState()));
-                    row.createCell(4).setCellValue(safe(emp.getCategory()));
-                    row.createCell(5).setCellValue(emp.getManager() != null ? emp.getManager().getId() : 0);
-                    row.createCell(6).setCellValue(emp.getSalary() != null ? emp.getSalary() : 0.0);
-                    row.createCell(7).setCellValue(emp.getDoj() != null ? emp.getDoj().toString() : "");
-                }
-
-                // Autosize columns for better readability
-                for (int i = 0; i < headers.length; i++) {
-                    sheet.autoSizeColumn(i);
-                }
-
-                // Write content to file
-                workbook.write(fileOut);
-            }
+            EmployeeWorkbookWriter.write(employees, outputFile);
             return outputFile;
         } catch (IOException e) {
+            spoolManager.discard(outputFile);
             throw new FileProcessingException("Failed to write employees to Excel file", e);
         }
     }
 
-    // Utility method to safely extract strings
-    private String safe(String value) {
-        return value != null ? value : "";
-    }
-
     /**
      * Returns a list of employees eligible for gratuity (more than 5 years of service).
      * This method is developed to support HR and payroll use cases for gratuity calculation.
+     * The list is computed once per data generation and day by {@link EmployeeReportStore}.
      * @return List of EmployeeDTOs eligible for gratuity
      */
     public List<EmployeeDTO> getGratuityEligibleEmployees() {
-        return getAllEmployeesFromCache().stream()
-                .filter(emp -> emp.getDoj() != null &&
-                        ChronoUnit.MONTHS.between(emp.getDoj(), LocalDate.now()) > 60)
-                .map(emp -> new EmployeeDTO(
-                        emp.getId(),
-                        emp.getName(),
-                        emp.getSalary(),
-                        emp.getCategory(),
-                        emp.getDoj(),
-                        emp.getManager() != null ? emp.getManager().getId() : null
-                ))
-                .collect(Collectors.toList());
+        return employeeReportStore.list(EmployeeReportStore.Report.GRATUITY_ELIGIBLE);
     }
 
     /**
      * Returns a list of employees whose salary is higher than their manager's salary.
      * This method is developed to support analytics and reporting on salary structure.
+     * The list is computed once per data generation by {@link EmployeeReportStore}.
      * @return List of EmployeeDTOs with higher salary than their manager
      */
     public List<EmployeeDTO> getEmployeesWithHigherSalaryThanManager() {
-        return getAllEmployeesFromCache().stream()
-                .filter(emp -> emp.getManager() != null && emp.getSalary() > emp.getManager().getSalary())
-                .map(emp -> new EmployeeDTO(
-                        emp.getId(),
-                        emp.getName(),
-                        emp.getSalary(),
-                        emp.getCategory(),
-                        emp.getDoj(),
-                        emp.getManager().getId()
-                ))
-                .collect(Collectors.toList());
+        return employeeReportStore.list(EmployeeReportStore.Report.HIGHER_SALARY_THAN_MANAGER);
     }
 
     /**
@@ -321,25 +479,66 @@ public class EmployeeService {
         if (n < 1) {
             throw new IllegalArgumentException("Rank must be >= 1");
         }
-        Employee emp = employeeRepository.findNthHighestSalary(n - 1); // Shifted for 0-based SQL
-        if (emp == null) return null;
-
-        return new EmployeeDTO(
-                emp.getId(),
-                emp.getName(),
-                emp.getSalary(),
-                emp.getCategory(),
-                emp.getDoj(),
-                emp.getManager() != null ? emp.getManager().getId() : null
-        );
+        if (employeeDirectory.isLoaded()) {
+            return employeeDirectory.nthHighestSalary(n);
+        }
+        return nthHighestQueries.execute(n, () -> {
+            Employee emp = employeeRepository.findNthHighestSalary(n - 1); // Shifted for 0-based SQL
+            if (emp == null) return null;
+
+            return new EmployeeDTO(
+                    emp.getId(),
+                    emp.getName(),
+                    emp.getSalary(),
+                    emp.getCategory(),
+                    emp.getDoj(),
+                    emp.getManager() != null ? emp.getManager().getId() : null
+            );
+        });
+    }
+
+    /**
+     * Searches employees by name, city and state.
+     * This method is developed for typeahead lookups, which previously meant paging through all employees: name
+     * words match by prefix, or anywhere in a word when there are too few prefix matches, and city and state
+     * match exactly, ignoring case and accents.
+     * @param query Words of the name, or null
+     * @param city City to filter by, or null
+     * @param state State to filter by, or null
+     * @param limit Maximum number of results, at most {@value EmployeeSearchIndex#MAX_LIMIT}
+     * @return Matching employees, best match first
+     */
+    public List<EmployeeSearchHit> searchEmployees(String query, String city, String state, int limit) {
+        if (isBlank(query) && isBlank(city) && isBlank(state)) {
+            throw new InvalidEmployeeDataException("Give a name query, a city or a state to search by");
+        }
+        if (limit < 1 || limit > EmployeeSearchIndex.MAX_LIMIT) {
+            throw new InvalidEmployeeDataException("Limit must be between 1 and " + EmployeeSearchIndex.MAX_LIMIT);
+        }
+        if (!employeeSearchIndex.isLoaded()) {
+            // The first searches after startup wait for one load of the index instead of each running their own
+            searchIndexLoads.execute("reload", () -> {
+                if (!employeeSearchIndex.isLoaded()) {
+                    employeeSearchIndex.reload();
+                }
+                return Boolean.TRUE;
+            });
+        }
+        return employeeSearchIndex.search(query, city, state, limit);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
     }
 
     /**
      * Returns all employees from the cache for performance optimization.
      * This method is developed to reduce database load for frequently accessed employee lists.
+     * Concurrent misses wait for one load, and the cached list is reloaded in the background before it expires,
+     * as configured in {@link com.pamu.configuration.CacheConfig}.
      * @return List of all Employee entities
      */
-    @Cacheable("allEmployees")
+    @Cacheable(value = "allEmployees", sync = true)
     public List<Employee> getAllEmployeesFromCache() {
         return employeeRepository.findAll();
     }
@@ -350,7 +549,7 @@ public class EmployeeService {
      * @param pageable Pageable object containing page, size, and sort info
      * @return Page of EmployeeDTOs
      */
-    @Cacheable(value = "pagedEmployees", key = "'page_'+#pageable.pageNumber + '_size_'+#pageable.pageSize + '_sort_'+#pageable.sort.toString()")
+    @Cacheable(value = "pagedEmployees", key = "'page_'+#pageable.pageNumber + '_size_'+#pageable.pageSize + '_sort_'+#pageable.sort.toString()", sync = true)
     public Page<EmployeeDTO> getAllEmployees(Pageable pageable) {
         return employeeRepository.findAll(pageable)
                 .map(emp -> new EmployeeDTO(
@@ -363,31 +562,144 @@ public class EmployeeService {
                 ));
     }
 
+    /**
+     * Creates a single employee.
+     * This method is developed to add an employee without re-importing the workbook: the closure table gains only the
+     * new employee's ancestor rows, and after commit the in-memory directory is patched and the data generation advanced.
+     * @param request The new employee, including its ID
+     * @return The created employee
+     */
+    @Transactional
+    public EmployeeDTO createEmployee(EmployeeRequest request) {
+        if (request.getId() == null) {
+            throw new InvalidEmployeeDataException("Employee ID is required");
+        }
+        if (employeeRepository.existsById(request.getId())) {
+            throw new InvalidEmployeeDataException("Employee with ID " + request.getId() + " already exists");
+        }
+        Employee employee = new Employee();
+        employee.setId(request.getId());
+        applyRequest(employee, request);
+        employee.setManager(resolveManager(request.getId(), request.getManagerId()));
+        employeeRepository.saveAndFlush(employee);
+        employeeJdbcRepository.refreshClosure(List.of(employee.getId()));
+        return afterEmployeeChange(employee);
+    }
+
+    /**
+     * Updates a single employee, including a change of manager.
+     * This method is developed so that a manager change moves the employee's subtree in the closure table in one
+     * statement pair instead of rebuilding the hierarchy; a change that would create a reporting cycle is rejected.
+     * @param id ID of the employee to update
+     * @param request The new values; a null manager ID makes the employee top-level
+     * @return The updated employee
+     */
+    @Transactional
+    public EmployeeDTO updateEmployee(Long id, EmployeeRequest request) {
+        Employee employee = findEmployee(id);
+        Long previousManagerId = employee.getManager() != null ? employee.getManager().getId() : null;
+        applyRequest(employee, request);
+        employee.setManager(resolveManager(id, request.getManagerId()));
+        employeeRepository.saveAndFlush(employee);
+        if (!Objects.equals(previousManagerId, request.getManagerId())) {
+            employeeJdbcRepository.moveSubtree(id, request.getManagerId());
+        }
+        return afterEmployeeChange(employee);
+    }
+
+    /**
+     * Deletes a single employee. Its direct reports move up to its manager, together with their subtrees.
+     * This method is developed to remove an employee without touching anyone outside its own subtree.
+     * @param id ID of the employee to delete
+     */
+    @Transactional
+    public void deleteEmployee(Long id) {
+        Employee employee = findEmployee(id);
+        Employee manager = employee.getManager();
+        List<Long> changed = new ArrayList<>();
+        changed.add(id);
+        for (Employee report : employeeRepository.findByManagerId(id)) {
+            report.setManager(manager);
+            employeeRepository.saveAndFlush(report);
+            employeeJdbcRepository.moveSubtree(report.getId(), manager != null ? manager.getId() : null);
+            changed.add(report.getId());
+        }
+        employeeJdbcRepository.deleteFromClosure(id);
+        employeeRepository.delete(employee);
+        employeeRepository.flush();
+        EmployeeDataVersion.runAfterCommit(() -> employeeColumnStore.publishChanged(changed));
+        EmployeeDataVersion.runAfterCommit(() -> employeeDirectory.refresh(changed));
+        EmployeeDataVersion.runAfterCommit(() -> employeeSearchIndex.refresh(List.of(id)));
+    }
+
+    private Employee findEmployee(Long id) {
+        return employeeRepository.findById(id)
+                .orElseThrow(() -> new EmployeeNotFoundException("Employee with ID " + id + " not found."));
+    }
+
+    private Employee resolveManager(Long employeeId, Long managerId) {
+        if (managerId == null) {
+            return null;
+        }
+        if (managerId.equals(employeeId)) {
+            throw new InvalidEmployeeDataException("An employee cannot be their own manager");
+        }
+        return employeeRepository.findById(managerId)
+                .orElseThrow(() -> new InvalidEmployeeDataException("Manager with ID " + managerId + " not found"));
+    }
+
+    private static void applyRequest(Employee employee, EmployeeRequest request) {
+        if (request.getName() == null || request.getName().isBlank()) {
+            throw new InvalidEmployeeDataException("Employee name is required");
+        }
+        if (request.getSalary() != null && request.getSalary() < 0) {
+            throw new InvalidEmployeeDataException("Salary must not be negative");
+        }
+        employee.setName(request.getName());
+        employee.setCity(request.getCity());
+        employee.setState(request.getState());
+        employee.setCategory(request.getCategory());
+        employee.setSalary(request.getSalary());
+        employee.setDoj(request.getDoj());
+    }
+
+    private EmployeeDTO afterEmployeeChange(Employee employee) {
+        EmployeeDTO dto = new EmployeeDTO(
+                employee.getId(),
+                employee.getName(),
+                employee.getSalary(),
+                employee.getCategory(),
+                employee.getDoj(),
+                employee.getManager() != null ? employee.getManager().getId() : null
+        );
+        // The column snapshot, employee list, directory and search index are patched from the committed row, as the
+        // hooks of two commits to the same employee may run in either order; only page caches are dropped
+        List<Long> changed = List.of(employee.getId());
+        EmployeeDataVersion.runAfterCommit(() -> employeeColumnStore.publishChanged(changed));
+        EmployeeDataVersion.runAfterCommit(() -> employeeDirectory.refresh(changed));
+        EmployeeDataVersion.runAfterCommit(() -> employeeSearchIndex.refresh(changed));
+        return dto;
+    }
+
     /**
      * Generates and returns the employee hierarchy for a given manager as a JSON file.
      * This method is developed to support org chart visualization and reporting.
+     * The file is cached per data generation, so repeated requests for an unchanged hierarchy are not rebuilt.
      * @param managerId The ID of the manager whose hierarchy is requested
-     * @return File containing the hierarchy in JSON format
+     * @return ExportArtifact containing the hierarchy in JSON format
      */
-    public File getEmployeeHierarchyByManager(Long managerId) {
-        List<Employee> employees = getAllEmployeesFromCache();
-        Map<Long, EmployeeNode> employeeMap = new HashMap<>();
-        for (Employee emp : employees) {
-            Long mgrId = emp.getManager() != null ? emp.getManager().getId() : null;
-            employeeMap.put(emp.getId(), new EmployeeNode(emp.getId(), mgrId, emp.getName(), emp.getCategory()));
-        }
-        for (Employee emp : employees) {
-            Long mgrId = emp.getManager() != null ? emp.getManager().getId() : null;
-            if (mgrId != null) {
-                employeeMap.get(mgrId).addReportee(employeeMap.get(emp.getId()));
-            }
-        }
-        EmployeeNode root = employeeMap.get(managerId);
+    public ExportArtifact getEmployeeHierarchyByManager(Long managerId) {
+        return exportArtifactCache.getOrCreate("hierarchy-json", String.valueOf(managerId),
+                "employee_hierarchy_" + managerId + ".json", () -> writeHierarchyJson(managerId));
+    }
+
+    private File writeHierarchyJson(Long managerId) {
+        EmployeeNode root = buildHierarchy(managerId);
         if (root == null) {
             throw new EmployeeNotFoundException("Manager with ID " + managerId + " not found.");
         }
         try {
-            File jsonFile = new File("employee_hierarchy_" + managerId + ".json");
+            File jsonFile = spoolManager.createFile("employee_hierarchy_" + managerId + "_", ".json");
             ObjectMapper mapper = new ObjectMapper();
             mapper.writerWithDefaultPrettyPrinter().writeValue(jsonFile, root);
             return jsonFile;
@@ -395,4 +707,78 @@ public class EmployeeService {
             throw new FileProcessingException("Failed to write employee hierarchy JSON file", e);
         }
     }
+
+    /**
+     * Builds the reporting tree below a manager.
+     * This method is developed to serve the hierarchy from the in-memory employee directory when it is loaded,
+     * and otherwise to fetch only the requested subtree with a recursive query instead of loading the whole table;
+     * concurrent builds of the same subtree share one query.
+     * @param managerId The ID of the manager at the root of the tree
+     * @return The root node with its reportees attached, or null if there is no such employee
+     */
+    EmployeeNode buildHierarchy(Long managerId) {
+        if (employeeDirectory.isLoaded()) {
+            return employeeDirectory.subtree(managerId);
+        }
+        return hierarchyQueries.execute(managerId, () -> querySubtree(managerId));
+    }
+
+    private EmployeeNode querySubtree(Long managerId) {
+        Map<Long, EmployeeNode> employeeMap = new LinkedHashMap<>();
+        for (EmployeeHierarchyRow row : employeeRepository.findSubtreeRows(managerId, Integer.MAX_VALUE)) {
+            employeeMap.put(row.getId(), new EmployeeNode(row.getId(), row.getManagerId(), row.getName(), row.getCategory()));
+        }
+        for (EmployeeNode node : employeeMap.values()) {
+            // The subtree query also returns the root's own manager ID, which is not part of the result
+            EmployeeNode manager = node.getManagerId() != null ? employeeMap.get(node.getManagerId()) : null;
+            if (manager != null && !node.getId().equals(managerId)) {
+                manager.addReportee(node);
+            }
+        }
+        return employeeMap.get(managerId);
+    }
+
+    /**
+     * Streams the whole employees table as newline-delimited JSON, one employee object per line.
+     * This method is developed for downstream systems that pull the full directory: rows are read through a
+     * forward-only cursor and written as they arrive, so memory stays flat regardless of table size.
+     * @param outputStream Stream the NDJSON is written to; it is flushed but not closed
+     * @throws IOException if writing to the stream fails
+     */
+    public void streamEmployeesAsNdjson(OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null); // lines are separated by '\n' instead of Jackson's default space
+            employeeJdbcRepository.streamAll(rs -> writeNdjsonLine(generator, rs));
+        }
+    }
+
+    private void writeNdjsonLine(JsonGenerator generator, ResultSet rs) throws SQLException {
+        try {
+            generator.writeStartObject();
+            generator.writeNumberField("id", rs.getLong("id"));
+            generator.writeStringField("name", rs.getString("name"));
+            generator.writeStringField("city", rs.getString("city"));
+            generator.writeStringField("state", rs.getString("state"));
+            generator.writeStringField("category", rs.getString("category"));
+            long managerId = rs.getLong("manager_id");
+            if (rs.wasNull()) {
+                generator.writeNullField("managerId");
+            } else {
+                generator.writeNumberField("managerId", managerId);
+            }
+            double salary = rs.getDouble("salary");
+            if (rs.wasNull()) {
+                generator.writeNullField("salary");
+            } else {
+                generator.writeNumberField("salary", salary);
+            }
+            Date doj = rs.getDate("doj");
+            generator.writeStringField("doj", doj != null ? doj.toLocalDate().toString() : null);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new FileProcessingException("Failed to stream employees as NDJSON", e);
+        }
+    }
 }
@@ -0,0 +1,212 @@
+package com.pamu.service;
+
+import com.pamu.exception.ImportValidationException;
+import com.pamu.model.Employee;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads employee rows from a sheet whose columns are found by their header names, so files with reordered or
+ * extra columns import correctly. The columns are resolved once from the header row; each cell is then converted
+ * tolerantly (numbers stored as text, thousands separators, dates typed as text) and a cell that still cannot be
+ * converted fails only its own row, with a message naming the column and the value.
+ */
+final class EmployeeSheetReader {
+
+    enum Column {
+        ID(true, "id", "employeeid", "empid"),
+        NAME(true, "name", "employeename"),
+        CITY(false, "city"),
+        STATE(false, "state"),
+        CATEGORY(false, "category"),
+        MANAGER_ID(false, "managerid", "manager", "mgrid"),
+        SALARY(true, "salary"),
+        DOJ(false, "doj", "dateofjoining", "joiningdate");
+
+        final boolean required;
+        final List<String> headers;
+
+        Column(boolean required, String... headers) {
+            this.required = required;
+            this.headers = List.of(headers);
+        }
+    }
+
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+            DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.ofPattern("dd-MM-yyyy"),
+            DateTimeFormatter.ofPattern("dd/MM/yyyy"));
+
+    private final Map<Column, Integer> columns;
+    private final DataFormatter formatter = new DataFormatter();
+
+    private EmployeeSheetReader(Map<Column, Integer> columns) {
+        this.columns = columns;
+    }
+
+    /**
+     * Resolves the column positions from the header row.
+     * @param header First row of the sheet
+     * @return A reader for the data rows of that sheet
+     * @throws ImportValidationException if a required column is missing
+     */
+    static EmployeeSheetReader forHeader(Row header) {
+        Map<Column, Integer> columns = new EnumMap<>(Column.class);
+        DataFormatter formatter = new DataFormatter();
+        if (header != null) {
+            for (Cell cell : header) {
+                String name = normalise(formatter.formatCellValue(cell));
+                for (Column column : Column.values()) {
+                    if (column.headers.contains(name)) {
+                        columns.putIfAbsent(column, cell.getColumnIndex());
+                    }
+                }
+            }
+        }
+        List<String> missing = new ArrayList<>();
+        for (Column column : Column.values()) {
+            if (column.required && !columns.containsKey(column)) {
+                missing.add("Missing required column " + label(column) + " (accepted headers: " + String.join(", ", column.headers) + ")");
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new ImportValidationException(missing, missing.size());
+        }
+        return new EmployeeSheetReader(columns);
+    }
+
+    /**
+     * Converts one data row.
+     * @param row A row below the header
+     * @return The employee with its manager ID and row number, or null if the row is blank
+     * @throws IllegalArgumentException naming the column and value that could not be converted
+     */
+    EmployeeService.EmployeeWrapper read(Row row) {
+        if (isBlank(row)) {
+            return null;
+        }
+        Employee employee = new Employee();
+        Long id = readLong(row, Column.ID);
+        if (id == null) {
+            throw new IllegalArgumentException("ID is empty");
+        }
+        employee.setId(id);
+        String name = readText(row, Column.NAME);
+        if (name == null) {
+            throw new IllegalArgumentException("Name is empty");
+        }
+        employee.setName(name);
+        employee.setCity(readText(row, Column.CITY));
+        employee.setState(readText(row, Column.STATE));
+        employee.setCategory(readText(row, Column.CATEGORY));
+        Double salary = readDouble(row, Column.SALARY);
+        if (salary == null) {
+            throw new IllegalArgumentException("Salary is empty");
+        }
+        if (salary < 0) {
+            throw new IllegalArgumentException("Salary must not be negative");
+        }
+        employee.setSalary(salary);
+        employee.setDoj(readDate(row, Column.DOJ));
+        Long managerId = readLong(row, Column.MANAGER_ID);
+        // The export writes 0 for employees without a manager
+        return new EmployeeService.EmployeeWrapper(employee, managerId != null && managerId != 0 ? managerId : null,
+                row.getRowNum() + 1);
+    }
+
+    private boolean isBlank(Row row) {
+        for (Integer index : columns.values()) {
+            Cell cell = row.getCell(index);
+            if (cell != null && !formatter.formatCellValue(cell).isBlank()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Cell cell(Row row, Column column) {
+        Integer index = columns.get(column);
+        return index != null ? row.getCell(index) : null;
+    }
+
+    private String readText(Row row, Column column) {
+        Cell cell = cell(row, column);
+        String value = cell != null ? formatter.formatCellValue(cell).trim() : "";
+        return value.isEmpty() ? null : value;
+    }
+
+    private Double readDouble(Row row, Column column) {
+        Cell cell = cell(row, column);
+        if (cell != null && numericType(cell) == CellType.NUMERIC) {
+            return cell.getNumericCellValue();
+        }
+        String text = readText(row, column);
+        if (text == null) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(text.replace(",", "").replace(" ", ""));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(label(column) + " '" + text + "' is not a number");
+        }
+    }
+
+    private Long readLong(Row row, Column column) {
+        Double value = readDouble(row, column);
+        if (value == null) {
+            return null;
+        }
+        if (value != Math.rint(value) || Math.abs(value) > 1e15) {
+            throw new IllegalArgumentException(label(column) + " '" + readText(row, column) + "' is not a whole number");
+        }
+        return value.longValue();
+    }
+
+    private LocalDate readDate(Row row, Column column) {
+        Cell cell = cell(row, column);
+        if (cell != null && numericType(cell) == CellType.NUMERIC) {
+            // Date cells are numbers; a plain number in the date column is read as an Excel serial date too
+            if (!DateUtil.isValidExcelDate(cell.getNumericCellValue())) {
+                throw new IllegalArgumentException(label(column) + " '" + cell.getNumericCellValue() + "' is not a date");
+            }
+            return DateUtil.getLocalDateTime(cell.getNumericCellValue()).toLocalDate();
+        }
+        String text = readText(row, column);
+        if (text == null) {
+            return null;
+        }
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(text, format);
+            } catch (DateTimeParseException ignored) {
+                // Try the next format
+            }
+        }
+        throw new IllegalArgumentException(label(column) + " '" + text + "' is not a date (use yyyy-MM-dd or dd-MM-yyyy)");
+    }
+
+    // Formula cells are read through their cached result
+    private static CellType numericType(Cell cell) {
+        return cell.getCellType() == CellType.FORMULA ? cell.getCachedFormulaResultType() : cell.getCellType();
+    }
+
+    private static String label(Column column) {
+        return column.name().replace('_', ' ');
+    }
+
+    private static String normalise(String header) {
+        return header.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+    }
+}
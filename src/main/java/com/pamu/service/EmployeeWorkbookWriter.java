@@ -0,0 +1,69 @@
+package com.pamu.service;
+
+import com.pamu.model.Employee;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes employees as an Excel workbook in the export layout, which the import reads back.
+ * A POI workbook is not thread-safe, so each call builds its own; callers may write several workbooks concurrently.
+ */
+final class EmployeeWorkbookWriter {
+
+    static final String[] HEADERS = {"ID", "Name", "City", "State", "Category", "Manager ID", "Salary", "DOJ"};
+
+    private EmployeeWorkbookWriter() {
+    }
+
+    /**
+     * Writes one sheet with a header row and one row per employee.
+     * @param employees Employees to write, in row order
+     * @param outputFile File to write the workbook to
+     * @throws IOException if the file cannot be written
+     */
+    static void write(List<Employee> employees, File outputFile) throws IOException {
+        try (Workbook workbook = new XSSFWorkbook(); FileOutputStream fileOut = new FileOutputStream(outputFile)) {
+            Sheet sheet = workbook.createSheet("Employees");
+
+            // Create header row
+            Row headerRow = sheet.createRow(0);
+            for (int i = 0; i < HEADERS.length; i++) {
+                headerRow.createCell(i).setCellValue(HEADERS[i]);
+            }
+
+            // Fill data rows
+            int rowNum = 1;
+            for (Employee emp : employees) {
+                Row row = sheet.createRow(rowNum++);
+                row.createCell(0).setCellValue(emp.getId());
+                row.createCell(1).setCellValue(safe(emp.getName()));
+                row.createCell(2).setCellValue(safe(emp.getCity()));
+                row.createCell(3).setCellValue(safe(emp.getState()));
+                row.createCell(4).setCellValue(safe(emp.getCategory()));
+                row.createCell(5).setCellValue(emp.getManager() != null ? emp.getManager().getId() : 0);
+                row.createCell(6).setCellValue(emp.getSalary() != null ? emp.getSalary() : 0.0);
+                row.createCell(7).setCellValue(emp.getDoj() != null ? emp.getDoj().toString() : "");
+            }
+
+            // Autosize columns for better readability
+            for (int i = 0; i < HEADERS.length; i++) {
+                sheet.autoSizeColumn(i);
+            }
+
+            // Write content to file
+            workbook.write(fileOut);
+        }
+    }
+
+    // Utility method to safely extract strings
+    private static String safe(String value) {
+        return value != null ? value : "";
+    }
+}
@@ -0,0 +1,124 @@
+package com.pamu.service;
+
+import com.pamu.exception.FileProcessingException;
+import com.pamu.model.ExportArtifact;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache of generated export files keyed by (kind, parameters, data generation).
+ * Because the generation is part of the key, an artifact is reused until the employee data changes.
+ * The files live in the {@link SpoolManager}, which enforces the byte budget; artifacts of superseded
+ * generations are discarded as soon as no response holds them.
+ */
+@Component
+public class ExportArtifactCache {
+
+    @Autowired EmployeeDataVersion employeeDataVersion;
+    @Autowired SpoolManager spoolManager;
+
+    private final ConcurrentHashMap<ArtifactKey, CompletableFuture<CachedFile>> artifacts = new ConcurrentHashMap<>();
+    private final AtomicLong latestGeneration = new AtomicLong();
+
+    /**
+     * Returns the cached artifact for the current data generation, generating it on a miss.
+     * This method is developed so that repeated downloads of an unchanged report cost a map lookup.
+     * Concurrent requests for the same artifact share the one generation still in flight; failures are not cached.
+     * The file is leased to the caller before it is returned, so it cannot be evicted or discarded before the
+     * response has streamed it; the caller must call {@link ExportArtifact#release()} when the response completes.
+     * @param kind Artifact kind, e.g. "employees-xlsx"
+     * @param params Parameters that distinguish artifacts of the same kind, e.g. the manager ID
+     * @param fileName File name offered to the client
+     * @param generator Writes the artifact into a spool file and returns it
+     * @return The cached or newly generated artifact with a strong ETag
+     */
+    public ExportArtifact getOrCreate(String kind, String params, String fileName, Supplier<File> generator) {
+        while (true) {
+            long generation = employeeDataVersion.current();
+            discardStaleGenerations(generation);
+            ArtifactKey key = new ArtifactKey(kind, params, generation);
+            CompletableFuture<CachedFile> created = new CompletableFuture<>();
+            CompletableFuture<CachedFile> existing = artifacts.putIfAbsent(key, created);
+            if (existing != null) {
+                CachedFile cached = await(existing);
+                SpoolManager.SpoolResource lease = spoolManager.lease(cached.file());
+                if (lease != null) {
+                    return new ExportArtifact(cached.file(), fileName, cached.etag(), lease, lease::release);
+                }
+                // Evicted or discarded between being cached and being leased: generate it again
+                artifacts.remove(key, existing);
+                continue;
+            }
+            try {
+                File file = generator.get();
+                String etag;
+                try {
+                    etag = etagOf(file);
+                } catch (RuntimeException e) {
+                    spoolManager.discard(file);
+                    throw e;
+                }
+                SpoolManager.SpoolResource lease = spoolManager.retainLeased(file, () -> artifacts.remove(key, created));
+                created.complete(new CachedFile(file, etag));
+                return new ExportArtifact(file, fileName, etag, lease, lease::release);
+            } catch (RuntimeException e) {
+                artifacts.remove(key, created);
+                created.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    public int size() {
+        return artifacts.size();
+    }
+
+    private void discardStaleGenerations(long generation) {
+        long seen = latestGeneration.get();
+        if (generation <= seen || !latestGeneration.compareAndSet(seen, generation)) {
+            return;
+        }
+        artifacts.forEach((key, future) -> {
+            if (key.generation() < generation && artifacts.remove(key, future)) {
+                // Requests still holding a lease on the file, including the one generating it, read it first
+                future.thenAccept(cached -> spoolManager.discard(cached.file()));
+            }
+        });
+    }
+
+    private static CachedFile await(CompletableFuture<CachedFile> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static String etagOf(File file) {
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            return "\"" + DigestUtils.md5DigestAsHex(in) + "\"";
+        } catch (IOException e) {
+            throw new FileProcessingException("Failed to compute ETag of export file", e);
+        }
+    }
+
+    private record ArtifactKey(String kind, String params, long generation) {
+    }
+
+    private record CachedFile(File file, String etag) {
+    }
+}
@@ -0,0 +1,316 @@
+package com.pamu.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pamu.dto.GratuityLiabilityTotal;
+import com.pamu.exception.InvalidEmployeeDataException;
+import com.pamu.repository.EmployeeJdbcRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+/**
+ * Computes the gratuity payable to every employee and stores it in gratuity_liability for finance.
+ * The amount is last salary x 15/26 x completed years of service, for employees with more than five years of
+ * service, as in {@link EmployeeService#getGratuityEligibleEmployees()}.
+ * <p>
+ * Amounts are computed from the {@link EmployeeColumns} snapshot in parallel chunks, which takes well under a
+ * second at a million employees; writing a million rows takes far longer, so each run is compared with the rows
+ * stored by the previous one and only the rows that changed are rewritten, in one transaction with the run's log
+ * entry. The stored rows are read back once, on the first run after startup.
+ * <p>
+ * The job runs at startup, after every import and on the configured schedule. Requests made while a run is pending
+ * are folded into it, and a run is skipped when the data and the date are those of the last one.
+ */
+@Component
+public class GratuityLiabilityJob {
+
+    static final int CHUNK_ROWS = 8192;
+    static final int ELIGIBLE_AFTER_MONTHS = 60;
+
+    @Autowired EmployeeColumnStore employeeColumnStore;
+    @Autowired EmployeeJdbcRepository employeeJdbcRepository;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "gratuity-job");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean pending = new AtomicBoolean();
+    private final ReentrantLock runLock = new ReentrantLock();
+    private LiabilityRows stored; // rows in gratuity_liability; null until read back or written
+    private long lastGeneration = -1;
+    private LocalDate lastComputedOn;
+
+    // Totals only change when a run writes, so they are cached per run
+    private final AtomicLong runs = new AtomicLong();
+    private final Cache<String, List<GratuityLiabilityTotal>> totals = Caffeine.newBuilder().maximumSize(8).build();
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        requestRun();
+    }
+
+    @Scheduled(cron = "${employee.gratuity.cron:0 30 1 * * *}")
+    public void runScheduled() {
+        requestRun();
+    }
+
+    /**
+     * Queues a run on the job's own thread and returns at once.
+     * This method is developed for imports, which should not wait for the liability table to be brought up to date.
+     */
+    public void requestRun() {
+        if (pending.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                // Cleared first, so a change committed during this run queues the next one
+                pending.set(false);
+                run(LocalDate.now());
+            });
+        }
+    }
+
+    /**
+     * Computes the liability of every employee as of the given date and stores the rows that changed.
+     * @param today Date the completed years are counted to
+     * @return Number of rows inserted, rewritten or deleted, or -1 if the stored rows already are for this data and date
+     */
+    int run(LocalDate today) {
+        runLock.lock();
+        try {
+            EmployeeColumns columns = employeeColumnStore.current();
+            if (columns.generation == lastGeneration && today.equals(lastComputedOn)) {
+                return -1;
+            }
+            LiabilityRows computed = compute(columns, today);
+            if (stored == null) {
+                stored = load();
+            }
+            List<Long> replacedIds = new ArrayList<>();
+            int[] written = changes(stored, computed, replacedIds);
+            int eligibleEmployees = 0;
+            double amount = 0;
+            for (int row = 0; row < computed.size; row++) {
+                eligibleEmployees += computed.eligible[row] ? 1 : 0;
+                amount += computed.amounts[row];
+            }
+            employeeJdbcRepository.saveGratuityRun(today, replacedIds, computed.rows(written), computed.size,
+                    eligibleEmployees, Math.round(amount * 100) / 100.0);
+            stored = computed;
+            lastGeneration = columns.generation;
+            lastComputedOn = today;
+            runs.incrementAndGet();
+            return Math.max(replacedIds.size(), written.length);
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the stored gratuity liability totalled per direct manager or per category.
+     * This method is developed for finance, who previously totalled the eligibility list by hand.
+     * @param by "manager" or "category"
+     * @return One total per group, each with the date of the run it comes from
+     * @throws InvalidEmployeeDataException if the grouping is not supported
+     */
+    public List<GratuityLiabilityTotal> totals(String by) {
+        String grouping = by == null ? "" : by.trim().toLowerCase(Locale.ROOT);
+        // The run number is read first, so totals read during a run are never cached under the next one
+        return totals.get(runs.get() + ":" + grouping, key -> switch (grouping) {
+            case "manager" -> employeeJdbcRepository.gratuityLiabilityByManager();
+            case "category" -> employeeJdbcRepository.gratuityLiabilityByCategory();
+            default -> throw new InvalidEmployeeDataException("Unknown grouping '" + by + "'; use manager or category");
+        });
+    }
+
+    static LiabilityRows compute(EmployeeColumns columns, LocalDate today) {
+        LiabilityRows rows = new LiabilityRows(columns.size);
+        rows.size = columns.size;
+        int chunks = (columns.size + CHUNK_ROWS - 1) / CHUNK_ROWS;
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            for (int row = chunk * CHUNK_ROWS, end = Math.min(columns.size, row + CHUNK_ROWS); row < end; row++) {
+                rows.compute(row, columns, today);
+            }
+        });
+        return rows;
+    }
+
+    /**
+     * Compares two sets of rows, both in employee ID order.
+     * @param replacedIds Receives the employees whose stored row must be deleted: changed or no longer present
+     * @return Rows of the computed set that must be inserted: changed or new
+     */
+    static int[] changes(LiabilityRows stored, LiabilityRows computed, List<Long> replacedIds) {
+        int[] written = new int[computed.size];
+        int count = 0;
+        int s = 0;
+        int c = 0;
+        while (s < stored.size || c < computed.size) {
+            if (s == stored.size || c < computed.size && computed.ids[c] < stored.ids[s]) {
+                written[count++] = c++;
+            } else if (c == computed.size || stored.ids[s] < computed.ids[c]) {
+                replacedIds.add(stored.ids[s++]);
+            } else {
+                if (!computed.sameAs(c, stored, s)) {
+                    replacedIds.add(computed.ids[c]);
+                    written[count++] = c;
+                }
+                s++;
+                c++;
+            }
+        }
+        return Arrays.copyOf(written, count);
+    }
+
+    private LiabilityRows load() {
+        LiabilityRows rows = new LiabilityRows(1024);
+        employeeJdbcRepository.streamGratuityLiabilities((RowCallbackHandler) rs -> {
+            int row = rows.append();
+            rows.ids[row] = rs.getLong(1);
+            long managerId = rs.getLong(2);
+            rows.managerIds[row] = rs.wasNull() ? 0 : managerId;
+            rows.categories[row] = rs.getString(3);
+            double salary = rs.getDouble(4);
+            rows.salaries[row] = rs.wasNull() ? Double.NaN : salary;
+            int years = rs.getInt(5);
+            rows.completedYears[row] = rs.wasNull() ? -1 : years;
+            rows.eligible[row] = rs.getBoolean(6);
+            rows.amounts[row] = rs.getDouble(7);
+        });
+        return rows;
+    }
+
+    /**
+     * Liability rows in employee ID order, one primitive array per column.
+     */
+    static final class LiabilityRows {
+
+        int size;
+        long[] ids;
+        long[] managerIds; // 0 for top-level employees
+        String[] categories;
+        double[] salaries; // NaN when unknown
+        int[] completedYears; // -1 when the date of joining is unknown
+        boolean[] eligible;
+        double[] amounts;
+
+        LiabilityRows(int capacity) {
+            ids = new long[capacity];
+            managerIds = new long[capacity];
+            categories = new String[capacity];
+            salaries = new double[capacity];
+            completedYears = new int[capacity];
+            eligible = new boolean[capacity];
+            amounts = new double[capacity];
+        }
+
+        private int append() {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                managerIds = Arrays.copyOf(managerIds, capacity);
+                categories = Arrays.copyOf(categories, capacity);
+                salaries = Arrays.copyOf(salaries, capacity);
+                completedYears = Arrays.copyOf(completedYears, capacity);
+                eligible = Arrays.copyOf(eligible, capacity);
+                amounts = Arrays.copyOf(amounts, capacity);
+            }
+            return size++;
+        }
+
+        private void compute(int row, EmployeeColumns columns, LocalDate today) {
+            ids[row] = columns.ids[row];
+            managerIds[row] = columns.managerIds[row];
+            categories[row] = columns.categories.value(columns.categories.codes[row]);
+            double salary = columns.salaries[row];
+            salaries[row] = salary;
+            int doj = columns.dojDays[row];
+            if (doj == EmployeeColumns.NO_DATE) {
+                completedYears[row] = -1;
+                return;
+            }
+            if (doj > today.toEpochDay()) {
+                return;
+            }
+            Period service = Period.between(LocalDate.ofEpochDay(doj), today);
+            completedYears[row] = service.getYears();
+            if (service.toTotalMonths() > ELIGIBLE_AFTER_MONTHS && !Double.isNaN(salary)) {
+                eligible[row] = true;
+                amounts[row] = Math.round(salary * 15 / 26 * service.getYears() * 100) / 100.0;
+            }
+        }
+
+        private boolean sameAs(int row, LiabilityRows other, int otherRow) {
+            return managerIds[row] == other.managerIds[otherRow]
+                    && Objects.equals(categories[row], other.categories[otherRow])
+                    && Double.compare(salaries[row], other.salaries[otherRow]) == 0
+                    && completedYears[row] == other.completedYears[otherRow]
+                    && eligible[row] == other.eligible[otherRow]
+                    && amounts[row] == other.amounts[otherRow];
+        }
+
+        /**
+         * @param selected Rows to bind, in order
+         * @return The selected rows as the parameters of the insert
+         */
+        BatchPreparedStatementSetter rows(int[] selected) {
+            return new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement statement, int i) throws SQLException {
+                    int row = selected[i];
+                    statement.setLong(1, ids[row]);
+                    if (managerIds[row] != 0) {
+                        statement.setLong(2, managerIds[row]);
+                    } else {
+                        statement.setNull(2, Types.BIGINT);
+                    }
+                    statement.setString(3, categories[row]);
+                    if (!Double.isNaN(salaries[row])) {
+                        statement.setDouble(4, salaries[row]);
+                    } else {
+                        statement.setNull(4, Types.DOUBLE);
+                    }
+                    if (completedYears[row] >= 0) {
+                        statement.setInt(5, completedYears[row]);
+                    } else {
+                        statement.setNull(5, Types.INTEGER);
+                    }
+                    statement.setBoolean(6, eligible[row]);
+                    statement.setDouble(7, amounts[row]);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return selected.length;
+                }
+            };
+        }
+    }
+}
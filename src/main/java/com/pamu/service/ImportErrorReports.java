@@ -0,0 +1,69 @@
+package com.pamu.service;
+
+import com.pamu.dto.ImportRowError;
+import com.pamu.exception.FileProcessingException;
+import com.pamu.model.ExportArtifact;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the error reports of lenient imports as CSV files in the {@link SpoolManager}, so that they count against
+ * the spool budget and disappear when evicted. Reports are looked up by a random ID handed to the uploader.
+ */
+@Component
+public class ImportErrorReports {
+
+    @Autowired SpoolManager spoolManager;
+
+    private final ConcurrentHashMap<String, File> reports = new ConcurrentHashMap<>();
+
+    /**
+     * Writes the rejected rows of an import as CSV with the columns row, id and error.
+     * @param errors Rejected rows in row order
+     * @return ID under which the report can be downloaded
+     */
+    public String save(List<ImportRowError> errors) {
+        File file = spoolManager.createFile("import-errors-", ".csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("row,id,error\n");
+            for (ImportRowError error : errors) {
+                writer.write(error.getRow() + "," + (error.getId() != null ? error.getId() : "") + "," + csv(error.getMessage()) + "\n");
+            }
+        } catch (IOException e) {
+            spoolManager.discard(file);
+            throw new FileProcessingException("Failed to write import error report", e);
+        }
+        String reportId = UUID.randomUUID().toString();
+        reports.put(reportId, file);
+        spoolManager.retain(file, () -> reports.remove(reportId, file));
+        return reportId;
+    }
+
+    /**
+     * @param reportId ID returned by {@link #save(List)}
+     * @return The report, leased until it is released, or empty if the ID is unknown or the report has been evicted
+     */
+    public Optional<ExportArtifact> find(String reportId) {
+        File file = reports.get(reportId);
+        SpoolManager.SpoolResource lease = file != null ? spoolManager.lease(file) : null;
+        if (lease == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new ExportArtifact(file, "import-errors-" + reportId + ".csv", "\"" + reportId + "\"",
+                lease, lease::release));
+    }
+
+    private static String csv(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
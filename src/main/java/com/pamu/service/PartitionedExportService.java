@@ -0,0 +1,189 @@
+package com.pamu.service;
+
+import com.pamu.exception.FileProcessingException;
+import com.pamu.exception.InvalidEmployeeDataException;
+import com.pamu.model.Employee;
+import com.pamu.model.ExportArtifact;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Exports employees as a ZIP with one workbook per state, city or category.
+ * POI builds a workbook on a single thread, so the partitions are written concurrently on a pool sized to the
+ * cores and the ZIP is assembled in partition order as they complete; a company-wide export then takes about as
+ * long as its largest partition instead of the sum of all of them.
+ */
+@Service
+public class PartitionedExportService {
+
+    static final String UNASSIGNED = "Unassigned";
+
+    @Autowired EmployeeService employeeService;
+    @Autowired ExportArtifactCache exportArtifactCache;
+    @Autowired SpoolManager spoolManager;
+
+    // 0 means one thread per available core
+    @Value("${employee.export.partition-threads:0}")
+    private int threads;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "partition-export-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Parts still queued are cancelled, so an export waiting for them fails instead of waiting forever
+        executor.shutdownNow().forEach(task -> ((Future<?>) task).cancel(false));
+    }
+
+    /**
+     * Returns the partitioned export for the current data generation, generating it on a miss.
+     * This method is developed for regional HR teams, who each need only their own part of the company.
+     * @param by "state", "city" or "category"
+     * @return ExportArtifact of a ZIP holding one workbook per distinct value; employees without a value go to "Unassigned"
+     * @throws InvalidEmployeeDataException if the partition column is not supported
+     */
+    public ExportArtifact exportPartitioned(String by) {
+        String column = by == null ? "" : by.toLowerCase(Locale.ROOT);
+        Function<Employee, String> key = switch (column) {
+            case "state" -> Employee::getState;
+            case "city" -> Employee::getCity;
+            case "category" -> Employee::getCategory;
+            default -> throw new InvalidEmployeeDataException("Cannot partition by '" + by + "'; use state, city or category");
+        };
+        return exportArtifactCache.getOrCreate("employees-zip", column, "employees-by-" + column + ".zip",
+                () -> writeZip(partition(employeeService.getAllEmployeesFromCache(), key)));
+    }
+
+    // Sorted by partition name, so the entries of the ZIP are always in the same order. The bytes still differ
+    // between builds, as POI stamps each workbook with the time it was written, so a regenerated export gets a new ETag.
+    static Map<String, List<Employee>> partition(List<Employee> employees, Function<Employee, String> key) {
+        Map<String, List<Employee>> partitions = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Employee employee : employees) {
+            String value = key.apply(employee);
+            partitions.computeIfAbsent(value == null || value.isBlank() ? UNASSIGNED : value.trim(),
+                    name -> new ArrayList<>()).add(employee);
+        }
+        return partitions;
+    }
+
+    private File writeZip(Map<String, List<Employee>> partitions) {
+        AtomicBoolean aborted = new AtomicBoolean();
+        List<Future<PartFile>> pending = new ArrayList<>();
+        int copied = 0;
+        File zipFile = spoolManager.createFile("employee-export-partitioned-", ".zip");
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(zipFile))) {
+            // Workbooks are already deflated, so recompressing them costs time for almost no size
+            zip.setLevel(Deflater.BEST_SPEED);
+            Set<String> entryNames = new HashSet<>();
+            for (Map.Entry<String, List<Employee>> partition : partitions.entrySet()) {
+                String entryName = entryName(partition.getKey(), entryNames);
+                pending.add(executor.submit(() -> aborted.get() ? null : writePart(entryName, partition.getValue())));
+            }
+            // The parts are still written in parallel; entries are added in partition order whichever finishes first
+            for (Future<PartFile> future : pending) {
+                PartFile part = future.get();
+                zip.putNextEntry(new ZipEntry(part.entryName()));
+                Files.copy(part.file().toPath(), zip);
+                zip.closeEntry();
+                spoolManager.discard(part.file());
+                copied++;
+            }
+            return zipFile;
+        } catch (IOException | ExecutionException | CancellationException e) {
+            throw fail(zipFile, pending.subList(copied, pending.size()), aborted,
+                    e instanceof ExecutionException ? e.getCause() : e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw fail(zipFile, pending.subList(copied, pending.size()), aborted, e);
+        }
+    }
+
+    // Partition values can hold any character; different values may sanitize to the same name, so number repeats
+    static String entryName(String partition, Set<String> taken) {
+        String base = "employees-" + partition.replaceAll("[^A-Za-z0-9._-]+", "_");
+        String name = base + ".xlsx";
+        for (int copy = 2; !taken.add(name.toLowerCase(Locale.ROOT)); copy++) {
+            name = base + "-" + copy + ".xlsx";
+        }
+        return name;
+    }
+
+    private PartFile writePart(String entryName, List<Employee> employees) throws IOException {
+        File file = spoolManager.createFile("employee-export-part-", ".xlsx");
+        try {
+            EmployeeWorkbookWriter.write(employees, file);
+        } catch (IOException | RuntimeException e) {
+            spoolManager.discard(file);
+            throw e;
+        }
+        return new PartFile(entryName, file);
+    }
+
+    // Parts that have not started skip their work. A running part cannot be interrupted inside POI, so it is waited
+    // for and its file discarded; cancelling it would leave that file behind once it finished.
+    private FileProcessingException fail(File zipFile, List<Future<PartFile>> unfinished, AtomicBoolean aborted,
+                                         Throwable cause) {
+        aborted.set(true);
+        boolean interrupted = false;
+        for (Future<PartFile> future : unfinished) {
+            while (true) {
+                try {
+                    PartFile part = future.get();
+                    if (part != null) {
+                        spoolManager.discard(part.file());
+                    }
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException | CancellationException e) {
+                    // Failed parts have already removed their own file; cancelled ones never created one
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        spoolManager.discard(zipFile);
+        return new FileProcessingException("Failed to write partitioned employee export", cause);
+    }
+
+    private record PartFile(String entryName, File file) {
+    }
+}
@@ -0,0 +1,98 @@
+package com.pamu.service;
+
+import com.pamu.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class PasswordVerificationService {
+
+    @Autowired BCryptPasswordEncoder passwordEncoder;
+    @Autowired MeterRegistry meterRegistry;
+
+    // 0 means half of the available cores, so hashing can never take every CPU away from request handling
+    @Value("${auth.login.verify.threads:0}")
+    private int threads;
+    @Value("${auth.login.verify.queue-capacity:64}")
+    private int queueCapacity;
+    @Value("${auth.login.verify.timeout-ms:5000}")
+    private long timeoutMs;
+
+    private ThreadPoolExecutor executor;
+    private Timer verifyTimer;
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    void init() {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-verify-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        Gauge.builder("auth.login.verify.queue.depth", executor, e -> e.getQueue().size())
+                .description("Password verifications waiting for a hashing thread")
+                .register(meterRegistry);
+        Gauge.builder("auth.login.verify.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password verifications currently hashing")
+                .register(meterRegistry);
+        verifyTimer = Timer.builder("auth.login.verify.latency")
+                .description("Time spent hashing a login password")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("auth.login.verify.rejected")
+                .description("Login attempts rejected because the verification pool was saturated")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Verifies a raw password against its BCrypt hash on the dedicated verification pool.
+     * This method is developed to keep BCrypt CPU work off the request threads and to shed load quickly when saturated.
+     * @param rawPassword The password supplied at login
+     * @param encodedPassword The stored BCrypt hash
+     * @return true if the password matches, false otherwise
+     * @throws TooManyRequestsException if the verification queue is full or the verification times out
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        Future<Boolean> result;
+        try {
+            result = executor.submit(() -> verifyTimer.record(() -> passwordEncoder.matches(rawPassword, encodedPassword)));
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new TooManyRequestsException("Login verification capacity exhausted", 1);
+        }
+        try {
+            return result.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            rejectedCounter.increment();
+            throw new TooManyRequestsException("Login verification timed out", 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.cancel(true);
+            throw new IllegalStateException("Interrupted while verifying password", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password verification failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.pamu.service;
+
+import java.util.Arrays;
+
+/**
+ * The manager tree of an {@link EmployeeColumns} snapshot over row numbers: each row's manager row and, in
+ * compressed form, its direct reports {@code reports[first[row]] .. reports[first[row + 1] - 1]}.
+ */
+final class ReportingTree {
+
+    final int[] managerRow; // -1 for top-level employees
+    final int[] first;
+    final int[] reports;
+
+    private ReportingTree(int[] managerRow, int[] first, int[] reports) {
+        this.managerRow = managerRow;
+        this.first = first;
+        this.reports = reports;
+    }
+
+    static ReportingTree of(EmployeeColumns columns) {
+        int[] managerRow = new int[columns.size];
+        int[] first = new int[columns.size + 1];
+        for (int row = 0; row < columns.size; row++) {
+            managerRow[row] = columns.managerIds[row] != 0 ? columns.rowOf(columns.managerIds[row]) : -1;
+            if (managerRow[row] >= 0) {
+                first[managerRow[row] + 1]++;
+            }
+        }
+        for (int row = 0; row < columns.size; row++) {
+            first[row + 1] += first[row];
+        }
+        int[] reports = new int[first[columns.size]];
+        int[] filled = Arrays.copyOf(first, columns.size);
+        for (int row = 0; row < columns.size; row++) {
+            if (managerRow[row] >= 0) {
+                reports[filled[managerRow[row]]++] = row;
+            }
+        }
+        return new ReportingTree(managerRow, first, reports);
+    }
+
+    boolean hasReports(int row) {
+        return first[row] != first[row + 1];
+    }
+
+    /**
+     * @return Rows in breadth-first order from the top-level employees, so every manager comes before its reports;
+     * employees in a reporting cycle are never reached and are left out
+     */
+    int[] topDown() {
+        int[] order = new int[managerRow.length];
+        int length = 0;
+        for (int row = 0; row < managerRow.length; row++) {
+            if (managerRow[row] < 0) {
+                order[length++] = row;
+            }
+        }
+        for (int next = 0; next < length; next++) {
+            for (int i = first[order[next]]; i < first[order[next] + 1]; i++) {
+                order[length++] = reports[i];
+            }
+        }
+        return Arrays.copyOf(order, length);
+    }
+}
@@ -0,0 +1,63 @@
+package com.pamu.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical computations: while the computation of a key is running, further callers with the
+ * same key wait for it and get its result instead of starting their own. Nothing is kept once it finishes, so the
+ * next caller after that computes afresh; caching, where wanted, stays with the caller.
+ *
+ * @param <K> Key identifying identical computations
+ * @param <V> Result type
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Runs the computation of the key, or waits for the one already running.
+     * @param key Key of the computation
+     * @param computation Computes the result; runs on the calling thread of the first caller
+     * @return The result, shared by every caller that waited for it
+     * @throws RuntimeException the exception of the computation, rethrown to every waiting caller
+     */
+    public V execute(K key, Supplier<V> computation) {
+        CompletableFuture<V> started = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, started);
+        if (running != null) {
+            return await(running);
+        }
+        try {
+            started.complete(computation.get());
+        } catch (RuntimeException | Error e) {
+            started.completeExceptionally(e);
+        } finally {
+            inFlight.remove(key, started);
+        }
+        return await(started);
+    }
+
+    /**
+     * @return Number of keys being computed right now
+     */
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
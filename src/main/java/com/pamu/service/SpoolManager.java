@@ -0,0 +1,373 @@
+package com.pamu.service;
+
+import com.pamu.exception.FileProcessingException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Owns the directory that generated files (exports, hierarchy JSON, reports) are written to.
+ * Tracked files count against a total byte budget; when it is exceeded the least recently used files
+ * that no response is currently reading are deleted. Files handed out through {@link #lease(File)} are pinned
+ * from the moment they are handed out until the response releases them, and files opened through
+ * {@link #resource(File)} while a response streams them, so eviction and discards never cut a download short.
+ * Every instance writes to its own locked child of the configured directory and removes it on shutdown; children
+ * left by instances that died are removed by the next one to start.
+ */
+@Component
+public class SpoolManager {
+
+    @Value("${employee.spool.directory:${java.io.tmpdir}/employee-app-spool}")
+    private String directory;
+
+    @Value("${employee.spool.max-bytes:268435456}")
+    private long maxBytes;
+
+    private static final String INSTANCE_PREFIX = "instance-";
+    private static final String LOCK_FILE = ".lock";
+
+    private Path root;
+    private FileLock instanceLock;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Path, SpoolEntry> entries = new LinkedHashMap<>(16, 0.75f, true); // access order = LRU
+    private long usedBytes;
+
+    @PostConstruct
+    void init() {
+        try {
+            Path base = Files.createDirectories(Paths.get(directory));
+            removeAbandonedInstances(base);
+            // Each running instance writes to its own child, so instances sharing a host never delete each other's files
+            root = Files.createDirectory(base.resolve(INSTANCE_PREFIX + UUID.randomUUID()));
+            instanceLock = FileChannel.open(root.resolve(LOCK_FILE), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)
+                    .tryLock();
+        } catch (IOException e) {
+            throw new FileProcessingException("Failed to prepare spool directory " + directory, e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        try {
+            instanceLock.release();
+            instanceLock.channel().close();
+        } catch (IOException ignored) {
+            // The directory is removed below regardless, or by the next instance once the lock is gone
+        }
+        deleteDirectory(root);
+    }
+
+    /**
+     * Creates a new empty file in the spool directory.
+     * The file does not count against the budget until it is retained or marked delete-after-read.
+     * @param prefix File name prefix
+     * @param suffix File name suffix, e.g. ".xlsx"
+     * @return The new file
+     */
+    public File createFile(String prefix, String suffix) {
+        try {
+            return Files.createTempFile(root, prefix, suffix).toFile();
+        } catch (IOException e) {
+            throw new FileProcessingException("Failed to create spool file", e);
+        }
+    }
+
+    /**
+     * Keeps a finished file until it is evicted for space or explicitly discarded.
+     * @param file A file created by {@link #createFile(String, String)}
+     * @param onEvict Called after the file has been evicted, so owners can drop their reference to it
+     */
+    public void retain(File file, Runnable onEvict) {
+        register(file, false, onEvict, false);
+    }
+
+    /**
+     * Keeps a finished file like {@link #retain(File, Runnable)} and leases it to the response that created it,
+     * in one step, so no other file's registration can evict it before that response is done with it.
+     * @param file A file created by {@link #createFile(String, String)}
+     * @param onEvict Called after the file has been evicted, so owners can drop their reference to it
+     * @return The leased file, to be released when the response completes
+     */
+    public SpoolResource retainLeased(File file, Runnable onEvict) {
+        register(file, false, onEvict, true);
+        return new SpoolResource(file, true);
+    }
+
+    /**
+     * Pins a tracked file for one response from the moment it is handed out, before its body is opened.
+     * Until {@link SpoolResource#release()} is called the file is neither evicted nor deleted by a discard.
+     * @param file A spool file
+     * @return The leased file, or null if it is no longer tracked because it has been evicted or discarded
+     */
+    public SpoolResource lease(File file) {
+        lock.lock();
+        try {
+            SpoolEntry entry = entries.get(file.toPath()); // also refreshes the LRU position
+            if (entry == null) {
+                return null;
+            }
+            entry.readers++;
+        } finally {
+            lock.unlock();
+        }
+        return new SpoolResource(file, true);
+    }
+
+    /**
+     * Tracks a finished file that is served once: it is deleted as soon as the response reading it completes.
+     * @param file A file created by {@link #createFile(String, String)}
+     */
+    public void deleteAfterRead(File file) {
+        register(file, true, null, false);
+    }
+
+    /**
+     * Deletes a file as soon as no response is reading it any more.
+     * @param file A spool file
+     */
+    public void discard(File file) {
+        Path path = file.toPath();
+        boolean deleteNow;
+        lock.lock();
+        try {
+            SpoolEntry entry = entries.get(path);
+            if (entry == null) {
+                deleteNow = true;
+            } else if (entry.readers > 0) {
+                entry.deleteWhenRead = true;
+                deleteNow = false;
+            } else {
+                remove(path, entry);
+                deleteNow = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (deleteNow) {
+            deleteQuietly(path);
+        }
+    }
+
+    /**
+     * Wraps a spool file as a Resource whose input stream pins the file until it is closed.
+     * @param file A spool file
+     * @return Resource suitable as a response body
+     */
+    public Resource resource(File file) {
+        return new SpoolResource(file, false);
+    }
+
+    public long usedBytes() {
+        lock.lock();
+        try {
+            return usedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void register(File file, boolean deleteWhenRead, Runnable onEvict, boolean leased) {
+        Path path = file.toPath();
+        List<Map.Entry<Path, SpoolEntry>> evicted;
+        lock.lock();
+        try {
+            SpoolEntry entry = new SpoolEntry(file.length(), deleteWhenRead, onEvict);
+            SpoolEntry previous = entries.remove(path);
+            if (previous != null) {
+                usedBytes -= previous.size;
+                // Responses already reading or holding the file keep it pinned
+                entry.readers = previous.readers;
+            }
+            if (leased) {
+                entry.readers++;
+            }
+            entries.put(path, entry);
+            usedBytes += entry.size;
+            evicted = evictOverBudget(path);
+        } finally {
+            lock.unlock();
+        }
+        for (Map.Entry<Path, SpoolEntry> victim : evicted) {
+            deleteQuietly(victim.getKey());
+            if (victim.getValue().onEvict != null) {
+                victim.getValue().onEvict.run();
+            }
+        }
+    }
+
+    // Caller holds the lock; files being read and the file just registered are never evicted
+    private List<Map.Entry<Path, SpoolEntry>> evictOverBudget(Path keep) {
+        List<Map.Entry<Path, SpoolEntry>> evicted = new ArrayList<>();
+        Iterator<Map.Entry<Path, SpoolEntry>> lru = entries.entrySet().iterator();
+        while (usedBytes > maxBytes && lru.hasNext()) {
+            Map.Entry<Path, SpoolEntry> candidate = lru.next();
+            if (candidate.getValue().readers == 0 && !candidate.getKey().equals(keep)) {
+                lru.remove();
+                usedBytes -= candidate.getValue().size;
+                evicted.add(Map.entry(candidate.getKey(), candidate.getValue()));
+            }
+        }
+        return evicted;
+    }
+
+    private void pin(Path path) {
+        lock.lock();
+        try {
+            SpoolEntry entry = entries.get(path); // also refreshes the LRU position
+            if (entry != null) {
+                entry.readers++;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void unpin(Path path) {
+        boolean delete = false;
+        lock.lock();
+        try {
+            SpoolEntry entry = entries.get(path);
+            if (entry != null && --entry.readers == 0 && entry.deleteWhenRead) {
+                remove(path, entry);
+                delete = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (delete) {
+            deleteQuietly(path);
+        }
+    }
+
+    private void remove(Path path, SpoolEntry entry) {
+        entries.remove(path);
+        usedBytes -= entry.size;
+    }
+
+    // A child whose lock file can be locked belongs to an instance that is no longer running
+    private static void removeAbandonedInstances(Path base) throws IOException {
+        List<Path> instances;
+        try (Stream<Path> children = Files.list(base)) {
+            instances = children.filter(Files::isDirectory)
+                    .filter(child -> child.getFileName().toString().startsWith(INSTANCE_PREFIX))
+                    .toList();
+        }
+        for (Path instance : instances) {
+            Path lockFile = instance.resolve(LOCK_FILE);
+            if (!Files.exists(lockFile)) {
+                continue;
+            }
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.WRITE);
+                 FileLock lock = channel.tryLock()) {
+                if (lock != null) {
+                    deleteDirectory(instance);
+                }
+            } catch (OverlappingFileLockException | IOException inUse) {
+                // Held by another spool manager in this JVM, or not ours to open: leave it alone
+            }
+        }
+    }
+
+    private static void deleteDirectory(Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(SpoolManager::deleteQuietly);
+        } catch (IOException ignored) {
+            // Whatever is left is removed by the next instance that finds the directory abandoned
+        }
+        deleteQuietly(directory);
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // A file we cannot delete now is removed with the rest of the directory on shutdown or by the next start
+        }
+    }
+
+    private static final class SpoolEntry {
+        final long size;
+        final Runnable onEvict;
+        boolean deleteWhenRead;
+        int readers;
+
+        SpoolEntry(long size, boolean deleteWhenRead, Runnable onEvict) {
+            this.size = size;
+            this.deleteWhenRead = deleteWhenRead;
+            this.onEvict = onEvict;
+        }
+    }
+
+    /**
+     * Response body for a spool file. Its input stream pins the file until it is closed; a leased resource also
+     * pins it from the moment it was handed out until {@link #release()}.
+     */
+    public final class SpoolResource extends FileSystemResource {
+
+        private final AtomicBoolean leased;
+
+        SpoolResource(File file, boolean leased) {
+            super(file);
+            this.leased = new AtomicBoolean(leased);
+        }
+
+        /**
+         * Ends the lease taken when the file was handed out; a no-op after the first call or if it was not leased.
+         */
+        public void release() {
+            if (leased.compareAndSet(true, false)) {
+                unpin(getFile().toPath());
+            }
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            Path path = getFile().toPath();
+            pin(path);
+            try {
+                return new FilterInputStream(super.getInputStream()) {
+                    private boolean closed;
+
+                    @Override
+                    public void close() throws IOException {
+                        try {
+                            super.close();
+                        } finally {
+                            if (!closed) {
+                                closed = true;
+                                unpin(path);
+                            }
+                        }
+                    }
+                };
+            } catch (IOException | RuntimeException e) {
+                unpin(path);
+                throw e;
+            }
+        }
+    }
+}
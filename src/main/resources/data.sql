@@ -1,3 +1,3 @@
-INSERT INTO users (id, username, password, role) VALUES
-(1, 'admin', '$2a$10$8oVQUIHbAXmKeS2452g/Z.kfuW3gyYqA/ODFiend4f8sqhe4avpBe', 'ROLE_ADMIN'),
-(2, 'employee1', '$2a$10$LPYUd6nU8mCkPf4iCJr5FubV0HcJ7GTAwOYIFxZ2mKcMQFdeGB5eO', 'ROLE_USER');
\ No newline at end of file
+INSERT INTO users (id, username, password, role, credential_version) VALUES
+(1, 'admin', '$2a$10$8oVQUIHbAXmKeS2452g/Z.kfuW3gyYqA/ODFiend4f8sqhe4avpBe', 'ROLE_ADMIN', 0),
+(2, 'employee1', '$2a$10$LPYUd6nU8mCkPf4iCJr5FubV0HcJ7GTAwOYIFxZ2mKcMQFdeGB5eO', 'ROLE_USER', 0);
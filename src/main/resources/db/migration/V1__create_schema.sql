@@ -0,0 +1,20 @@
+-- Tables mapped by the User and Employee entities
+CREATE TABLE users (
+    id                 INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username           VARCHAR(255) NOT NULL,
+    password           VARCHAR(255) NOT NULL,
+    role               VARCHAR(255),
+    credential_version INTEGER      NOT NULL DEFAULT 0,
+    CONSTRAINT uk_users_username UNIQUE (username)
+);
+
+CREATE TABLE employees (
+    id         BIGINT PRIMARY KEY,
+    name       VARCHAR(255),
+    city       VARCHAR(255),
+    state      VARCHAR(255),
+    category   VARCHAR(255),
+    salary     DOUBLE PRECISION,
+    doj        DATE,
+    manager_id BIGINT
+);
@@ -0,0 +1,14 @@
+-- Direct reports of a manager (hierarchy); created before the foreign key so the key reuses it
+CREATE INDEX idx_employees_manager_id ON employees (manager_id);
+-- Salary ranking, read highest first (Nth highest salary)
+CREATE INDEX idx_employees_salary ON employees (salary DESC);
+-- Joining date range scans (gratuity eligibility)
+CREATE INDEX idx_employees_doj ON employees (doj);
+
+-- Reporting lines must point at an existing employee other than the employee itself
+ALTER TABLE employees
+    ADD CONSTRAINT fk_employees_manager FOREIGN KEY (manager_id) REFERENCES employees (id);
+ALTER TABLE employees
+    ADD CONSTRAINT ck_employees_not_own_manager CHECK (manager_id IS NULL OR manager_id <> id);
+ALTER TABLE employees
+    ADD CONSTRAINT ck_employees_salary_non_negative CHECK (salary IS NULL OR salary >= 0);
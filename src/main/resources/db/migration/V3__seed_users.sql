@@ -0,0 +1,4 @@
+-- Default accounts, matching data.sql for the in-memory profile
+INSERT INTO users (username, password, role, credential_version) VALUES
+('admin', '$2a$10$8oVQUIHbAXmKeS2452g/Z.kfuW3gyYqA/ODFiend4f8sqhe4avpBe', 'ROLE_ADMIN', 0),
+('employee1', '$2a$10$LPYUd6nU8mCkPf4iCJr5FubV0HcJ7GTAwOYIFxZ2mKcMQFdeGB5eO', 'ROLE_USER', 0);
@@ -0,0 +1,26 @@
+-- Transitive closure of the reporting lines: one row per (ancestor, descendant) pair, self pairs at depth 0.
+-- The primary key serves subtree lookups by ancestor; the descendant index serves ancestor lookups.
+CREATE TABLE employee_closure (
+    ancestor_id   BIGINT  NOT NULL,
+    descendant_id BIGINT  NOT NULL,
+    depth         INTEGER NOT NULL,
+    CONSTRAINT pk_employee_closure PRIMARY KEY (ancestor_id, descendant_id)
+);
+CREATE INDEX idx_employee_closure_descendant ON employee_closure (descendant_id, depth);
+-- Added after the indexes so the foreign keys reuse them
+ALTER TABLE employee_closure
+    ADD CONSTRAINT fk_employee_closure_ancestor FOREIGN KEY (ancestor_id) REFERENCES employees (id) ON DELETE CASCADE;
+ALTER TABLE employee_closure
+    ADD CONSTRAINT fk_employee_closure_descendant FOREIGN KEY (descendant_id) REFERENCES employees (id) ON DELETE CASCADE;
+
+-- Backfill from the employees already stored
+INSERT INTO employee_closure (ancestor_id, descendant_id, depth)
+WITH RECURSIVE chain (ancestor_id, descendant_id, depth) AS (
+    SELECT id, id, 0 FROM employees
+    UNION ALL
+    SELECT e.manager_id, c.descendant_id, c.depth + 1
+    FROM chain c
+    JOIN employees e ON e.id = c.ancestor_id
+    WHERE e.manager_id IS NOT NULL
+)
+SELECT ancestor_id, descendant_id, depth FROM chain;
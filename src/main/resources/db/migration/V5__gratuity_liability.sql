@@ -0,0 +1,24 @@
+-- Payable gratuity per employee as of the latest gratuity run. Each run rewrites only the rows that changed.
+-- No foreign key to employees: rows of an employee deleted since the last run are dropped by the next one.
+CREATE TABLE gratuity_liability (
+    employee_id     BIGINT PRIMARY KEY,
+    manager_id      BIGINT,
+    category        VARCHAR(255),
+    last_salary     DOUBLE PRECISION,
+    completed_years INTEGER,
+    eligible        BOOLEAN          NOT NULL,
+    amount          DOUBLE PRECISION NOT NULL
+);
+-- Totals per manager and per category for finance
+CREATE INDEX idx_gratuity_liability_manager_id ON gratuity_liability (manager_id);
+CREATE INDEX idx_gratuity_liability_category ON gratuity_liability (category);
+
+-- One row per gratuity run; the latest one dates the rows of gratuity_liability
+CREATE TABLE gratuity_liability_run (
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    computed_on        DATE             NOT NULL,
+    employees          INTEGER          NOT NULL,
+    eligible_employees INTEGER          NOT NULL,
+    amount             DOUBLE PRECISION NOT NULL,
+    changed_rows       INTEGER          NOT NULL
+);
@@ -0,0 +1,3 @@
+-- Salary ranking with ties broken by ID, so the Nth highest salary query reads the index in order
+DROP INDEX idx_employees_salary;
+CREATE INDEX idx_employees_salary ON employees (salary DESC, id);
@@ -0,0 +1,64 @@
+package com.pamu.benchmark;
+
+import com.pamu.dto.EmployeeSearchHit;
+import com.pamu.service.EmployeeSearchIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures typeahead latency of the search index over synthetic employees whose names are built from common
+ * Indian first names and surnames, so that short prefixes match many rows.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class EmployeeSearchBenchmarkTest {
+
+    private static final int EMPLOYEES = Integer.getInteger("benchmark.employees", 1_000_000);
+    private static final int QUERIES = Integer.getInteger("benchmark.queries", 20_000);
+
+    private static final String[] FIRST = {"Rama", "Ravi", "Shivam", "Sneha", "Anand", "Priya", "Kiran", "Suresh",
+            "Lakshmi", "Arjun", "Divya", "Mahesh", "Pooja", "Rahul", "Sai", "Venkat", "Anita", "Gopal", "Harish", "Meena"};
+    private static final String[] LAST = {"Kumar", "Rao", "Reddy", "Sharma", "Iyer", "Naidu", "Patel", "Gupta",
+            "Verma", "Nair", "Pillai", "Joshi", "Das", "Singh", "Menon", "Shetty", "Yadav", "Chowdary", "Bose", "Mishra"};
+    private static final String[] STATES = {"Telangana", "Karnataka", "Maharashtra", "Tamil Nadu", "Kerala", "Delhi"};
+    private static final String[] QUERY_TEXTS = {"r", "ra", "ram", "rama k", "shiv", "sneha red", "kum", "anand rao",
+            "prakash", "xyz"};
+
+    @Test
+    void measureTypeaheadLatency() {
+        Random random = new Random(42);
+        List<EmployeeSearchHit> employees = new ArrayList<>(EMPLOYEES);
+        for (long id = 1; id <= EMPLOYEES; id++) {
+            String name = FIRST[random.nextInt(FIRST.length)] + " " + LAST[random.nextInt(LAST.length)]
+                    + (random.nextInt(4) == 0 ? " " + FIRST[random.nextInt(FIRST.length)] + "prasad" : "");
+            employees.add(new EmployeeSearchHit(id, name, "City " + random.nextInt(500),
+                    STATES[random.nextInt(STATES.length)], "employee"));
+        }
+        EmployeeSearchIndex index = new EmployeeSearchIndex();
+        long buildStart = System.nanoTime();
+        ReflectionTestUtils.invokeMethod(index, "load", employees);
+        System.out.printf("%nindexed %d employees in %d ms%n", EMPLOYEES, (System.nanoTime() - buildStart) / 1_000_000);
+
+        System.out.printf("%-14s %-12s %10s %10s %10s%n", "query", "state", "p50 us", "p99 us", "results");
+        for (String query : QUERY_TEXTS) {
+            for (String state : new String[]{null, "Kerala"}) {
+                long[] micros = new long[QUERIES];
+                int results = 0;
+                for (int i = 0; i < QUERIES; i++) {
+                    long start = System.nanoTime();
+                    results = index.search(query, null, state, 10).size();
+                    micros[i] = (System.nanoTime() - start) / 1_000;
+                }
+                Arrays.sort(micros);
+                System.out.printf("%-14s %-12s %10d %10d %10d%n", query, state, micros[QUERIES / 2],
+                        micros[QUERIES * 99 / 100], results);
+            }
+        }
+    }
+}
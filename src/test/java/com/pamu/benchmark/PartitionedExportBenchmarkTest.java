@@ -0,0 +1,86 @@
+package com.pamu.benchmark;
+
+import com.pamu.model.Employee;
+import com.pamu.service.EmployeeDataVersion;
+import com.pamu.service.EmployeeService;
+import com.pamu.service.ExportArtifactCache;
+import com.pamu.service.PartitionedExportService;
+import com.pamu.service.SpoolManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures the partitioned export with one worker thread against one per core, on synthetic employees spread
+ * over a number of states. Each run uses a new data generation, so nothing is served from the artifact cache.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class PartitionedExportBenchmarkTest {
+
+    private static final int EMPLOYEES = Integer.getInteger("benchmark.employees", 200_000);
+    private static final int STATES = Integer.getInteger("benchmark.states", 16);
+    private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 3);
+
+    @TempDir
+    Path spoolDir;
+
+    @Test
+    void compareWorkerCounts() {
+        List<Employee> employees = new ArrayList<>(EMPLOYEES);
+        for (long id = 1; id <= EMPLOYEES; id++) {
+            Employee employee = new Employee();
+            employee.setId(id);
+            employee.setName("Employee " + id);
+            employee.setCity("City " + id % 100);
+            employee.setState("State " + id % STATES);
+            employee.setCategory("employee");
+            employee.setSalary(30000.0 + id % 50000);
+            employees.add(employee);
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%n%-10s %10s %10s %12s%n", "threads", "employees", "states", "best ms");
+        for (int threads : cores > 1 ? new int[]{1, cores} : new int[]{1}) {
+            System.out.printf("%-10d %10d %10d %12d%n", threads, EMPLOYEES, STATES, bestMillis(employees, threads));
+        }
+    }
+
+    private long bestMillis(List<Employee> employees, int threads) {
+        EmployeeService employeeService = mock(EmployeeService.class);
+        when(employeeService.getAllEmployeesFromCache()).thenReturn(employees);
+        SpoolManager spoolManager = new SpoolManager();
+        ReflectionTestUtils.setField(spoolManager, "directory", spoolDir.toString());
+        ReflectionTestUtils.setField(spoolManager, "maxBytes", Long.MAX_VALUE);
+        ReflectionTestUtils.invokeMethod(spoolManager, "init");
+        EmployeeDataVersion version = new EmployeeDataVersion();
+        ExportArtifactCache cache = new ExportArtifactCache();
+        ReflectionTestUtils.setField(cache, "employeeDataVersion", version);
+        ReflectionTestUtils.setField(cache, "spoolManager", spoolManager);
+        PartitionedExportService service = new PartitionedExportService();
+        ReflectionTestUtils.setField(service, "employeeService", employeeService);
+        ReflectionTestUtils.setField(service, "exportArtifactCache", cache);
+        ReflectionTestUtils.setField(service, "spoolManager", spoolManager);
+        ReflectionTestUtils.setField(service, "threads", threads);
+        ReflectionTestUtils.invokeMethod(service, "init");
+        try {
+            long best = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                version.advance();
+                long start = System.nanoTime();
+                service.exportPartitioned("state");
+                best = Math.min(best, (System.nanoTime() - start) / 1_000_000);
+            }
+            return best;
+        } finally {
+            ReflectionTestUtils.invokeMethod(service, "shutdown");
+        }
+    }
+}
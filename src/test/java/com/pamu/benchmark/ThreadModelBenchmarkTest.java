@@ -0,0 +1,134 @@
+package com.pamu.benchmark;
+
+import com.pamu.EmployeeAppApplication;
+import com.pamu.model.User;
+import com.pamu.security.JwtTokenProvider;
+import com.pamu.service.CredentialVersionService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compares throughput and latency of Tomcat on platform threads against virtual threads.
+ * Each request holds its thread for a simulated blocking call (JDBC / file I/O latency); the real
+ * repository is left out so the 10-connection Hikari pool does not cap both modes alike.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class ThreadModelBenchmarkTest {
+
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 1000);
+    private static final int REQUESTS_PER_CLIENT = Integer.getInteger("benchmark.requestsPerClient", 20);
+    private static final long BLOCKING_MILLIS = Long.getLong("benchmark.blockingMillis", 50);
+
+    @Test
+    void compareThreadModels() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+        System.out.printf("%n%-10s %8s %10s %12s %10s %10s%n", "threads", "clients", "requests", "req/s", "p50 ms", "p99 ms");
+        for (Result result : List.of(platform, virtual)) {
+            System.out.printf("%-10s %8d %10d %12.0f %10.1f %10.1f%n", result.mode, CLIENTS, result.requests,
+                    result.throughput, result.p50Millis, result.p99Millis);
+        }
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(EmployeeAppApplication.class, BlockingEndpoint.class)
+                .properties("server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                .run()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String token = issueToken(context);
+            URI uri = URI.create("http://localhost:" + port + "/benchmark/blocking");
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+            HttpRequest request = HttpRequest.newBuilder(uri).header("Authorization", "Bearer " + token).GET().build();
+
+            drive(client, request, Math.min(CLIENTS, 100), 5); // warm-up
+            long start = System.nanoTime();
+            long[] latencies = drive(client, request, CLIENTS, REQUESTS_PER_CLIENT);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            Arrays.sort(latencies);
+            return new Result(virtualThreads ? "virtual" : "platform", latencies.length, latencies.length / seconds,
+                    percentile(latencies, 0.50), percentile(latencies, 0.99));
+        }
+    }
+
+    private long[] drive(HttpClient client, HttpRequest request, int clients, int requestsPerClient) throws Exception {
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                futures.add(callers.submit(() -> {
+                    long[] samples = new long[requestsPerClient];
+                    for (int r = 0; r < requestsPerClient; r++) {
+                        long sent = System.nanoTime();
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            throw new IllegalStateException("Unexpected status " + response.statusCode());
+                        }
+                        samples[r] = System.nanoTime() - sent;
+                    }
+                    return samples;
+                }));
+            }
+            long[] all = new long[clients * requestsPerClient];
+            int offset = 0;
+            for (Future<long[]> future : futures) {
+                long[] samples = future.get();
+                System.arraycopy(samples, 0, all, offset, samples.length);
+                offset += samples.length;
+            }
+            return all;
+        }
+    }
+
+    private static String issueToken(ConfigurableApplicationContext context) {
+        User user = new User();
+        user.setUsername("benchmark");
+        user.setRole("ROLE_USER");
+        user.setCredentialVersion(0);
+        context.getBean(CredentialVersionService.class).remember(user);
+        return context.getBean(JwtTokenProvider.class).generateToken(user);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+
+    private record Result(String mode, int requests, double throughput, double p50Millis, double p99Millis) {
+    }
+
+    // Registered explicitly as a configuration source so component scanning never picks it up
+    static class BlockingEndpoint {
+        @Bean
+        RouterFunction<ServerResponse> blockingRoute() {
+            return RouterFunctions.route()
+                    .GET("/benchmark/blocking", request -> {
+                        Thread.sleep(BLOCKING_MILLIS);
+                        return ServerResponse.ok().body("ok");
+                    })
+                    .build();
+        }
+    }
+}
@@ -1,11 +1,17 @@
 package com.pamu.configuration;
 
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pamu.repository.EmployeeRepository;
 import org.junit.jupiter.api.Test;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
 
 class CacheConfigTest {
 
@@ -20,9 +26,20 @@ class CacheConfigTest {
     void testCacheManagerBean() {
         CacheConfig config = new CacheConfig();
         Caffeine<Object, Object> caffeine = config.caffeineConfig();
-        CacheManager cacheManager = config.cacheManager(caffeine);
+        CacheManager cacheManager = config.cacheManager(caffeine, mock(EmployeeRepository.class));
         assertNotNull(cacheManager);
         assertTrue(cacheManager instanceof CaffeineCacheManager);
+        assertNotNull(((CaffeineCache) cacheManager.getCache("pagedEmployees")).getAsyncCache());
     }
-}
 
+    @Test
+    void testAllEmployeesCache_refreshesAheadOfExpiry() {
+        CacheConfig config = new CacheConfig();
+        CacheManager cacheManager = config.cacheManager(config.caffeineConfig(), mock(EmployeeRepository.class));
+
+        Object nativeCache = ((CaffeineCache) cacheManager.getCache("allEmployees")).getAsyncCache();
+        assertTrue(nativeCache instanceof AsyncLoadingCache);
+        assertEquals(CacheConfig.REFRESH_AFTER_WRITE_MINUTES, ((AsyncLoadingCache<?, ?>) nativeCache).synchronous()
+                .policy().refreshAfterWrite().orElseThrow().getRefreshesAfter(TimeUnit.MINUTES));
+    }
+}
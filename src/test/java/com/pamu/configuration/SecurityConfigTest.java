@@ -1,5 +1,6 @@
 package com.pamu.configuration;
 
+import com.pamu.security.ApiRateLimitFilter;
 import com.pamu.security.JwtAuthenticationFilter;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -25,6 +26,13 @@ class SecurityConfigTest {
         assertNotNull(filter);
     }
 
+    @Test
+    void testApiRateLimitFilterOnlyRunsInSecurityChain() {
+        SecurityConfig config = new SecurityConfig();
+        ApiRateLimitFilter filter = config.apiRateLimitFilter();
+        assertFalse(config.apiRateLimitFilterRegistration(filter).isEnabled());
+    }
+
     @Test
     void testAuthenticationManagerBean() throws Exception {
         SecurityConfig config = new SecurityConfig();
@@ -1,9 +1,13 @@
 package com.pamu.controller;
 
+import com.pamu.exception.TooManyRequestsException;
 import com.pamu.model.User;
 import com.pamu.model.UserLoginRequest;
 import com.pamu.repository.UserRepository;
 import com.pamu.security.JwtTokenProvider;
+import com.pamu.security.LoginRateLimiter;
+import com.pamu.service.CredentialVersionService;
+import com.pamu.service.PasswordVerificationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -11,7 +15,7 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.mock.web.MockHttpServletRequest;
 
 import java.util.Optional;
 
@@ -26,14 +30,22 @@ class AuthControllerTest {
     @Mock
     private UserRepository userRepository;
     @Mock
-    private BCryptPasswordEncoder passwordEncoder;
+    private PasswordVerificationService passwordVerificationService;
+    @Mock
+    private LoginRateLimiter loginRateLimiter;
+    @Mock
+    private CredentialVersionService credentialVersionService;
 
     @InjectMocks
     private AuthController authController;
 
+    private MockHttpServletRequest request;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.1");
     }
 
     @Test
@@ -42,18 +54,19 @@ class AuthControllerTest {
         user.setUsername("testuser");
         user.setPassword("hashedPassword");
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
-        when(passwordEncoder.matches("password", "hashedPassword")).thenReturn(true);
+        when(passwordVerificationService.matches("password", "hashedPassword")).thenReturn(true);
         when(jwtTokenProvider.generateToken(user)).thenReturn("mockToken");
 
         UserLoginRequest loginRequest = new UserLoginRequest();
         loginRequest.setUsername("testuser");
         loginRequest.setPassword("password");
-        ResponseEntity<?> response = authController.login(loginRequest);
+        ResponseEntity<?> response = authController.login(loginRequest, request);
         assertEquals(200, response.getStatusCodeValue());
         assertNotNull(response.getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
         assertTrue(response.getHeaders().getFirst(HttpHeaders.AUTHORIZATION).contains("Bearer mockToken"));
         assertTrue(response.getBody() instanceof java.util.Map);
         assertEquals("mockToken", ((java.util.Map<?, ?>)response.getBody()).get("token"));
+        verify(credentialVersionService).remember(user);
     }
 
     @Test
@@ -62,12 +75,12 @@ class AuthControllerTest {
         user.setUsername("testuser");
         user.setPassword("hashedPassword");
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
-        when(passwordEncoder.matches("wrongpassword", "hashedPassword")).thenReturn(false);
+        when(passwordVerificationService.matches("wrongpassword", "hashedPassword")).thenReturn(false);
 
         UserLoginRequest loginRequest = new UserLoginRequest();
         loginRequest.setUsername("testuser");
         loginRequest.setPassword("wrongpassword");
-        ResponseEntity<?> response = authController.login(loginRequest);
+        ResponseEntity<?> response = authController.login(loginRequest, request);
         assertEquals(401, response.getStatusCodeValue());
         assertEquals("Invalid username or password.", response.getBody());
     }
@@ -78,11 +91,44 @@ class AuthControllerTest {
         UserLoginRequest loginRequest = new UserLoginRequest();
         loginRequest.setUsername("nouser");
         loginRequest.setPassword("password");
-        ResponseEntity<?> response = authController.login(loginRequest);
+        ResponseEntity<?> response = authController.login(loginRequest, request);
         assertEquals(401, response.getStatusCodeValue());
         assertEquals("Invalid username or password.", response.getBody());
     }
 
+    @Test
+    void testLogin_RateLimited_skipsPasswordVerification() {
+        when(loginRateLimiter.tryAcquire("testuser", "10.0.0.1")).thenReturn(7L);
+        UserLoginRequest loginRequest = new UserLoginRequest();
+        loginRequest.setUsername("testuser");
+        loginRequest.setPassword("password");
+
+        ResponseEntity<?> response = authController.login(loginRequest, request);
+
+        assertEquals(429, response.getStatusCodeValue());
+        assertEquals("7", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        verify(userRepository, never()).findByUsername(anyString());
+        verify(passwordVerificationService, never()).matches(anyString(), anyString());
+    }
+
+    @Test
+    void testLogin_VerificationPoolSaturated() {
+        User user = new User();
+        user.setUsername("testuser");
+        user.setPassword("hashedPassword");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        when(passwordVerificationService.matches("password", "hashedPassword"))
+                .thenThrow(new TooManyRequestsException("Login verification capacity exhausted", 1));
+        UserLoginRequest loginRequest = new UserLoginRequest();
+        loginRequest.setUsername("testuser");
+        loginRequest.setPassword("password");
+
+        ResponseEntity<?> response = authController.login(loginRequest, request);
+
+        assertEquals(429, response.getStatusCodeValue());
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
     @Test
     void testLogout_Success() {
         doNothing().when(jwtTokenProvider).invalidateToken("Bearer mockToken");
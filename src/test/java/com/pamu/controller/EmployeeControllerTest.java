@@ -1,14 +1,39 @@
 package com.pamu.controller;
 
+import com.pamu.dto.BulkUpdateResult;
 import com.pamu.dto.EmployeeDTO;
+import com.pamu.dto.EmployeeFilterResult;
+import com.pamu.dto.EmployeeRequest;
+import com.pamu.dto.EmployeeSearchHit;
+import com.pamu.dto.GratuityLiabilityTotal;
+import com.pamu.dto.GroupAggregate;
+import com.pamu.dto.ImportSummary;
+import com.pamu.dto.SalaryInversion;
+import com.pamu.dto.TopEarners;
+import com.pamu.exception.EmployeeNotFoundException;
+import com.pamu.exception.GlobalExceptionHandler;
+import com.pamu.exception.ImportValidationException;
+import com.pamu.exception.InvalidEmployeeDataException;
+import com.pamu.exception.TooManyRequestsException;
 import com.pamu.model.Employee;
+import com.pamu.model.ExportArtifact;
+import com.pamu.service.EmployeeAggregationService;
+import com.pamu.service.EmployeeBulkUpdateService;
+import com.pamu.service.EmployeeFilterService;
+import com.pamu.service.EmployeeRankingService;
+import com.pamu.service.EmployeeReportStore;
+import com.pamu.service.EmployeeSalaryAuditService;
 import com.pamu.service.EmployeeService;
+import com.pamu.service.GratuityLiabilityJob;
+import com.pamu.service.ImportErrorReports;
+import com.pamu.service.PartitionedExportService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -18,6 +43,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -27,6 +53,8 @@ import java.io.FileInputStream;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -37,6 +65,33 @@ class EmployeeControllerTest {
     @Mock
     private EmployeeService employeeService;
 
+    @Mock
+    private EmployeeBulkUpdateService employeeBulkUpdateService;
+
+    @Mock
+    private ImportErrorReports importErrorReports;
+
+    @Mock
+    private PartitionedExportService partitionedExportService;
+
+    @Mock
+    private EmployeeAggregationService employeeAggregationService;
+
+    @Mock
+    private EmployeeFilterService employeeFilterService;
+
+    @Mock
+    private EmployeeRankingService employeeRankingService;
+
+    @Mock
+    private EmployeeSalaryAuditService employeeSalaryAuditService;
+
+    @Mock
+    private GratuityLiabilityJob gratuityLiabilityJob;
+
+    @Mock
+    private EmployeeReportStore employeeReportStore;
+
     @InjectMocks
     private EmployeeController employeeController;
 
@@ -69,7 +124,7 @@ class EmployeeControllerTest {
         emp1.setId(1L);
         emp1.setName("Ravi");
         when(employeeService.getGratuityEligibleEmployees()).thenReturn(List.of(emp1));
-        ResponseEntity<List<EmployeeDTO>> response = employeeController.getGratuityEligibleEmployees();
+        ResponseEntity<List<EmployeeDTO>> response = employeeController.getGratuityEligibleEmployees(null, 100);
         assertEquals(200, response.getStatusCodeValue());
         assertEquals(1, response.getBody().size());
         assertEquals("Ravi", response.getBody().get(0).getName());
@@ -84,15 +139,17 @@ class EmployeeControllerTest {
 
         // Prepare a temp file to simulate the processed file
         File tempFile = File.createTempFile("processed-employees", ".xlsx");
-        when(employeeService.processAndDownloadEmployees(any(MultipartFile.class))).thenReturn(tempFile);
+        when(employeeService.processAndDownloadEmployees(any(MultipartFile.class), eq(false)))
+                .thenReturn(new ExportArtifact(tempFile, "employees.xlsx", "\"abc\"", new FileSystemResource(tempFile)));
 
-        ResponseEntity<Resource> response = employeeController.processEmployeeFile(mockFile);
+        ResponseEntity<Resource> response = employeeController.processEmployeeFile(mockFile, "strict", false);
 
         assertNotNull(response);
         assertEquals(200, response.getStatusCodeValue());
         assertNotNull(response.getBody());
         assertTrue(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION).contains("employees.xlsx"));
         assertEquals("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", response.getHeaders().getContentType().toString());
+        assertEquals("\"abc\"", response.getHeaders().getETag());
         // Clean up
         tempFile.delete();
     }
@@ -103,13 +160,28 @@ class EmployeeControllerTest {
         emp1.setId(1L);
         emp1.setName("Ravi");
         when(employeeService.getEmployeesWithHigherSalaryThanManager()).thenReturn(List.of(emp1));
-        ResponseEntity<List<EmployeeDTO>> response = employeeController.getEmployeesWithHigherSalaryThanManager();
+        ResponseEntity<List<EmployeeDTO>> response = employeeController.getEmployeesWithHigherSalaryThanManager(null, 100);
         assertEquals(200, response.getStatusCodeValue());
         assertNotNull(response.getBody());
         assertEquals(1, response.getBody().size());
         assertEquals("Ravi", response.getBody().get(0).getName());
     }
 
+    @Test
+    void testGetGratuityEligibleEmployees_pagedReturnsTotalInHeader() {
+        EmployeeDTO emp1 = new EmployeeDTO();
+        emp1.setId(7L);
+        emp1.setName("Ravi");
+        when(employeeReportStore.page(EmployeeReportStore.Report.GRATUITY_ELIGIBLE, 2, 1))
+                .thenReturn(new EmployeeFilterResult(3, 2, 1, List.of(emp1)));
+
+        ResponseEntity<List<EmployeeDTO>> response = employeeController.getGratuityEligibleEmployees(2, 1);
+
+        assertEquals("3", response.getHeaders().getFirst("X-Total-Count"));
+        assertEquals(List.of(7L), response.getBody().stream().map(EmployeeDTO::getId).toList());
+        verify(employeeService, never()).getGratuityEligibleEmployees();
+    }
+
     @Test
     void testGetNthHighestSalary_returnsEmployeeDTO() {
         EmployeeDTO emp = new EmployeeDTO();
@@ -124,13 +196,204 @@ class EmployeeControllerTest {
     @Test
     void testGetEmployeeHierarchyByManager_returnsJsonResource() throws Exception {
         File tempJson = File.createTempFile("employee_hierarchy_", ".json");
-        when(employeeService.getEmployeeHierarchyByManager(1L)).thenReturn(tempJson);
-        ResponseEntity<Resource> response = employeeController.getEmployeeHierarchyByManager(1L);
+        when(employeeService.getEmployeeHierarchyByManager(1L))
+                .thenReturn(new ExportArtifact(tempJson, "employee_hierarchy_1.json", "\"v1\"", new FileSystemResource(tempJson)));
+        ResponseEntity<Resource> response = employeeController.getEmployeeHierarchyByManager(1L, null);
         assertEquals(200, response.getStatusCodeValue());
         assertNotNull(response.getBody());
-        assertTrue(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION).contains(tempJson.getName()));
+        assertTrue(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION).contains("employee_hierarchy_1.json"));
+        assertEquals("\"v1\"", response.getHeaders().getETag());
         tempJson.delete();
     }
 
+    @Test
+    void testGetEmployeeHierarchyByManager_matchingIfNoneMatchReturns304() throws Exception {
+        File tempJson = File.createTempFile("employee_hierarchy_", ".json");
+        when(employeeService.getEmployeeHierarchyByManager(1L))
+                .thenReturn(new ExportArtifact(tempJson, "employee_hierarchy_1.json", "\"v1\"", new FileSystemResource(tempJson)));
+        ResponseEntity<Resource> response = employeeController.getEmployeeHierarchyByManager(1L, "\"v0\", W/\"v1\"");
+        assertEquals(304, response.getStatusCodeValue());
+        assertNull(response.getBody());
+        assertEquals("\"v1\"", response.getHeaders().getETag());
+        tempJson.delete();
+    }
+
+    @Test
+    void testExportEmployees_staleIfNoneMatchReturnsFile() throws Exception {
+        File tempFile = File.createTempFile("employee-export", ".xlsx");
+        when(employeeService.exportEmployees()).thenReturn(new ExportArtifact(tempFile, "employees.xlsx", "\"v2\"", new FileSystemResource(tempFile)));
+        ResponseEntity<Resource> response = employeeController.exportEmployees("\"v1\"");
+        assertEquals(200, response.getStatusCodeValue());
+        assertNotNull(response.getBody());
+        assertEquals("\"v2\"", response.getHeaders().getETag());
+        tempFile.delete();
+    }
+
+    @Test
+    void testExportPartitioned_returnsZip() throws Exception {
+        File tempFile = File.createTempFile("employee-export-partitioned", ".zip");
+        when(partitionedExportService.exportPartitioned("city"))
+                .thenReturn(new ExportArtifact(tempFile, "employees-by-city.zip", "\"z1\"", new FileSystemResource(tempFile)));
+        ResponseEntity<Resource> response = employeeController.exportPartitioned("city", null);
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("application/zip", response.getHeaders().getContentType().toString());
+        assertEquals("\"z1\"", response.getHeaders().getETag());
+        tempFile.delete();
+    }
+
+    @Test
+    void testSearchEmployees_delegatesToService() {
+        List<EmployeeSearchHit> hits = List.of(new EmployeeSearchHit(1L, "Rama", "Hyderabad", "Telangana", "Director"));
+        when(employeeService.searchEmployees("ra", null, "Telangana", 5)).thenReturn(hits);
+        ResponseEntity<List<EmployeeSearchHit>> response = employeeController.searchEmployees("ra", null, "Telangana", 5);
+        assertEquals(200, response.getStatusCode().value());
+        assertSame(hits, response.getBody());
+    }
+
+    @Test
+    void testAggregateEmployees_delegatesToService() {
+        List<GroupAggregate> groups = List.of(new GroupAggregate(Map.of("state", "Telangana"), Map.of("headcount", 2L)));
+        when(employeeAggregationService.aggregate(List.of("state"), null)).thenReturn(groups);
+        ResponseEntity<List<GroupAggregate>> response = employeeController.aggregateEmployees(List.of("state"), null);
+        assertEquals(200, response.getStatusCode().value());
+        assertSame(groups, response.getBody());
+    }
+
+    @Test
+    void testFilterEmployees_delegatesToService() {
+        EmployeeFilterResult result = new EmployeeFilterResult(3, null, null, null);
+        when(employeeFilterService.filter("salary > 50000", 0, 20, true)).thenReturn(result);
+        ResponseEntity<EmployeeFilterResult> response = employeeController.filterEmployees("salary > 50000", 0, 20, true);
+        assertEquals(200, response.getStatusCode().value());
+        assertSame(result, response.getBody());
+    }
+
+    @Test
+    void testGetTopEarners_delegatesToService() {
+        List<TopEarners> groups = List.of(new TopEarners(789L, "Rama", null, List.of()));
+        when(employeeRankingService.topEarners("subtree", 3, "789")).thenReturn(groups);
+        ResponseEntity<List<TopEarners>> response = employeeController.getTopEarners("subtree", 3, "789");
+        assertEquals(200, response.getStatusCode().value());
+        assertSame(groups, response.getBody());
+    }
+
+    @Test
+    void testGetSalaryInversions_delegatesToService() {
+        List<SalaryInversion> inversions = List.of(new SalaryInversion(new EmployeeDTO(), 789L, "Rama", 100.0, 2, 50.0, false));
+        when(employeeSalaryAuditService.findSalaryInversions(789L)).thenReturn(inversions);
+        ResponseEntity<List<SalaryInversion>> response = employeeController.getSalaryInversions(789L);
+        assertEquals(200, response.getStatusCode().value());
+        assertSame(inversions, response.getBody());
+    }
+
+    @Test
+    void testGetGratuityLiabilityTotals_delegatesToJob() {
+        List<GratuityLiabilityTotal> totals = List.of(new GratuityLiabilityTotal(null, null, "manager", 3, 2, 1000.0, null));
+        when(gratuityLiabilityJob.totals("category")).thenReturn(totals);
+        ResponseEntity<List<GratuityLiabilityTotal>> response = employeeController.getGratuityLiabilityTotals("category");
+        assertEquals(200, response.getStatusCode().value());
+        assertSame(totals, response.getBody());
+    }
+
+    @Test
+    void testStreamEmployees_returnsNdjsonBodyBackedByService() throws Exception {
+        ResponseEntity<org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody> response = employeeController.streamEmployees();
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        verify(employeeService).streamEmployeesAsNdjson(out);
+    }
+
     // Add more tests for other controller methods as needed
+
+    @Test
+    void testCreateUpdateDeleteEmployee() {
+        EmployeeRequest request = new EmployeeRequest(7L, "Sneha", "Pune", "Maharashtra", "employee", 50000.0, null, 1L);
+        EmployeeDTO dto = new EmployeeDTO(7L, "Sneha", 50000.0, "employee", null, 1L);
+        when(employeeService.createEmployee(request)).thenReturn(dto);
+        when(employeeService.updateEmployee(7L, request)).thenReturn(dto);
+
+        ResponseEntity<EmployeeDTO> created = employeeController.createEmployee(request);
+        assertEquals(201, created.getStatusCode().value());
+        assertEquals("/api/employees/7", created.getHeaders().getLocation().toString());
+        assertSame(dto, created.getBody());
+
+        ResponseEntity<EmployeeDTO> updated = employeeController.updateEmployee(7L, request);
+        assertEquals(200, updated.getStatusCode().value());
+
+        ResponseEntity<Void> deleted = employeeController.deleteEmployee(7L);
+        assertEquals(204, deleted.getStatusCode().value());
+        verify(employeeService).deleteEmployee(7L);
+    }
+
+    @Test
+    void testProcessEmployeeFile_lenientModeReportsCountsAndErrorReportLink() throws Exception {
+        MultipartFile mockFile = mock(MultipartFile.class);
+        ByteArrayInputStream upload = spy(new ByteArrayInputStream(new byte[]{1}));
+        when(mockFile.getInputStream()).thenReturn(upload);
+        File tempFile = File.createTempFile("processed-employees", ".xlsx");
+        when(employeeService.importEmployeeDataLeniently(any())).thenReturn(new ImportSummary(50, 2, "r1"));
+        when(employeeService.exportEmployees())
+                .thenReturn(new ExportArtifact(tempFile, "employees.xlsx", "\"v3\"", new FileSystemResource(tempFile)));
+
+        ResponseEntity<Resource> response = employeeController.processEmployeeFile(mockFile, "lenient", false);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("50", response.getHeaders().getFirst("X-Import-Imported"));
+        assertEquals("2", response.getHeaders().getFirst("X-Import-Rejected"));
+        assertEquals("/api/employees/import-errors/r1", response.getHeaders().getFirst("X-Import-Error-Report"));
+        verify(employeeService).importEmployeeDataLeniently(upload);
+        verify(upload).close();
+        verify(employeeService, never()).processAndDownloadEmployees(any(), anyBoolean());
+        assertThrows(InvalidEmployeeDataException.class, () -> employeeController.processEmployeeFile(mockFile, "partial", false));
+        tempFile.delete();
+    }
+
+    @Test
+    void testDownloadImportErrors_returnsCsvOr404() throws Exception {
+        File report = File.createTempFile("import-errors", ".csv");
+        when(importErrorReports.find("r1"))
+                .thenReturn(Optional.of(new ExportArtifact(report, "import-errors-r1.csv", "\"r1\"", new FileSystemResource(report))));
+        when(importErrorReports.find("gone")).thenReturn(Optional.empty());
+
+        ResponseEntity<Resource> found = employeeController.downloadImportErrors("r1");
+        assertEquals(200, found.getStatusCode().value());
+        assertEquals("text/csv", found.getHeaders().getContentType().toString());
+        assertEquals(404, employeeController.downloadImportErrors("gone").getStatusCode().value());
+        report.delete();
+    }
+
+    @Test
+    void testBulkUpdateEmployees_passesBodyToService() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("PATCH", "/api/employees");
+        request.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        request.setContent("{\"id\":1,\"salary\":1000}\n".getBytes());
+        BulkUpdateResult result = new BulkUpdateResult(1, 0, List.of());
+        when(employeeBulkUpdateService.applyPatches(any())).thenReturn(result);
+
+        ResponseEntity<BulkUpdateResult> response = employeeController.bulkUpdateEmployees(request);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertSame(result, response.getBody());
+        verify(employeeBulkUpdateService).applyPatches(any());
+    }
+
+    @Test
+    void testExceptionHandlerMapsDomainErrors() {
+        GlobalExceptionHandler handler = new GlobalExceptionHandler();
+        assertEquals(404, handler.handleNotFound(new EmployeeNotFoundException("Employee with ID 9 not found.")).getStatusCode().value());
+        ResponseEntity<java.util.Map<String, String>> invalid = handler.handleInvalidData(new InvalidEmployeeDataException("Employee name is required"));
+        assertEquals(400, invalid.getStatusCode().value());
+        assertEquals("Employee name is required", invalid.getBody().get("error"));
+        ResponseEntity<java.util.Map<String, Object>> rejected = handler.handleImportValidation(
+                new ImportValidationException(List.of("Row 3: duplicate employee ID 2 (first used in row 2)"), 1));
+        assertEquals(400, rejected.getStatusCode().value());
+        assertEquals(1, rejected.getBody().get("totalViolations"));
+        assertEquals(List.of("Row 3: duplicate employee ID 2 (first used in row 2)"), rejected.getBody().get("violations"));
+        ResponseEntity<java.util.Map<String, String>> throttled = handler.handleTooManyRequests(
+                new TooManyRequestsException("Too many imports are waiting. Please retry later.", 5));
+        assertEquals(429, throttled.getStatusCode().value());
+        assertEquals("5", throttled.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
 }
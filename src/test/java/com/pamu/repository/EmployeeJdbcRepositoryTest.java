@@ -0,0 +1,232 @@
+package com.pamu.repository;
+
+import com.pamu.dto.GratuityLiabilityTotal;
+import com.pamu.exception.InvalidEmployeeDataException;
+import com.pamu.model.Employee;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(EmployeeJdbcRepository.class)
+@ExtendWith(SpringExtension.class)
+class EmployeeJdbcRepositoryTest {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeJdbcRepository employeeJdbcRepository;
+
+    @Test
+    @DisplayName("Should stream every employee row in id order")
+    void testStreamAll() {
+        Employee manager = new Employee();
+        manager.setId(2L);
+        manager.setName("Shivam");
+        manager.setSalary(75000.0);
+        manager.setDoj(LocalDate.of(2022, 7, 5));
+        Employee emp = new Employee();
+        emp.setId(1L);
+        emp.setName("Ravi");
+        emp.setSalary(45000.0);
+        emp.setManager(manager);
+        employeeRepository.save(manager);
+        employeeRepository.save(emp);
+        employeeRepository.flush();
+
+        List<String> rows = new ArrayList<>();
+        employeeJdbcRepository.streamAll(rs -> rows.add(rs.getLong("id") + ":" + rs.getString("name") + ":" + rs.getObject("manager_id")));
+
+        assertEquals(List.of("1:Ravi:2", "2:Shivam:null"), rows);
+    }
+
+    @Test
+    @DisplayName("Should read back only the requested employee rows")
+    void testStreamByIds() {
+        for (long id = 1; id <= 3; id++) {
+            Employee employee = new Employee();
+            employee.setId(id);
+            employee.setName("Employee " + id);
+            employeeRepository.save(employee);
+        }
+        employeeRepository.flush();
+
+        List<Long> ids = new ArrayList<>();
+        employeeJdbcRepository.streamByIds(List.of(3L, 1L, 9L), rs -> ids.add(rs.getLong("id")));
+
+        ids.sort(null);
+        assertEquals(List.of(1L, 3L), ids);
+    }
+
+    @Test
+    @DisplayName("Closure rows answer subtree, ancestor and headcount queries and follow manager changes")
+    void testClosureMaintenance() {
+        // 1 -> {2, 3}, 2 -> 4, 4 -> 5
+        Employee root = employee(1L, null);
+        Employee two = employee(2L, root);
+        Employee three = employee(3L, root);
+        Employee four = employee(4L, two);
+        Employee five = employee(5L, four);
+        employeeRepository.saveAll(List.of(root, two, three, four, five));
+        employeeRepository.flush();
+        employeeJdbcRepository.refreshClosure(List.of(1L, 2L, 3L, 4L, 5L));
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), ids(employeeRepository.findSubtree(1L, Integer.MAX_VALUE)));
+        assertEquals(List.of(1L, 2L, 3L), ids(employeeRepository.findSubtree(1L, 1)));
+        assertEquals(List.of(4L, 2L, 1L), ids(employeeRepository.findAncestors(5L)));
+        List<String> headcount = employeeRepository.countSubtreeByDepth(1L).stream()
+                .map(row -> row.getDepth() + ":" + row.getHeadcount())
+                .toList();
+        assertEquals(List.of("0:1", "1:2", "2:1", "3:1"), headcount);
+
+        // Move 4 (and 5 with it) under 3
+        four.setManager(three);
+        employeeRepository.saveAndFlush(four);
+        employeeJdbcRepository.moveSubtree(4L, 3L);
+        assertEquals(List.of(4L, 3L, 1L), ids(employeeRepository.findAncestors(5L)));
+        assertEquals(List.of(2L), ids(employeeRepository.findSubtree(2L, Integer.MAX_VALUE)));
+        assertThrows(InvalidEmployeeDataException.class, () -> employeeJdbcRepository.moveSubtree(3L, 5L));
+
+        // Re-parenting through the column and refreshing only the changed employee updates its reports too
+        three.setManager(two);
+        employeeRepository.saveAndFlush(three);
+        employeeJdbcRepository.refreshClosure(List.of(3L));
+        assertEquals(List.of(4L, 3L, 2L, 1L), ids(employeeRepository.findAncestors(5L)));
+        assertEquals(List.of(2L, 3L, 4L, 5L), ids(employeeRepository.findSubtree(2L, Integer.MAX_VALUE)));
+    }
+
+    @Test
+    @DisplayName("Refreshing the closure rejects a reporting cycle")
+    void testRefreshClosureRejectsCycle() {
+        Employee one = employee(1L, null);
+        Employee two = employee(2L, one);
+        employeeRepository.saveAll(List.of(one, two));
+        employeeRepository.flush();
+        one.setManager(two);
+        employeeRepository.saveAndFlush(one);
+
+        assertThrows(IllegalStateException.class, () -> employeeJdbcRepository.refreshClosure(List.of(1L, 2L)));
+    }
+
+    @Test
+    @DisplayName("Batch updates change salaries and managers, and a refresh moves the closure rows with them")
+    void testBatchUpdates() {
+        Employee root = employee(1L, null);
+        Employee two = employee(2L, root);
+        Employee three = employee(3L, two);
+        employeeRepository.saveAll(List.of(root, two, three));
+        employeeRepository.flush();
+        employeeJdbcRepository.refreshClosure(List.of(1L, 2L, 3L));
+
+        employeeJdbcRepository.batchUpdateSalaries(Map.of(1L, 90000.0, 3L, 30000.0));
+        Map<Long, Long> managers = new HashMap<>();
+        managers.put(3L, 1L);
+        managers.put(2L, null);
+        employeeJdbcRepository.batchUpdateManagers(managers);
+        employeeJdbcRepository.refreshClosure(managers.keySet());
+
+        Map<Long, Long> managerOf = employeeJdbcRepository.loadManagerIds();
+        assertEquals(1L, managerOf.get(3L));
+        assertNull(managerOf.get(2L));
+        assertTrue(managerOf.containsKey(2L));
+        assertEquals(List.of(1L), ids(employeeRepository.findAncestors(3L)));
+        assertEquals(List.of(2L), ids(employeeRepository.findSubtree(2L, Integer.MAX_VALUE)));
+        List<Double> salaries = new ArrayList<>();
+        employeeJdbcRepository.streamAll(rs -> salaries.add(rs.getDouble("salary")));
+        assertEquals(List.of(90000.0, 40002.0, 30000.0), salaries);
+    }
+
+    @Test
+    @DisplayName("Gratuity runs rewrite only the given rows, are logged, and are totalled per manager and per category")
+    void testGratuityRunsAndTotals() {
+        Employee root = employee(1L, null);
+        Employee two = employee(2L, root);
+        employeeRepository.saveAll(List.of(root, two));
+        employeeRepository.flush();
+        LocalDate today = LocalDate.of(2024, 6, 1);
+        // employee_id, manager_id, category, eligible, amount
+        employeeJdbcRepository.saveGratuityRun(today, List.of(), liabilities(new Object[][]{
+                {1L, null, "Director", true, 1000.0},
+                {2L, 1L, "employee", true, 250.5},
+                {3L, 1L, "employee", false, 0.0},
+                {4L, 1L, null, true, 100.25}}), 4, 3, 1350.75);
+
+        List<GratuityLiabilityTotal> byManager = employeeJdbcRepository.gratuityLiabilityByManager();
+        assertEquals(2, byManager.size());
+        assertEquals(1L, byManager.get(0).getManagerId());
+        assertEquals("Employee 1", byManager.get(0).getManagerName());
+        assertEquals(3, byManager.get(0).getEmployees());
+        assertEquals(2, byManager.get(0).getEligibleEmployees());
+        assertEquals(350.75, byManager.get(0).getAmount());
+        assertEquals(today, byManager.get(0).getComputedOn());
+        assertNull(byManager.get(1).getManagerId());
+
+        List<GratuityLiabilityTotal> byCategory = employeeJdbcRepository.gratuityLiabilityByCategory();
+        assertEquals(Arrays.asList("Director", "employee", null), byCategory.stream().map(GratuityLiabilityTotal::getCategory).toList());
+        assertEquals(250.5, byCategory.get(1).getAmount());
+
+        // The next run drops employee 4, rewrites employee 3 and leaves the rest alone
+        employeeJdbcRepository.saveGratuityRun(today.plusDays(1), List.of(3L, 4L), liabilities(new Object[][]{
+                {3L, 1L, "employee", true, 40.0}}), 3, 3, 1290.5);
+        byCategory = employeeJdbcRepository.gratuityLiabilityByCategory();
+        assertEquals(List.of("Director", "employee"), byCategory.stream().map(GratuityLiabilityTotal::getCategory).toList());
+        assertEquals(290.5, byCategory.get(1).getAmount());
+        assertEquals(2, byCategory.get(1).getEligibleEmployees());
+        assertEquals(today.plusDays(1), byCategory.get(1).getComputedOn());
+
+        List<String> stored = new ArrayList<>();
+        employeeJdbcRepository.streamGratuityLiabilities(rs -> stored.add(rs.getLong(1) + ":" + rs.getDouble(7)));
+        assertEquals(List.of("1:1000.0", "2:250.5", "3:40.0"), stored);
+    }
+
+    private static BatchPreparedStatementSetter liabilities(Object[][] rows) {
+        return new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                statement.setLong(1, (Long) rows[i][0]);
+                statement.setObject(2, rows[i][1], Types.BIGINT);
+                statement.setString(3, (String) rows[i][2]);
+                statement.setDouble(4, 50000.0);
+                statement.setInt(5, 6);
+                statement.setBoolean(6, (Boolean) rows[i][3]);
+                statement.setDouble(7, (Double) rows[i][4]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.length;
+            }
+        };
+    }
+
+    private static Employee employee(Long id, Employee manager) {
+        Employee emp = new Employee();
+        emp.setId(id);
+        emp.setName("Employee " + id);
+        emp.setSalary(40000.0 + id);
+        emp.setManager(manager);
+        return emp;
+    }
+
+    private static List<Long> ids(List<Employee> employees) {
+        return employees.stream().map(Employee::getId).toList();
+    }
+}
@@ -1,5 +1,6 @@
 package com.pamu.repository;
 
+import com.pamu.dto.EmployeeHierarchyRow;
 import com.pamu.model.Employee;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -33,7 +34,7 @@ class EmployeeRepositoryTest {
         emp.setSalary(45000.0);
         emp.setDoj(LocalDate.of(2023, 6, 4));
         Employee saved = employeeRepository.save(emp);
-        Optional<Employee> found = employeeRepository.findById(Math.toIntExact(saved.getId()));
+        Optional<Employee> found = employeeRepository.findById(saved.getId());
         assertTrue(found.isPresent());
         assertEquals("Ravi", found.get().getName());
     }
@@ -62,5 +63,59 @@ class EmployeeRepositoryTest {
         List<Employee> all = employeeRepository.findAll();
         assertTrue(all.size() >= 2);
     }
-}
 
+    @Test
+    @DisplayName("Should rank salaries highest first, ties by ID, leaving out employees without a salary")
+    void testFindNthHighestSalary() {
+        List<Employee> employees = new java.util.ArrayList<>();
+        Double[] salaries = {null, 50000.0, 70000.0, 50000.0};
+        for (int i = 0; i < salaries.length; i++) {
+            Employee employee = new Employee();
+            employee.setId(i + 1L);
+            employee.setName("Employee " + (i + 1));
+            employee.setSalary(salaries[i]);
+            employees.add(employee);
+        }
+        employeeRepository.saveAll(employees);
+        employeeRepository.flush();
+
+        assertEquals(3L, employeeRepository.findNthHighestSalary(0).getId());
+        assertEquals(2L, employeeRepository.findNthHighestSalary(1).getId());
+        assertEquals(4L, employeeRepository.findNthHighestSalary(2).getId());
+        assertNull(employeeRepository.findNthHighestSalary(3));
+    }
+
+    @Test
+    @DisplayName("Should fetch only the subtree below a manager, bounded by depth")
+    void testFindSubtreeRows() {
+        Employee director = new Employee();
+        director.setId(1L);
+        director.setName("Rama");
+        director.setCategory("Director");
+        Employee manager = new Employee();
+        manager.setId(2L);
+        manager.setName("Shivam");
+        manager.setCategory("manager");
+        manager.setManager(director);
+        Employee emp = new Employee();
+        emp.setId(3L);
+        emp.setName("Ravi");
+        emp.setCategory("employee");
+        emp.setManager(manager);
+        Employee other = new Employee();
+        other.setId(4L);
+        other.setName("Sneha");
+        other.setManager(director);
+        employeeRepository.saveAll(List.of(director, manager, emp, other));
+        employeeRepository.flush();
+
+        List<EmployeeHierarchyRow> subtree = employeeRepository.findSubtreeRows(2L, Integer.MAX_VALUE);
+        assertEquals(List.of(2L, 3L), subtree.stream().map(EmployeeHierarchyRow::getId).toList());
+        assertEquals(1L, subtree.get(0).getManagerId());
+        assertEquals("Ravi", subtree.get(1).getName());
+        assertEquals("employee", subtree.get(1).getCategory());
+
+        assertEquals(List.of(1L, 2L, 4L), employeeRepository.findSubtreeRows(1L, 1).stream()
+                .map(EmployeeHierarchyRow::getId).toList());
+    }
+}
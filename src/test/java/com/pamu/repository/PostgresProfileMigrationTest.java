@@ -0,0 +1,169 @@
+package com.pamu.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the postgres profile against embedded H2 in PostgreSQL compatibility mode: the schema comes from the
+ * Flyway migrations and Hibernate only validates it. The plan tests run EXPLAIN on the SQL the
+ * repositories send for the hot queries and check that each one is answered from its index rather than a table scan.
+ */
+@DataJpaTest
+@Import(EmployeeJdbcRepository.class)
+@ActiveProfiles("postgres")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:pgcompat;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=sa",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.pamu.repository.PostgresProfileMigrationTest$IssuedStatements"
+})
+@ExtendWith(SpringExtension.class)
+class PostgresProfileMigrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeJdbcRepository employeeJdbcRepository;
+
+    @BeforeEach
+    void setUp() {
+        // Enough rows that an index lookup is clearly cheaper than scanning the table
+        List<Object[]> rows = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 2000; id++) {
+            ids.add(id);
+            rows.add(new Object[]{id, "Employee " + id, 30000.0 + id, Date.valueOf(LocalDate.of(2010, 1, 1).plusDays(id)),
+                    id == 1 ? null : (id - 1) / 10 + 1});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO employees (id, name, salary, doj, manager_id) VALUES (?, ?, ?, ?, ?)", rows);
+        employeeJdbcRepository.refreshClosure(ids);
+    }
+
+    @Test
+    @DisplayName("Migrations create the schema and seed the default users")
+    void testMigrationsSeedUsers() {
+        assertTrue(userRepository.findByUsername("admin").isPresent());
+        assertEquals(0, userRepository.findByUsername("employee1").orElseThrow().getCredentialVersion());
+    }
+
+    @Test
+    @DisplayName("Constraints reject unknown managers and self-management")
+    void testConstraints() {
+        assertThrows(DataIntegrityViolationException.class, () ->
+                jdbcTemplate.update("INSERT INTO employees (id, name, manager_id) VALUES (5000, 'Orphan', 9999)"));
+        assertThrows(DataIntegrityViolationException.class, () ->
+                jdbcTemplate.update("INSERT INTO employees (id, name, manager_id) VALUES (5001, 'Self', 5001)"));
+    }
+
+    @Test
+    @DisplayName("Direct reports of a manager are looked up through the manager_id index")
+    void testDirectReportsUseManagerIndex() {
+        IssuedStatements.SQL.clear();
+        employeeRepository.findByManagerId(42L);
+        String issued = IssuedStatements.SQL.stream().filter(sql -> sql.startsWith("select")).findFirst().orElseThrow();
+        assertPlanUses("idx_employees_manager_id", jdbcTemplate.queryForObject("EXPLAIN " + issued, String.class, 42L));
+    }
+
+    @Test
+    @DisplayName("Nth highest salary reads the salary index in order instead of sorting")
+    void testNthHighestSalaryUsesSalaryIndex() {
+        String plan = assertPlanUses("idx_employees_salary", explain(queryOf("findNthHighestSalary"), Map.of("n", 4)));
+        assertTrue(plan.contains("index sorted"), plan);
+    }
+
+    @Test
+    @DisplayName("The recursive subtree query seeks the root by key and each level through the manager_id index")
+    void testSubtreeRowsUseManagerIndex() {
+        // H2 does not print the plans inside a recursive CTE, so its two members are explained on their own, with
+        // the rows found so far in a temporary table of the same name
+        Matcher members = Pattern.compile("AS \\((.*) UNION ALL (.*)\\) SELECT").matcher(queryOf("findSubtreeRows"));
+        assertTrue(members.find());
+        jdbcTemplate.execute("CREATE LOCAL TEMPORARY TABLE subtree (id BIGINT, manager_id BIGINT, name VARCHAR(255), "
+                + "category VARCHAR(255), depth INT) TRANSACTIONAL");
+        jdbcTemplate.update("INSERT INTO subtree VALUES (42, 5, 'Employee 42', NULL, 0)");
+        Map<String, Object> parameters = Map.of("managerId", 42L, "maxDepth", Integer.MAX_VALUE);
+        assertPlanUses("primary_key", explain(members.group(1), parameters));
+        String plan = assertPlanUses("idx_employees_manager_id", explain(members.group(2), parameters));
+        assertFalse(plan.contains("employees.tableScan"), plan);
+    }
+
+    @Test
+    @DisplayName("Subtree and ancestor lookups are range scans on the closure table")
+    void testClosureLookupsUseIndexes() {
+        assertEquals(4, jdbcTemplate.queryForObject(
+                "SELECT MAX(depth) FROM employee_closure WHERE ancestor_id = 1", Integer.class));
+        // H2 gives the ancestor foreign key its own index instead of reusing the primary key; either one is a seek
+        for (String method : List.of("findSubtree", "countSubtreeByDepth")) {
+            String plan = explain(queryOf(method), Map.of("managerId", 42L, "maxDepth", 3));
+            assertFalse(plan.contains("tableScan"), plan);
+            assertTrue(plan.contains("ancestor_id = ?1"), plan);
+        }
+        assertPlanUses("idx_employee_closure_descendant", explain(queryOf("findAncestors"), Map.of("employeeId", 1999L)));
+    }
+
+    // The query string a repository method sends, so the plans follow any change to it
+    private static String queryOf(String method) {
+        return Arrays.stream(EmployeeRepository.class.getDeclaredMethods())
+                .filter(m -> m.getName().equals(method))
+                .findFirst().orElseThrow()
+                .getAnnotation(Query.class).value();
+    }
+
+    private String explain(String query, Map<String, ?> parameters) {
+        return new NamedParameterJdbcTemplate(jdbcTemplate).queryForObject(
+                "EXPLAIN " + query, new MapSqlParameterSource(parameters), String.class);
+    }
+
+    private String assertPlanUses(String index, String plan) {
+        assertNotNull(plan);
+        assertTrue(plan.toLowerCase().contains(index), plan);
+        return plan;
+    }
+
+    // Records the SQL Hibernate generates for JPQL queries, which is what the database actually plans
+    public static class IssuedStatements implements StatementInspector {
+        static final List<String> SQL = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            SQL.add(sql);
+            return sql;
+        }
+    }
+}
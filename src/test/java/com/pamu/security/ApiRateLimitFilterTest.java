@@ -0,0 +1,89 @@
+package com.pamu.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ApiRateLimitFilterTest {
+
+    @Mock
+    private ApiRateLimiter apiRateLimiter;
+    @Mock
+    private FilterChain filterChain;
+
+    @InjectMocks
+    private ApiRateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        SecurityContextHolder.clearContext();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testDoFilter_admittedRequestContinues() throws ServletException, IOException {
+        authenticate("alice");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/employees/employees");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        when(apiRateLimiter.tryAcquire("alice", "/api/employees/employees")).thenReturn(0L);
+
+        filter.doFilter(request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    void testDoFilter_throttledRequestGets429WithRetryAfter() throws ServletException, IOException {
+        authenticate("alice");
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/employees/process");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        when(apiRateLimiter.tryAcquire("alice", "/api/employees/process")).thenReturn(4L);
+
+        filter.doFilter(request, response, filterChain);
+
+        verify(filterChain, never()).doFilter(any(), any());
+        assertEquals(429, response.getStatus());
+        assertEquals("4", response.getHeader("Retry-After"));
+        assertEquals(ApiRateLimitFilter.THROTTLED_BODY, response.getContentAsString());
+    }
+
+    @Test
+    void testDoFilter_unauthenticatedAndLoginRequestsAreNotCounted() throws ServletException, IOException {
+        MockHttpServletRequest anonymous = new MockHttpServletRequest("GET", "/api/employees/employees");
+        filter.doFilter(anonymous, new MockHttpServletResponse(), filterChain);
+
+        authenticate("alice");
+        MockHttpServletRequest login = new MockHttpServletRequest("POST", "/api/auth/login");
+        filter.doFilter(login, new MockHttpServletResponse(), filterChain);
+
+        verify(apiRateLimiter, never()).tryAcquire(anyString(), anyString());
+        verify(filterChain, times(2)).doFilter(any(), any());
+    }
+
+    private static void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+}
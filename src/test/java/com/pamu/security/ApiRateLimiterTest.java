@@ -0,0 +1,80 @@
+package com.pamu.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApiRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private ApiRateLimiter limiter;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        limiter = new ApiRateLimiter();
+        limiter.meterRegistry = meterRegistry;
+        limiter.clock = clock::get;
+        ReflectionTestUtils.setField(limiter, "capacity", 10L);
+        ReflectionTestUtils.setField(limiter, "refillPerSecond", 1.0);
+        ReflectionTestUtils.setField(limiter, "costs", new String[]{
+                "/api/employees/process=8", " /api/employees/hierarchy/download/**=4"});
+        limiter.init();
+    }
+
+    @Test
+    void testTryAcquire_takesTheCostOfTheFirstMatchingPattern() {
+        assertEquals(0, limiter.tryAcquire("alice", "/api/employees/process"));
+        assertEquals(0, limiter.tryAcquire("alice", "/api/employees/employees"));
+        // 1 token left, a download costs 4: three seconds of refill
+        assertEquals(3, limiter.tryAcquire("alice", "/api/employees/hierarchy/download/789"));
+        assertEquals(0, limiter.tryAcquire("alice", "/api/employees/employees"));
+
+        clock.addAndGet(4_000_000_000L);
+        assertEquals(0, limiter.tryAcquire("alice", "/api/employees/hierarchy/download/456"));
+    }
+
+    @Test
+    void testTryAcquire_keepsOneBucketPerUser() {
+        assertEquals(0, limiter.tryAcquire("alice", "/api/employees/process"));
+        assertTrue(limiter.tryAcquire("alice", "/api/employees/process") > 0);
+
+        assertEquals(0, limiter.tryAcquire("bob", "/api/employees/process"));
+    }
+
+    @Test
+    void testTryAcquire_countsOutcomesPerPattern() {
+        limiter.tryAcquire("alice", "/api/employees/process");
+        limiter.tryAcquire("alice", "/api/employees/process");
+        limiter.tryAcquire("alice", "/api/employees/employees");
+
+        assertEquals(1, meterRegistry.get("api.rate-limit.requests")
+                .tags("endpoint", "/api/employees/process", "outcome", "admitted").counter().count());
+        assertEquals(1, meterRegistry.get("api.rate-limit.requests")
+                .tags("endpoint", "/api/employees/process", "outcome", "throttled").counter().count());
+        assertEquals(1, meterRegistry.get("api.rate-limit.requests")
+                .tags("endpoint", ApiRateLimiter.OTHER_ENDPOINTS, "outcome", "admitted").counter().count());
+    }
+
+    @Test
+    void testTryAcquire_admitsEverythingWhenDisabled() {
+        ReflectionTestUtils.setField(limiter, "enabled", false);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("alice", "/api/employees/process"));
+        }
+    }
+
+    @Test
+    void testInit_rejectsMalformedCosts() {
+        ApiRateLimiter misconfigured = new ApiRateLimiter();
+        misconfigured.meterRegistry = meterRegistry;
+        ReflectionTestUtils.setField(misconfigured, "costs", new String[]{"/api/employees/process"});
+        assertThrows(IllegalArgumentException.class, misconfigured::init);
+    }
+}
@@ -1,24 +1,34 @@
 package com.pamu.security;
 
+import com.pamu.service.CredentialVersionService;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.security.Key;
 import java.util.Date;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
 
 class JwtTokenProviderTest {
 
     private JwtTokenProvider jwtTokenProvider;
+    private CredentialVersionService credentialVersionService;
     private static final String SECRET_KEY = "testsecretkeytestsecretkeytestsecretkeytestsecretkey";
 
     @BeforeEach
     void setUp() {
         jwtTokenProvider = new JwtTokenProvider();
+        credentialVersionService = mock(CredentialVersionService.class);
+        when(credentialVersionService.isCurrent(anyString(), anyInt())).thenReturn(true);
+        ReflectionTestUtils.setField(jwtTokenProvider, "credentialVersionService", credentialVersionService);
         // If JwtTokenProvider allows setting SECRET_KEY, set it here for test predictability
         // Otherwise, ensure the test uses the same key as the provider
     }
@@ -56,4 +66,32 @@ class JwtTokenProviderTest {
         String invalidToken = "invalid.token.value";
         assertThrows(Exception.class, () -> jwtTokenProvider.extractUsername(invalidToken));
     }
+
+    @Test
+    void testGetAuthentication_buildsPrincipalFromClaims() {
+        com.pamu.model.User user = new com.pamu.model.User();
+        user.setUsername("testuser");
+        user.setRole("ROLE_ADMIN");
+        user.setCredentialVersion(3);
+        String token = jwtTokenProvider.generateToken(user);
+
+        Authentication authentication = jwtTokenProvider.getAuthentication(token);
+
+        com.pamu.model.User principal = (com.pamu.model.User) authentication.getPrincipal();
+        assertEquals("testuser", principal.getUsername());
+        assertEquals("ROLE_ADMIN", principal.getRole());
+        assertEquals(3, principal.getCredentialVersion());
+        assertTrue(authentication.getAuthorities().stream().anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority())));
+    }
+
+    @Test
+    void testValidateToken_staleCredentialVersion() {
+        com.pamu.model.User user = new com.pamu.model.User();
+        user.setUsername("testuser");
+        user.setCredentialVersion(1);
+        String token = jwtTokenProvider.generateToken(user);
+        when(credentialVersionService.isCurrent("testuser", 1)).thenReturn(false);
+
+        assertFalse(jwtTokenProvider.validateToken(token));
+    }
 }
@@ -0,0 +1,47 @@
+package com.pamu.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void testTryAcquire_allowsBurstUpToCapacity() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, 1, 100, clock::get);
+        assertEquals(0, limiter.tryAcquire("user", 1));
+        assertEquals(0, limiter.tryAcquire("user", 1));
+        assertEquals(0, limiter.tryAcquire("user", 1));
+        long waitNanos = limiter.tryAcquire("user", 1);
+        assertTrue(waitNanos > 0);
+        assertTrue(waitNanos <= 1_000_000_000L);
+    }
+
+    @Test
+    void testTryAcquire_refillsOverTime() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, 2, 100, clock::get);
+        assertEquals(0, limiter.tryAcquire("user", 2));
+        assertTrue(limiter.tryAcquire("user", 1) > 0);
+        clock.addAndGet(500_000_000L); // half a second refills one token
+        assertEquals(0, limiter.tryAcquire("user", 1));
+    }
+
+    @Test
+    void testTryAcquire_keysAreIndependent() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1, 100, clock::get);
+        assertEquals(0, limiter.tryAcquire("alice", 1));
+        assertTrue(limiter.tryAcquire("alice", 1) > 0);
+        assertEquals(0, limiter.tryAcquire("bob", 1));
+    }
+
+    @Test
+    void testTryAcquire_costAboveCapacityIsCapped() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(5, 1, 100, clock::get);
+        assertEquals(0, limiter.tryAcquire("user", 50));
+        assertTrue(limiter.tryAcquire("user", 1) > 0);
+    }
+}
@@ -0,0 +1,73 @@
+package com.pamu.service;
+
+import com.pamu.model.User;
+import com.pamu.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class CredentialVersionServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private CredentialVersionService credentialVersionService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testIsCurrent_rememberedUserDoesNotHitRepository() {
+        User user = new User();
+        user.setUsername("testuser");
+        user.setCredentialVersion(2);
+        credentialVersionService.remember(user);
+
+        assertTrue(credentialVersionService.isCurrent("testuser", 2));
+        assertFalse(credentialVersionService.isCurrent("testuser", 1));
+        verify(userRepository, never()).findByUsername(anyString());
+    }
+
+    @Test
+    void testIsCurrent_loadsOnceOnCacheMiss() {
+        User user = new User();
+        user.setUsername("testuser");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+
+        assertTrue(credentialVersionService.isCurrent("testuser", 0));
+        assertTrue(credentialVersionService.isCurrent("testuser", 0));
+        verify(userRepository, times(1)).findByUsername("testuser");
+    }
+
+    @Test
+    void testIsCurrent_unknownUser() {
+        when(userRepository.findByUsername("nouser")).thenReturn(Optional.empty());
+        assertFalse(credentialVersionService.isCurrent("nouser", 0));
+    }
+
+    @Test
+    void testBumpVersion_invalidatesPreviousVersion() {
+        User user = new User();
+        user.setUsername("testuser");
+        user.setCredentialVersion(0);
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        credentialVersionService.remember(user);
+
+        credentialVersionService.bumpVersion(user);
+
+        assertFalse(credentialVersionService.isCurrent("testuser", 0));
+        assertTrue(credentialVersionService.isCurrent("testuser", 1));
+    }
+}
@@ -0,0 +1,116 @@
+package com.pamu.service;
+
+import com.pamu.dto.GroupAggregate;
+import com.pamu.exception.InvalidEmployeeDataException;
+import com.pamu.model.Employee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class EmployeeAggregationServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Mock
+    private EmployeeColumnStore employeeColumnStore;
+
+    @InjectMocks
+    private EmployeeAggregationService service;
+
+    private EmployeeColumns columns;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        columns = EmployeeColumns.of(List.of(
+                employee(1L, "Hyderabad", "Telangana", "Director", 150000.0, TODAY.minusYears(10)),
+                employee(2L, "hyderabad ", "TELANGANA", "employee", 50000.0, TODAY.minusYears(2)),
+                employee(3L, "Pune", "Maharashtra", "employee", 40000.0, null),
+                employee(4L, "Warangal", "Telangana", "employee", null, TODAY.minusYears(4)),
+                employee(5L, null, null, "employee", 30000.0, TODAY.minusYears(1))), 0);
+        when(employeeColumnStore.current()).thenReturn(columns);
+    }
+
+    @Test
+    void testAggregate_groupsByStateAndCategoryWithMetrics() {
+        List<GroupAggregate> result = service.aggregate(List.of("state", "category"),
+                List.of("headcount", "payroll", "avgSalary", "maxSalary", "avgTenureYears"));
+
+        assertEquals(4, result.size());
+        // Values are matched ignoring case and blanks; the first spelling is reported, missing values sort last
+        assertEquals(Arrays.asList("Maharashtra", "Telangana", "Telangana", null),
+                result.stream().map(r -> r.getGroup().get("state")).toList());
+        GroupAggregate telanganaEmployees = result.get(2);
+        assertEquals("employee", telanganaEmployees.getGroup().get("category"));
+        assertEquals(2L, telanganaEmployees.getMetrics().get("headcount"));
+        assertEquals(50000.0, telanganaEmployees.getMetrics().get("payroll"));
+        assertEquals(50000.0, telanganaEmployees.getMetrics().get("avgSalary"));
+        assertEquals(3.0, (double) telanganaEmployees.getMetrics().get("avgTenureYears"), 0.01);
+        assertNull(result.get(0).getMetrics().get("avgTenureYears"));
+    }
+
+    @Test
+    void testAggregate_withoutGroupingGivesOneTotalWithDefaultMetrics() {
+        List<GroupAggregate> result = service.aggregate(null, null);
+
+        assertEquals(1, result.size());
+        assertEquals(Map.of(), result.get(0).getGroup());
+        assertEquals(List.of("headcount", "payroll", "avgTenureYears"), List.copyOf(result.get(0).getMetrics().keySet()));
+        assertEquals(5L, result.get(0).getMetrics().get("headcount"));
+        assertEquals(270000.0, result.get(0).getMetrics().get("payroll"));
+    }
+
+    @Test
+    void testAggregate_parallelAndSparseGroupingMatchSequentialDense() {
+        // More distinct cities than dense group numbers, so the combinations present are numbered instead
+        List<Employee> employees = new ArrayList<>();
+        for (long id = 1; id <= EmployeeAggregationService.DENSE_GROUPS + 5000; id++) {
+            employees.add(employee(id, "City " + id % (EmployeeAggregationService.DENSE_GROUPS + 1000),
+                    "State " + id % 7, id % 3 == 0 ? "manager" : "employee", 1000.0 + id % 100, TODAY.minusDays(id % 4000)));
+        }
+        EmployeeColumns large = EmployeeColumns.of(employees, 0);
+        List<EmployeeColumns.Attribute> byCity = List.of(EmployeeColumns.Attribute.CITY);
+        List<EmployeeAggregationService.Metric> metrics = List.of(EmployeeAggregationService.Metric.values());
+
+        List<GroupAggregate> sequential = service.aggregate(large, byCity, metrics, TODAY);
+        ReflectionTestUtils.setField(service, "parallelThreshold", 1);
+        List<GroupAggregate> parallel = service.aggregate(large, byCity, metrics, TODAY);
+        List<GroupAggregate> byState = service.aggregate(large, List.of(EmployeeColumns.Attribute.STATE), metrics, TODAY);
+
+        assertEquals(EmployeeAggregationService.DENSE_GROUPS + 1000, sequential.size());
+        assertEquals(sequential.toString(), parallel.toString());
+        assertEquals(7, byState.size());
+        assertEquals((long) employees.size(), byState.stream().mapToLong(r -> (long) r.getMetrics().get("headcount")).sum());
+    }
+
+    @Test
+    void testAggregate_rejectsUnknownOrRepeatedFieldsAndMetrics() {
+        assertThrows(InvalidEmployeeDataException.class, () -> service.aggregate(List.of("salary"), null));
+        assertThrows(InvalidEmployeeDataException.class, () -> service.aggregate(List.of("state", "STATE"), null));
+        assertThrows(InvalidEmployeeDataException.class, () -> service.aggregate(null, List.of("median")));
+    }
+
+    private static Employee employee(Long id, String city, String state, String category, Double salary, LocalDate doj) {
+        Employee employee = new Employee();
+        employee.setId(id);
+        employee.setName("Employee " + id);
+        employee.setCity(city);
+        employee.setState(state);
+        employee.setCategory(category);
+        employee.setSalary(salary);
+        employee.setDoj(doj);
+        return employee;
+    }
+}
@@ -0,0 +1,230 @@
+package com.pamu.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pamu.dto.BulkUpdateResult;
+import com.pamu.dto.EmployeeDTO;
+import com.pamu.dto.EmployeePatchOutcome;
+import com.pamu.exception.InvalidEmployeeDataException;
+import com.pamu.repository.EmployeeJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class EmployeeBulkUpdateServiceTest {
+
+    @Mock
+    private EmployeeJdbcRepository employeeJdbcRepository;
+
+    @InjectMocks
+    private EmployeeBulkUpdateService bulkUpdateService;
+
+    private final Map<Long, EmployeeDTO> committed = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        bulkUpdateService.objectMapper = new ObjectMapper();
+        bulkUpdateService.employeeColumnStore = new EmployeeColumnStore();
+        bulkUpdateService.employeeColumnStore.employeeDataVersion = new EmployeeDataVersion();
+        bulkUpdateService.employeeDirectory = new EmployeeDirectory();
+        // 1 -> {2, 3}, 2 -> 4, 4 -> 5
+        Map<Long, Long> managerOf = new HashMap<>();
+        managerOf.put(1L, null);
+        managerOf.put(2L, 1L);
+        managerOf.put(3L, 1L);
+        managerOf.put(4L, 2L);
+        managerOf.put(5L, 4L);
+        when(employeeJdbcRepository.loadManagerIds()).thenReturn(managerOf);
+        managerOf.forEach((id, managerId) -> committed.put(id,
+                new EmployeeDTO(id, "Employee " + id, 1000.0 * id, "employee", null, managerId)));
+        bulkUpdateService.employeeDirectory.load(committed.values());
+        bulkUpdateService.employeeDirectory.employeeJdbcRepository = employeeJdbcRepository;
+        // The batch updates change the committed rows that the directory reads back after commit
+        doAnswer(invocation -> {
+            invocation.<Map<Long, Double>>getArgument(0).forEach((id, salary) -> committed.get(id).setSalary(salary));
+            return null;
+        }).when(employeeJdbcRepository).batchUpdateSalaries(any());
+        doAnswer(invocation -> {
+            invocation.<Map<Long, Long>>getArgument(0).forEach((id, managerId) -> committed.get(id).setManagerId(managerId));
+            return null;
+        }).when(employeeJdbcRepository).batchUpdateManagers(any());
+        doAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Long id : ids) {
+                handler.processRow(resultSet(committed.get(id)));
+            }
+            return null;
+        }).when(employeeJdbcRepository).streamByIds(anyCollection(), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void testApplyPatches_appliesValidRowsAndRejectsInvalidOnes() {
+        String body = """
+                {"id": 5, "salary": 9000}
+                {"id": 3, "managerId": 2}
+                {"id": 42, "salary": 1}
+                {"id": 5, "salary": 1}
+                {"id": 2, "salary": -1}
+                {"id": 4, "managerId": 4}
+                {"id": 4, "managerId": 99}
+                {"id": 1}
+                {"salary": 5}
+                """;
+
+        BulkUpdateResult result = bulkUpdateService.applyPatches(stream(body));
+
+        assertEquals(2, result.getUpdated());
+        assertEquals(7, result.getRejected());
+        List<String> statuses = result.getOutcomes().stream().map(EmployeePatchOutcome::getStatus).toList();
+        assertEquals(List.of("UPDATED", "UPDATED", "REJECTED", "REJECTED", "REJECTED", "REJECTED", "REJECTED", "REJECTED", "REJECTED"), statuses);
+        assertEquals(3, result.getOutcomes().get(2).getRow());
+        assertTrue(result.getOutcomes().get(3).getMessage().contains("more than once"));
+        verify(employeeJdbcRepository).batchUpdateSalaries(Map.of(5L, 9000.0));
+        verify(employeeJdbcRepository).batchUpdateManagers(Map.of(3L, 2L));
+        verify(employeeJdbcRepository).refreshClosure(Set.of(3L));
+
+        EmployeeDirectory directory = bulkUpdateService.employeeDirectory;
+        assertEquals(5L, directory.nthHighestSalary(1).getId());
+        assertEquals(List.of(3L, 4L), directory.subtree(2L).getReportees().stream().map(node -> node.getId()).toList());
+    }
+
+    @Test
+    void testApplyPatches_rejectsMovesThatWouldFormACycle() {
+        // 2 under 5 closes 2 -> 4 -> 5 -> 2; 3 under 1 is a no-op move and the salary change on 1 is independent
+        String body = """
+                [{"id": 2, "managerId": 5}, {"id": 3, "managerId": 1, "salary": 10}, {"id": 1, "salary": 1}]
+                """;
+
+        BulkUpdateResult result = bulkUpdateService.applyPatches(stream(body));
+
+        assertEquals(EmployeePatchOutcome.REJECTED, result.getOutcomes().get(0).getStatus());
+        assertTrue(result.getOutcomes().get(0).getMessage().contains("cycle"));
+        assertEquals(2, result.getUpdated());
+        verify(employeeJdbcRepository).batchUpdateManagers(Map.of());
+    }
+
+    @Test
+    void testApplyPatches_rejectsOnlyTheMovesOnACycleFormedWithinTheRequest() {
+        // 4 under 3 and 3 under 4 form a cycle between themselves; 5 moving to the top is independent
+        String body = """
+                {"id": 4, "managerId": 3}
+                {"id": 3, "managerId": 4}
+                {"id": 5, "managerId": null}
+                """;
+
+        BulkUpdateResult result = bulkUpdateService.applyPatches(stream(body));
+
+        assertEquals(1, result.getUpdated());
+        assertEquals(EmployeePatchOutcome.REJECTED, result.getOutcomes().get(0).getStatus());
+        assertEquals(EmployeePatchOutcome.REJECTED, result.getOutcomes().get(1).getStatus());
+        Map<Long, Long> expected = new HashMap<>();
+        expected.put(5L, null);
+        verify(employeeJdbcRepository).batchUpdateManagers(expected);
+        assertNull(bulkUpdateService.employeeDirectory.subtree(5L).getManagerId());
+    }
+
+    @Test
+    void testApplyPatches_rejectsEveryIndependentCycleInTheBatch() {
+        // 3 and 5 swap, and 2 under 4 closes 2 -> 4 -> 2; the salary change on 1 is independent
+        String body = """
+                {"id": 3, "managerId": 5}
+                {"id": 5, "managerId": 3}
+                {"id": 2, "managerId": 4}
+                {"id": 1, "salary": 1}
+                """;
+
+        BulkUpdateResult result = bulkUpdateService.applyPatches(stream(body));
+
+        assertEquals(1, result.getUpdated());
+        assertEquals(3, result.getRejected());
+        for (int row = 0; row < 3; row++) {
+            assertTrue(result.getOutcomes().get(row).getMessage().contains("cycle"));
+        }
+        verify(employeeJdbcRepository).batchUpdateManagers(Map.of());
+    }
+
+    @Test
+    void testApplyPatches_rejectsACycleThatARejectedMoveLeavesBehind() {
+        // Rejecting the swap of 4 and 3 leaves 4 under 2 again, so moving 2 under 4 closes 2 -> 4 -> 2
+        String body = """
+                {"id": 4, "managerId": 3}
+                {"id": 3, "managerId": 4}
+                {"id": 2, "managerId": 4}
+                """;
+
+        BulkUpdateResult result = bulkUpdateService.applyPatches(stream(body));
+
+        assertEquals(0, result.getUpdated());
+        assertEquals(3, result.getRejected());
+        assertTrue(result.getOutcomes().get(2).getMessage().contains("cycle"));
+        verify(employeeJdbcRepository, never()).batchUpdateManagers(any());
+        assertEquals(1L, bulkUpdateService.employeeDirectory.subtree(2L).getManagerId());
+    }
+
+    @Test
+    void testApplyPatches_rejectsMovesIntoACycleAlreadyInTheData() {
+        // Two concurrent moves left 4 and 5 managing each other
+        Map<Long, Long> managerOf = new HashMap<>();
+        managerOf.put(1L, null);
+        managerOf.put(2L, 1L);
+        managerOf.put(3L, 1L);
+        managerOf.put(4L, 5L);
+        managerOf.put(5L, 4L);
+        when(employeeJdbcRepository.loadManagerIds()).thenReturn(managerOf);
+        // 3 under 5 runs into the cycle; 2 under 3 is fine once that is rejected; 1's salary is independent
+        String body = """
+                {"id": 3, "managerId": 5}
+                {"id": 2, "managerId": 3}
+                {"id": 1, "salary": 1}
+                """;
+
+        BulkUpdateResult result = bulkUpdateService.applyPatches(stream(body));
+
+        assertEquals(2, result.getUpdated());
+        assertEquals(EmployeePatchOutcome.REJECTED, result.getOutcomes().get(0).getStatus());
+        assertTrue(result.getOutcomes().get(0).getMessage().contains("existing reporting cycle"));
+        verify(employeeJdbcRepository).batchUpdateManagers(Map.of(2L, 3L));
+    }
+
+    @Test
+    void testApplyPatches_malformedBodyIsRejectedWithoutWriting() {
+        InvalidEmployeeDataException e = assertThrows(InvalidEmployeeDataException.class,
+                () -> bulkUpdateService.applyPatches(stream("{\"id\": 1, \"salary\": 5}\n{\"id\": ")));
+
+        assertTrue(e.getMessage().contains("row 2"));
+        verify(employeeJdbcRepository, never()).batchUpdateSalaries(any());
+    }
+
+    private static ResultSet resultSet(EmployeeDTO row) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("id")).thenReturn(row.getId());
+        when(rs.getString("name")).thenReturn(row.getName());
+        when(rs.getObject("salary", Double.class)).thenReturn(row.getSalary());
+        when(rs.getString("category")).thenReturn(row.getCategory());
+        when(rs.getObject("manager_id", Long.class)).thenReturn(row.getManagerId());
+        return rs;
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
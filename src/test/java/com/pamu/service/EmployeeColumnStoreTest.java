@@ -0,0 +1,146 @@
+package com.pamu.service;
+
+import com.pamu.model.Employee;
+import com.pamu.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class EmployeeColumnStoreTest {
+
+    @Mock
+    private EmployeeService employeeService;
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    private EmployeeColumnStore store;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        store = new EmployeeColumnStore();
+        store.employeeService = employeeService;
+        store.employeeDataVersion = new EmployeeDataVersion();
+        store.employeeDataVersion.cacheManager = new CaffeineCacheManager("allEmployees", "pagedEmployees");
+        store.employeeRepository = employeeRepository;
+        store.cacheManager = store.employeeDataVersion.cacheManager;
+    }
+
+    @Test
+    void testCurrent_buildsOncePerGeneration() {
+        Employee director = new Employee();
+        director.setId(1L);
+        director.setState("Telangana");
+        Employee report = new Employee();
+        report.setId(2L);
+        report.setState(" telangana");
+        report.setManager(director);
+        when(employeeService.getAllEmployeesFromCache()).thenReturn(List.of(director, report));
+
+        EmployeeColumns first = store.current();
+        assertSame(first, store.current());
+        assertEquals(2, first.size);
+        assertEquals(1L, first.managerIds[1]);
+        assertEquals(2, first.states.cardinality());
+        assertEquals(first.states.codes[0], first.states.codes[1]);
+        assertEquals(1, first.states.code("TELANGANA"));
+        assertTrue(Double.isNaN(first.salaries[0]));
+
+        store.employeeDataVersion.advance();
+        assertNotSame(first, store.current());
+        verify(employeeService, times(2)).getAllEmployeesFromCache();
+    }
+
+    @Test
+    void testPublishCommitted_swapsInTheNewSnapshotWithTheGeneration() {
+        Employee old = new Employee();
+        old.setId(1L);
+        when(employeeService.getAllEmployeesFromCache()).thenReturn(List.of(old));
+        EmployeeColumns previous = store.current();
+        Employee second = new Employee();
+        second.setId(2L);
+        Employee first = new Employee();
+        first.setId(1L);
+        when(employeeRepository.findAll()).thenReturn(List.of(second, first));
+
+        assertEquals(1, store.publishCommitted());
+
+        EmployeeColumns published = store.current();
+        assertNotSame(previous, published);
+        assertEquals(1, published.generation);
+        assertEquals(2, published.size);
+        assertEquals(1L, published.ids[0]);
+        // Readers after the swap neither rebuild the snapshot nor reload the employee list
+        verify(employeeService, times(1)).getAllEmployeesFromCache();
+        assertEquals(List.of(first, second),
+                store.cacheManager.getCache("allEmployees").get(SimpleKey.EMPTY).get());
+    }
+
+    @Test
+    void testPublishCommitted_leavesSnapshotToBeRebuiltWhenAnotherChangeAdvancedMeanwhile() {
+        Employee employee = new Employee();
+        employee.setId(1L);
+        when(employeeRepository.findAll()).thenAnswer(invocation -> {
+            // A single-employee edit commits while the import reads back its data
+            store.employeeDataVersion.advance();
+            return List.of(employee);
+        });
+        when(employeeService.getAllEmployeesFromCache()).thenReturn(List.of(employee));
+
+        assertEquals(2, store.publishCommitted());
+
+        assertNull(store.cacheManager.getCache("allEmployees").get(SimpleKey.EMPTY));
+        assertEquals(2, store.current().generation);
+        verify(employeeService, times(1)).getAllEmployeesFromCache();
+    }
+
+    @Test
+    void testPublishChanged_derivesTheSnapshotFromThePreviousOneAndTheChangedRows() {
+        Employee director = new Employee();
+        director.setId(1L);
+        director.setSalary(100.0);
+        Employee leaving = new Employee();
+        leaving.setId(2L);
+        Employee report = new Employee();
+        report.setId(3L);
+        report.setManager(leaving);
+        when(employeeService.getAllEmployeesFromCache()).thenReturn(List.of(director, leaving, report));
+        EmployeeColumns previous = store.current();
+        // 2 is deleted; its report moves up to the director and a new employee 4 joins
+        Employee moved = new Employee();
+        moved.setId(3L);
+        moved.setManager(director);
+        Employee joined = new Employee();
+        joined.setId(4L);
+        joined.setSalary(50.0);
+        when(employeeRepository.findAllById(any())).thenReturn(List.of(joined, moved));
+
+        assertEquals(1, store.publishChanged(List.of(2L, 3L, 4L)));
+
+        EmployeeColumns published = store.current();
+        assertEquals(1, published.generation);
+        assertArrayEquals(new long[]{1L, 3L, 4L}, published.ids);
+        assertEquals(1L, published.managerIds[1]);
+        assertEquals(50.0, published.salaries[2]);
+        assertSame(previous.employees.get(0), published.employees.get(0));
+        assertEquals(published.employees, store.cacheManager.getCache("allEmployees").get(SimpleKey.EMPTY).get());
+        verify(employeeRepository).findAllById(java.util.Set.of(2L, 3L, 4L));
+        verify(employeeRepository, never()).findAll();
+        verify(employeeService, times(1)).getAllEmployeesFromCache();
+    }
+
+    @Test
+    void testPublishChanged_onlyAdvancesWithoutASnapshotOfTheCurrentGeneration() {
+        assertEquals(1, store.publishChanged(List.of(1L)));
+
+        verifyNoInteractions(employeeRepository);
+    }
+}
@@ -0,0 +1,219 @@
+package com.pamu.service;
+
+import com.pamu.dto.EmployeeDTO;
+import com.pamu.model.EmployeeNode;
+import com.pamu.repository.EmployeeJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class EmployeeDirectoryTest {
+
+    private EmployeeDirectory directory;
+    // Rows as committed to the database, read back by refresh
+    private final Map<Long, EmployeeDTO> committed = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        directory = new EmployeeDirectory();
+        directory.employeeJdbcRepository = mock(EmployeeJdbcRepository.class);
+        doAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Long id : ids) {
+                if (committed.containsKey(id)) {
+                    handler.processRow(resultSet(committed.get(id)));
+                }
+            }
+            return null;
+        }).when(directory.employeeJdbcRepository).streamByIds(anyCollection(), any(RowCallbackHandler.class));
+        // 1 -> {2, 3}, 2 -> 4
+        directory.load(List.of(
+                employee(1L, "Rama", 150000.0, null),
+                employee(2L, "Shivam", 75000.0, 1L),
+                employee(3L, "Sneha", 80000.0, 1L),
+                employee(4L, "Ravi", 45000.0, 2L)));
+    }
+
+    @Test
+    void testSubtreeAndRankingAfterLoad() {
+        assertTrue(directory.isLoaded());
+        assertEquals(List.of(2L, 3L), reporteeIds(directory.subtree(1L)));
+        assertEquals(List.of(4L), reporteeIds(directory.subtree(1L).getReportees().get(0)));
+        assertNull(directory.subtree(99L));
+        assertEquals("Sneha", directory.nthHighestSalary(2).getName());
+        assertNull(directory.nthHighestSalary(5));
+    }
+
+    @Test
+    void testPut_movesEmployeeInRankingAndBetweenManagers() {
+        directory.put(employee(4L, "Ravi", 90000.0, 3L));
+        directory.put(employee(5L, "Krishna", 10000.0, 4L));
+
+        assertEquals("Ravi", directory.nthHighestSalary(2).getName());
+        assertEquals(5, directory.size());
+        assertEquals(List.of(), reporteeIds(directory.subtree(2L)));
+        assertEquals(List.of(4L), reporteeIds(directory.subtree(3L)));
+        assertEquals(List.of(5L), reporteeIds(directory.subtree(4L)));
+    }
+
+    @Test
+    void testRemove_reportsMoveUpToManager() {
+        directory.remove(2L);
+
+        assertEquals(3, directory.size());
+        assertEquals(List.of(3L, 4L), reporteeIds(directory.subtree(1L)));
+        assertEquals(1L, directory.subtree(4L).getManagerId());
+        assertEquals("Ravi", directory.nthHighestSalary(3).getName());
+    }
+
+    @Test
+    void testRefresh_installsCommittedRowsWhicheverHookRunsLast() {
+        // Two updates of Ravi committed in turn; the hook of the later commit runs first
+        committed.put(4L, employee(4L, "Ravi", 90000.0, 3L));
+        directory.refresh(List.of(4L));
+        directory.refresh(List.of(4L));
+
+        assertEquals("Ravi", directory.nthHighestSalary(2).getName());
+        assertEquals(90000.0, directory.nthHighestSalary(2).getSalary());
+        assertEquals(List.of(), reporteeIds(directory.subtree(2L)));
+        assertEquals(List.of(4L), reporteeIds(directory.subtree(3L)));
+    }
+
+    @Test
+    void testRefresh_readsOutsideTheLockAndKeepsRowsOfALaterRefresh() throws Exception {
+        // The first refresh reads Ravi at 50000; before it installs the row, a later commit sets 90000 and its
+        // refresh runs to the end
+        doAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            RowCallbackHandler handler = invocation.getArgument(1);
+            if (committed.get(4L) == null) {
+                // First call: the stale row; readers are not blocked while it is read; then the later commit
+                handler.processRow(resultSet(employee(4L, "Ravi", 50000.0, 2L)));
+                java.util.concurrent.CompletableFuture<EmployeeDTO> reader =
+                        java.util.concurrent.CompletableFuture.supplyAsync(() -> directory.nthHighestSalary(1));
+                assertEquals("Rama", reader.get(5, java.util.concurrent.TimeUnit.SECONDS).getName());
+                committed.put(4L, employee(4L, "Ravi", 90000.0, 2L));
+                directory.refresh(List.of(4L));
+                return null;
+            }
+            for (Long id : ids) {
+                handler.processRow(resultSet(committed.get(id)));
+            }
+            return null;
+        }).when(directory.employeeJdbcRepository).streamByIds(anyCollection(), any(RowCallbackHandler.class));
+
+        directory.refresh(List.of(4L));
+
+        assertEquals("Ravi", directory.nthHighestSalary(2).getName());
+        assertEquals(90000.0, directory.nthHighestSalary(2).getSalary());
+    }
+
+    @Test
+    void testRefresh_removesDeletedEmployeesAndMovesTheirReports() {
+        // Shivam deleted; Ravi moved up to Rama in the same transaction
+        committed.put(4L, employee(4L, "Ravi", 45000.0, 1L));
+        directory.refresh(List.of(2L, 4L));
+
+        assertEquals(3, directory.size());
+        assertNull(directory.subtree(2L));
+        assertEquals(List.of(3L, 4L), reporteeIds(directory.subtree(1L)));
+        assertEquals(1L, directory.subtree(4L).getManagerId());
+    }
+
+    @Test
+    void testEmployeesWithoutSalaryAreLeftOutOfTheRanking() {
+        committed.put(5L, new EmployeeDTO(5L, "Krishna", null, "employee", null, 4L));
+        directory.refresh(List.of(5L));
+
+        assertEquals(5, directory.size());
+        assertEquals(List.of(5L), reporteeIds(directory.subtree(4L)));
+        assertEquals("Ravi", directory.nthHighestSalary(4).getName());
+        assertNull(directory.nthHighestSalary(5));
+
+        // Gaining a salary puts the employee into the ranking, and losing it takes it out again
+        committed.put(5L, new EmployeeDTO(5L, "Krishna", 100000.0, "employee", null, 4L));
+        directory.refresh(List.of(5L));
+        assertEquals("Krishna", directory.nthHighestSalary(2).getName());
+        committed.put(5L, new EmployeeDTO(5L, "Krishna", null, "employee", null, 4L));
+        directory.refresh(List.of(5L));
+        assertEquals("Sneha", directory.nthHighestSalary(2).getName());
+        directory.remove(5L);
+        assertEquals(4, directory.size());
+    }
+
+    @Test
+    void testNthHighestSalary_matchesFullSortAfterRandomChanges() {
+        java.util.Random random = new java.util.Random(7);
+        Map<Long, Double> salaries = new HashMap<>();
+        List<EmployeeDTO> loaded = new java.util.ArrayList<>();
+        for (long id = 1; id <= 200; id++) {
+            double salary = 1000.0 * random.nextInt(10);
+            loaded.add(employee(id, "Employee " + id, salary, null));
+            salaries.put(id, salary);
+        }
+        directory.load(loaded);
+        for (int change = 0; change < 2000; change++) {
+            long id = 1 + random.nextInt(240);
+            if (random.nextInt(4) == 0) {
+                directory.remove(id);
+                salaries.remove(id);
+            } else {
+                // Few distinct salaries, so ties are broken by ID often
+                double salary = 1000.0 * random.nextInt(10);
+                directory.put(employee(id, "Employee " + id, salary, null));
+                salaries.put(id, salary);
+            }
+        }
+        List<Long> expected = salaries.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .toList();
+
+        for (int rank = 1; rank <= expected.size(); rank++) {
+            assertEquals(expected.get(rank - 1), directory.nthHighestSalary(rank).getId());
+        }
+        assertNull(directory.nthHighestSalary(expected.size() + 1));
+        assertNull(directory.nthHighestSalary(0));
+    }
+
+    @Test
+    void testReturnedEmployeesAreCopies() {
+        EmployeeDTO top = directory.nthHighestSalary(1);
+        top.setSalary(0.0);
+        assertEquals(150000.0, directory.nthHighestSalary(1).getSalary());
+    }
+
+    private static EmployeeDTO employee(Long id, String name, double salary, Long managerId) {
+        return new EmployeeDTO(id, name, salary, "employee", LocalDate.of(2020, 1, 1), managerId);
+    }
+
+    private static ResultSet resultSet(EmployeeDTO row) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("id")).thenReturn(row.getId());
+        when(rs.getString("name")).thenReturn(row.getName());
+        when(rs.getObject("salary", Double.class)).thenReturn(row.getSalary());
+        when(rs.getString("category")).thenReturn(row.getCategory());
+        when(rs.getDate("doj")).thenReturn(row.getDoj() != null ? Date.valueOf(row.getDoj()) : null);
+        when(rs.getObject("manager_id", Long.class)).thenReturn(row.getManagerId());
+        return rs;
+    }
+
+    private static List<Long> reporteeIds(EmployeeNode node) {
+        return node.getReportees().stream().map(EmployeeNode::getId).toList();
+    }
+}
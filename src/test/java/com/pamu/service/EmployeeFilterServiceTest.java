@@ -0,0 +1,102 @@
+package com.pamu.service;
+
+import com.pamu.dto.EmployeeDTO;
+import com.pamu.dto.EmployeeFilterResult;
+import com.pamu.exception.InvalidEmployeeDataException;
+import com.pamu.model.Employee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class EmployeeFilterServiceTest {
+
+    // Enough rows to span several chunks
+    private static final int ROWS = EmployeeFilterService.CHUNK_ROWS * 3 + 100;
+
+    @Mock
+    private EmployeeColumnStore employeeColumnStore;
+
+    @InjectMocks
+    private EmployeeFilterService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        List<Employee> employees = new ArrayList<>();
+        for (long id = 1; id <= ROWS; id++) {
+            Employee employee = new Employee();
+            employee.setId(id);
+            employee.setName("Employee " + id);
+            employee.setState(id % 10 == 0 ? "Telangana" : "Maharashtra");
+            employee.setCategory("employee");
+            employee.setSalary(id % 2 == 0 ? 1000.0 * (id % 100) : null);
+            employee.setDoj(LocalDate.of(2020, 1, 1));
+            employees.add(employee);
+        }
+        when(employeeColumnStore.current()).thenReturn(EmployeeColumns.of(employees, 0));
+    }
+
+    @Test
+    void testFilter_pagesThroughMatchesInIdOrderAcrossChunks() {
+        // Every tenth employee; page 90 of 10 starts in the second chunk
+        EmployeeFilterResult first = service.filter("state = 'Telangana'", 0, 10, false);
+        EmployeeFilterResult later = service.filter("state = 'Telangana'", 90, 10, false);
+        EmployeeFilterResult beyond = service.filter("state = 'Telangana'", 1000, 10, false);
+
+        assertEquals(ROWS / 10, first.getTotal());
+        assertEquals(List.of(10L, 20L, 30L, 40L, 50L, 60L, 70L, 80L, 90L, 100L),
+                first.getEmployees().stream().map(EmployeeDTO::getId).toList());
+        assertEquals(9010L, later.getEmployees().get(0).getId());
+        assertEquals(10, later.getEmployees().size());
+        assertEquals(90, later.getPage());
+        assertTrue(beyond.getEmployees().isEmpty());
+
+        EmployeeDTO dto = first.getEmployees().get(0);
+        assertEquals("Employee 10", dto.getName());
+        assertEquals(10000.0, dto.getSalary());
+        assertEquals("employee", dto.getCategory());
+        assertEquals(LocalDate.of(2020, 1, 1), dto.getDoj());
+        assertNull(dto.getManagerId());
+    }
+
+    @Test
+    void testFilter_countOnlyReturnsJustTheTotal() {
+        EmployeeFilterResult result = service.filter("state = 'Telangana' AND salary >= 50000", 0, 20, true);
+
+        assertEquals(LongStream.rangeClosed(1, ROWS).filter(id -> id % 10 == 0 && id % 100 >= 50).count(), result.getTotal());
+        assertNull(result.getEmployees());
+        assertNull(result.getPage());
+    }
+
+    @Test
+    void testFilter_parallelMatchesSequential() {
+        String expression = "salary > 20000 AND NOT id IN (2, 4, 98) OR state = 'Telangana' AND id > 20000";
+        EmployeeFilterResult sequential = service.filter(expression, 7, 1000, false);
+        ReflectionTestUtils.setField(service, "parallelThreshold", 1);
+        EmployeeFilterResult parallel = service.filter(expression, 7, 1000, false);
+
+        assertEquals(sequential.getTotal(), parallel.getTotal());
+        assertEquals(sequential.getEmployees().stream().map(EmployeeDTO::getId).toList(),
+                parallel.getEmployees().stream().map(EmployeeDTO::getId).toList());
+    }
+
+    @Test
+    void testFilter_rejectsBadPagingAndExpressions() {
+        assertThrows(InvalidEmployeeDataException.class, () -> service.filter("id > 1", -1, 10, false));
+        assertThrows(InvalidEmployeeDataException.class, () -> service.filter("id > 1", 0, 0, false));
+        assertThrows(InvalidEmployeeDataException.class, () -> service.filter("id > 1", 0, EmployeeFilterService.MAX_PAGE_SIZE + 1, false));
+        assertThrows(InvalidEmployeeDataException.class, () -> service.filter("id >", 0, 10, false));
+        assertThrows(InvalidEmployeeDataException.class, () -> service.filter(null, 0, 10, false));
+    }
+}
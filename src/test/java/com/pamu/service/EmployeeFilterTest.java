@@ -0,0 +1,111 @@
+package com.pamu.service;
+
+import com.pamu.exception.InvalidEmployeeDataException;
+import com.pamu.model.Employee;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeFilterTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 15);
+
+    private final EmployeeColumns columns = EmployeeColumns.of(List.of(
+            employee(1L, null, "Hyderabad", "Telangana", "Director", 150000.0, TODAY.minusYears(10)),
+            employee(2L, 1L, "hyderabad ", "TELANGANA", "employee", 60000.0, TODAY.minusYears(3)),
+            employee(3L, 1L, "Pune", "Maharashtra", "employee", 40000.0, TODAY.minusYears(3).plusDays(1)),
+            employee(4L, 2L, "Warangal", "Telangana", "manager", null, TODAY.minusYears(5)),
+            employee(5L, 2L, null, null, "employee", 30000.0, null)), 0);
+
+    @Test
+    void testFilter_combinesComparisonsWithPrecedence() {
+        assertEquals(List.of(2L), matches("salary > 50000 AND state = 'telangana' AND tenureYears >= 3 AND category != 'Director'"));
+        // AND binds tighter than OR
+        assertEquals(List.of(1L, 3L), matches("id = 1 OR state = 'Maharashtra' AND salary < 50000"));
+        assertEquals(List.of(3L), matches("(id = 1 OR state = 'Maharashtra') AND salary < 50000"));
+        assertEquals(List.of(2L, 3L, 4L, 5L), matches("NOT managerId = 0"));
+        assertEquals(List.of(1L, 2L, 4L), matches("doj <= '2021-06-15'"));
+    }
+
+    @Test
+    void testFilter_tenureCountsCompletedYears() {
+        // Employee 3 is one day short of three years
+        assertEquals(List.of(1L, 2L, 4L), matches("tenureYears >= 3"));
+        assertEquals(List.of(3L), matches("tenureYears < 3"));
+        assertEquals(List.of(2L), matches("tenureYears = 3"));
+        assertEquals(List.of(1L, 4L), matches("tenureYears > 3.5"));
+        assertEquals(List.of(), matches("tenureYears = 2.5"));
+    }
+
+    @Test
+    void testFilter_missingValuesNeverMatchAComparison() {
+        assertEquals(List.of(1L, 2L, 3L), matches("salary >= 40000"));
+        assertEquals(List.of(1L, 2L, 3L, 5L), matches("salary != 1"));
+        assertEquals(List.of(3L), matches("state != 'Telangana'"));
+        assertEquals(List.of(1L, 2L, 3L, 4L), matches("tenureYears != 99"));
+        // Negating the whole comparison does include them
+        assertEquals(List.of(3L, 5L), matches("NOT state = 'Telangana'"));
+    }
+
+    @Test
+    void testFilter_inAndNotIn() {
+        assertEquals(List.of(1L, 2L, 3L, 4L), matches("city IN ('Hyderabad', 'pune', 'Warangal', 'Nowhere')"));
+        assertEquals(List.of(3L, 4L), matches("city NOT IN ('Hyderabad')"));
+        assertEquals(List.of(2L, 3L), matches("managerId in (1)"));
+        assertEquals(List.of(1L, 2L, 3L), matches("salary NOT IN (30000)"));
+        assertEquals(List.of(), matches("state = 'Goa'"));
+    }
+
+    @Test
+    void testParse_reportsThePositionOfTheFirstProblem() {
+        assertError("Invalid filter at position 1: unknown field 'age'; use id, managerId, salary, tenureYears, doj, state, city or category", "age > 3");
+        assertError("Invalid filter at position 7: state can only be compared with = or !=", "state > 'A'");
+        assertError("Invalid filter at position 10: expected a number", "salary > abc");
+        assertError("Invalid filter at position 7: '2024-13-01' is not a yyyy-mm-dd date", "doj = '2024-13-01'");
+        assertError("Invalid filter at position 9: unterminated quoted value", "state = 'Goa");
+        assertError("Invalid filter at position 22: expected ')'", "(salary > 1 OR id = 2");
+        assertError("Invalid filter at position 13: unexpected 'id = 2'", "salary > 1  id = 2");
+        assertError("Filter expression is empty", " ");
+    }
+
+    @Test
+    void testFilter_quotedValuesMayContainQuotes() {
+        EmployeeColumns quoted = EmployeeColumns.of(List.of(
+                employee(1L, null, "Coeur d'Alene", "Idaho", "employee", 1.0, null)), 0);
+        IntPredicate predicate = EmployeeFilter.parse("city = 'coeur d''alene'").bind(quoted, TODAY);
+        assertTrue(predicate.test(0));
+    }
+
+    private List<Long> matches(String expression) {
+        IntPredicate predicate = EmployeeFilter.parse(expression).bind(columns, TODAY);
+        return IntStream.range(0, columns.size).filter(predicate).mapToObj(row -> columns.ids[row]).toList();
+    }
+
+    private static void assertError(String message, String expression) {
+        InvalidEmployeeDataException e = assertThrows(InvalidEmployeeDataException.class, () -> EmployeeFilter.parse(expression));
+        assertEquals(message, e.getMessage());
+    }
+
+    private static Employee employee(Long id, Long managerId, String city, String state, String category,
+                                     Double salary, LocalDate doj) {
+        Employee employee = new Employee();
+        employee.setId(id);
+        employee.setName("Employee " + id);
+        if (managerId != null) {
+            Employee manager = new Employee();
+            manager.setId(managerId);
+            employee.setManager(manager);
+        }
+        employee.setCity(city);
+        employee.setState(state);
+        employee.setCategory(category);
+        employee.setSalary(salary);
+        employee.setDoj(doj);
+        return employee;
+    }
+}
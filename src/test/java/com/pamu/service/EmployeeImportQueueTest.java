@@ -0,0 +1,117 @@
+package com.pamu.service;
+
+import com.pamu.exception.InvalidEmployeeDataException;
+import com.pamu.exception.TooManyRequestsException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeImportQueueTest {
+
+    private EmployeeImportQueue queue;
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() {
+        queue = new EmployeeImportQueue();
+        ReflectionTestUtils.setField(queue, "queueCapacity", 1);
+        ReflectionTestUtils.setField(queue, "retryAfterSeconds", 7L);
+        queue.init();
+        callers = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        queue.shutdown();
+    }
+
+    @Test
+    void testSubmit_runsImportsOneAtATimeInArrivalOrder() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Integer> first = callers.submit(() -> queue.submit(() -> {
+            writing.countDown();
+            await(release);
+            return record(running, order, 1);
+        }));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        Future<Integer> second = callers.submit(() -> queue.submit(() -> record(running, order, 2)));
+        awaitWaiting(1);
+        release.countDown();
+
+        assertEquals(1, first.get(5, TimeUnit.SECONDS));
+        assertEquals(2, second.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(1, 2), order);
+    }
+
+    @Test
+    void testSubmit_turnsAwayImportsBeyondTheQueue() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> accepted = new ArrayList<>();
+        accepted.add(callers.submit(() -> queue.submit(() -> {
+            writing.countDown();
+            await(release);
+            return "first";
+        })));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        accepted.add(callers.submit(() -> queue.submit(() -> "second")));
+        awaitWaiting(1);
+
+        TooManyRequestsException e = assertThrows(TooManyRequestsException.class, () -> queue.submit(() -> "third"));
+        assertEquals(7, e.getRetryAfterSeconds());
+
+        release.countDown();
+        assertEquals("first", accepted.get(0).get(5, TimeUnit.SECONDS));
+        assertEquals("second", accepted.get(1).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testSubmit_rethrowsTheImportsException() {
+        InvalidEmployeeDataException failure = new InvalidEmployeeDataException("Invalid employee data in Excel");
+
+        assertSame(failure, assertThrows(InvalidEmployeeDataException.class, () -> queue.submit(() -> {
+            throw failure;
+        })));
+        assertEquals("next", queue.submit(() -> "next"));
+    }
+
+    private static int record(AtomicInteger running, List<Integer> order, int id) {
+        assertEquals(1, running.incrementAndGet(), "imports overlapped");
+        order.add(id);
+        running.decrementAndGet();
+        return id;
+    }
+
+    private void awaitWaiting(int imports) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (queue.waiting() != imports && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(imports, queue.waiting());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
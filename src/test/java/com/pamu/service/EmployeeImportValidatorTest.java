@@ -0,0 +1,116 @@
+package com.pamu.service;
+
+import com.pamu.exception.ImportValidationException;
+import com.pamu.model.Employee;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeImportValidatorTest {
+
+    @Test
+    void testValidate_acceptsSingleTree() {
+        Map<Long, EmployeeService.EmployeeWrapper> employees = new HashMap<>();
+        add(employees, 1L, null, 2);
+        add(employees, 2L, 1L, 3);
+        add(employees, 3L, 2L, 4);
+
+        assertDoesNotThrow(() -> new EmployeeImportValidator().validate(employees));
+    }
+
+    @Test
+    void testValidate_reportsEveryProblemAtOnce() {
+        Map<Long, EmployeeService.EmployeeWrapper> employees = new HashMap<>();
+        add(employees, 1L, null, 2);
+        add(employees, 2L, 1L, 3);
+        add(employees, 3L, 99L, 4);     // dangling manager
+        add(employees, 4L, 5L, 5);      // 4 -> 5 -> 6 -> 4
+        add(employees, 5L, 6L, 6);
+        add(employees, 6L, 4L, 7);
+        add(employees, 7L, 4L, 8);      // hangs off the cycle, not part of it
+        add(employees, 8L, null, 9);    // second top-level employee
+        EmployeeImportValidator validator = new EmployeeImportValidator();
+        validator.reject(10, 2L, "duplicate employee ID 2 (first used in row 3)");
+
+        ImportValidationException e = assertThrows(ImportValidationException.class, () -> validator.validate(employees));
+
+        assertEquals(4, e.getTotalViolations());
+        List<String> violations = e.getViolations();
+        assertTrue(violations.contains("Row 10: duplicate employee ID 2 (first used in row 3)"));
+        assertTrue(violations.contains("Row 4: manager 99 of employee 3 is not in the file"));
+        assertEquals(1, violations.stream().filter(v -> v.startsWith("Reporting cycle")).count());
+        assertTrue(violations.stream().anyMatch(v -> v.startsWith("Reporting cycle of 3 employee(s)")
+                && v.contains("4 (row 5)") && v.contains("5 (row 6)") && v.contains("6 (row 7)") && !v.contains("7 (row 8)")));
+        assertTrue(violations.stream().anyMatch(v -> v.startsWith("Expected one top-level employee but found 2")));
+    }
+
+    @Test
+    void testValidate_boundsReportedViolationsButCountsAll() {
+        Map<Long, EmployeeService.EmployeeWrapper> employees = new HashMap<>();
+        add(employees, 0L, null, 1);
+        int dangling = EmployeeImportValidator.MAX_REPORTED_VIOLATIONS + 500;
+        for (long id = 1; id <= dangling; id++) {
+            add(employees, id, -id, (int) id + 1);
+        }
+
+        ImportValidationException e = assertThrows(ImportValidationException.class,
+                () -> new EmployeeImportValidator().validate(employees));
+
+        assertEquals(dangling, e.getTotalViolations());
+        assertEquals(EmployeeImportValidator.MAX_REPORTED_VIOLATIONS, e.getViolations().size());
+    }
+
+    @Test
+    void testValidate_longChainIsCheckedWithoutRecursion() {
+        Map<Long, EmployeeService.EmployeeWrapper> employees = new HashMap<>();
+        int depth = 200_000;
+        add(employees, 0L, (long) depth - 1, 1); // closes one long cycle
+        for (long id = 1; id < depth; id++) {
+            add(employees, id, id - 1, (int) id + 1);
+        }
+
+        ImportValidationException e = assertThrows(ImportValidationException.class,
+                () -> new EmployeeImportValidator().validate(employees));
+
+        assertEquals(1, e.getTotalViolations());
+        assertTrue(e.getViolations().get(0).startsWith("Reporting cycle of " + depth + " employee(s)"));
+        assertTrue(e.getViolations().get(0).endsWith("-> ..."));
+    }
+
+    @Test
+    void testKeepValid_dropsOffendingRowsWithTheirReportsAndOrdersManagersFirst() {
+        Map<Long, EmployeeService.EmployeeWrapper> employees = new java.util.LinkedHashMap<>();
+        add(employees, 3L, 2L, 2);
+        add(employees, 2L, 1L, 3);
+        add(employees, 1L, null, 4);
+        add(employees, 4L, 5L, 5);      // 4 <-> 5 cycle
+        add(employees, 5L, 4L, 6);
+        add(employees, 6L, 5L, 7);      // below the cycle
+        add(employees, 7L, 99L, 8);     // dangling manager
+        add(employees, 8L, null, 9);    // second top-level employee
+        add(employees, 9L, 8L, 10);     // below the dropped top-level employee
+        EmployeeImportValidator validator = new EmployeeImportValidator();
+
+        Map<Long, EmployeeService.EmployeeWrapper> valid = validator.keepValid(employees);
+
+        assertEquals(List.of(1L, 2L, 3L), List.copyOf(valid.keySet()));
+        List<String> errors = validator.getRowErrors().stream().map(e -> e.getRow() + ":" + e.getId() + ":" + e.getMessage()).toList();
+        assertEquals(6, errors.size());
+        assertTrue(errors.get(0).startsWith("5:4:Part of a reporting cycle of 2 employee(s)"));
+        assertTrue(errors.get(1).startsWith("6:5:Part of a reporting cycle"));
+        assertEquals("7:6:Manager 5 was rejected", errors.get(2));
+        assertEquals("8:7:manager 99 of employee 7 is not in the file", errors.get(3));
+        assertEquals("9:8:Only one top-level employee is allowed; kept employee 1 (row 4)", errors.get(4));
+        assertEquals("10:9:Manager 8 was rejected", errors.get(5));
+    }
+
+    private static void add(Map<Long, EmployeeService.EmployeeWrapper> employees, Long id, Long managerId, int row) {
+        Employee employee = new Employee();
+        employee.setId(id);
+        employees.put(id, new EmployeeService.EmployeeWrapper(employee, managerId, row));
+    }
+}
@@ -0,0 +1,138 @@
+package com.pamu.service;
+
+import com.pamu.dto.EmployeeDTO;
+import com.pamu.dto.TopEarners;
+import com.pamu.exception.InvalidEmployeeDataException;
+import com.pamu.model.Employee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class EmployeeRankingServiceTest {
+
+    @Mock
+    private EmployeeColumnStore employeeColumnStore;
+
+    @InjectMocks
+    private EmployeeRankingService service;
+
+    private EmployeeColumns columns;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // 1 -> (2 -> (4, 5, 6), 3 -> (7)), 8 on its own
+        columns = EmployeeColumns.of(List.of(
+                employee(1L, null, "Director", 300.0),
+                employee(2L, 1L, "manager", 200.0),
+                employee(3L, 1L, "manager", 250.0),
+                employee(4L, 2L, "employee", 100.0),
+                employee(5L, 2L, "employee", 150.0),
+                employee(6L, 2L, "employee", 150.0),
+                employee(7L, 3L, "employee", null),
+                employee(8L, null, "employee", 120.0)), 1);
+        when(employeeColumnStore.current()).thenReturn(columns);
+    }
+
+    @Test
+    void testTopEarners_byDirectManager() {
+        List<TopEarners> result = service.topEarners("manager", 2, null);
+
+        // Employee 3 only manages someone without a salary, so has no group
+        assertEquals(List.of(1L, 2L), result.stream().map(TopEarners::getManagerId).toList());
+        assertEquals(List.of(3L, 2L), ids(result.get(0)));
+        // Equal salaries rank the lower ID first
+        assertEquals(List.of(5L, 6L), ids(result.get(1)));
+        assertEquals("Employee 2", result.get(1).getManagerName());
+    }
+
+    @Test
+    void testTopEarners_bySubtreeAndCategoryWithGroupFilter() {
+        assertEquals(List.of(3L, 2L, 5L, 6L), ids(service.topEarners("subtree", 4, "1").get(0)));
+        assertEquals(List.of(5L, 6L, 4L), ids(service.topEarners("SUBTREE", 10, "2").get(0)));
+
+        List<TopEarners> byCategory = service.topEarners("category", 1, null);
+        assertEquals(List.of("Director", "employee", "manager"), byCategory.stream().map(TopEarners::getCategory).toList());
+        assertEquals(List.of(5L), ids(byCategory.get(1)));
+        List<TopEarners> managers = service.topEarners("category", 3, "MANAGER");
+        assertEquals(1, managers.size());
+        assertEquals(List.of(3L, 2L), ids(managers.get(0)));
+        assertTrue(service.topEarners("manager", 5, "999").isEmpty());
+    }
+
+    @Test
+    void testTopEarners_isCachedPerGeneration() {
+        List<TopEarners> first = service.topEarners("subtree", 3, null);
+        assertSame(first, service.topEarners("subtree", 3, null));
+
+        EmployeeColumns next = EmployeeColumns.of(List.of(employee(1L, null, "Director", 1.0), employee(2L, 1L, "employee", 2.0)), 2);
+        when(employeeColumnStore.current()).thenReturn(next);
+        List<TopEarners> afterChange = service.topEarners("subtree", 3, null);
+        assertEquals(List.of(2L), ids(afterChange.get(0)));
+    }
+
+    @Test
+    void testTopEarners_subtreeMatchesEveryAncestorBruteForce() {
+        Random random = new Random(42);
+        List<Employee> employees = new ArrayList<>();
+        for (long id = 1; id <= 3000; id++) {
+            Long manager = id <= 3 ? null : 1L + random.nextInt((int) id - 1);
+            employees.add(employee(id, manager, "employee", random.nextInt(20) * 1000.0));
+        }
+        EmployeeColumns large = EmployeeColumns.of(employees, 0);
+        List<TopEarners> ranked = service.rank(large, EmployeeRankingService.Grouping.SUBTREE, 7);
+
+        Map<Long, List<Employee>> below = new HashMap<>();
+        Map<Long, Employee> byId = new HashMap<>();
+        employees.forEach(e -> byId.put(e.getId(), e));
+        for (Employee e : employees) {
+            for (Employee m = e.getManager(); m != null; m = byId.get(m.getId()).getManager()) {
+                below.computeIfAbsent(m.getId(), id -> new ArrayList<>()).add(e);
+            }
+        }
+        assertEquals(below.size(), ranked.size());
+        for (TopEarners group : ranked) {
+            List<Long> expected = below.get(group.getManagerId()).stream()
+                    .sorted(Comparator.comparing(Employee::getSalary).reversed().thenComparing(Employee::getId))
+                    .limit(7).map(Employee::getId).toList();
+            assertEquals(expected, ids(group), "subtree of " + group.getManagerId());
+        }
+    }
+
+    @Test
+    void testTopEarners_rejectsBadArguments() {
+        assertThrows(InvalidEmployeeDataException.class, () -> service.topEarners("state", 5, null));
+        assertThrows(InvalidEmployeeDataException.class, () -> service.topEarners("manager", 0, null));
+        assertThrows(InvalidEmployeeDataException.class, () -> service.topEarners("manager", EmployeeRankingService.MAX_K + 1, null));
+    }
+
+    private static List<Long> ids(TopEarners earners) {
+        return earners.getEmployees().stream().map(EmployeeDTO::getId).toList();
+    }
+
+    private static Employee employee(Long id, Long managerId, String category, Double salary) {
+        Employee employee = new Employee();
+        employee.setId(id);
+        employee.setName("Employee " + id);
+        if (managerId != null) {
+            Employee manager = new Employee();
+            manager.setId(managerId);
+            employee.setManager(manager);
+        }
+        employee.setCategory(category);
+        employee.setSalary(salary);
+        return employee;
+    }
+}
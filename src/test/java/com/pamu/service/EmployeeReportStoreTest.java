@@ -0,0 +1,138 @@
+package com.pamu.service;
+
+import com.pamu.dto.EmployeeDTO;
+import com.pamu.dto.EmployeeFilterResult;
+import com.pamu.exception.InvalidEmployeeDataException;
+import com.pamu.model.Employee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class EmployeeReportStoreTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 2, 28);
+
+    @Mock
+    private EmployeeColumnStore employeeColumnStore;
+
+    @InjectMocks
+    private EmployeeReportStore store;
+
+    private EmployeeColumns columns;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        Employee director = employee(1L, null, 150000.0, LocalDate.of(2015, 1, 1));
+        Employee manager = employee(2L, director, 75000.0, LocalDate.of(2021, 1, 28));
+        columns = EmployeeColumns.of(List.of(
+                director,
+                manager,
+                employee(3L, manager, 80000.0, LocalDate.of(2021, 1, 29)),
+                employee(4L, manager, 70000.0, LocalDate.of(2021, 1, 31)),
+                employee(5L, manager, null, null),
+                employee(6L, director, 160000.0, TODAY.plusDays(3))), 1);
+        when(employeeColumnStore.current()).thenReturn(columns);
+    }
+
+    @Test
+    void testCompute_gratuityEligibleAfterMoreThanSixtyMonths() {
+        // On 28 February 2026, joining on 28 January 2021 is 61 months; a day later is still 60
+        EmployeeReportStore.Materialized report =
+                EmployeeReportStore.compute(EmployeeReportStore.Report.GRATUITY_ELIGIBLE, columns, TODAY);
+
+        assertEquals(List.of(1L, 2L), ids(report.employees(0, report.rows.length)));
+    }
+
+    @Test
+    void testCompute_higherSalaryThanDirectManager() {
+        EmployeeReportStore.Materialized report =
+                EmployeeReportStore.compute(EmployeeReportStore.Report.HIGHER_SALARY_THAN_MANAGER, columns, TODAY);
+
+        // Employee 5 has no salary and is not listed
+        assertEquals(List.of(3L, 6L), ids(report.employees(0, report.rows.length)));
+        assertEquals(2L, report.employees(0, 1).get(0).getManagerId());
+    }
+
+    @Test
+    void testMaterialized_computedOncePerGenerationAndDay() {
+        EmployeeReportStore.Report report = EmployeeReportStore.Report.GRATUITY_ELIGIBLE;
+        EmployeeReportStore.Materialized first = store.materialized(report, TODAY);
+
+        assertSame(first, store.materialized(report, TODAY));
+        assertNotSame(first, store.materialized(report, TODAY.plusDays(1)));
+
+        EmployeeColumns next = EmployeeColumns.of(List.of(employee(9L, null, 1000.0, LocalDate.of(2010, 1, 1))), 2);
+        when(employeeColumnStore.current()).thenReturn(next);
+        assertEquals(List.of(9L), ids(store.materialized(report, TODAY.plusDays(1)).employees(0, 1)));
+    }
+
+    @Test
+    void testMaterialized_concurrentFirstRequestsShareOneComputation() throws Exception {
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        Set<EmployeeReportStore.Materialized> results = ConcurrentHashMap.newKeySet();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return results.add(store.materialized(EmployeeReportStore.Report.HIGHER_SALARY_THAN_MANAGER, TODAY));
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, results.size());
+    }
+
+    @Test
+    void testPage_returnsTotalAndRequestedRows() {
+        EmployeeFilterResult second = store.page(EmployeeReportStore.Report.HIGHER_SALARY_THAN_MANAGER, 1, 1);
+        EmployeeFilterResult beyond = store.page(EmployeeReportStore.Report.HIGHER_SALARY_THAN_MANAGER, 5, 10);
+
+        assertEquals(2, second.getTotal());
+        assertEquals(List.of(6L), ids(second.getEmployees()));
+        assertEquals(2, beyond.getTotal());
+        assertTrue(beyond.getEmployees().isEmpty());
+        assertEquals(List.of(3L, 6L), ids(store.list(EmployeeReportStore.Report.HIGHER_SALARY_THAN_MANAGER)));
+        assertThrows(InvalidEmployeeDataException.class,
+                () -> store.page(EmployeeReportStore.Report.GRATUITY_ELIGIBLE, 0, EmployeeReportStore.MAX_PAGE_SIZE + 1));
+    }
+
+    private static List<Long> ids(List<EmployeeDTO> employees) {
+        return employees.stream().map(EmployeeDTO::getId).toList();
+    }
+
+    private static Employee employee(Long id, Employee manager, Double salary, LocalDate doj) {
+        Employee employee = new Employee();
+        employee.setId(id);
+        employee.setName("Employee " + id);
+        employee.setCategory("employee");
+        employee.setManager(manager);
+        employee.setSalary(salary);
+        employee.setDoj(doj);
+        return employee;
+    }
+}
@@ -0,0 +1,116 @@
+package com.pamu.service;
+
+import com.pamu.dto.SalaryInversion;
+import com.pamu.exception.EmployeeNotFoundException;
+import com.pamu.model.Employee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class EmployeeSalaryAuditServiceTest {
+
+    @Mock
+    private EmployeeColumnStore employeeColumnStore;
+
+    @InjectMocks
+    private EmployeeSalaryAuditService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // 1 (300) -> 2 (100) -> 3 (250) -> 4 (200), 5 (400); 1 -> 6 (no salary) -> 7 (350)
+        when(employeeColumnStore.current()).thenReturn(EmployeeColumns.of(List.of(
+                employee(1L, null, 300.0),
+                employee(2L, 1L, 100.0),
+                employee(3L, 2L, 250.0),
+                employee(4L, 3L, 200.0),
+                employee(5L, 3L, 400.0),
+                employee(6L, 1L, null),
+                employee(7L, 6L, 350.0)), 0));
+    }
+
+    @Test
+    void testFindSalaryInversions_comparesWithEveryManagerAbove() {
+        List<SalaryInversion> result = service.findSalaryInversions(null);
+
+        assertEquals(List.of(5L, 3L, 4L, 7L), result.stream().map(i -> i.getEmployee().getId()).toList());
+        SalaryInversion five = result.get(0);
+        assertEquals(2L, five.getAncestorId());
+        assertEquals(2, five.getLevelsAbove());
+        assertEquals(300.0, five.getDifference());
+        assertTrue(five.isOutEarnsAllManagers());
+        // Not above the direct manager 3, but above 2 two levels up
+        SalaryInversion four = result.get(2);
+        assertEquals(2L, four.getAncestorId());
+        assertEquals(100.0, four.getAncestorSalary());
+        assertFalse(four.isOutEarnsAllManagers());
+        // The manager without a salary is skipped
+        SalaryInversion seven = result.get(3);
+        assertEquals(1L, seven.getAncestorId());
+        assertEquals(2, seven.getLevelsAbove());
+    }
+
+    @Test
+    void testFindSalaryInversions_scopedToSubtreeStillSeesManagersAbove() {
+        List<SalaryInversion> result = service.findSalaryInversions(3L);
+
+        assertEquals(List.of(5L, 4L), result.stream().map(i -> i.getEmployee().getId()).toList());
+        assertEquals(2L, result.get(1).getAncestorId());
+        assertEquals(2, result.get(1).getLevelsAbove());
+        assertThrows(EmployeeNotFoundException.class, () -> service.findSalaryInversions(99L));
+    }
+
+    @Test
+    void testFindSalaryInversions_matchesWalkingUpFromEveryEmployee() {
+        Random random = new Random(7);
+        List<Employee> employees = new ArrayList<>();
+        Map<Long, Employee> byId = new HashMap<>();
+        for (long id = 1; id <= 5000; id++) {
+            Employee e = employee(id, id <= 5 ? null : 1L + random.nextInt((int) id - 1), 1000.0 + random.nextInt(500));
+            employees.add(e);
+            byId.put(id, e);
+        }
+        when(employeeColumnStore.current()).thenReturn(EmployeeColumns.of(employees, 0));
+
+        Map<Long, Double> expected = new HashMap<>();
+        for (Employee e : employees) {
+            double lowest = Double.MAX_VALUE;
+            for (Employee m = e.getManager(); m != null; m = byId.get(m.getId()).getManager()) {
+                lowest = Math.min(lowest, byId.get(m.getId()).getSalary());
+            }
+            if (e.getSalary() > lowest) {
+                expected.put(e.getId(), lowest);
+            }
+        }
+        List<SalaryInversion> result = service.findSalaryInversions(null);
+
+        assertEquals(expected.size(), result.size());
+        for (SalaryInversion inversion : result) {
+            assertEquals(expected.get(inversion.getEmployee().getId()), inversion.getAncestorSalary());
+        }
+    }
+
+    private static Employee employee(Long id, Long managerId, Double salary) {
+        Employee employee = new Employee();
+        employee.setId(id);
+        employee.setName("Employee " + id);
+        if (managerId != null) {
+            Employee manager = new Employee();
+            manager.setId(managerId);
+            employee.setManager(manager);
+        }
+        employee.setSalary(salary);
+        return employee;
+    }
+}
@@ -0,0 +1,173 @@
+package com.pamu.service;
+
+import com.pamu.dto.EmployeeSearchHit;
+import com.pamu.repository.EmployeeJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EmployeeSearchIndexTest {
+
+    private EmployeeSearchIndex index;
+    private List<EmployeeSearchHit> employees;
+
+    @BeforeEach
+    void setUp() {
+        index = new EmployeeSearchIndex();
+        employees = new ArrayList<>(List.of(
+                new EmployeeSearchHit(1L, "Rama", "Hyderabad", "Telangana", "Director"),
+                new EmployeeSearchHit(2L, "Shivam Raj", "Pune", "Maharashtra", "manager"),
+                new EmployeeSearchHit(3L, "Ravi Kumar", "Hyderabad", "Telangana", "employee"),
+                new EmployeeSearchHit(4L, "Sai Ramakrishna", "Chennai", "Tamil Nadu", "employee"),
+                new EmployeeSearchHit(5L, "Anand Rao", "Hyderābād", "telangana", "employee")));
+        index.load(employees);
+    }
+
+    @Test
+    void testSearch_ranksNamePrefixThenWordPrefixThenInfix() {
+        // Names starting with "ra", then names with a later word starting with it, shorter names first
+        assertEquals(List.of(1L, 3L, 5L, 2L, 4L), ids(index.search("ra", null, null, 10)));
+        assertEquals(List.of(1L, 3L), ids(index.search("ra", null, null, 2)));
+        // No name word starts with "krish", so names containing it follow
+        assertEquals(List.of(4L), ids(index.search("krish", null, null, 10)));
+        assertEquals(List.of(4L), ids(index.search("sai rama", null, null, 10)));
+        assertEquals(List.of(), ids(index.search("zz", null, null, 10)));
+    }
+
+    @Test
+    void testSearch_filtersByExactCityAndStateIgnoringCaseAndAccents() {
+        assertEquals(List.of(1L, 3L, 5L), ids(index.search("ra", "HYDERABAD", null, 10)));
+        assertEquals(List.of(1L, 5L, 3L), ids(index.search(null, null, "Telangana", 10)));
+        assertEquals(List.of(), ids(index.search("ra", "Hyder", null, 10)));
+        assertEquals(List.of(2L), ids(index.search(null, "Pune", "Maharashtra", 10)));
+    }
+
+    @Test
+    void testPutAndRemove_updatePostings() {
+        index.put(new EmployeeSearchHit(3L, "Kiran Kumar", "Pune", "Maharashtra", "employee"));
+        index.remove(1L);
+        index.put(new EmployeeSearchHit(6L, "Radha", "Pune", "Maharashtra", "employee"));
+
+        assertEquals(List.of(6L, 5L, 2L, 4L), ids(index.search("ra", null, null, 10)));
+        assertEquals(List.of(3L), ids(index.search("kumar", "pune", null, 10)));
+        assertEquals(List.of(5L), ids(index.search(null, null, "Telangana", 10)));
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    void testLoad_reindexesOnlyChangedRowsUnlessMostChanged() {
+        List<EmployeeSearchHit> reimported = new ArrayList<>(employees);
+        for (long id = 6; id <= 20; id++) {
+            reimported.add(new EmployeeSearchHit(id, "Employee " + id, null, null, "employee"));
+        }
+        // 15 new rows out of 20 is a rebuild
+        assertEquals(20, index.load(reimported));
+        assertEquals(0, index.load(reimported));
+
+        reimported.set(1, new EmployeeSearchHit(2L, "Shivam", "Pune", "Maharashtra", "manager"));
+        reimported.remove(0);
+        assertEquals(2, index.load(reimported));
+        assertEquals(List.of(3L, 5L, 4L), ids(index.search("ra", null, null, 10)));
+        assertEquals(List.of(2L), ids(index.search("shiv", null, null, 10)));
+        assertEquals(19, index.size());
+    }
+
+    @Test
+    void testReload_keepsChangesCommittedWhileTheTableIsRead() throws SQLException {
+        List<EmployeeSearchHit> snapshot = new ArrayList<>(employees);
+        reloadWhileChanging(snapshot);
+
+        assertEquals(List.of(1L), ids(index.search("sita", null, null, 10)));
+        assertEquals(List.of(), ids(index.search("ravi", null, null, 10)));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void testReload_rebuildKeepsChangesCommittedWhileTheTableIsRead() throws SQLException {
+        List<EmployeeSearchHit> snapshot = new ArrayList<>(employees);
+        for (long id = 6; id <= 20; id++) {
+            snapshot.add(new EmployeeSearchHit(id, "Employee " + id, null, null, "employee"));
+        }
+        reloadWhileChanging(snapshot);
+
+        assertEquals(List.of(1L), ids(index.search("sita", null, null, 10)));
+        assertEquals(List.of(), ids(index.search("ravi", null, null, 10)));
+        assertEquals(19, index.size());
+    }
+
+    @Test
+    void testRefresh_readsOutsideTheLockAndKeepsRowsOfALaterRefresh() throws SQLException {
+        EmployeeJdbcRepository repository = mock(EmployeeJdbcRepository.class);
+        index.employeeJdbcRepository = repository;
+        ResultSet stale = resultSet(new EmployeeSearchHit(1L, "Rani", "Hyderabad", "Telangana", "Director"));
+        ResultSet latest = resultSet(new EmployeeSearchHit(1L, "Sita", "Hyderabad", "Telangana", "Director"));
+        boolean[] nested = {false};
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            if (nested[0]) {
+                handler.processRow(latest);
+                return null;
+            }
+            // Readers are not blocked while the rows are read; then a later commit's refresh runs to the end
+            handler.processRow(stale);
+            java.util.concurrent.CompletableFuture<List<EmployeeSearchHit>> reader =
+                    java.util.concurrent.CompletableFuture.supplyAsync(() -> index.search("rama", null, null, 10));
+            assertEquals(List.of(1L, 4L), ids(reader.get(5, java.util.concurrent.TimeUnit.SECONDS)));
+            nested[0] = true;
+            index.refresh(List.of(1L));
+            return null;
+        }).when(repository).streamByIds(anyCollection(), any(RowCallbackHandler.class));
+
+        index.refresh(List.of(1L));
+
+        assertEquals(List.of(1L), ids(index.search("sita", null, null, 10)));
+        assertEquals(List.of(), ids(index.search("rani", null, null, 10)));
+    }
+
+    // Reloads from the given rows while a commit renames 1 and deletes 3 after their rows were read
+    private void reloadWhileChanging(List<EmployeeSearchHit> snapshot) throws SQLException {
+        EmployeeJdbcRepository repository = mock(EmployeeJdbcRepository.class);
+        index.employeeJdbcRepository = repository;
+        List<ResultSet> rows = new ArrayList<>();
+        for (EmployeeSearchHit hit : snapshot) {
+            rows.add(resultSet(hit));
+        }
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(0);
+            for (ResultSet row : rows) {
+                handler.processRow(row);
+            }
+            index.put(new EmployeeSearchHit(1L, "Sita", "Hyderabad", "Telangana", "Director"));
+            index.remove(3L);
+            return null;
+        }).when(repository).streamAll(any(RowCallbackHandler.class));
+
+        index.reload();
+    }
+
+    private static ResultSet resultSet(EmployeeSearchHit hit) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("id")).thenReturn(hit.getId());
+        when(rs.getString("name")).thenReturn(hit.getName());
+        when(rs.getString("city")).thenReturn(hit.getCity());
+        when(rs.getString("state")).thenReturn(hit.getState());
+        when(rs.getString("category")).thenReturn(hit.getCategory());
+        return rs;
+    }
+
+    private static List<Long> ids(List<EmployeeSearchHit> hits) {
+        return hits.stream().map(EmployeeSearchHit::getId).toList();
+    }
+}
@@ -1,39 +1,123 @@
 package com.pamu.service;
 
 import com.pamu.dto.EmployeeDTO;
+import com.pamu.dto.EmployeeHierarchyRow;
+import com.pamu.dto.EmployeeRequest;
+import com.pamu.dto.EmployeeSearchHit;
+import com.pamu.dto.ImportSummary;
+import com.pamu.exception.EmployeeNotFoundException;
+import com.pamu.exception.ImportValidationException;
+import com.pamu.exception.InvalidEmployeeDataException;
 import com.pamu.model.Employee;
+import com.pamu.model.EmployeeNode;
+import com.pamu.model.ExportArtifact;
+import com.pamu.repository.EmployeeJdbcRepository;
 import com.pamu.repository.EmployeeRepository;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 class EmployeeServiceTest {
 
     @Mock
     private EmployeeRepository employeeRepository;
+    @Mock
+    private EmployeeJdbcRepository employeeJdbcRepository;
+    @Mock
+    private GratuityLiabilityJob gratuityLiabilityJob;
+    @Mock
+    private PlatformTransactionManager transactionManager;
 
     @InjectMocks
     private EmployeeService employeeService;
 
+    @TempDir
+    Path spoolDir;
+
+    private final Map<Long, Employee> committed = new HashMap<>();
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        employeeService.spoolManager = new SpoolManager();
+        ReflectionTestUtils.setField(employeeService.spoolManager, "directory", spoolDir.toString());
+        ReflectionTestUtils.setField(employeeService.spoolManager, "maxBytes", 1_000_000L);
+        employeeService.spoolManager.init();
+        employeeService.employeeDirectory = new EmployeeDirectory();
+        employeeService.employeeDirectory.employeeJdbcRepository = employeeJdbcRepository;
+        employeeService.employeeSearchIndex = new EmployeeSearchIndex();
+        employeeService.employeeSearchIndex.employeeJdbcRepository = employeeJdbcRepository;
+        // Single-row changes are read back by the directory and search index from the rows they committed
+        when(employeeRepository.saveAndFlush(any(Employee.class))).thenAnswer(invocation -> {
+            Employee saved = invocation.getArgument(0);
+            committed.put(saved.getId(), saved);
+            return saved;
+        });
+        doAnswer(invocation -> committed.remove(invocation.<Employee>getArgument(0).getId()))
+                .when(employeeRepository).delete(any(Employee.class));
+        doAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Long id : ids) {
+                if (committed.containsKey(id)) {
+                    handler.processRow(resultSet(committed.get(id)));
+                }
+            }
+            return null;
+        }).when(employeeJdbcRepository).streamByIds(anyCollection(), any(RowCallbackHandler.class));
+        employeeService.employeeDataVersion = new EmployeeDataVersion();
+        employeeService.employeeDataVersion.cacheManager = new CaffeineCacheManager("allEmployees", "pagedEmployees");
+        employeeService.exportArtifactCache = new ExportArtifactCache();
+        employeeService.exportArtifactCache.employeeDataVersion = employeeService.employeeDataVersion;
+        employeeService.exportArtifactCache.spoolManager = employeeService.spoolManager;
+        employeeService.importErrorReports = new ImportErrorReports();
+        employeeService.importErrorReports.spoolManager = employeeService.spoolManager;
+        employeeService.employeeImportQueue = new EmployeeImportQueue();
+        employeeService.employeeImportQueue.init();
+        // Reports are read through the real store over the repository mocks; only the background refresh is stubbed
+        EmployeeColumnStore columnStore = new EmployeeColumnStore();
+        columnStore.employeeService = employeeService;
+        columnStore.employeeDataVersion = employeeService.employeeDataVersion;
+        columnStore.employeeRepository = employeeRepository;
+        columnStore.cacheManager = employeeService.employeeDataVersion.cacheManager;
+        employeeService.employeeColumnStore = columnStore;
+        employeeService.employeeReportStore = spy(new EmployeeReportStore());
+        employeeService.employeeReportStore.employeeColumnStore = columnStore;
+        doNothing().when(employeeService.employeeReportStore).refresh();
+    }
+
+    @AfterEach
+    void tearDown() {
+        employeeService.employeeImportQueue.shutdown();
     }
 
     @Test
@@ -105,6 +189,37 @@ class EmployeeServiceTest {
         assertNull(result);
     }
 
+    @Test
+    void testGetNthHighestSalaryEmployee_concurrentRequestsShareOneQuery() throws Exception {
+        Employee emp = new Employee();
+        emp.setId(1L);
+        emp.setName("Meera");
+        emp.setSalary(120000.0);
+        java.util.concurrent.CountDownLatch querying = new java.util.concurrent.CountDownLatch(1);
+        java.util.concurrent.CountDownLatch release = new java.util.concurrent.CountDownLatch(1);
+        when(employeeRepository.findNthHighestSalary(1)).thenAnswer(invocation -> {
+            querying.countDown();
+            release.await(5, java.util.concurrent.TimeUnit.SECONDS);
+            return emp;
+        });
+
+        java.util.concurrent.ExecutorService pool = java.util.concurrent.Executors.newFixedThreadPool(2);
+        try {
+            java.util.concurrent.Future<EmployeeDTO> first = pool.submit(() -> employeeService.getNthHighestSalaryEmployee(2));
+            assertTrue(querying.await(5, java.util.concurrent.TimeUnit.SECONDS));
+            java.util.concurrent.Future<EmployeeDTO> second = pool.submit(() -> employeeService.getNthHighestSalaryEmployee(2));
+            // Let the second request reach the query in flight before it returns
+            Thread.sleep(100);
+            release.countDown();
+
+            assertEquals("Meera", first.get().getName());
+            assertSame(first.get(), second.get());
+        } finally {
+            pool.shutdownNow();
+        }
+        verify(employeeRepository, times(1)).findNthHighestSalary(1);
+    }
+
     @Test
     void testGetNthHighestSalaryEmployee_throwsExceptionForInvalidN() {
         IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
@@ -118,17 +233,69 @@ class EmployeeServiceTest {
         java.nio.file.Path excelPath = java.nio.file.Paths.get("src/test/resources/Employee.xlsx");
         byte[] excelBytes = java.nio.file.Files.readAllBytes(excelPath);
         MultipartFile mockFile = mock(MultipartFile.class);
-        when(mockFile.getInputStream()).thenReturn(new java.io.ByteArrayInputStream(excelBytes));
+        // Like a real MultipartFile, each call returns a fresh stream (the upload is read once for its hash)
+        when(mockFile.getInputStream()).thenAnswer(invocation -> new java.io.ByteArrayInputStream(excelBytes));
         Employee emp = new Employee();
         emp.setId(1L);
         emp.setName("Test");
         when(employeeRepository.findAll()).thenReturn(Collections.singletonList(emp));
 
-        File result = employeeService.processAndDownloadEmployees(mockFile);
+        ExportArtifact result = employeeService.processAndDownloadEmployees(mockFile);
 
         assertNotNull(result);
-        assertTrue(result.exists());
+        assertTrue(result.getFile().exists());
+        assertEquals("employees.xlsx", result.getFileName());
+        assertNotNull(result.getEtag());
         verify(employeeRepository, atLeastOnce()).findAll();
+        assertEquals(1, employeeService.employeeDataVersion.current());
+        // Both saves of the import are committed together
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void testProcessAndDownloadEmployees_skipsRepeatedUploadUntilDataChangesOrForced() throws Exception {
+        byte[] excelBytes = java.nio.file.Files.readAllBytes(java.nio.file.Paths.get("src/test/resources/Employee.xlsx"));
+        MultipartFile upload = mock(MultipartFile.class);
+        when(upload.getInputStream()).thenAnswer(invocation -> new ByteArrayInputStream(excelBytes));
+        when(employeeRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        Employee emp = new Employee();
+        emp.setId(1L);
+        emp.setName("Test");
+        when(employeeRepository.findAll()).thenReturn(Collections.singletonList(emp));
+
+        ExportArtifact first = employeeService.processAndDownloadEmployees(upload);
+        ExportArtifact repeat = employeeService.processAndDownloadEmployees(upload);
+
+        assertEquals(first.getFile(), repeat.getFile());
+        assertEquals(1, employeeService.employeeDataVersion.current());
+        verify(employeeJdbcRepository, times(1)).refreshClosure(any());
+
+        employeeService.processAndDownloadEmployees(upload, true);
+        assertEquals(2, employeeService.employeeDataVersion.current());
+
+        // Any other change makes the same file worth importing again
+        employeeService.employeeDataVersion.advance();
+        employeeService.processAndDownloadEmployees(upload);
+        assertEquals(4, employeeService.employeeDataVersion.current());
+        verify(employeeJdbcRepository, times(3)).refreshClosure(any());
+    }
+
+    @Test
+    void testExportEmployees_cachedUntilDataGenerationChanges() {
+        Employee emp = new Employee();
+        emp.setId(1L);
+        emp.setName("Test");
+        when(employeeRepository.findAll()).thenReturn(Collections.singletonList(emp));
+
+        ExportArtifact first = employeeService.exportEmployees();
+        ExportArtifact second = employeeService.exportEmployees();
+        assertEquals(first.getFile(), second.getFile());
+        verify(employeeRepository, times(1)).findAll();
+
+        employeeService.employeeDataVersion.advance();
+        ExportArtifact third = employeeService.exportEmployees();
+        assertNotEquals(first.getFile(), third.getFile());
+        verify(employeeRepository, times(2)).findAll();
     }
 
     /*@Test
@@ -151,7 +318,120 @@ class EmployeeServiceTest {
             // At least two saveAll calls: one for initial save, one for manager update
             verify(employeeRepository, atLeast(2)).saveAll(anyList());
             verify(employeeRepository, atLeastOnce()).flush();
+            // Closure rows are refreshed for the imported employees once they are stored
+            verify(employeeJdbcRepository).refreshClosure(argThat(ids -> ids.contains(789L) && ids.contains(123L)));
+            verify(gratuityLiabilityJob).requestRun();
+            verify(employeeService.employeeReportStore).refresh();
+        }
+    }
+
+    @Test
+    void testImportEmployeeData_rejectsInvalidFileWithEveryViolationAndWritesNothing() throws Exception {
+        // Row 2 is the director; rows 3-4 form a cycle; row 5 repeats ID 2; row 6 points at a missing manager
+        byte[] workbook = workbook(
+                new Object[]{1, "Rama", "chennai", "Tamilnadu", "Director", null, 150000},
+                new Object[]{2, "Shivam", "bangalore", "karnataka", "manager", 3, 75000},
+                new Object[]{3, "Ravi", "hyderabad", "Telangana", "employee", 2, 45000},
+                new Object[]{2, "Krishna", "hyderabad", "Telangana", "employee", 1, 50000},
+                new Object[]{4, "Manoj", "mangalore", "karnataka", "employee", 77, 95000});
+
+        ImportValidationException e = assertThrows(ImportValidationException.class,
+                () -> employeeService.importEmployeeData(new ByteArrayInputStream(workbook)));
+
+        assertEquals(3, e.getTotalViolations());
+        assertTrue(e.getViolations().contains("Row 5: duplicate employee ID 2 (first used in row 3)"));
+        assertTrue(e.getViolations().contains("Row 6: manager 77 of employee 4 is not in the file"));
+        assertTrue(e.getViolations().stream().anyMatch(v -> v.startsWith("Reporting cycle of 2 employee(s)")));
+        verify(employeeRepository, never()).saveAll(anyList());
+        assertEquals(0, employeeService.employeeDataVersion.current());
+    }
+
+    @Test
+    void testImportEmployeeData_treatsZeroManagerAsTopLevel() throws Exception {
+        // The export writes 0 as the manager of top-level employees, so an export can be imported again
+        byte[] workbook = workbook(
+                new Object[]{1, "Rama", "chennai", "Tamilnadu", "Director", 0, 150000},
+                new Object[]{2, "Shivam", "bangalore", "karnataka", "manager", 1, 75000});
+        when(employeeRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        employeeService.importEmployeeData(new ByteArrayInputStream(workbook));
+
+        verify(employeeJdbcRepository).refreshClosure(argThat(ids -> ids.contains(1L) && ids.contains(2L) && !ids.contains(10000L)));
+    }
+
+    @Test
+    void testImportEmployeeDataLeniently_commitsValidRowsManagersFirstAndReportsTheRest() throws Exception {
+        // Columns in the usual order; text cells hold numbers and dates the converters accept
+        byte[] workbook = workbook(
+                new Object[]{"4", "Manoj", "mangalore", "karnataka", "employee", "2", "95,000", "04-06-2023"},
+                new Object[]{1, "Rama", "chennai", "Tamilnadu", "Director", null, 150000, "2020-01-15"},
+                new Object[]{2, "Shivam", "bangalore", "karnataka", "manager", 1, 75000},
+                new Object[]{3, "Ravi", "hyderabad", "Telangana", "employee", 2, "lots"},
+                new Object[]{5, "Krishna", "hyderabad", "Telangana", "employee", 77, 50000},
+                new Object[]{6, "Sreekanth", "mumbai", "Maharastra", "employee", 5, 60000});
+        List<Long> saved = new java.util.ArrayList<>();
+        when(employeeRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Employee> batch = invocation.getArgument(0);
+            batch.forEach(employee -> saved.add(employee.getId()));
+            return batch;
+        });
+
+        ImportSummary summary = employeeService.importEmployeeDataLeniently(new ByteArrayInputStream(workbook));
+
+        // 3 rows from the file plus the synthetic employees under the director (49 distinct IDs)
+        assertEquals(52, summary.getImported());
+        assertEquals(3, summary.getRejected());
+        assertEquals(List.of(1L, 2L, 4L), saved.subList(0, 3));
+        verify(transactionManager, atLeastOnce()).commit(any());
+        assertEquals(1, employeeService.employeeDataVersion.current());
+        verify(gratuityLiabilityJob).requestRun();
+        verify(employeeService.employeeReportStore).refresh();
+
+        ExportArtifact report = employeeService.importErrorReports.find(summary.getErrorReportId()).orElseThrow();
+        List<String> lines = java.nio.file.Files.readAllLines(report.getFile().toPath());
+        assertEquals(List.of(
+                "row,id,error",
+                "5,,\"SALARY 'lots' is not a number\"",
+                "6,5,\"manager 77 of employee 5 is not in the file\"",
+                "7,6,\"Manager 5 was rejected\""), lines);
+    }
+
+    @Test
+    void testImportEmployeeData_failingReloadStillAdvancesTheGenerationAndRunsTheOtherSteps() throws Exception {
+        byte[] workbook = workbook(
+                new Object[]{1, "Rama", "chennai", "Tamilnadu", "Director", null, 150000},
+                new Object[]{2, "Shivam", "bangalore", "karnataka", "manager", 1, 75000});
+        when(employeeRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        doThrow(new IllegalStateException("connection lost")).when(employeeJdbcRepository).streamAll(any());
+
+        employeeService.importEmployeeData(new ByteArrayInputStream(workbook));
+        ImportSummary summary = employeeService.importEmployeeDataLeniently(new ByteArrayInputStream(workbook));
+
+        assertEquals(2, employeeService.employeeDataVersion.current());
+        assertEquals(0, summary.getRejected());
+        verify(gratuityLiabilityJob, times(2)).requestRun();
+        verify(employeeService.employeeReportStore, times(2)).refresh();
+        // Both the directory and the search index tried to reload after each import
+        verify(employeeJdbcRepository, times(4)).streamAll(any());
+    }
+
+    @Test
+    void testImportEmployeeData_missingRequiredColumnIsReported() throws Exception {
+        byte[] workbook;
+        try (org.apache.poi.xssf.usermodel.XSSFWorkbook book = new org.apache.poi.xssf.usermodel.XSSFWorkbook();
+             java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream()) {
+            org.apache.poi.ss.usermodel.Row header = book.createSheet().createRow(0);
+            header.createCell(0).setCellValue("Employee ID");
+            header.createCell(1).setCellValue("Name");
+            book.write(out);
+            workbook = out.toByteArray();
         }
+
+        ImportValidationException e = assertThrows(ImportValidationException.class,
+                () -> employeeService.importEmployeeData(new ByteArrayInputStream(workbook)));
+
+        assertEquals(1, e.getTotalViolations());
+        assertTrue(e.getViolations().get(0).startsWith("Missing required column SALARY"));
     }
 
     @Test
@@ -315,9 +595,14 @@ class EmployeeServiceTest {
         emp.setSalary(45000.0);
         emp.setManager(manager);
 
-        when(employeeRepository.findAll()).thenReturn(List.of(director, manager, emp));
+        // Loaded directory: the hierarchy is built from it without touching the repository
+        employeeService.employeeDirectory.load(List.of(
+                new EmployeeDTO(1L, "Rama", 150000.0, "Director", null, null),
+                new EmployeeDTO(2L, "Shivam", 75000.0, "manager", null, 1L),
+                new EmployeeDTO(3L, "Ravi", 45000.0, "employee", null, 2L)));
 
-        File jsonFile = employeeService.getEmployeeHierarchyByManager(1L);
+        File jsonFile = employeeService.getEmployeeHierarchyByManager(1L).getFile();
+        verifyNoInteractions(employeeRepository);
 
         assertNotNull(jsonFile);
         assertTrue(jsonFile.exists());
@@ -330,4 +615,271 @@ class EmployeeServiceTest {
         jsonFile.delete();
     }
 
+    @Test
+    void testBuildHierarchy_withoutDirectoryFetchesOnlyTheSubtree() {
+        when(employeeRepository.findSubtreeRows(2L, Integer.MAX_VALUE)).thenReturn(List.of(
+                row(2L, 1L, "Shivam", "manager"),
+                row(3L, 2L, "Ravi", "employee"),
+                row(4L, 3L, "Sneha", "employee")));
+
+        EmployeeNode root = employeeService.buildHierarchy(2L);
+
+        assertEquals("Shivam", root.getName());
+        assertEquals(1L, root.getManagerId());
+        assertEquals(List.of(3L), root.getReportees().stream().map(EmployeeNode::getId).toList());
+        assertEquals("Sneha", root.getReportees().get(0).getReportees().get(0).getName());
+        verify(employeeRepository, never()).findAll();
+        assertNull(employeeService.buildHierarchy(99L));
+    }
+
+    @Test
+    void testBuildHierarchy_concurrentRequestsShareOneSubtreeQuery() throws Exception {
+        java.util.concurrent.CountDownLatch querying = new java.util.concurrent.CountDownLatch(1);
+        java.util.concurrent.CountDownLatch release = new java.util.concurrent.CountDownLatch(1);
+        when(employeeRepository.findSubtreeRows(2L, Integer.MAX_VALUE)).thenAnswer(invocation -> {
+            querying.countDown();
+            release.await(5, java.util.concurrent.TimeUnit.SECONDS);
+            return List.of(row(2L, 1L, "Shivam", "manager"), row(3L, 2L, "Ravi", "employee"));
+        });
+
+        int callers = 8;
+        java.util.concurrent.ExecutorService pool = java.util.concurrent.Executors.newFixedThreadPool(callers);
+        try {
+            List<java.util.concurrent.Future<EmployeeNode>> results = new java.util.ArrayList<>();
+            results.add(pool.submit(() -> employeeService.buildHierarchy(2L)));
+            assertTrue(querying.await(5, java.util.concurrent.TimeUnit.SECONDS));
+            for (int i = 1; i < callers; i++) {
+                results.add(pool.submit(() -> employeeService.buildHierarchy(2L)));
+            }
+            // Let the other requests reach the query in flight before it returns
+            Thread.sleep(100);
+            release.countDown();
+
+            EmployeeNode first = results.get(0).get();
+            assertEquals("Shivam", first.getName());
+            for (java.util.concurrent.Future<EmployeeNode> result : results) {
+                assertSame(first, result.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        verify(employeeRepository, times(1)).findSubtreeRows(2L, Integer.MAX_VALUE);
+    }
+
+    @Test
+    void testAdvancingGenerationClearsEmployeeCaches() {
+        org.springframework.cache.Cache cache = employeeService.employeeDataVersion.cacheManager.getCache("allEmployees");
+        cache.put(SimpleKey.EMPTY, List.of(new Employee()));
+        employeeService.employeeDataVersion.advance();
+        assertNull(cache.get(SimpleKey.EMPTY));
+    }
+
+    @Test
+    void testCreateEmployee_storesAndPatchesDirectory() {
+        employeeService.employeeDirectory.load(List.of(new EmployeeDTO(1L, "Rama", 150000.0, "Director", null, null)));
+        Employee director = new Employee();
+        director.setId(1L);
+        when(employeeRepository.findById(1L)).thenReturn(java.util.Optional.of(director));
+
+        EmployeeDTO created = employeeService.createEmployee(
+                new EmployeeRequest(2L, "Shivam", "Pune", "Maharashtra", "manager", 75000.0, LocalDate.of(2022, 7, 5), 1L));
+
+        assertEquals(1L, created.getManagerId());
+        verify(employeeRepository).saveAndFlush(argThat(e -> e.getId() == 2L && e.getManager() == director));
+        verify(employeeJdbcRepository).refreshClosure(List.of(2L));
+        assertEquals(List.of(2L), employeeService.buildHierarchy(1L).getReportees().stream().map(EmployeeNode::getId).toList());
+        assertEquals(1, employeeService.employeeDataVersion.current());
+    }
+
+    @Test
+    void testCreateEmployee_withoutSalaryStaysOutOfTheSalaryRanking() {
+        employeeService.employeeDirectory.load(List.of(new EmployeeDTO(1L, "Rama", 150000.0, "Director", null, null)));
+
+        EmployeeDTO created = employeeService.createEmployee(
+                new EmployeeRequest(2L, "Shivam", null, null, "manager", null, null, null));
+
+        assertNull(created.getSalary());
+        assertEquals("Rama", employeeService.getNthHighestSalaryEmployee(1).getName());
+        assertNull(employeeService.getNthHighestSalaryEmployee(2));
+    }
+
+    @Test
+    void testSearchEmployees_findsCreatedEmployeeAndValidatesArguments() {
+        employeeService.employeeSearchIndex.load(List.of(new EmployeeSearchHit(1L, "Rama", "Hyderabad", "Telangana", "Director")));
+        employeeService.createEmployee(
+                new EmployeeRequest(2L, "Ramesh Kumar", "Pune", "Maharashtra", "employee", 40000.0, null, null));
+
+        assertEquals(List.of(1L, 2L), employeeService.searchEmployees("ram", null, null, 10).stream()
+                .map(EmployeeSearchHit::getId).toList());
+        assertEquals(List.of(2L), employeeService.searchEmployees("kum", null, "MAHARASHTRA", 10).stream()
+                .map(EmployeeSearchHit::getId).toList());
+        assertThrows(InvalidEmployeeDataException.class, () -> employeeService.searchEmployees(" ", null, null, 10));
+        assertThrows(InvalidEmployeeDataException.class, () -> employeeService.searchEmployees("ram", null, null, 101));
+    }
+
+    @Test
+    void testCreateEmployee_rejectsDuplicateAndUnknownManager() {
+        when(employeeRepository.existsById(1L)).thenReturn(true);
+        assertThrows(InvalidEmployeeDataException.class, () -> employeeService.createEmployee(
+                new EmployeeRequest(1L, "Rama", null, null, "Director", 1.0, null, null)));
+        assertThrows(InvalidEmployeeDataException.class, () -> employeeService.createEmployee(
+                new EmployeeRequest(2L, "Shivam", null, null, "manager", 1.0, null, 99L)));
+        // IDs beyond the int range are ordinary IDs that do not exist
+        assertThrows(InvalidEmployeeDataException.class, () -> employeeService.createEmployee(
+                new EmployeeRequest(3L, "Ravi", null, null, "employee", 1.0, null, 5_000_000_000L)));
+        assertThrows(EmployeeNotFoundException.class, () -> employeeService.deleteEmployee(5_000_000_000L));
+        verify(employeeRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void testUpdateEmployee_managerChangeMovesSubtree() {
+        Employee oldManager = new Employee();
+        oldManager.setId(1L);
+        Employee newManager = new Employee();
+        newManager.setId(3L);
+        Employee emp = new Employee();
+        emp.setId(2L);
+        emp.setName("Shivam");
+        emp.setManager(oldManager);
+        when(employeeRepository.findById(2L)).thenReturn(java.util.Optional.of(emp));
+        when(employeeRepository.findById(3L)).thenReturn(java.util.Optional.of(newManager));
+
+        EmployeeDTO updated = employeeService.updateEmployee(2L,
+                new EmployeeRequest(null, "Shivam", null, null, "manager", 80000.0, null, 3L));
+
+        assertEquals(3L, updated.getManagerId());
+        assertEquals(80000.0, updated.getSalary());
+        verify(employeeJdbcRepository).moveSubtree(2L, 3L);
+
+        // Same manager again: nothing to move
+        employeeService.updateEmployee(2L, new EmployeeRequest(null, "Shivam", null, null, "manager", 81000.0, null, 3L));
+        verify(employeeJdbcRepository, times(1)).moveSubtree(anyLong(), any());
+    }
+
+    @Test
+    void testUpdateEmployee_cycleIsRejected() {
+        Employee emp = new Employee();
+        emp.setId(2L);
+        Employee report = new Employee();
+        report.setId(4L);
+        report.setManager(emp);
+        when(employeeRepository.findById(2L)).thenReturn(java.util.Optional.of(emp));
+        when(employeeRepository.findById(4L)).thenReturn(java.util.Optional.of(report));
+        doThrow(new InvalidEmployeeDataException("cycle")).when(employeeJdbcRepository).moveSubtree(2L, 4L);
+
+        assertThrows(InvalidEmployeeDataException.class, () -> employeeService.updateEmployee(2L,
+                new EmployeeRequest(null, "Shivam", null, null, "manager", 1.0, null, 4L)));
+        assertThrows(EmployeeNotFoundException.class, () -> employeeService.updateEmployee(9L,
+                new EmployeeRequest(null, "Nobody", null, null, null, null, null, null)));
+    }
+
+    @Test
+    void testDeleteEmployee_reportsMoveUpToManager() {
+        employeeService.employeeDirectory.load(List.of(
+                new EmployeeDTO(1L, "Rama", 150000.0, "Director", null, null),
+                new EmployeeDTO(2L, "Shivam", 75000.0, "manager", null, 1L),
+                new EmployeeDTO(3L, "Ravi", 45000.0, "employee", null, 2L)));
+        Employee director = new Employee();
+        director.setId(1L);
+        Employee manager = new Employee();
+        manager.setId(2L);
+        manager.setManager(director);
+        Employee report = new Employee();
+        report.setId(3L);
+        report.setManager(manager);
+        when(employeeRepository.findById(2L)).thenReturn(java.util.Optional.of(manager));
+        when(employeeRepository.findByManagerId(2L)).thenReturn(List.of(report));
+
+        employeeService.deleteEmployee(2L);
+
+        assertSame(director, report.getManager());
+        verify(employeeJdbcRepository).moveSubtree(3L, 1L);
+        verify(employeeJdbcRepository).deleteFromClosure(2L);
+        verify(employeeRepository).delete(manager);
+        assertEquals(List.of(3L), employeeService.buildHierarchy(1L).getReportees().stream().map(EmployeeNode::getId).toList());
+    }
+
+    @Test
+    void testGetNthHighestSalaryEmployee_usesDirectoryWhenLoaded() {
+        employeeService.employeeDirectory.load(List.of(
+                new EmployeeDTO(1L, "Rama", 150000.0, "Director", null, null),
+                new EmployeeDTO(2L, "Shivam", 75000.0, "manager", null, 1L)));
+
+        assertEquals("Shivam", employeeService.getNthHighestSalaryEmployee(2).getName());
+        verify(employeeRepository, never()).findNthHighestSalary(anyInt());
+    }
+
+    @Test
+    void testStreamEmployeesAsNdjson_writesOneObjectPerRow() throws Exception {
+        java.sql.ResultSet rs = mock(java.sql.ResultSet.class);
+        when(rs.getLong("id")).thenReturn(1L, 2L);
+        when(rs.getString("name")).thenReturn("Rama", "Ravi");
+        when(rs.getLong("manager_id")).thenReturn(0L, 1L);
+        when(rs.getDouble("salary")).thenReturn(150000.0, 45000.0);
+        when(rs.wasNull()).thenReturn(true, false, false, false);
+        when(rs.getDate("doj")).thenReturn(java.sql.Date.valueOf(LocalDate.of(2015, 1, 1)), (java.sql.Date) null);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(0);
+            handler.processRow(rs);
+            handler.processRow(rs);
+            return null;
+        }).when(employeeJdbcRepository).streamAll(any(RowCallbackHandler.class));
+
+        java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+        employeeService.streamEmployeesAsNdjson(out);
+
+        String[] lines = out.toString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("{\"id\":1,\"name\":\"Rama\",\"city\":null,\"state\":null,\"category\":null,\"managerId\":null,\"salary\":150000.0,\"doj\":\"2015-01-01\"}", lines[0]);
+        assertTrue(lines[1].contains("\"managerId\":1"));
+        assertTrue(lines[1].contains("\"doj\":null"));
+    }
+
+    private static java.sql.ResultSet resultSet(Employee employee) throws java.sql.SQLException {
+        java.sql.ResultSet rs = mock(java.sql.ResultSet.class);
+        when(rs.getLong("id")).thenReturn(employee.getId());
+        when(rs.getString("name")).thenReturn(employee.getName());
+        when(rs.getString("city")).thenReturn(employee.getCity());
+        when(rs.getString("state")).thenReturn(employee.getState());
+        when(rs.getString("category")).thenReturn(employee.getCategory());
+        when(rs.getObject("salary", Double.class)).thenReturn(employee.getSalary());
+        when(rs.getDate("doj")).thenReturn(employee.getDoj() != null ? java.sql.Date.valueOf(employee.getDoj()) : null);
+        when(rs.getObject("manager_id", Long.class)).thenReturn(employee.getManager() != null ? employee.getManager().getId() : null);
+        return rs;
+    }
+
+    private static EmployeeHierarchyRow row(Long id, Long managerId, String name, String category) {
+        return new EmployeeHierarchyRow() {
+            public Long getId() { return id; }
+            public Long getManagerId() { return managerId; }
+            public String getName() { return name; }
+            public String getCategory() { return category; }
+        };
+    }
+
+    // Builds a workbook in the upload layout: ID, Name, City, State, Category, Manager ID, Salary, DOJ
+    private static byte[] workbook(Object[]... rows) throws IOException {
+        try (org.apache.poi.xssf.usermodel.XSSFWorkbook workbook = new org.apache.poi.xssf.usermodel.XSSFWorkbook();
+             java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream()) {
+            org.apache.poi.ss.usermodel.Sheet sheet = workbook.createSheet();
+            org.apache.poi.ss.usermodel.Row header = sheet.createRow(0);
+            String[] headers = {"ID", "Name", "City", "State", "Category", "Manager ID", "Salary", "DOJ"};
+            for (int c = 0; c < headers.length; c++) {
+                header.createCell(c).setCellValue(headers[c]);
+            }
+            for (int i = 0; i < rows.length; i++) {
+                org.apache.poi.ss.usermodel.Row row = sheet.createRow(i + 1);
+                for (int c = 0; c < rows[i].length; c++) {
+                    Object value = rows[i][c];
+                    if (value instanceof Number number) {
+                        row.createCell(c).setCellValue(number.doubleValue());
+                    } else if (value != null) {
+                        row.createCell(c).setCellValue((String) value);
+                    }
+                }
+            }
+            workbook.write(out);
+            return out.toByteArray();
+        }
+    }
 }
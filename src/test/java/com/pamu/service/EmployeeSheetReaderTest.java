@@ -0,0 +1,72 @@
+package com.pamu.service;
+
+import com.pamu.exception.ImportValidationException;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeSheetReaderTest {
+
+    @Test
+    void testRead_locatesColumnsByHeaderAndConvertsTolerantly() throws Exception {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet();
+            // Reordered, differently spelled and extra columns
+            Row header = sheet.createRow(0);
+            String[] headers = {"Salary", "Notes", "Employee ID", "Manager", "Name", "Date of Joining"};
+            for (int c = 0; c < headers.length; c++) {
+                header.createCell(c).setCellValue(headers[c]);
+            }
+            Row row = sheet.createRow(1);
+            row.createCell(0).setCellValue("1,20,000");
+            row.createCell(1).setCellValue("ignored");
+            row.createCell(2).setCellValue(" 42 ");
+            row.createCell(3).setCellValue(0);
+            row.createCell(4).setCellValue("Rama");
+            row.createCell(5).setCellValue("15/01/2020");
+            Row badSalary = sheet.createRow(2);
+            badSalary.createCell(0).setCellValue("n/a");
+            badSalary.createCell(2).setCellValue(43);
+            badSalary.createCell(4).setCellValue("Ravi");
+            Row fractionalId = sheet.createRow(3);
+            fractionalId.createCell(0).setCellValue(1);
+            fractionalId.createCell(2).setCellValue(4.5);
+            fractionalId.createCell(4).setCellValue("Shivam");
+            Row blank = sheet.createRow(4);
+            blank.createCell(1).setCellValue("only a note");
+
+            EmployeeSheetReader reader = EmployeeSheetReader.forHeader(header);
+            EmployeeService.EmployeeWrapper wrapper = reader.read(row);
+
+            assertEquals(42L, wrapper.employee.getId());
+            assertEquals("Rama", wrapper.employee.getName());
+            assertEquals(120000.0, wrapper.employee.getSalary());
+            assertEquals(LocalDate.of(2020, 1, 15), wrapper.employee.getDoj());
+            assertNull(wrapper.employee.getCity());
+            assertNull(wrapper.managerId);
+            assertEquals(2, wrapper.row);
+            IllegalArgumentException salary = assertThrows(IllegalArgumentException.class, () -> reader.read(badSalary));
+            assertEquals("SALARY 'n/a' is not a number", salary.getMessage());
+            assertThrows(IllegalArgumentException.class, () -> reader.read(fractionalId));
+            assertNull(reader.read(blank));
+        }
+    }
+
+    @Test
+    void testForHeader_rejectsMissingRequiredColumns() throws Exception {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Row header = workbook.createSheet().createRow(0);
+            header.createCell(0).setCellValue("Name");
+
+            ImportValidationException e = assertThrows(ImportValidationException.class, () -> EmployeeSheetReader.forHeader(header));
+
+            assertEquals(2, e.getTotalViolations());
+            assertTrue(e.getViolations().get(0).startsWith("Missing required column ID"));
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.pamu.service;
+
+import com.pamu.exception.EmployeeNotFoundException;
+import com.pamu.model.ExportArtifact;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExportArtifactCacheTest {
+
+    @TempDir
+    Path spoolDir;
+
+    private EmployeeDataVersion employeeDataVersion;
+    private SpoolManager spoolManager;
+    private ExportArtifactCache cache;
+
+    @BeforeEach
+    void setUp() {
+        employeeDataVersion = new EmployeeDataVersion();
+        spoolManager = new SpoolManager();
+        ReflectionTestUtils.setField(spoolManager, "directory", spoolDir.toString());
+        ReflectionTestUtils.setField(spoolManager, "maxBytes", 1_000_000L);
+        spoolManager.init();
+        cache = new ExportArtifactCache();
+        cache.employeeDataVersion = employeeDataVersion;
+        cache.spoolManager = spoolManager;
+    }
+
+    @Test
+    void testGetOrCreate_reusesArtifactWithinGeneration() {
+        AtomicInteger generated = new AtomicInteger();
+        ExportArtifact first = cache.getOrCreate("report", "1", "report.json", () -> write("{\"a\":1}", generated));
+        ExportArtifact second = cache.getOrCreate("report", "1", "report.json", () -> write("{\"a\":1}", generated));
+
+        assertEquals(first.getFile(), second.getFile());
+        assertEquals(first.getEtag(), second.getEtag());
+        assertEquals(1, generated.get());
+        assertTrue(first.getEtag().startsWith("\"") && first.getEtag().endsWith("\""));
+        assertEquals("report.json", first.getFileName());
+    }
+
+    @Test
+    void testGetOrCreate_parametersAndGenerationsAreSeparateEntries() {
+        AtomicInteger generated = new AtomicInteger();
+        ExportArtifact managerOne = cache.getOrCreate("report", "1", "report.json", () -> write("one", generated));
+        ExportArtifact managerTwo = cache.getOrCreate("report", "2", "report.json", () -> write("two", generated));
+        assertNotEquals(managerOne.getEtag(), managerTwo.getEtag());
+        managerOne.release();
+        managerTwo.release();
+
+        employeeDataVersion.advance();
+        ExportArtifact regenerated = cache.getOrCreate("report", "1", "report.json", () -> write("one", generated));
+
+        assertNotEquals(managerOne.getFile(), regenerated.getFile());
+        assertEquals(managerOne.getEtag(), regenerated.getEtag()); // same bytes, same strong ETag
+        assertEquals(3, generated.get());
+        // Artifacts of the superseded generation are dropped along with their files
+        assertEquals(1, cache.size());
+        assertFalse(managerOne.getFile().exists());
+        assertFalse(managerTwo.getFile().exists());
+    }
+
+    @Test
+    void testGetOrCreate_evictedArtifactIsRegenerated() {
+        ReflectionTestUtils.setField(spoolManager, "maxBytes", 10L);
+        AtomicInteger generated = new AtomicInteger();
+        ExportArtifact first = cache.getOrCreate("report", "1", "report.json", () -> write("0123456789", generated));
+        first.release();
+        cache.getOrCreate("report", "2", "report.json", () -> write("abcdefghij", generated)).release();
+
+        assertFalse(first.getFile().exists());
+        assertEquals(1, cache.size());
+        assertNotEquals(first.getFile(),
+                cache.getOrCreate("report", "1", "report.json", () -> write("0123456789", generated)).getFile());
+        assertEquals(3, generated.get());
+    }
+
+    @Test
+    void testGetOrCreate_handedOutArtifactSurvivesEvictionAndDiscardUntilReleased() throws IOException {
+        ReflectionTestUtils.setField(spoolManager, "maxBytes", 10L);
+        AtomicInteger generated = new AtomicInteger();
+        cache.getOrCreate("report", "1", "report.json", () -> write("0123456789", generated)).release();
+        // Handed out from the cache, but its body not opened yet
+        ExportArtifact handedOut = cache.getOrCreate("report", "1", "report.json", () -> write("0123456789", generated));
+
+        cache.getOrCreate("report", "2", "report.json", () -> write("abcdefghij", generated)).release();
+        employeeDataVersion.advance();
+        cache.getOrCreate("report", "3", "report.json", () -> write("klmnopqrst", generated)).release();
+
+        assertEquals(10, handedOut.getResource().contentLength());
+        try (InputStream in = handedOut.getResource().getInputStream()) {
+            assertEquals("0123456789", new String(in.readAllBytes()));
+        }
+        handedOut.release();
+        assertFalse(handedOut.getFile().exists());
+    }
+
+    @Test
+    void testGetOrCreate_failuresAreNotCached() {
+        assertThrows(EmployeeNotFoundException.class, () -> cache.getOrCreate("report", "9", "report.json", () -> {
+            throw new EmployeeNotFoundException("Manager with ID 9 not found.");
+        }));
+        AtomicInteger generated = new AtomicInteger();
+        assertNotNull(cache.getOrCreate("report", "9", "report.json", () -> write("ok", generated)));
+        assertEquals(1, generated.get());
+    }
+
+    @Test
+    void testAdvanceAfterCommit_withoutTransactionAdvancesImmediately() {
+        employeeDataVersion.advanceAfterCommit();
+        assertEquals(1, employeeDataVersion.current());
+    }
+
+    private File write(String content, AtomicInteger counter) {
+        try {
+            counter.incrementAndGet();
+            File file = spoolManager.createFile("artifact-test", ".json");
+            Files.writeString(file.toPath(), content);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.pamu.service;
+
+import com.pamu.dto.GratuityLiabilityTotal;
+import com.pamu.exception.InvalidEmployeeDataException;
+import com.pamu.model.Employee;
+import com.pamu.repository.EmployeeJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class GratuityLiabilityJobTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 15);
+
+    @Mock
+    private EmployeeColumnStore employeeColumnStore;
+
+    @Mock
+    private EmployeeJdbcRepository employeeJdbcRepository;
+
+    @InjectMocks
+    private GratuityLiabilityJob job;
+
+    private EmployeeColumns columns;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        columns = EmployeeColumns.of(List.of(
+                employee(1L, 52000.0, TODAY.minusYears(10).minusMonths(3)),
+                employee(2L, 26000.0, TODAY.minusYears(5)),
+                employee(3L, 26000.0, TODAY.minusYears(5).minusMonths(1)),
+                employee(4L, null, TODAY.minusYears(8)),
+                employee(5L, 30000.0, null),
+                employee(6L, 30000.0, TODAY.plusDays(10))), 3);
+        when(employeeColumnStore.current()).thenReturn(columns);
+    }
+
+    @Test
+    void testCompute_paysFifteenDaysPerCompletedYearAfterFiveYears() {
+        GratuityLiabilityJob.LiabilityRows liabilities = GratuityLiabilityJob.compute(columns, TODAY);
+
+        // 52000 x 15/26 x 10 completed years
+        assertEquals(300000.0, liabilities.amounts[0]);
+        assertTrue(liabilities.eligible[0]);
+        assertEquals(10, liabilities.completedYears[0]);
+        // Exactly five years is not more than five years
+        assertFalse(liabilities.eligible[1]);
+        assertEquals(0.0, liabilities.amounts[1]);
+        assertEquals(5, liabilities.completedYears[1]);
+        assertEquals(75000.0, liabilities.amounts[2]);
+        // Unknown salary, unknown or future date of joining
+        assertFalse(liabilities.eligible[3]);
+        assertEquals(8, liabilities.completedYears[3]);
+        assertEquals(-1, liabilities.completedYears[4]);
+        assertEquals(0, liabilities.completedYears[5]);
+        assertEquals(6, liabilities.size);
+    }
+
+    @Test
+    void testCompute_parallelChunksCoverEveryRow() {
+        List<Employee> employees = new ArrayList<>();
+        for (long id = 1; id <= GratuityLiabilityJob.CHUNK_ROWS * 4L + 7; id++) {
+            employees.add(employee(id, 26000.0, TODAY.minusYears(6)));
+        }
+        GratuityLiabilityJob.LiabilityRows liabilities = GratuityLiabilityJob.compute(EmployeeColumns.of(employees, 0), TODAY);
+
+        for (double amount : liabilities.amounts) {
+            assertEquals(90000.0, amount);
+        }
+    }
+
+    @Test
+    void testRun_writesOnlyChangedRowsOncePerGenerationAndDay() {
+        ArgumentCaptor<List<Long>> replaced = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<BatchPreparedStatementSetter> written = ArgumentCaptor.forClass(BatchPreparedStatementSetter.class);
+
+        // Nothing stored yet: every row is new
+        assertEquals(6, job.run(TODAY));
+        assertEquals(-1, job.run(TODAY));
+        // A month later only employee 2 has completed more than five years
+        assertEquals(1, job.run(TODAY.plusMonths(1)));
+
+        verify(employeeJdbcRepository, times(1)).streamGratuityLiabilities(any());
+        verify(employeeJdbcRepository, times(2)).saveGratuityRun(any(), replaced.capture(), written.capture(),
+                eq(6), anyInt(), anyDouble());
+        assertEquals(List.of(), replaced.getAllValues().get(0));
+        assertEquals(6, written.getAllValues().get(0).getBatchSize());
+        assertEquals(List.of(2L), replaced.getAllValues().get(1));
+        assertEquals(1, written.getAllValues().get(1).getBatchSize());
+        verify(employeeJdbcRepository).saveGratuityRun(TODAY.plusMonths(1), List.of(2L), written.getValue(), 6, 3, 450000.0);
+    }
+
+    @Test
+    void testChanges_comparesRowsByEmployeeId() {
+        GratuityLiabilityJob.LiabilityRows before = GratuityLiabilityJob.compute(columns, TODAY);
+        EmployeeColumns after = EmployeeColumns.of(List.of(
+                employee(1L, 52000.0, TODAY.minusYears(10).minusMonths(3)),
+                employee(3L, 30000.0, TODAY.minusYears(5).minusMonths(1)),
+                employee(4L, null, TODAY.minusYears(8)),
+                employee(7L, 1.0, null)), 4);
+        List<Long> replaced = new ArrayList<>();
+
+        int[] written = GratuityLiabilityJob.changes(before, GratuityLiabilityJob.compute(after, TODAY), replaced);
+
+        // 2, 5 and 6 are gone, 3 changed salary, 7 is new
+        assertEquals(List.of(2L, 3L, 5L, 6L), replaced);
+        assertArrayEquals(new int[]{1, 3}, written);
+    }
+
+    @Test
+    void testTotals_byManagerOrCategory() {
+        List<GratuityLiabilityTotal> totals = List.of(new GratuityLiabilityTotal(null, null, "employee", 2, 1, 10.0, TODAY));
+        when(employeeJdbcRepository.gratuityLiabilityByCategory()).thenReturn(totals);
+
+        assertSame(totals, job.totals(" Category"));
+        job.totals("category");
+        job.totals("manager");
+        verify(employeeJdbcRepository).gratuityLiabilityByCategory();
+        verify(employeeJdbcRepository).gratuityLiabilityByManager();
+        // A run invalidates the cached totals
+        job.run(TODAY);
+        job.totals("category");
+        verify(employeeJdbcRepository, times(2)).gratuityLiabilityByCategory();
+        assertThrows(InvalidEmployeeDataException.class, () -> job.totals("state"));
+    }
+
+    private static Employee employee(Long id, Double salary, LocalDate doj) {
+        Employee employee = new Employee();
+        employee.setId(id);
+        employee.setName("Employee " + id);
+        employee.setCategory("employee");
+        employee.setSalary(salary);
+        employee.setDoj(doj);
+        return employee;
+    }
+}
@@ -0,0 +1,154 @@
+package com.pamu.service;
+
+import com.pamu.exception.InvalidEmployeeDataException;
+import com.pamu.model.Employee;
+import com.pamu.model.ExportArtifact;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PartitionedExportServiceTest {
+
+    @TempDir
+    Path spoolDir;
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private PartitionedExportService service;
+    private AutoCloseable mocks;
+
+    @BeforeEach
+    void setUp() {
+        mocks = MockitoAnnotations.openMocks(this);
+        SpoolManager spoolManager = new SpoolManager();
+        ReflectionTestUtils.setField(spoolManager, "directory", spoolDir.toString());
+        ReflectionTestUtils.setField(spoolManager, "maxBytes", 10_000_000L);
+        spoolManager.init();
+        ExportArtifactCache cache = new ExportArtifactCache();
+        cache.employeeDataVersion = new EmployeeDataVersion();
+        cache.spoolManager = spoolManager;
+        service = new PartitionedExportService();
+        service.employeeService = employeeService;
+        service.exportArtifactCache = cache;
+        service.spoolManager = spoolManager;
+        ReflectionTestUtils.setField(service, "threads", 3);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        service.shutdown();
+        mocks.close();
+    }
+
+    @Test
+    void testExportPartitioned_writesOneWorkbookPerState() throws Exception {
+        when(employeeService.getAllEmployeesFromCache()).thenReturn(List.of(
+                employee(1L, "Telangana"), employee(2L, "Karnataka"), employee(3L, "telangana"),
+                employee(4L, null), employee(5L, "Tamil Nadu")));
+
+        ExportArtifact artifact = service.exportPartitioned("State");
+
+        assertEquals("employees-by-state.zip", artifact.getFileName());
+        Map<String, Integer> rows = rowsPerEntry(artifact);
+        assertEquals(Map.of("employees-Telangana.xlsx", 2, "employees-Karnataka.xlsx", 1,
+                "employees-Tamil_Nadu.xlsx", 1, "employees-Unassigned.xlsx", 1), rows);
+        assertEquals(artifact.getFile(), service.exportPartitioned("state").getFile());
+        verify(employeeService, times(1)).getAllEmployeesFromCache();
+    }
+
+    @Test
+    void testExportPartitioned_entriesFollowPartitionOrderWhicheverPartFinishesFirst() throws Exception {
+        // The first partition is by far the largest, so its workbook is written last
+        List<Employee> employees = new java.util.ArrayList<>();
+        for (long id = 1; id <= 3000; id++) {
+            employees.add(employee(id, "Andhra Pradesh"));
+        }
+        employees.add(employee(3001L, "Kerala"));
+        employees.add(employee(3002L, "Goa"));
+        when(employeeService.getAllEmployeesFromCache()).thenReturn(employees);
+
+        Map<String, Integer> rows = rowsPerEntry(service.exportPartitioned("state"));
+
+        assertEquals(List.of("employees-Andhra_Pradesh.xlsx", "employees-Goa.xlsx", "employees-Kerala.xlsx"),
+                List.copyOf(rows.keySet()));
+        assertEquals(3000, rows.get("employees-Andhra_Pradesh.xlsx"));
+    }
+
+    @Test
+    void testExportPartitioned_failureLeavesNoPartFilesBehind() throws Exception {
+        // Assam fails at once (a row without ID); Kerala is still being written when the export gives up
+        Employee broken = employee(1L, "Assam");
+        broken.setId(null);
+        List<Employee> employees = new java.util.ArrayList<>(List.of(broken));
+        for (long id = 2; id <= 3000; id++) {
+            employees.add(employee(id, "Kerala"));
+        }
+        when(employeeService.getAllEmployeesFromCache()).thenReturn(employees);
+
+        assertThrows(com.pamu.exception.FileProcessingException.class, () -> service.exportPartitioned("state"));
+
+        try (java.util.stream.Stream<Path> files = java.nio.file.Files.walk(spoolDir)) {
+            assertEquals(List.of(), files.filter(java.nio.file.Files::isRegularFile)
+                    .filter(file -> !file.getFileName().toString().equals(".lock"))
+                    .toList());
+        }
+    }
+
+    @Test
+    void testExportPartitioned_rejectsUnknownColumn() {
+        assertThrows(InvalidEmployeeDataException.class, () -> service.exportPartitioned("salary"));
+        verifyNoInteractions(employeeService);
+    }
+
+    @Test
+    void testEntryName_numbersNamesThatSanitizeAlike() {
+        Set<String> taken = new HashSet<>();
+        assertEquals("employees-A_B.xlsx", PartitionedExportService.entryName("A B", taken));
+        assertEquals("employees-A_B-2.xlsx", PartitionedExportService.entryName("A/B", taken));
+    }
+
+    // Data rows per ZIP entry, header excluded
+    private static Map<String, Integer> rowsPerEntry(ExportArtifact artifact) throws Exception {
+        Map<String, Integer> rows = new LinkedHashMap<>();
+        try (InputStream in = artifact.getResource().getInputStream(); ZipInputStream zip = new ZipInputStream(in)) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(zip.readAllBytes()))) {
+                    Sheet sheet = workbook.getSheetAt(0);
+                    rows.put(entry.getName(), sheet.getLastRowNum());
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static Employee employee(Long id, String state) {
+        Employee employee = new Employee();
+        employee.setId(id);
+        employee.setName("Employee " + id);
+        employee.setState(state);
+        employee.setSalary(50000.0);
+        return employee;
+    }
+}
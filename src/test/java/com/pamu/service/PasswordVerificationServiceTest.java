@@ -0,0 +1,80 @@
+package com.pamu.service;
+
+import com.pamu.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class PasswordVerificationServiceTest {
+
+    private PasswordVerificationService service;
+    private BCryptPasswordEncoder passwordEncoder;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        passwordEncoder = mock(BCryptPasswordEncoder.class);
+        meterRegistry = new SimpleMeterRegistry();
+        service = new PasswordVerificationService();
+        service.passwordEncoder = passwordEncoder;
+        service.meterRegistry = meterRegistry;
+        ReflectionTestUtils.setField(service, "threads", 1);
+        ReflectionTestUtils.setField(service, "queueCapacity", 1);
+        ReflectionTestUtils.setField(service, "timeoutMs", 5000L);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void testMatches_delegatesToEncoderAndRecordsLatency() {
+        when(passwordEncoder.matches("password", "hash")).thenReturn(true);
+        assertTrue(service.matches("password", "hash"));
+        assertEquals(1, meterRegistry.get("auth.login.verify.latency").timer().count());
+    }
+
+    @Test
+    void testMatches_rejectsWhenQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(passwordEncoder.matches(anyString(), anyString())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return true;
+        });
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            callers.submit(() -> service.matches("a", "hash"));   // occupies the only hashing thread
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            callers.submit(() -> service.matches("b", "hash"));   // fills the single queue slot
+            waitForQueueDepth(1);
+
+            assertThrows(TooManyRequestsException.class, () -> service.matches("c", "hash"));
+            assertEquals(1.0, meterRegistry.get("auth.login.verify.rejected").counter().count());
+        } finally {
+            release.countDown();
+            callers.shutdown();
+        }
+    }
+
+    private void waitForQueueDepth(int depth) throws InterruptedException {
+        for (int i = 0; i < 500 && meterRegistry.get("auth.login.verify.queue.depth").gauge().value() < depth; i++) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.pamu.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+
+    @Test
+    void testExecute_concurrentCallersShareOneComputation() throws Exception {
+        int threads = 8;
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            Future<Integer> first = pool.submit(() -> singleFlight.execute("key", () -> {
+                running.countDown();
+                await(release);
+                return computations.incrementAndGet();
+            }));
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+            List<Future<Integer>> others = new ArrayList<>();
+            for (int i = 1; i < threads; i++) {
+                others.add(pool.submit(() -> singleFlight.execute("key", computations::incrementAndGet)));
+            }
+            // Let the waiting callers reach the computation in flight before it finishes
+            Thread.sleep(100);
+            release.countDown();
+
+            assertEquals(1, first.get());
+            for (Future<Integer> other : others) {
+                assertEquals(1, other.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, computations.get());
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    void testExecute_keepsNothingOnceFinished() {
+        AtomicInteger computations = new AtomicInteger();
+
+        assertEquals(1, singleFlight.execute("key", computations::incrementAndGet));
+        assertEquals(2, singleFlight.execute("key", computations::incrementAndGet));
+        assertNull(singleFlight.execute("other", () -> null));
+    }
+
+    @Test
+    void testExecute_rethrowsFailureAndForgetsIt() {
+        IllegalStateException failure = new IllegalStateException("down");
+
+        assertSame(failure, assertThrows(IllegalStateException.class,
+                () -> singleFlight.execute("key", () -> { throw failure; })));
+        assertEquals(0, singleFlight.inFlight());
+        assertEquals(3, singleFlight.execute("key", () -> 3));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
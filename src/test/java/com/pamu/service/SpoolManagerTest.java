@@ -0,0 +1,147 @@
+package com.pamu.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpoolManagerTest {
+
+    @TempDir
+    Path spoolDir;
+
+    private SpoolManager spoolManager;
+
+    @BeforeEach
+    void setUp() {
+        spoolManager = new SpoolManager();
+        ReflectionTestUtils.setField(spoolManager, "directory", spoolDir.toString());
+        ReflectionTestUtils.setField(spoolManager, "maxBytes", 20L);
+        spoolManager.init();
+    }
+
+    @Test
+    void testInit_removesLeftoversOfDeadInstancesOnly() throws IOException {
+        Path dead = Files.createDirectory(spoolDir.resolve("instance-dead"));
+        Files.createFile(dead.resolve(".lock"));
+        Path leftover = Files.writeString(dead.resolve("stale.xlsx"), "old");
+        File served = write("still being served");
+
+        // A second instance on the same host starts while the first is running
+        SpoolManager other = new SpoolManager();
+        ReflectionTestUtils.setField(other, "directory", spoolDir.toString());
+        ReflectionTestUtils.setField(other, "maxBytes", 20L);
+        other.init();
+
+        assertFalse(Files.exists(leftover));
+        assertFalse(Files.exists(dead));
+        assertTrue(served.exists());
+        assertNotEquals(served.getParentFile(), other.createFile("spool-test", ".txt").getParentFile());
+
+        other.shutdown();
+        assertTrue(served.exists());
+        spoolManager.shutdown();
+        assertFalse(served.exists());
+        assertFalse(Files.exists(served.toPath().getParent()));
+    }
+
+    @Test
+    void testRetain_evictsLeastRecentlyUsedOverBudget() throws IOException {
+        AtomicInteger evictions = new AtomicInteger();
+        File first = write("0123456789");
+        File second = write("0123456789");
+        spoolManager.retain(first, evictions::incrementAndGet);
+        spoolManager.retain(second, evictions::incrementAndGet);
+        assertEquals(20, spoolManager.usedBytes());
+
+        // Reading the first file makes the second one the least recently used
+        try (InputStream in = spoolManager.resource(first).getInputStream()) {
+            in.readAllBytes();
+        }
+        File third = write("0123456789");
+        spoolManager.retain(third, evictions::incrementAndGet);
+
+        assertTrue(first.exists());
+        assertFalse(second.exists());
+        assertTrue(third.exists());
+        assertEquals(1, evictions.get());
+        assertEquals(20, spoolManager.usedBytes());
+    }
+
+    @Test
+    void testRetain_neverEvictsFileBeingRead() throws IOException {
+        File first = write("0123456789");
+        spoolManager.retain(first, null);
+        try (InputStream in = spoolManager.resource(first).getInputStream()) {
+            File large = write("012345678901234567890123456789");
+            spoolManager.retain(large, null);
+
+            assertTrue(first.exists());
+            assertEquals("0123456789", new String(in.readAllBytes()));
+        }
+    }
+
+    @Test
+    void testDiscard_waitsForOpenReader() throws IOException {
+        File file = write("report");
+        spoolManager.retain(file, null);
+        InputStream in = spoolManager.resource(file).getInputStream();
+
+        spoolManager.discard(file);
+        assertTrue(file.exists());
+
+        in.close();
+        in.close(); // closing twice must not unpin twice
+        assertFalse(file.exists());
+        assertEquals(0, spoolManager.usedBytes());
+    }
+
+    @Test
+    void testDeleteAfterRead_removesFileOnceServed() throws IOException {
+        File file = write("once");
+        spoolManager.deleteAfterRead(file);
+        assertTrue(file.exists());
+
+        try (InputStream in = spoolManager.resource(file).getInputStream()) {
+            assertEquals("once", new String(in.readAllBytes()));
+        }
+        assertFalse(file.exists());
+    }
+
+    @Test
+    void testLease_pinsFileFromHandOutUntilReleased() throws IOException {
+        File leased = write("0123456789");
+        spoolManager.retain(leased, null);
+        SpoolManager.SpoolResource lease = spoolManager.lease(leased);
+
+        // Neither eviction nor a discard may remove it before the response opens it
+        spoolManager.retain(write("012345678901234567890123456789"), null);
+        spoolManager.discard(leased);
+        assertTrue(leased.exists());
+        try (InputStream in = lease.getInputStream()) {
+            assertEquals(10, lease.contentLength());
+            assertEquals("0123456789", new String(in.readAllBytes()));
+        }
+        assertTrue(leased.exists());
+
+        lease.release();
+        lease.release(); // releasing twice must not unpin twice
+        assertFalse(leased.exists());
+        assertNull(spoolManager.lease(leased));
+    }
+
+    private File write(String content) throws IOException {
+        File file = spoolManager.createFile("spool-test", ".txt");
+        Files.writeString(file.toPath(), content);
+        return file;
+    }
+}
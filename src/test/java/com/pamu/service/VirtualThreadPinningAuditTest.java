@@ -0,0 +1,168 @@
+package com.pamu.service;
+
+import com.pamu.dto.EmployeeHierarchyRow;
+import com.pamu.model.Employee;
+import com.pamu.repository.EmployeeJdbcRepository;
+import com.pamu.repository.EmployeeRepository;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Audits our code for constructs that pin virtual threads to their carrier on Java 21:
+ * a static scan for monitors in the main sources, and a JFR recording of the import, export
+ * and hierarchy paths running on a virtual thread.
+ */
+class VirtualThreadPinningAuditTest {
+
+    private static final Pattern MONITOR = Pattern.compile("\\bsynchronized\\b|\\.wait\\(\\s*\\)");
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+    @Mock
+    private EmployeeJdbcRepository employeeJdbcRepository;
+    @Mock
+    private GratuityLiabilityJob gratuityLiabilityJob;
+    @Mock
+    private EmployeeReportStore employeeReportStore;
+    @Mock
+    private EmployeeColumnStore employeeColumnStore;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private EmployeeService employeeService;
+
+    @TempDir
+    Path spoolDir;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        employeeService.spoolManager = new SpoolManager();
+        ReflectionTestUtils.setField(employeeService.spoolManager, "directory", spoolDir.toString());
+        ReflectionTestUtils.setField(employeeService.spoolManager, "maxBytes", 1_000_000L);
+        employeeService.spoolManager.init();
+        // Without the in-memory directory the hierarchy goes through the recursive repository query
+        employeeService.employeeDirectory = new EmployeeDirectory();
+        ReflectionTestUtils.setField(employeeService.employeeDirectory, "enabled", false);
+        employeeService.employeeSearchIndex = new EmployeeSearchIndex();
+        employeeService.employeeSearchIndex.employeeJdbcRepository = employeeJdbcRepository;
+        employeeService.employeeDataVersion = new EmployeeDataVersion();
+        employeeService.exportArtifactCache = new ExportArtifactCache();
+        employeeService.exportArtifactCache.employeeDataVersion = employeeService.employeeDataVersion;
+        employeeService.exportArtifactCache.spoolManager = employeeService.spoolManager;
+        employeeService.employeeImportQueue = new EmployeeImportQueue();
+        employeeService.employeeImportQueue.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        employeeService.employeeImportQueue.shutdown();
+    }
+
+    @Test
+    void testMainSourcesHaveNoMonitors() throws IOException {
+        List<String> findings = new ArrayList<>();
+        try (Stream<Path> sources = Files.walk(Paths.get("src/main/java"))) {
+            for (Path source : sources.filter(p -> p.toString().endsWith(".java")).toList()) {
+                List<String> lines = Files.readAllLines(source);
+                for (int i = 0; i < lines.size(); i++) {
+                    String line = lines.get(i).trim();
+                    if (!line.startsWith("//") && !line.startsWith("*") && MONITOR.matcher(line).find()) {
+                        findings.add(source + ":" + (i + 1) + ": " + line);
+                    }
+                }
+            }
+        }
+        assertTrue(findings.isEmpty(), "Monitors pin virtual threads, use java.util.concurrent locks instead:\n"
+                + String.join("\n", findings));
+    }
+
+    @Test
+    void testServicePathsDoNotPinVirtualThreads() throws Exception {
+        Employee director = new Employee();
+        director.setId(1L);
+        director.setName("Rama");
+        director.setCategory("Director");
+        director.setSalary(150000.0);
+        director.setDoj(LocalDate.of(2015, 1, 1));
+        Employee emp = new Employee();
+        emp.setId(2L);
+        emp.setName("Ravi");
+        emp.setCategory("employee");
+        emp.setSalary(45000.0);
+        emp.setManager(director);
+        when(employeeRepository.findAll()).thenReturn(List.of(director, emp));
+        when(employeeColumnStore.current()).thenReturn(EmployeeColumns.of(List.of(director, emp), 0));
+        when(employeeRepository.findSubtreeRows(1L, Integer.MAX_VALUE)).thenReturn(List.of(
+                row(1L, null, "Rama", "Director"), row(2L, 1L, "Ravi", "employee")));
+        when(employeeRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        byte[] excelBytes = Files.readAllBytes(Paths.get("src/test/resources/Employee.xlsx"));
+        MultipartFile upload = mock(MultipartFile.class);
+        when(upload.getInputStream()).thenAnswer(invocation -> new java.io.ByteArrayInputStream(excelBytes));
+
+        List<String> pinned = new ArrayList<>();
+        List<File> outputs = new ArrayList<>();
+        Path dump = Files.createTempFile("pinning-audit", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+            Thread worker = Thread.ofVirtual().start(() -> {
+                outputs.add(employeeService.processAndDownloadEmployees(upload).getFile());
+                outputs.add(employeeService.getEmployeeHierarchyByManager(1L).getFile());
+            });
+            worker.join();
+            recording.stop();
+            recording.dump(dump);
+        }
+        for (RecordedEvent event : RecordingFile.readAllEvents(dump)) {
+            if (event.getStackTrace() == null) continue;
+            List<RecordedFrame> frames = event.getStackTrace().getFrames();
+            if (frames.stream().anyMatch(f -> f.getMethod().getType().getName().startsWith("com.pamu."))) {
+                pinned.add(event.getStackTrace().toString());
+            }
+        }
+        Files.deleteIfExists(dump);
+        outputs.forEach(File::delete);
+
+        assertEquals(2, outputs.size());
+        assertTrue(pinned.isEmpty(), "Virtual thread pinned in our code:\n" + String.join("\n", pinned));
+    }
+
+    private static EmployeeHierarchyRow row(Long id, Long managerId, String name, String category) {
+        return new EmployeeHierarchyRow() {
+            public Long getId() { return id; }
+            public Long getManagerId() { return managerId; }
+            public String getName() { return name; }
+            public String getCategory() { return category; }
+        };
+    }
+}